@@ -21,6 +21,20 @@ SET xmloption = content;
 SET client_min_messages = warning;
 SET row_security = off;
 
+--
+-- Name: btree_gist; Type: EXTENSION; Schema: -; Owner: -
+--
+
+CREATE EXTENSION IF NOT EXISTS btree_gist WITH SCHEMA public;
+
+
+--
+-- Name: EXTENSION btree_gist; Type: COMMENT; Schema: -; Owner: 
+--
+
+COMMENT ON EXTENSION btree_gist IS 'support for indexing common datatypes in GiST';
+
+
 SET default_tablespace = '';
 
 SET default_table_access_method = heap;
@@ -36,7 +50,9 @@ CREATE TABLE public.cita (
     id_cita integer NOT NULL,
     id_estado integer NOT NULL,
     id_medico integer NOT NULL,
-    id_paciente integer NOT NULL
+    id_paciente integer NOT NULL,
+    duracion_minutos integer DEFAULT 30 NOT NULL,
+    CONSTRAINT cita_duracion_minutos_check CHECK ((duracion_minutos > 0))
 );
 
 
@@ -47,14 +63,29 @@ ALTER TABLE public.cita OWNER TO postgres;
 -- Name: cita_id_cita_seq; Type: SEQUENCE; Schema: public; Owner: postgres
 --
 
-ALTER TABLE public.cita ALTER COLUMN id_cita ADD GENERATED BY DEFAULT AS IDENTITY (
-    SEQUENCE NAME public.cita_id_cita_seq
+CREATE SEQUENCE public.cita_id_cita_seq
+    AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
-    CACHE 1
-);
+    CACHE 1;
+
+
+ALTER SEQUENCE public.cita_id_cita_seq OWNER TO postgres;
+
+--
+-- Name: cita_id_cita_seq; Type: SEQUENCE OWNED BY; Schema: public; Owner: postgres
+--
+
+ALTER SEQUENCE public.cita_id_cita_seq OWNED BY public.cita.id_cita;
+
+
+--
+-- Name: cita id_cita; Type: DEFAULT; Schema: public; Owner: postgres
+--
+
+ALTER TABLE ONLY public.cita ALTER COLUMN id_cita SET DEFAULT nextval('public.cita_id_cita_seq'::regclass);
 
 
 --
@@ -78,14 +109,29 @@ ALTER TABLE public.disponibilidad OWNER TO postgres;
 -- Name: disponibilidad_id_disponibilidad_seq; Type: SEQUENCE; Schema: public; Owner: postgres
 --
 
-ALTER TABLE public.disponibilidad ALTER COLUMN id_disponibilidad ADD GENERATED BY DEFAULT AS IDENTITY (
-    SEQUENCE NAME public.disponibilidad_id_disponibilidad_seq
+CREATE SEQUENCE public.disponibilidad_id_disponibilidad_seq
+    AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
-    CACHE 1
-);
+    CACHE 1;
+
+
+ALTER SEQUENCE public.disponibilidad_id_disponibilidad_seq OWNER TO postgres;
+
+--
+-- Name: disponibilidad_id_disponibilidad_seq; Type: SEQUENCE OWNED BY; Schema: public; Owner: postgres
+--
+
+ALTER SEQUENCE public.disponibilidad_id_disponibilidad_seq OWNED BY public.disponibilidad.id_disponibilidad;
+
+
+--
+-- Name: disponibilidad id_disponibilidad; Type: DEFAULT; Schema: public; Owner: postgres
+--
+
+ALTER TABLE ONLY public.disponibilidad ALTER COLUMN id_disponibilidad SET DEFAULT nextval('public.disponibilidad_id_disponibilidad_seq'::regclass);
 
 
 --
@@ -107,14 +153,29 @@ ALTER TABLE public.estado OWNER TO postgres;
 -- Name: estado_id_estado_seq; Type: SEQUENCE; Schema: public; Owner: postgres
 --
 
-ALTER TABLE public.estado ALTER COLUMN id_estado ADD GENERATED BY DEFAULT AS IDENTITY (
-    SEQUENCE NAME public.estado_id_estado_seq
+CREATE SEQUENCE public.estado_id_estado_seq
+    AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
-    CACHE 1
-);
+    CACHE 1;
+
+
+ALTER SEQUENCE public.estado_id_estado_seq OWNER TO postgres;
+
+--
+-- Name: estado_id_estado_seq; Type: SEQUENCE OWNED BY; Schema: public; Owner: postgres
+--
+
+ALTER SEQUENCE public.estado_id_estado_seq OWNED BY public.estado.id_estado;
+
+
+--
+-- Name: estado id_estado; Type: DEFAULT; Schema: public; Owner: postgres
+--
+
+ALTER TABLE ONLY public.estado ALTER COLUMN id_estado SET DEFAULT nextval('public.estado_id_estado_seq'::regclass);
 
 
 --
@@ -139,14 +200,29 @@ ALTER TABLE public.historial_medico OWNER TO postgres;
 -- Name: historial_medico_id_historial_seq; Type: SEQUENCE; Schema: public; Owner: postgres
 --
 
-ALTER TABLE public.historial_medico ALTER COLUMN id_historial ADD GENERATED BY DEFAULT AS IDENTITY (
-    SEQUENCE NAME public.historial_medico_id_historial_seq
+CREATE SEQUENCE public.historial_medico_id_historial_seq
+    AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
-    CACHE 1
-);
+    CACHE 1;
+
+
+ALTER SEQUENCE public.historial_medico_id_historial_seq OWNER TO postgres;
+
+--
+-- Name: historial_medico_id_historial_seq; Type: SEQUENCE OWNED BY; Schema: public; Owner: postgres
+--
+
+ALTER SEQUENCE public.historial_medico_id_historial_seq OWNED BY public.historial_medico.id_historial;
+
+
+--
+-- Name: historial_medico id_historial; Type: DEFAULT; Schema: public; Owner: postgres
+--
+
+ALTER TABLE ONLY public.historial_medico ALTER COLUMN id_historial SET DEFAULT nextval('public.historial_medico_id_historial_seq'::regclass);
 
 
 --
@@ -169,14 +245,29 @@ ALTER TABLE public.medico OWNER TO postgres;
 -- Name: medico_id_medico_seq; Type: SEQUENCE; Schema: public; Owner: postgres
 --
 
-ALTER TABLE public.medico ALTER COLUMN id_medico ADD GENERATED BY DEFAULT AS IDENTITY (
-    SEQUENCE NAME public.medico_id_medico_seq
+CREATE SEQUENCE public.medico_id_medico_seq
+    AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
-    CACHE 1
-);
+    CACHE 1;
+
+
+ALTER SEQUENCE public.medico_id_medico_seq OWNER TO postgres;
+
+--
+-- Name: medico_id_medico_seq; Type: SEQUENCE OWNED BY; Schema: public; Owner: postgres
+--
+
+ALTER SEQUENCE public.medico_id_medico_seq OWNED BY public.medico.id_medico;
+
+
+--
+-- Name: medico id_medico; Type: DEFAULT; Schema: public; Owner: postgres
+--
+
+ALTER TABLE ONLY public.medico ALTER COLUMN id_medico SET DEFAULT nextval('public.medico_id_medico_seq'::regclass);
 
 
 --
@@ -201,14 +292,29 @@ ALTER TABLE public.monitoria OWNER TO postgres;
 -- Name: monitoria_id_monitoria_seq; Type: SEQUENCE; Schema: public; Owner: postgres
 --
 
-ALTER TABLE public.monitoria ALTER COLUMN id_monitoria ADD GENERATED BY DEFAULT AS IDENTITY (
-    SEQUENCE NAME public.monitoria_id_monitoria_seq
+CREATE SEQUENCE public.monitoria_id_monitoria_seq
+    AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
-    CACHE 1
-);
+    CACHE 1;
+
+
+ALTER SEQUENCE public.monitoria_id_monitoria_seq OWNER TO postgres;
+
+--
+-- Name: monitoria_id_monitoria_seq; Type: SEQUENCE OWNED BY; Schema: public; Owner: postgres
+--
+
+ALTER SEQUENCE public.monitoria_id_monitoria_seq OWNED BY public.monitoria.id_monitoria;
+
+
+--
+-- Name: monitoria id_monitoria; Type: DEFAULT; Schema: public; Owner: postgres
+--
+
+ALTER TABLE ONLY public.monitoria ALTER COLUMN id_monitoria SET DEFAULT nextval('public.monitoria_id_monitoria_seq'::regclass);
 
 
 --
@@ -231,14 +337,29 @@ ALTER TABLE public.paciente OWNER TO postgres;
 -- Name: paciente_id_paciente_seq; Type: SEQUENCE; Schema: public; Owner: postgres
 --
 
-ALTER TABLE public.paciente ALTER COLUMN id_paciente ADD GENERATED BY DEFAULT AS IDENTITY (
-    SEQUENCE NAME public.paciente_id_paciente_seq
+CREATE SEQUENCE public.paciente_id_paciente_seq
+    AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
-    CACHE 1
-);
+    CACHE 1;
+
+
+ALTER SEQUENCE public.paciente_id_paciente_seq OWNER TO postgres;
+
+--
+-- Name: paciente_id_paciente_seq; Type: SEQUENCE OWNED BY; Schema: public; Owner: postgres
+--
+
+ALTER SEQUENCE public.paciente_id_paciente_seq OWNED BY public.paciente.id_paciente;
+
+
+--
+-- Name: paciente id_paciente; Type: DEFAULT; Schema: public; Owner: postgres
+--
+
+ALTER TABLE ONLY public.paciente ALTER COLUMN id_paciente SET DEFAULT nextval('public.paciente_id_paciente_seq'::regclass);
 
 
 --
@@ -261,14 +382,29 @@ ALTER TABLE public.rol OWNER TO postgres;
 -- Name: rol_id_rol_seq; Type: SEQUENCE; Schema: public; Owner: postgres
 --
 
-ALTER TABLE public.rol ALTER COLUMN id_rol ADD GENERATED BY DEFAULT AS IDENTITY (
-    SEQUENCE NAME public.rol_id_rol_seq
+CREATE SEQUENCE public.rol_id_rol_seq
+    AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
-    CACHE 1
-);
+    CACHE 1;
+
+
+ALTER SEQUENCE public.rol_id_rol_seq OWNER TO postgres;
+
+--
+-- Name: rol_id_rol_seq; Type: SEQUENCE OWNED BY; Schema: public; Owner: postgres
+--
+
+ALTER SEQUENCE public.rol_id_rol_seq OWNED BY public.rol.id_rol;
+
+
+--
+-- Name: rol id_rol; Type: DEFAULT; Schema: public; Owner: postgres
+--
+
+ALTER TABLE ONLY public.rol ALTER COLUMN id_rol SET DEFAULT nextval('public.rol_id_rol_seq'::regclass);
 
 
 --
@@ -297,14 +433,29 @@ ALTER TABLE public.usuario OWNER TO postgres;
 -- Name: usuario_id_usuario_seq; Type: SEQUENCE; Schema: public; Owner: postgres
 --
 
-ALTER TABLE public.usuario ALTER COLUMN id_usuario ADD GENERATED BY DEFAULT AS IDENTITY (
-    SEQUENCE NAME public.usuario_id_usuario_seq
+CREATE SEQUENCE public.usuario_id_usuario_seq
+    AS integer
     START WITH 1
-    INCREMENT BY 1
+    INCREMENT BY 50
     NO MINVALUE
     NO MAXVALUE
-    CACHE 1
-);
+    CACHE 1;
+
+
+ALTER SEQUENCE public.usuario_id_usuario_seq OWNER TO postgres;
+
+--
+-- Name: usuario_id_usuario_seq; Type: SEQUENCE OWNED BY; Schema: public; Owner: postgres
+--
+
+ALTER SEQUENCE public.usuario_id_usuario_seq OWNED BY public.usuario.id_usuario;
+
+
+--
+-- Name: usuario id_usuario; Type: DEFAULT; Schema: public; Owner: postgres
+--
+
+ALTER TABLE ONLY public.usuario ALTER COLUMN id_usuario SET DEFAULT nextval('public.usuario_id_usuario_seq'::regclass);
 
 
 --
@@ -553,6 +704,17 @@ ALTER TABLE ONLY public.cita
     ADD CONSTRAINT cita_pkey PRIMARY KEY (id_cita);
 
 
+--
+-- Name: cita cita_sin_solapamiento; Type: CONSTRAINT; Schema: public; Owner: postgres
+--
+-- Un médico no puede tener dos citas no canceladas (id_estado 4 = CANCELADA) cuyos
+-- intervalos [fecha + hora, fecha + hora + duracion_minutos) se crucen.
+--
+
+ALTER TABLE ONLY public.cita
+    ADD CONSTRAINT cita_sin_solapamiento EXCLUDE USING gist (id_medico WITH =, tsrange((fecha + hora), ((fecha + hora) + ((duracion_minutos)::double precision * '00:01:00'::interval))) WITH &&) WHERE ((id_estado <> 4));
+
+
 --
 -- TOC entry 4900 (class 2606 OID 17284)
 -- Name: disponibilidad disponibilidad_pkey; Type: CONSTRAINT; Schema: public; Owner: postgres
@@ -661,6 +823,62 @@ ALTER TABLE ONLY public.usuario
     ADD CONSTRAINT usuario_pkey PRIMARY KEY (id_usuario);
 
 
+--
+-- Name: idx_cita_fecha_hora; Type: INDEX; Schema: public; Owner: postgres
+--
+
+CREATE INDEX idx_cita_fecha_hora ON public.cita USING btree (fecha, hora, id_cita);
+
+
+--
+-- Name: idx_cita_medico_fecha_hora; Type: INDEX; Schema: public; Owner: postgres
+--
+
+CREATE INDEX idx_cita_medico_fecha_hora ON public.cita USING btree (id_medico, fecha, hora);
+
+
+--
+-- Name: idx_cita_paciente_fecha_hora; Type: INDEX; Schema: public; Owner: postgres
+--
+
+CREATE INDEX idx_cita_paciente_fecha_hora ON public.cita USING btree (id_paciente, fecha, hora);
+
+
+--
+-- Name: idx_disponibilidad_medico_fecha; Type: INDEX; Schema: public; Owner: postgres
+--
+
+CREATE INDEX idx_disponibilidad_medico_fecha ON public.disponibilidad USING btree (id_medico, fecha, hora_inicio, hora_fin);
+
+
+--
+-- Name: idx_medico_especialidad; Type: INDEX; Schema: public; Owner: postgres
+--
+
+CREATE INDEX idx_medico_especialidad ON public.medico USING btree (lower((especialidad)::text));
+
+
+--
+-- Name: idx_monitoria_fecha; Type: INDEX; Schema: public; Owner: postgres
+--
+
+CREATE INDEX idx_monitoria_fecha ON public.monitoria USING btree (fecha);
+
+
+--
+-- Name: idx_monitoria_usuario_responsable; Type: INDEX; Schema: public; Owner: postgres
+--
+
+CREATE INDEX idx_monitoria_usuario_responsable ON public.monitoria USING btree (usuario_responsable);
+
+
+--
+-- Name: idx_paciente_usuario; Type: INDEX; Schema: public; Owner: postgres
+--
+
+CREATE INDEX idx_paciente_usuario ON public.paciente USING btree (id_usuario);
+
+
 --
 -- TOC entry 4931 (class 2606 OID 17418)
 -- Name: paciente fk1vx4fcl7eb0wbyvff1184dr0m; Type: FK CONSTRAINT; Schema: public; Owner: postgres
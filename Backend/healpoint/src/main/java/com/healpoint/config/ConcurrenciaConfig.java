@@ -0,0 +1,43 @@
+package com.healpoint.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Set;
+
+/**
+ * Registra FiltroConcurrencia después de CORS, FiltroSesion y FiltroTasa y antes que los
+ * filtros de Spring, para que las peticiones que se rechazan no hagan ningún trabajo.
+ */
+@Configuration
+@ConditionalOnProperty(name = "healpoint.concurrencia.habilitado", havingValue = "true", matchIfMissing = true)
+public class ConcurrenciaConfig {
+
+    @Bean
+    public FilterRegistrationBean<FiltroConcurrencia> filtroConcurrencia(
+            MeterRegistry registry,
+            @Value("${healpoint.concurrencia.interactivo.inicial:10}") int interactivoInicial,
+            @Value("${healpoint.concurrencia.interactivo.minimo:2}") int interactivoMinimo,
+            @Value("${healpoint.concurrencia.interactivo.maximo:100}") int interactivoMaximo,
+            @Value("${healpoint.concurrencia.masivo.inicial:2}") int masivoInicial,
+            @Value("${healpoint.concurrencia.masivo.minimo:1}") int masivoMinimo,
+            @Value("${healpoint.concurrencia.masivo.maximo:8}") int masivoMaximo,
+            @Value("${healpoint.concurrencia.rutas-masivas:}") Set<String> rutasMasivas) {
+
+        FiltroConcurrencia filtro = new FiltroConcurrencia(
+                new LimiteConcurrencia("interactivo", interactivoInicial, interactivoMinimo, interactivoMaximo),
+                new LimiteConcurrencia("masivo", masivoInicial, masivoMinimo, masivoMaximo),
+                rutasMasivas,
+                registry);
+
+        FilterRegistrationBean<FiltroConcurrencia> registro = new FilterRegistrationBean<>(filtro);
+        registro.addUrlPatterns("/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registro;
+    }
+}
@@ -0,0 +1,248 @@
+package com.healpoint.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * DataSource que mide cada sentencia SQL y se la pasa a ObservadorSql.
+ *
+ * Envuelve las conexiones del pool, y sus sentencias y ResultSet, en proxies que
+ * delegan todo en los objetos reales. Los proxies solo anotan los tipos de los
+ * parámetros (setInt, setString...), miden las llamadas execute* y cuentan las filas.
+ * En las consultas la ejecución se registra al terminar de leer el ResultSet (o al
+ * cerrarlo), con el tiempo de la ejecución y las filas leídas.
+ */
+public class DataSourceObservado extends DelegatingDataSource {
+
+    private final ObservadorSql observador;
+
+    public DataSourceObservado(DataSource dataSource, ObservadorSql observador) {
+        super(dataSource);
+        this.observador = observador;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conexion(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conexion(super.getConnection(username, password));
+    }
+
+    private Connection conexion(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConexionObservada(conexion));
+    }
+
+    private static Object invocar(Object objetivo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(objetivo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Los proxies son iguales solo a sí mismos: Hibernate guarda sentencias y ResultSet en
+    // mapas, y el equals del objeto real no reconoce al proxy
+    private static Object identidad(Object proxy, Method metodo, Object[] args) {
+        return metodo.getName().equals("hashCode") ? System.identityHashCode(proxy) : proxy == args[0];
+    }
+
+    private final class ConexionObservada implements InvocationHandler {
+
+        private final Connection conexion;
+
+        ConexionObservada(Connection conexion) {
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            if (metodo.getName().equals("equals") || metodo.getName().equals("hashCode")) {
+                return identidad(proxy, metodo, args);
+            }
+            Object resultado = invocar(conexion, metodo, args);
+            switch (metodo.getName()) {
+                case "createStatement":
+                    return sentencia(Statement.class, (Statement) resultado, null);
+                case "prepareStatement":
+                    return sentencia(PreparedStatement.class, (Statement) resultado, (String) args[0]);
+                case "prepareCall":
+                    return sentencia(CallableStatement.class, (Statement) resultado, (String) args[0]);
+                default:
+                    return resultado;
+            }
+        }
+
+        private Object sentencia(Class<? extends Statement> tipo, Statement sentencia, String sql) {
+            return Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo},
+                    new SentenciaObservada(sentencia, sql));
+        }
+    }
+
+    private final class SentenciaObservada implements InvocationHandler {
+
+        private final Statement sentencia;
+        // Texto de la sentencia preparada; null en un Statement simple
+        private final String sql;
+        // Tipo de cada parámetro por posición (la 0 no se usa)
+        private String[] tipos = new String[8];
+        private int parametros;
+        // Última sentencia agregada con addBatch(String) a un Statement simple
+        private String sqlLote;
+
+        SentenciaObservada(Statement sentencia, String sql) {
+            this.sentencia = sentencia;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            if (nombre.startsWith("execute")) {
+                return ejecutar(proxy, metodo, args, nombre);
+            }
+            if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                anotarParametro(indice, nombre, args[1]);
+            } else if (nombre.equals("clearParameters")) {
+                Arrays.fill(tipos, null);
+                parametros = 0;
+            } else if (nombre.equals("addBatch") && args != null && args.length == 1) {
+                sqlLote = (String) args[0];
+            } else if (nombre.equals("equals") || nombre.equals("hashCode")) {
+                return identidad(proxy, metodo, args);
+            }
+            return invocar(sentencia, metodo, args);
+        }
+
+        private void anotarParametro(int indice, String metodo, Object valor) {
+            if (indice >= tipos.length) {
+                tipos = Arrays.copyOf(tipos, Math.max(indice + 1, tipos.length * 2));
+            }
+            String tipo;
+            if (metodo.equals("setNull") || valor == null) {
+                tipo = "null";
+            } else if (metodo.equals("setObject")) {
+                tipo = valor.getClass().getSimpleName();
+            } else {
+                tipo = metodo.substring(3);
+            }
+            tipos[indice] = tipo;
+            parametros = Math.max(parametros, indice);
+        }
+
+        private String forma() {
+            if (parametros == 0) {
+                return null;
+            }
+            StringBuilder forma = new StringBuilder("(");
+            for (int i = 1; i <= parametros; i++) {
+                forma.append(i > 1 ? ", " : "").append(tipos[i] != null ? tipos[i] : "?");
+            }
+            return forma.append(')').toString();
+        }
+
+        private Object ejecutar(Object proxy, Method metodo, Object[] args, String nombre) throws Throwable {
+            String texto = args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : sql != null ? sql : sqlLote != null ? sqlLote : "(lote vacío)";
+            boolean preparada = sql != null && texto == sql;
+            String controlador = observador.controladorActual();
+            long inicio = System.nanoTime();
+            Object resultado;
+            try {
+                resultado = invocar(sentencia, metodo, args);
+            } catch (Throwable e) {
+                observador.registrar(texto, preparada, System.nanoTime() - inicio, -1, forma(), controlador, true);
+                throw e;
+            }
+            long nanos = System.nanoTime() - inicio;
+
+            if (resultado instanceof ResultSet filas) {
+                // Se registra cuando se termine de leer
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                        new ResultadoObservado(filas, (Statement) proxy, texto, preparada, nanos, forma(), controlador));
+            }
+            long cantidad = -1;
+            if (resultado instanceof Integer || resultado instanceof Long) {
+                cantidad = ((Number) resultado).longValue();
+            } else if (resultado instanceof int[] lote) {
+                cantidad = Arrays.stream(lote).filter(n -> n > 0).sum();
+            } else if (resultado instanceof long[] lote) {
+                cantidad = Arrays.stream(lote).filter(n -> n > 0).sum();
+            } else if (Boolean.FALSE.equals(resultado) && nombre.equals("execute")) {
+                cantidad = sentencia.getUpdateCount();
+            }
+            observador.registrar(texto, preparada, nanos, cantidad, forma(), controlador, false);
+            return resultado;
+        }
+    }
+
+    private final class ResultadoObservado implements InvocationHandler {
+
+        private final ResultSet resultado;
+        private final Statement sentencia;
+        private final String sql;
+        private final boolean preparada;
+        private final long nanos;
+        private final String parametros;
+        private final String controlador;
+        private long filas;
+        private boolean registrado;
+
+        ResultadoObservado(ResultSet resultado, Statement sentencia, String sql, boolean preparada, long nanos,
+                           String parametros, String controlador) {
+            this.resultado = resultado;
+            this.sentencia = sentencia;
+            this.sql = sql;
+            this.preparada = preparada;
+            this.nanos = nanos;
+            this.parametros = parametros;
+            this.controlador = controlador;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "next":
+                    boolean hay = (Boolean) invocar(resultado, metodo, args);
+                    if (hay) {
+                        filas++;
+                    } else {
+                        registrar();
+                    }
+                    return hay;
+                case "close":
+                    registrar();
+                    return invocar(resultado, metodo, args);
+                case "getStatement":
+                    return sentencia;
+                case "equals":
+                case "hashCode":
+                    return identidad(proxy, metodo, args);
+                default:
+                    return invocar(resultado, metodo, args);
+            }
+        }
+
+        private void registrar() {
+            if (!registrado) {
+                registrado = true;
+                observador.registrar(sql, preparada, nanos, filas, parametros, controlador, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.healpoint.config;
+
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/prometheus: todas las métricas del MeterRegistry en el formato de texto de
+ * Prometheus (versión 0.0.4), para que un Prometheus u otro recolector compatible las
+ * lea periódicamente.
+ *
+ * Los nombres siguen la convención de Prometheus: puntos por guiones bajos, los tiempos
+ * en segundos con sufijo _seconds y los contadores con sufijo _total. Los timers y
+ * resúmenes con cubetas se publican como histogramas (_bucket, _count, _sum) y sin
+ * cubetas como summary (_count, _sum). El máximo reciente va aparte con sufijo _max, y
+ * los percentiles configurados son gauges que el registro ya crea por su cuenta
+ * (&lt;nombre&gt;_percentile con la etiqueta phi).
+ */
+@WebEndpoint(id = "prometheus")
+public class EndpointPrometheus {
+
+    static final String TIPO_CONTENIDO = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MeterRegistry registry;
+
+    public EndpointPrometheus(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation(produces = TIPO_CONTENIDO)
+    public String exportar() {
+        // Las series se agrupan por familia (nombre) para escribir un solo # TYPE por familia
+        Map<String, Familia> familias = new TreeMap<>();
+        registry.forEachMeter(meter -> meter.use(
+                gauge -> agregar(familias, nombre(gauge, null), "gauge", gauge)
+                        .serie("", etiquetas(gauge), gauge.value()),
+                counter -> agregar(familias, nombre(counter, "_total"), "counter", counter)
+                        .serie("", etiquetas(counter), counter.count()),
+                timer -> distribucion(familias, timer, timer.takeSnapshot(), true),
+                resumen -> distribucion(familias, resumen, resumen.takeSnapshot(), false),
+                largo -> {
+                    agregar(familias, nombre(largo, "_active_count"), "gauge", largo)
+                            .serie("", etiquetas(largo), largo.activeTasks());
+                    agregar(familias, nombre(largo, "_duration_seconds"), "gauge", largo)
+                            .serie("", etiquetas(largo), largo.duration(TimeUnit.SECONDS));
+                },
+                tiempo -> agregar(familias, nombre(tiempo, "_seconds"), "gauge", tiempo)
+                        .serie("", etiquetas(tiempo), tiempo.value(TimeUnit.SECONDS)),
+                funcion -> agregar(familias, nombre(funcion, "_total"), "counter", funcion)
+                        .serie("", etiquetas(funcion), funcion.count()),
+                funcionTiempo -> {
+                    Familia familia = agregar(familias, nombre(funcionTiempo, "_seconds"), "summary", funcionTiempo);
+                    familia.serie("_count", etiquetas(funcionTiempo), funcionTiempo.count());
+                    familia.serie("_sum", etiquetas(funcionTiempo), funcionTiempo.totalTime(TimeUnit.SECONDS));
+                },
+                otro -> {
+                    for (Measurement medida : otro.measure()) {
+                        agregar(familias, nombre(otro, "_" + medida.getStatistic().getTagValueRepresentation()),
+                                "untyped", otro).serie("", etiquetas(otro), medida.getValue());
+                    }
+                }));
+
+        StringBuilder texto = new StringBuilder(familias.size() * 256);
+        for (Familia familia : familias.values()) {
+            familia.escribir(texto);
+        }
+        return texto.toString();
+    }
+
+    private static void distribucion(Map<String, Familia> familias, Meter meter, HistogramSnapshot foto,
+                                     boolean esTiempo) {
+        String base = nombre(meter, esTiempo ? "_seconds" : "");
+        List<Tag> tags = etiquetas(meter);
+        CountAtBucket[] cubetas = foto.histogramCounts();
+
+        Familia familia = agregar(familias, base, cubetas.length > 0 ? "histogram" : "summary", meter);
+        if (cubetas.length > 0) {
+            for (CountAtBucket cubeta : cubetas) {
+                double limite = esTiempo ? cubeta.bucket(TimeUnit.SECONDS) : cubeta.bucket();
+                familia.serie("_bucket", tags, "le", numero(limite), cubeta.count());
+            }
+            familia.serie("_bucket", tags, "le", "+Inf", foto.count());
+        }
+        familia.serie("_count", tags, foto.count());
+        familia.serie("_sum", tags, esTiempo ? foto.total(TimeUnit.SECONDS) : foto.total());
+
+        agregar(familias, base + "_max", "gauge", meter)
+                .serie("", tags, esTiempo ? foto.max(TimeUnit.SECONDS) : foto.max());
+    }
+
+    private static Familia agregar(Map<String, Familia> familias, String nombre, String tipo, Meter meter) {
+        return familias.computeIfAbsent(nombre, n -> new Familia(n, tipo, meter.getId().getDescription()));
+    }
+
+    static String nombre(Meter meter, String sufijo) {
+        StringBuilder nombre = new StringBuilder();
+        String original = meter.getId().getName();
+        for (int i = 0; i < original.length(); i++) {
+            char c = original.charAt(i);
+            boolean valido = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+                    || (c >= '0' && c <= '9' && i > 0);
+            nombre.append(valido ? c : '_');
+        }
+        if (sufijo == null) {
+            String unidad = meter.getId().getBaseUnit();
+            sufijo = unidad == null || unidad.isEmpty() ? "" : "_" + unidad;
+        }
+        if (!sufijo.isEmpty() && !nombre.toString().endsWith(sufijo)) {
+            nombre.append(sufijo);
+        }
+        return nombre.toString();
+    }
+
+    private static List<Tag> etiquetas(Meter meter) {
+        return meter.getId().getTags();
+    }
+
+    static String numero(double valor) {
+        if (Double.isNaN(valor)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(valor)) {
+            return valor > 0 ? "+Inf" : "-Inf";
+        }
+        if (valor == Math.rint(valor) && Math.abs(valor) < 1e15) {
+            return Long.toString((long) valor);
+        }
+        return Double.toString(valor);
+    }
+
+    private static final class Familia {
+
+        private final String nombre;
+        private final String tipo;
+        private final String ayuda;
+        private final List<String> series = new ArrayList<>();
+
+        Familia(String nombre, String tipo, String ayuda) {
+            this.nombre = nombre;
+            this.tipo = tipo;
+            this.ayuda = ayuda;
+        }
+
+        Familia serie(String sufijo, List<Tag> tags, double valor) {
+            return serie(sufijo, tags, null, null, valor);
+        }
+
+        Familia serie(String sufijo, List<Tag> tags, String etiquetaExtra, String valorExtra, double valor) {
+            StringBuilder linea = new StringBuilder(nombre).append(sufijo);
+            if (!tags.isEmpty() || etiquetaExtra != null) {
+                linea.append('{');
+                String separador = "";
+                for (Tag tag : tags) {
+                    linea.append(separador).append(etiqueta(tag.getKey())).append("=\"");
+                    escapar(linea, tag.getValue());
+                    linea.append('"');
+                    separador = ",";
+                }
+                if (etiquetaExtra != null) {
+                    linea.append(separador).append(etiquetaExtra).append("=\"").append(valorExtra).append('"');
+                }
+                linea.append('}');
+            }
+            series.add(linea.append(' ').append(numero(valor)).toString());
+            return this;
+        }
+
+        void escribir(StringBuilder texto) {
+            if (ayuda != null && !ayuda.isEmpty()) {
+                texto.append("# HELP ").append(nombre).append(' ');
+                for (int i = 0; i < ayuda.length(); i++) {
+                    char c = ayuda.charAt(i);
+                    if (c == '\\') texto.append("\\\\");
+                    else if (c == '\n') texto.append("\\n");
+                    else texto.append(c);
+                }
+                texto.append('\n');
+            }
+            texto.append("# TYPE ").append(nombre).append(' ').append(tipo).append('\n');
+            for (String serie : series) {
+                texto.append(serie).append('\n');
+            }
+        }
+
+        private static String etiqueta(String clave) {
+            StringBuilder etiqueta = new StringBuilder(clave.length());
+            for (int i = 0; i < clave.length(); i++) {
+                char c = clave.charAt(i);
+                boolean valido = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_'
+                        || (c >= '0' && c <= '9' && i > 0);
+                etiqueta.append(valido ? c : '_');
+            }
+            return etiqueta.toString();
+        }
+
+        private static void escapar(StringBuilder linea, String valor) {
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == '\\') linea.append("\\\\");
+                else if (c == '"') linea.append("\\\"");
+                else if (c == '\n') linea.append("\\n");
+                else linea.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.healpoint.config;
+
+import com.healpoint.dto.EstadisticaControladorDTO;
+import com.healpoint.dto.EstadisticaSentenciaDTO;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * /actuator/sentencias: estadísticas acumuladas de cada sentencia SQL, las de más tiempo
+ * total primero. GET ?limite=N devuelve las N primeras (50 por defecto) y DELETE las
+ * reinicia, por ejemplo antes de una prueba de carga.
+ *
+ * /actuator/sentencias/controladores agrupa las mismas sentencias por el método de
+ * controlador que las ejecutó, para encontrar los endpoints que hacen más consultas.
+ */
+@Endpoint(id = "sentencias")
+public class EndpointSentencias {
+
+    private static final int LIMITE_POR_DEFECTO = 50;
+
+    private final ObservadorSql observador;
+
+    public EndpointSentencias(ObservadorSql observador) {
+        this.observador = observador;
+    }
+
+    @ReadOperation
+    public List<EstadisticaSentenciaDTO> sentencias(@Nullable Integer limite) {
+        return observador.resumen(limite != null && limite > 0 ? limite : LIMITE_POR_DEFECTO);
+    }
+
+    @ReadOperation
+    public List<EstadisticaControladorDTO> porControlador(@Selector String agrupacion, @Nullable Integer limite) {
+        if (!agrupacion.equals("controladores")) {
+            // null responde 404
+            return null;
+        }
+        return observador.resumenPorControlador(limite != null && limite > 0 ? limite : LIMITE_POR_DEFECTO);
+    }
+
+    @DeleteOperation
+    public void reiniciar() {
+        observador.reiniciar();
+    }
+}
@@ -0,0 +1,137 @@
+package com.healpoint.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita las peticiones simultáneas antes de que lleguen a los controladores, para que
+ * una saturación del pool de conexiones no haga esperar a todas las peticiones.
+ *
+ * Hay dos grupos con límites separados (ver LimiteConcurrencia): "masivo" para los
+ * listados completos y exportaciones (healpoint.concurrencia.rutas-masivas), que tienen
+ * una conexión ocupada mucho tiempo, e "interactivo" para todo lo demás, incluida la
+ * reserva de citas. Así un reporte pesado no le quita lugar a una reserva. Por encima del
+ * límite se responde 503 con Retry-After sin tocar la base.
+ *
+ * Los listados en streaming terminan después de que vuelve la cadena de filtros; en ese
+ * caso el lugar se libera cuando termina la respuesta asíncrona.
+ */
+public class FiltroConcurrencia extends OncePerRequestFilter {
+
+    static final String SEGUNDOS_REINTENTO = "1";
+
+    private final LimiteConcurrencia interactivo;
+    private final LimiteConcurrencia masivo;
+    private final Set<String> rutasMasivas;
+    private final Counter rechazadasInteractivo;
+    private final Counter rechazadasMasivo;
+
+    public FiltroConcurrencia(LimiteConcurrencia interactivo, LimiteConcurrencia masivo,
+                              Set<String> rutasMasivas, MeterRegistry registry) {
+        this.interactivo = interactivo;
+        this.masivo = masivo;
+        this.rutasMasivas = Set.copyOf(rutasMasivas);
+        this.rechazadasInteractivo = registrarMetricas(interactivo, registry);
+        this.rechazadasMasivo = registrarMetricas(masivo, registry);
+    }
+
+    private static Counter registrarMetricas(LimiteConcurrencia limite, MeterRegistry registry) {
+        Gauge.builder("healpoint.concurrencia.limite", limite, LimiteConcurrencia::getLimite)
+                .tag("grupo", limite.getNombre())
+                .description("Peticiones simultáneas admitidas")
+                .register(registry);
+        Gauge.builder("healpoint.concurrencia.en_curso", limite, LimiteConcurrencia::getEnCurso)
+                .tag("grupo", limite.getNombre())
+                .description("Peticiones en curso")
+                .register(registry);
+        return Counter.builder("healpoint.concurrencia.rechazadas")
+                .tag("grupo", limite.getNombre())
+                .description("Peticiones rechazadas con 503 por superar el límite")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Las consultas previas de CORS y los chequeos de Actuator no usan la base
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+                || request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        boolean esMasiva = HttpMethod.GET.matches(request.getMethod()) && rutasMasivas.contains(ruta);
+        LimiteConcurrencia limite = esMasiva ? masivo : interactivo;
+
+        if (!limite.adquirir()) {
+            (esMasiva ? rechazadasMasivo : rechazadasInteractivo).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, SEGUNDOS_REINTENTO);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getOutputStream().write(
+                    "El servidor está ocupado. Intente de nuevo en unos segundos.".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        AtomicBoolean liberado = new AtomicBoolean();
+        boolean completa = false;
+        try {
+            chain.doFilter(request, response);
+            completa = true;
+        } finally {
+            HttpServletResponse respuesta = completa ? response : null;
+            if (completa && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        liberar(limite, liberado, inicio, response);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        liberar(limite, liberado, inicio, null);
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        liberar(limite, liberado, inicio, null);
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                liberar(limite, liberado, inicio, respuesta);
+            }
+        }
+    }
+
+    // response null: la petición falló con una excepción y su duración no sirve como muestra
+    private static void liberar(LimiteConcurrencia limite, AtomicBoolean liberado, long inicio,
+                                HttpServletResponse response) {
+        if (liberado.compareAndSet(false, true)) {
+            boolean muestraValida = response != null && response.getStatus() < 500;
+            limite.liberar(System.nanoTime() - inicio, muestraValida);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.healpoint.config;
+
+import com.healpoint.service.SesionUsuario;
+import com.healpoint.service.TokenSesionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Lee el token de sesión de la cabecera "Authorization: Bearer ..." y deja el usuario
+ * autenticado como atributo de la petición (ver SesionUsuario.actual()).
+ *
+ * Las peticiones sin token siguen pasando, como antes del login con token; las que traen
+ * un token alterado o vencido se rechazan con 401. En las rutas públicas (login y
+ * registro) un token inválido se ignora y la petición sigue sin sesión: el cliente puede
+ * conservar el token vencido de una sesión anterior, y rechazarlo impediría volver a
+ * iniciar sesión.
+ */
+public class FiltroSesion extends OncePerRequestFilter {
+
+    private static final String PREFIJO = "Bearer ";
+
+    static final Set<String> RUTAS_PUBLICAS = Set.of("/usuario/login", "/usuario/crearUsuario");
+
+    private final TokenSesionService tokens;
+
+    public FiltroSesion(TokenSesionService tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String cabecera = request.getHeader(HttpHeaders.AUTHORIZATION);
+        // Las consultas previas de CORS nunca traen el token
+        if (cabecera == null || HttpMethod.OPTIONS.matches(request.getMethod())
+                || !cabecera.regionMatches(true, 0, PREFIJO, 0, PREFIJO.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<SesionUsuario> sesion = tokens.verificar(cabecera.substring(PREFIJO.length()).trim());
+        if (sesion.isEmpty()) {
+            String ruta = request.getRequestURI().substring(request.getContextPath().length());
+            if (RUTAS_PUBLICAS.contains(ruta)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getOutputStream().write(
+                    "Sesión inválida o vencida. Inicie sesión de nuevo.".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        request.setAttribute(SesionUsuario.ATRIBUTO, sesion.get());
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,74 @@
+package com.healpoint.config;
+
+import com.healpoint.service.SesionUsuario;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Aplica LimitadorTasa a cada petición. El cliente es el usuario del token de sesión
+ * (FiltroSesion ya lo verificó) o, sin token, la dirección IP; así el login y las demás
+ * rutas públicas quedan limitadas por IP.
+ *
+ * Todas las respuestas llevan las cabeceras RateLimit-Limit, RateLimit-Remaining y
+ * RateLimit-Reset; al superar el límite se responde 429 con Retry-After.
+ */
+public class FiltroTasa extends OncePerRequestFilter {
+
+    private final LimitadorTasa limitador;
+    private final Counter rechazadas;
+
+    public FiltroTasa(LimitadorTasa limitador, MeterRegistry registry) {
+        this.limitador = limitador;
+        this.rechazadas = Counter.builder("healpoint.tasa.rechazadas")
+                .description("Peticiones rechazadas con 429 por superar el límite del cliente")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+                || request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        LimitadorTasa.Resultado resultado = limitador.intentar(ruta, cliente(request));
+
+        response.setHeader("RateLimit-Limit", String.valueOf(resultado.regla().peticiones()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(resultado.restantes()));
+        response.setHeader("RateLimit-Reset", String.valueOf(resultado.segundosParaLlenarse()));
+
+        if (!resultado.admitida()) {
+            rechazadas.increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, resultado.segundosParaReintentar())));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getOutputStream().write(
+                    "Demasiadas peticiones. Espere un momento antes de intentar de nuevo.".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static String cliente(HttpServletRequest request) {
+        Object sesion = request.getAttribute(SesionUsuario.ATRIBUTO);
+        if (sesion instanceof SesionUsuario usuario) {
+            return "usuario:" + usuario.idUsuario();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
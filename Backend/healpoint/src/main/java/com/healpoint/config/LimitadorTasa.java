@@ -0,0 +1,133 @@
+package com.healpoint.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Límite de peticiones por cliente y por ruta con cubetas de fichas en memoria.
+ *
+ * Cada regla permite "peticiones" en cada "periodo" con ráfagas de hasta "peticiones"
+ * seguidas. La cubeta de cada (regla, cliente) se guarda como un único instante, el
+ * momento en que volvería a estar llena (algoritmo GCRA, equivalente a una cubeta de
+ * fichas), y se actualiza con compareAndSet, sin bloqueos entre peticiones.
+ *
+ * Una cubeta que ya se volvió a llenar no guarda información (es igual a una nueva), así
+ * que se puede borrar en cualquier momento: purgar lo hace periódicamente y también
+ * cuando se supera maximoCubetas, de modo que la memoria queda acotada aunque lleguen
+ * peticiones de muchos clientes distintos.
+ */
+public class LimitadorTasa {
+
+    /** Límite de una ruta: peticiones por periodo. */
+    public record Regla(String nombre, int peticiones, Duration periodo) {
+
+        public Regla {
+            if (peticiones < 1 || periodo.isNegative() || periodo.isZero()) {
+                throw new IllegalArgumentException("Regla de tasa inválida para " + nombre + ": " + peticiones + "/" + periodo);
+            }
+        }
+
+        long intervaloNanos() {
+            return Math.max(1, periodo.toNanos() / peticiones);
+        }
+    }
+
+    /**
+     * Resultado de una petición: si se admite, cuántas le quedan al cliente, en cuántos
+     * segundos se llena la cubeta y, si se rechaza, cuándo reintentar.
+     */
+    public record Resultado(boolean admitida, Regla regla, int restantes, long segundosParaLlenarse,
+                            long segundosParaReintentar) {
+    }
+
+    private record Clave(String regla, String cliente) {
+    }
+
+    private final Map<String, Regla> reglasPorRuta;
+    private final Regla reglaPorDefecto;
+    private final int maximoCubetas;
+    private final Clock reloj;
+
+    private final ConcurrentHashMap<Clave, AtomicLong> cubetas = new ConcurrentHashMap<>();
+
+    public LimitadorTasa(Map<String, Regla> reglasPorRuta, Regla reglaPorDefecto, int maximoCubetas) {
+        this(reglasPorRuta, reglaPorDefecto, maximoCubetas, Clock.systemUTC());
+    }
+
+    LimitadorTasa(Map<String, Regla> reglasPorRuta, Regla reglaPorDefecto, int maximoCubetas, Clock reloj) {
+        this.reglasPorRuta = Map.copyOf(reglasPorRuta);
+        this.reglaPorDefecto = reglaPorDefecto;
+        this.maximoCubetas = maximoCubetas;
+        this.reloj = reloj;
+    }
+
+    public int getCubetas() {
+        return cubetas.size();
+    }
+
+    public Resultado intentar(String ruta, String cliente) {
+        Regla regla = reglasPorRuta.getOrDefault(ruta, reglaPorDefecto);
+        long intervalo = regla.intervaloNanos();
+        long periodo = regla.periodo().toNanos();
+        long ahora = ahoraNanos();
+
+        Clave clave = new Clave(regla.nombre(), cliente);
+        AtomicLong llena = cubetas.get(clave);
+        if (llena == null) {
+            if (cubetas.size() >= maximoCubetas) {
+                purgar();
+            }
+            llena = cubetas.computeIfAbsent(clave, c -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        while (true) {
+            long actual = llena.get();
+            long base = Math.max(actual, ahora);
+            long nueva = base + intervalo;
+            // Tiempo que falta para que la cubeta vuelva a estar llena si se admite
+            long ocupado = nueva - ahora;
+            if (ocupado > periodo) {
+                long espera = ocupado - periodo;
+                return new Resultado(false, regla, 0, segundosHacia(base - ahora), segundosHacia(espera));
+            }
+            if (llena.compareAndSet(actual, nueva)) {
+                int restantes = (int) ((periodo - ocupado) / intervalo);
+                return new Resultado(true, regla, restantes, segundosHacia(ocupado), 0);
+            }
+        }
+    }
+
+    /**
+     * Borra las cubetas que ya se volvieron a llenar. Si aun así quedan más de
+     * maximoCubetas (muchos clientes activos a la vez) se borran otras hasta bajar del
+     * máximo: esos clientes vuelven a empezar con la cubeta llena, que es preferible a
+     * que la memoria crezca sin límite.
+     */
+    @Scheduled(fixedDelayString = "${healpoint.tasa.purga-ms:60000}")
+    public void purgar() {
+        long ahora = ahoraNanos();
+        cubetas.values().removeIf(llena -> llena.get() <= ahora);
+
+        Iterator<AtomicLong> restantes = cubetas.values().iterator();
+        while (cubetas.size() > maximoCubetas * 9L / 10 && restantes.hasNext()) {
+            restantes.next();
+            restantes.remove();
+        }
+    }
+
+    private long ahoraNanos() {
+        Instant instante = reloj.instant();
+        return instante.getEpochSecond() * 1_000_000_000L + instante.getNano();
+    }
+
+    private static long segundosHacia(long nanos) {
+        return nanos <= 0 ? 0 : (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+}
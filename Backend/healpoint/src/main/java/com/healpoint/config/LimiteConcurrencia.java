@@ -0,0 +1,142 @@
+package com.healpoint.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite adaptativo de peticiones simultáneas para un grupo de rutas.
+ *
+ * El límite se ajusta con la latencia observada, al estilo del algoritmo Gradient2 de
+ * Netflix concurrency-limits. Las duraciones se agrupan en ventanas de unas pocas
+ * peticiones; el promedio de cada ventana se compara con una media larga (~600
+ * ventanas). Mientras no la supere por más de la tolerancia el límite crece de a poco;
+ * cuando las peticiones empiezan a esperar (normalmente por conexiones del pool) el
+ * promedio sube y el límite baja en proporción, hasta la mitad por ventana. Así se
+ * admite solo la concurrencia que la base puede atender sin hacer cola, y el resto se
+ * rechaza enseguida.
+ *
+ * adquirir es sin bloqueos; el ajuste del límite se hace al terminar cada petición.
+ */
+public class LimiteConcurrencia {
+
+    private static final int MUESTRAS_MINIMAS_VENTANA = 10;
+    private static final double ALFA_LARGO = 2.0 / (600 + 1);
+    private static final double ALFA_LARGO_CON_ESPERA = 2.0 / (12_000 + 1);
+    private static final double TOLERANCIA = 1.5;
+    private static final double SUAVIZADO = 0.2;
+
+    private final String nombre;
+    private final int minimo;
+    private final int maximo;
+
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private volatile int limite;
+
+    // Protegidos por this
+    private double limiteEstimado;
+    private double rttCorto;
+    private double rttLargo;
+    private boolean sinMuestras = true;
+    private double sumaVentana;
+    private int muestrasVentana;
+    private int maximoEnCursoVentana;
+
+    public LimiteConcurrencia(String nombre, int inicial, int minimo, int maximo) {
+        if (minimo < 1 || minimo > inicial || inicial > maximo) {
+            throw new IllegalArgumentException("Límites de concurrencia inválidos para " + nombre
+                    + ": se requiere 1 <= mínimo <= inicial <= máximo");
+        }
+        this.nombre = nombre;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.limite = inicial;
+        this.limiteEstimado = inicial;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public int getEnCurso() {
+        return enCurso.get();
+    }
+
+    /**
+     * Ocupa un lugar si hay menos peticiones en curso que el límite. Si devuelve true hay
+     * que llamar a liberar al terminar la petición.
+     */
+    public boolean adquirir() {
+        while (true) {
+            int actual = enCurso.get();
+            if (actual >= limite) {
+                return false;
+            }
+            if (enCurso.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar y, si la muestra es válida, ajusta el límite con el tiempo que tardó
+     * la petición. Las peticiones que terminaron con error del servidor se liberan sin
+     * muestra porque su tiempo no refleja la capacidad.
+     */
+    public void liberar(long duracionNanos, boolean muestraValida) {
+        int alTerminar = enCurso.getAndDecrement();
+        if (muestraValida) {
+            ajustar(duracionNanos, alTerminar);
+        }
+    }
+
+    synchronized void ajustar(long duracionNanos, int enCursoAlTerminar) {
+        sumaVentana += Math.max(1, duracionNanos);
+        maximoEnCursoVentana = Math.max(maximoEnCursoVentana, enCursoAlTerminar);
+        if (++muestrasVentana < tamanoVentana()) {
+            return;
+        }
+        double rtt = sumaVentana / muestrasVentana;
+        int enCurso = maximoEnCursoVentana;
+        sumaVentana = 0;
+        muestrasVentana = 0;
+        maximoEnCursoVentana = 0;
+
+        rttCorto = rtt;
+        if (sinMuestras) {
+            rttLargo = rtt;
+            sinMuestras = false;
+        } else {
+            // Las ventanas que ya muestran espera mueven la referencia mucho más despacio:
+            // si no, con una sobrecarga sostenida la referencia alcanzaría a la latencia
+            // con cola y el límite volvería a subir
+            rttLargo += (rtt - rttLargo) * (rtt > TOLERANCIA * rttLargo ? ALFA_LARGO_CON_ESPERA : ALFA_LARGO);
+        }
+
+        // Cuando la latencia cae mucho (terminó un pico) la referencia larga la sigue rápido
+        if (rttLargo / rttCorto > 2) {
+            rttLargo *= 0.95;
+        }
+
+        // Con menos de la mitad del límite en uso la latencia no dice nada del límite
+        if (enCurso < limiteEstimado / 2) {
+            return;
+        }
+
+        double gradiente = Math.max(0.5, Math.min(1.0, TOLERANCIA * rttLargo / rttCorto));
+        double nuevo = limiteEstimado * gradiente + Math.sqrt(limiteEstimado);
+        nuevo = limiteEstimado * (1 - SUAVIZADO) + nuevo * SUAVIZADO;
+        limiteEstimado = Math.max(minimo, Math.min(maximo, nuevo));
+        limite = (int) limiteEstimado;
+    }
+
+    /**
+     * Muestras por ventana: al menos MUESTRAS_MINIMAS_VENTANA y una por lugar del límite,
+     * así cada ventana dura más o menos el tiempo de una petición.
+     */
+    int tamanoVentana() {
+        return Math.max(MUESTRAS_MINIMAS_VENTANA, limite);
+    }
+}
@@ -0,0 +1,78 @@
+package com.healpoint.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Métricas de la aplicación que se publican en /actuator/metrics y, en el formato de
+ * texto de Prometheus, en /actuator/prometheus:
+ *
+ * - http.server.requests: latencia y cantidad de peticiones por ruta, estado y método del
+ *   controlador que las atendió (etiqueta controlador), con percentiles y cubetas
+ *   definidos en application.properties.
+ * - hikaricp.connections.*: uso del pool y espera para obtener una conexión (Spring Boot
+ *   las registra solo).
+ * - hibernate.*: consultas, sentencias y cargas de entidades (ver MetricasHibernate).
+ * - healpoint.*: las propias de cada componente, como healpoint.auditoria.cola.tamano.
+ */
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Agrega a http.server.requests el método del controlador, como
+     * "CitaController.getCitas". Las peticiones que rechazan los filtros antes de llegar
+     * a un controlador quedan con controlador=ninguno.
+     */
+    @Bean
+    public ServerRequestObservationConvention convencionPeticiones() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and(controlador(context));
+            }
+        };
+    }
+
+    static KeyValue controlador(ServerRequestObservationContext context) {
+        String nombre = nombreControlador(context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+        return KeyValue.of("controlador", nombre != null ? nombre : "ninguno");
+    }
+
+    /**
+     * "Clase.metodo" del controlador que atiende la petición, o null si el handler no es
+     * un método de controlador.
+     */
+    static String nombreControlador(Object handler) {
+        if (handler instanceof HandlerMethod metodo) {
+            return metodo.getBeanType().getSimpleName() + "." + metodo.getMethod().getName();
+        }
+        return null;
+    }
+
+    @Bean
+    public MetricasHibernate metricasHibernate(EntityManagerFactory entityManagerFactory) {
+        return new MetricasHibernate(entityManagerFactory.unwrap(SessionFactory.class));
+    }
+
+    /**
+     * Sin micrometer-registry-prometheus en el classpath se publica el formato de texto
+     * con EndpointPrometheus. Si se agrega la dependencia, Spring Boot registra su propio
+     * endpoint en la misma ruta y este deja de crearse.
+     */
+    @Bean
+    @ConditionalOnMissingClass("io.micrometer.prometheusmetrics.PrometheusMeterRegistry")
+    public EndpointPrometheus endpointPrometheus(MeterRegistry registry) {
+        return new EndpointPrometheus(registry);
+    }
+}
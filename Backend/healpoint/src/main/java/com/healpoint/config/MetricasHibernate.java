@@ -0,0 +1,67 @@
+package com.healpoint.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Contadores de las estadísticas de Hibernate (requiere
+ * hibernate.generate_statistics=true).
+ *
+ * Usa los mismos nombres que el módulo hibernate-micrometer, que no está disponible en
+ * este build, para que los tableros sirvan igual si luego se cambia por él.
+ */
+public class MetricasHibernate implements MeterBinder {
+
+    private final Statistics estadisticas;
+
+    public MetricasHibernate(SessionFactory sessionFactory) {
+        this.estadisticas = sessionFactory.getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        contador(registry, "hibernate.sessions.open", "Sesiones abiertas", Statistics::getSessionOpenCount);
+        contador(registry, "hibernate.sessions.closed", "Sesiones cerradas", Statistics::getSessionCloseCount);
+        contador(registry, "hibernate.connections.obtained", "Conexiones JDBC obtenidas", Statistics::getConnectCount);
+        contador(registry, "hibernate.flushes", "Flushes de las sesiones", Statistics::getFlushCount);
+
+        FunctionCounter.builder("hibernate.transactions", estadisticas, Statistics::getSuccessfulTransactionCount)
+                .description("Transacciones terminadas").tag("result", "success").register(registry);
+        FunctionCounter.builder("hibernate.transactions", estadisticas,
+                        e -> e.getTransactionCount() - e.getSuccessfulTransactionCount())
+                .description("Transacciones terminadas").tag("result", "failure").register(registry);
+        FunctionCounter.builder("hibernate.statements", estadisticas, Statistics::getPrepareStatementCount)
+                .description("Sentencias JDBC").tag("status", "prepared").register(registry);
+        FunctionCounter.builder("hibernate.statements", estadisticas, Statistics::getCloseStatementCount)
+                .description("Sentencias JDBC").tag("status", "closed").register(registry);
+
+        contador(registry, "hibernate.entities.loads", "Entidades cargadas desde la base", Statistics::getEntityLoadCount);
+        contador(registry, "hibernate.entities.fetches", "Entidades traídas por una consulta aparte (proxies, LAZY)",
+                Statistics::getEntityFetchCount);
+        contador(registry, "hibernate.entities.inserts", "Entidades insertadas", Statistics::getEntityInsertCount);
+        contador(registry, "hibernate.entities.updates", "Entidades actualizadas", Statistics::getEntityUpdateCount);
+        contador(registry, "hibernate.entities.deletes", "Entidades borradas", Statistics::getEntityDeleteCount);
+        contador(registry, "hibernate.collections.loads", "Colecciones cargadas", Statistics::getCollectionLoadCount);
+        contador(registry, "hibernate.collections.fetches", "Colecciones traídas por una consulta aparte",
+                Statistics::getCollectionFetchCount);
+
+        contador(registry, "hibernate.query.executions", "Consultas HQL, JPQL y SQL nativo ejecutadas",
+                Statistics::getQueryExecutionCount);
+        TimeGauge.builder("hibernate.query.executions.max", estadisticas, TimeUnit.MILLISECONDS,
+                        Statistics::getQueryExecutionMaxTime)
+                .description("Duración de la consulta más lenta desde el arranque")
+                .register(registry);
+    }
+
+    private void contador(MeterRegistry registry, String nombre, String descripcion,
+                          ToDoubleFunction<Statistics> valor) {
+        FunctionCounter.builder(nombre, estadisticas, valor).description(descripcion).register(registry);
+    }
+}
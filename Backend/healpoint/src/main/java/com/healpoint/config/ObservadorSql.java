@@ -0,0 +1,201 @@
+package com.healpoint.config;
+
+import com.healpoint.dto.EstadisticaControladorDTO;
+import com.healpoint.dto.EstadisticaSentenciaDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de las sentencias SQL que pasan por DataSourceObservado, en lugar de
+ * spring.jpa.show-sql.
+ *
+ * En el log (logger healpoint.sql) quedan solo las sentencias que tardan al menos
+ * healpoint.sql.umbral-ms, como WARN, y una muestra de healpoint.sql.muestreo (entre 0 y
+ * 1) de las demás, como INFO. Cada línea lleva la duración, las filas leídas o
+ * modificadas, los tipos de los parámetros (nunca sus valores, que pueden ser datos de
+ * pacientes) y el método del controlador que atendía la petición.
+ *
+ * Además se acumulan ejecuciones, filas y tiempos por sentencia y por método de
+ * controlador, que se consultan en /actuator/sentencias y
+ * /actuator/sentencias/controladores. Se guardan como máximo
+ * healpoint.sql.maximo-sentencias sentencias distintas; las que llegan después se suman
+ * en una sola entrada.
+ */
+public class ObservadorSql {
+
+    private static final Logger log = LoggerFactory.getLogger("healpoint.sql");
+
+    static final String OTRAS = "(otras sentencias)";
+    static final String OTROS = "(otros controladores)";
+
+    // Literales de las sentencias sin parámetros: 'texto' y números sueltos
+    private static final Pattern LITERALES = Pattern.compile("'(?:[^']|'')*'|(?<![\\w$])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private static final class Estadistica {
+        final LongAdder ejecuciones = new LongAdder();
+        final LongAdder errores = new LongAdder();
+        final LongAdder lentas = new LongAdder();
+        final LongAdder filas = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAccumulator maximoNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    private final ConcurrentHashMap<String, Estadistica> estadisticas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Estadistica> controladores = new ConcurrentHashMap<>();
+
+    private final long umbralNanos;
+    private final double muestreo;
+    private final int maximoSentencias;
+
+    public ObservadorSql(long umbralMs, double muestreo, int maximoSentencias) {
+        if (muestreo < 0 || muestreo > 1) {
+            throw new IllegalArgumentException("healpoint.sql.muestreo debe estar entre 0 y 1");
+        }
+        this.umbralNanos = TimeUnit.MILLISECONDS.toNanos(umbralMs);
+        this.muestreo = muestreo;
+        this.maximoSentencias = maximoSentencias;
+    }
+
+    /**
+     * Método del controlador que atiende la petición del hilo actual, o null si el hilo no
+     * está atendiendo una petición (tareas programadas, escritor de auditoría).
+     */
+    String controladorActual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return null;
+        }
+        return MetricasConfig.nombreControlador(
+                atributos.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    /**
+     * Registra una ejecución terminada.
+     *
+     * @param preparada  si la sentencia usa parámetros ?; si no, los literales se
+     *                   reemplazan por ? para agrupar
+     * @param filas      filas leídas o modificadas, o -1 si no se conocen
+     * @param parametros tipos de los parámetros, por ejemplo "(Int, String)", o null
+     */
+    void registrar(String sql, boolean preparada, long nanos, long filas, String parametros,
+                   String controlador, boolean error) {
+        boolean lenta = nanos >= umbralNanos;
+        acumular(estadistica(estadisticas, normalizar(sql, preparada), OTRAS), nanos, filas, lenta, error);
+        if (controlador != null) {
+            acumular(estadistica(controladores, controlador, OTROS), nanos, filas, lenta, error);
+        }
+        if (lenta) {
+            if (log.isWarnEnabled()) {
+                log.warn("SQL lenta: {}", linea(sql, nanos, filas, parametros, controlador, error));
+            }
+        } else if (muestreo > 0 && ThreadLocalRandom.current().nextDouble() < muestreo && log.isInfoEnabled()) {
+            log.info("SQL (muestra): {}", linea(sql, nanos, filas, parametros, controlador, error));
+        }
+    }
+
+    private static void acumular(Estadistica estadistica, long nanos, long filas, boolean lenta, boolean error) {
+        estadistica.ejecuciones.increment();
+        estadistica.nanos.add(nanos);
+        estadistica.maximoNanos.accumulate(nanos);
+        if (filas > 0) {
+            estadistica.filas.add(filas);
+        }
+        if (error) {
+            estadistica.errores.increment();
+        }
+        if (lenta) {
+            estadistica.lentas.increment();
+        }
+    }
+
+    private Estadistica estadistica(Map<String, Estadistica> mapa, String clave, String resto) {
+        Estadistica estadistica = mapa.get(clave);
+        if (estadistica != null) {
+            return estadistica;
+        }
+        if (mapa.size() >= maximoSentencias) {
+            clave = resto;
+        }
+        return mapa.computeIfAbsent(clave, c -> new Estadistica());
+    }
+
+    private static String linea(String sql, long nanos, long filas, String parametros, String controlador,
+                                boolean error) {
+        StringBuilder linea = new StringBuilder(sql.length() + 96);
+        linea.append(String.format("%.1f ms", nanos / 1_000_000.0));
+        linea.append(filas >= 0 ? ", " + filas + " filas" : ", filas desconocidas");
+        if (error) {
+            linea.append(", con error");
+        }
+        linea.append(", ").append(controlador != null ? controlador : "sin petición");
+        if (parametros != null) {
+            linea.append(", parámetros ").append(parametros);
+        }
+        return linea.append(": ").append(ESPACIOS.matcher(sql).replaceAll(" ").trim()).toString();
+    }
+
+    // Las sentencias preparadas salen siempre del mismo texto (Hibernate, constantes de
+    // los servicios) y se agrupan tal cual, sin procesar el texto en cada ejecución
+    static String normalizar(String sql, boolean preparada) {
+        if (preparada) {
+            return sql;
+        }
+        return ESPACIOS.matcher(LITERALES.matcher(sql).replaceAll("?")).replaceAll(" ").trim();
+    }
+
+    /**
+     * Las sentencias con más tiempo acumulado primero.
+     */
+    public List<EstadisticaSentenciaDTO> resumen(int limite) {
+        return estadisticas.entrySet().stream()
+                .map(ObservadorSql::resumen)
+                .sorted(Comparator.comparingDouble(EstadisticaSentenciaDTO::tiempoTotalMs).reversed())
+                .limit(limite)
+                .toList();
+    }
+
+    private static EstadisticaSentenciaDTO resumen(Map.Entry<String, Estadistica> entrada) {
+        Estadistica e = entrada.getValue();
+        long ejecuciones = e.ejecuciones.sum();
+        double totalMs = e.nanos.sum() / 1_000_000.0;
+        return new EstadisticaSentenciaDTO(entrada.getKey(), ejecuciones, e.errores.sum(), e.lentas.sum(),
+                e.filas.sum(), totalMs, ejecuciones == 0 ? 0 : totalMs / ejecuciones, e.maximoNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Los métodos de controlador con más tiempo acumulado en SQL primero. Solo cuentan las
+     * sentencias ejecutadas después de elegir el controlador (no las de los filtros).
+     */
+    public List<EstadisticaControladorDTO> resumenPorControlador(int limite) {
+        return controladores.entrySet().stream()
+                .map(ObservadorSql::resumenControlador)
+                .sorted(Comparator.comparingDouble(EstadisticaControladorDTO::tiempoTotalMs).reversed())
+                .limit(limite)
+                .toList();
+    }
+
+    private static EstadisticaControladorDTO resumenControlador(Map.Entry<String, Estadistica> entrada) {
+        Estadistica e = entrada.getValue();
+        return new EstadisticaControladorDTO(entrada.getKey(), e.ejecuciones.sum(), e.errores.sum(), e.lentas.sum(),
+                e.filas.sum(), e.nanos.sum() / 1_000_000.0, e.maximoNanos.get() / 1_000_000.0);
+    }
+
+    public void reiniciar() {
+        estadisticas.clear();
+        controladores.clear();
+    }
+}
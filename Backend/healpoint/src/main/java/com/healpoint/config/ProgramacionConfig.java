@@ -0,0 +1,13 @@
+package com.healpoint.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Activa las tareas programadas con @Scheduled (por ejemplo el mantenimiento de las
+ * particiones de monitoría).
+ */
+@Configuration
+@EnableScheduling
+public class ProgramacionConfig {
+}
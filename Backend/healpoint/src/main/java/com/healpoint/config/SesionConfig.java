@@ -0,0 +1,23 @@
+package com.healpoint.config;
+
+import com.healpoint.service.TokenSesionService;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registra FiltroSesion para todas las rutas.
+ */
+@Configuration
+public class SesionConfig {
+
+    @Bean
+    public FilterRegistrationBean<FiltroSesion> filtroSesion(TokenSesionService tokens) {
+        FilterRegistrationBean<FiltroSesion> registro = new FilterRegistrationBean<>(new FiltroSesion(tokens));
+        registro.addUrlPatterns("/*");
+        // Antes de FiltroTasa, que usa el usuario de la sesión para identificar al cliente
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 50);
+        return registro;
+    }
+}
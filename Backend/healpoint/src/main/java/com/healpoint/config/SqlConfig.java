@@ -0,0 +1,47 @@
+package com.healpoint.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Registro de sentencias SQL lentas y estadísticas por sentencia (ver ObservadorSql):
+ * el DataSource de la aplicación se envuelve en un DataSourceObservado y las
+ * estadísticas se publican en /actuator/sentencias.
+ */
+@Configuration
+@ConditionalOnProperty(name = "healpoint.sql.habilitado", havingValue = "true", matchIfMissing = true)
+public class SqlConfig {
+
+    @Bean
+    public ObservadorSql observadorSql(
+            @Value("${healpoint.sql.umbral-ms:200}") long umbralMs,
+            @Value("${healpoint.sql.muestreo:0.001}") double muestreo,
+            @Value("${healpoint.sql.maximo-sentencias:500}") int maximoSentencias) {
+        return new ObservadorSql(umbralMs, muestreo, maximoSentencias);
+    }
+
+    // static: los BeanPostProcessor se crean antes que los demás beans de la configuración
+    @Bean
+    public static BeanPostProcessor observarDataSource(ObjectProvider<ObservadorSql> observador) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceObservado)) {
+                    return new DataSourceObservado(dataSource, observador.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public EndpointSentencias endpointSentencias(ObservadorSql observadorSql) {
+        return new EndpointSentencias(observadorSql);
+    }
+}
@@ -0,0 +1,69 @@
+package com.healpoint.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registra FiltroTasa después de FiltroSesion (para conocer al usuario) y antes de
+ * FiltroConcurrencia (para que un cliente que se pasa de su límite no ocupe lugar).
+ *
+ * Las reglas se leen de healpoint.tasa.reglas como "ruta=peticiones/periodo", por
+ * ejemplo "/usuario/login=10/1m"; las rutas sin regla comparten healpoint.tasa.defecto.
+ */
+@Configuration
+@ConditionalOnProperty(name = "healpoint.tasa.habilitado", havingValue = "true", matchIfMissing = true)
+public class TasaConfig {
+
+    @Bean
+    public LimitadorTasa limitadorTasa(
+            MeterRegistry registry,
+            @Value("${healpoint.tasa.defecto:300/1m}") String defecto,
+            @Value("${healpoint.tasa.reglas:}") List<String> reglas,
+            @Value("${healpoint.tasa.maximo-clientes:100000}") int maximoClientes) {
+
+        Map<String, LimitadorTasa.Regla> porRuta = new HashMap<>();
+        for (String regla : reglas) {
+            int igual = regla.indexOf('=');
+            if (igual <= 0) {
+                throw new IllegalArgumentException("healpoint.tasa.reglas: se esperaba ruta=peticiones/periodo en '" + regla + "'");
+            }
+            String ruta = regla.substring(0, igual).trim();
+            porRuta.put(ruta, regla(ruta, regla.substring(igual + 1)));
+        }
+
+        LimitadorTasa limitador = new LimitadorTasa(porRuta, regla("defecto", defecto), maximoClientes);
+        Gauge.builder("healpoint.tasa.cubetas", limitador, LimitadorTasa::getCubetas)
+                .description("Clientes con una cubeta de peticiones en memoria")
+                .register(registry);
+        return limitador;
+    }
+
+    static LimitadorTasa.Regla regla(String nombre, String texto) {
+        String[] partes = texto.trim().split("/");
+        if (partes.length != 2) {
+            throw new IllegalArgumentException("Regla de tasa '" + texto + "' para " + nombre
+                    + ": se esperaba peticiones/periodo, por ejemplo 10/1m");
+        }
+        return new LimitadorTasa.Regla(nombre, Integer.parseInt(partes[0].trim()),
+                DurationStyle.detectAndParse(partes[1].trim()));
+    }
+
+    @Bean
+    public FilterRegistrationBean<FiltroTasa> filtroTasa(LimitadorTasa limitadorTasa, MeterRegistry registry) {
+        FilterRegistrationBean<FiltroTasa> registro = new FilterRegistrationBean<>(new FiltroTasa(limitadorTasa, registry));
+        registro.addUrlPatterns("/*");
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 60);
+        return registro;
+    }
+}
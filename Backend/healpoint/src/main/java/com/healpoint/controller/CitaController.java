@@ -1,5 +1,7 @@
 package com.healpoint.controller;
 
+import com.healpoint.dto.CitaAgendaDTO;
+import com.healpoint.dto.PaginaAgendaDTO;
 import com.healpoint.entity.Cita;
 import com.healpoint.entity.Medico;
 import com.healpoint.entity.Paciente;
@@ -7,16 +9,23 @@ import com.healpoint.entity.Estado;
 import com.healpoint.repository.CitaRepository;
 import com.healpoint.repository.MedicoRepository;
 import com.healpoint.repository.PacienteRepository;
-import com.healpoint.repository.EstadoRepository;
 
+import com.healpoint.service.CacheReferenciaService;
+import com.healpoint.service.CoordinadorReservas;
+import com.healpoint.service.ExportadorJson;
+import com.healpoint.service.IndiceAgendaService;
 import com.healpoint.service.MonitoriaService;
-import com.healpoint.service.DisponibilidadService;
+import com.healpoint.service.ReservaLoteService;
 import com.healpoint.validator.FechaValidator;
 import com.healpoint.validator.HoraValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -27,6 +36,9 @@ import java.util.Optional;
 @RequestMapping("/cita")
 public class CitaController {
 
+    private static final int LIMITE_AGENDA_DEFECTO = 50;
+    private static final int LIMITE_AGENDA_MAXIMO = 200;
+
     @Autowired
     private CitaRepository citaRepository;
 
@@ -37,20 +49,89 @@ public class CitaController {
     private MedicoRepository medicoRepository;
 
     @Autowired
-    private EstadoRepository estadoRepository;
+    private CacheReferenciaService cacheReferencia;
 
     @Autowired
     private MonitoriaService monitoriaService;
 
     @Autowired
-    private DisponibilidadService disponibilidadService;
+    private IndiceAgendaService indiceAgendaService;
+
+    @Autowired
+    private CoordinadorReservas coordinadorReservas;
+
+    @Autowired
+    private ReservaLoteService reservaLoteService;
+
+    @Autowired
+    private ExportadorJson exportadorJson;
 
     /**
-     * GET /cita/mostrarCitas → Listar todas las citas.
+     * GET /cita/mostrarCitas → Listar todas las citas. El arreglo se escribe a medida que
+     * se leen las filas, sin cargar antes todas las citas en memoria.
      */
     @GetMapping("/mostrarCitas")
-    public ResponseEntity<List<Cita>> getCitas() {
-        return ResponseEntity.ok(citaRepository.findAll());
+    public ResponseEntity<StreamingResponseBody> getCitas() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(exportadorJson.arreglo(citaRepository::streamTodas));
+    }
+
+    /**
+     * GET /cita/agenda?desde=...&hasta=... → Consultar la agenda paginada entre dos fechas.
+     * Filtros opcionales: idMedico, idPaciente, idEstado. Para pedir la siguiente página se
+     * envían despuesFecha, despuesHora y despuesIdCita con los valores devueltos en la anterior.
+     */
+    @GetMapping("/agenda")
+    public ResponseEntity<?> getAgenda(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Integer idMedico,
+            @RequestParam(required = false) Integer idPaciente,
+            @RequestParam(required = false) Integer idEstado,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate despuesFecha,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime despuesHora,
+            @RequestParam(required = false) Long despuesIdCita,
+            @RequestParam(required = false) Integer limite) {
+
+        LocalDate fechaFin = hasta != null ? hasta : desde;
+        if (fechaFin.isBefore(desde)) {
+            return ResponseEntity.badRequest().body("La fecha final no puede ser anterior a la inicial.");
+        }
+
+        int tamano = limite != null ? limite : LIMITE_AGENDA_DEFECTO;
+        if (tamano < 1 || tamano > LIMITE_AGENDA_MAXIMO) {
+            return ResponseEntity.badRequest().body("El límite debe estar entre 1 y " + LIMITE_AGENDA_MAXIMO + ".");
+        }
+
+        boolean hayCursor = despuesFecha != null || despuesHora != null || despuesIdCita != null;
+        if (hayCursor && (despuesFecha == null || despuesHora == null || despuesIdCita == null)) {
+            return ResponseEntity.badRequest().body("El cursor requiere despuesFecha, despuesHora y despuesIdCita.");
+        }
+
+        // Sin cursor se empieza justo antes de la primera cita posible del día inicial
+        LocalDate cursorFecha = hayCursor ? despuesFecha : desde;
+        LocalTime cursorHora = hayCursor ? despuesHora : LocalTime.MIN;
+        Long cursorId = hayCursor ? despuesIdCita : 0L;
+        if (cursorFecha.isBefore(desde)) {
+            cursorFecha = desde;
+            cursorHora = LocalTime.MIN;
+            cursorId = 0L;
+        }
+
+        // Se pide una fila de más para saber si existe una página siguiente
+        List<CitaAgendaDTO> citas = citaRepository.findAgenda(
+                fechaFin, cursorFecha, cursorHora, cursorId,
+                idMedico, idPaciente, idEstado, tamano + 1);
+
+        if (citas.size() <= tamano) {
+            return ResponseEntity.ok(new PaginaAgendaDTO(citas, null, null, null));
+        }
+
+        List<CitaAgendaDTO> pagina = citas.subList(0, tamano);
+        CitaAgendaDTO ultima = pagina.get(tamano - 1);
+        return ResponseEntity.ok(new PaginaAgendaDTO(
+                List.copyOf(pagina), ultima.fecha(), ultima.hora(), ultima.idCita()));
     }
 
     /**
@@ -58,14 +139,12 @@ public class CitaController {
      */
     @GetMapping("/mostrarCitasPorPaciente")
     public ResponseEntity<?> getCitasPorPaciente(@RequestParam Integer idPaciente) {
-        Optional<Paciente> paciente = pacienteRepository.findById(idPaciente);
-
-        if (!paciente.isPresent()) {
+        if (!pacienteRepository.existsById(idPaciente)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("No existe el paciente con ID: " + idPaciente);
         }
 
-        List<Cita> citas = citaRepository.findByPaciente(paciente.get());
+        List<Cita> citas = citaRepository.findByIdPaciente(idPaciente);
 
         if (citas.isEmpty()) {
             return ResponseEntity.ok("El paciente no tiene citas registradas.");
@@ -79,14 +158,12 @@ public class CitaController {
      */
     @GetMapping("/mostrarCitasPorMedico")
     public ResponseEntity<?> getCitasPorMedico(@RequestParam Integer idMedico) {
-        Optional<Medico> medico = medicoRepository.findById(idMedico);
-
-        if (!medico.isPresent()) {
+        if (!medicoRepository.existsById(idMedico)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("No existe el médico con ID: " + idMedico);
         }
 
-        List<Cita> citas = citaRepository.findByMedico(medico.get());
+        List<Cita> citas = citaRepository.findByIdMedico(idMedico);
 
         if (citas.isEmpty()) {
             return ResponseEntity.ok("El médico no tiene citas registradas.");
@@ -113,7 +190,7 @@ public class CitaController {
         // 2. Validación de existencia de entidades relacionadas
         Optional<Paciente> pacienteOpt = pacienteRepository.findById(citaData.getPaciente().getIdPaciente());
         Optional<Medico> medicoOpt = medicoRepository.findById(citaData.getMedico().getId_medico());
-        Optional<Estado> estadoOpt = estadoRepository.findById(citaData.getEstado().getIdEstado());
+        Optional<Estado> estadoOpt = cacheReferencia.estado(citaData.getEstado().getIdEstado());
 
         if (!pacienteOpt.isPresent()) {
             return ResponseEntity.badRequest().body("Paciente con ID " + citaData.getPaciente().getIdPaciente() + " no encontrado.");
@@ -125,14 +202,10 @@ public class CitaController {
             return ResponseEntity.badRequest().body("Estado con ID " + citaData.getEstado().getIdEstado() + " no encontrado.");
         }
 
-        // 3. Validación de disponibilidad del médico
-        Optional<Cita> citaExistente = citaRepository.findByMedicoAndFechaAndHora(
-                medicoOpt.get(), citaData.getFecha(), citaData.getHora()
-        );
-
-        if (citaExistente.isPresent()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body("El médico ya tiene una cita agendada en la fecha " + citaData.getFecha() + " y hora " + citaData.getHora() + ".");
+        int duracion = citaData.getDuracionMinutos() != null
+                ? citaData.getDuracionMinutos() : Cita.DURACION_POR_DEFECTO;
+        if (duracion <= 0) {
+            return ResponseEntity.badRequest().body("La duración de la cita debe ser mayor a cero minutos.");
         }
 
         // Validación de fecha futura
@@ -150,7 +223,7 @@ public class CitaController {
             return ResponseEntity.badRequest().body("La hora indicada ya pasó.");
         }
 
-        if (!disponibilidadService.medicoDisponible(
+        if (!indiceAgendaService.medicoDisponible(
                 citaData.getMedico().getId_medico(),
                 citaData.getFecha(),
                 citaData.getHora()
@@ -159,15 +232,49 @@ public class CitaController {
                     .body("El médico no está disponible en ese horario.");
         }
 
-        // 4. Crear y guardar la cita
+        // 3. Crear y guardar la cita. Las reservas del mismo médico y día se serializan
+        // (CoordinadorReservas); dentro de esa sección el índice en memoria descarta los
+        // cruces sin ir a la base de datos (con bloqueo distribuido, tras recargar el día)
+        // y la restricción cita_sin_solapamiento sigue siendo la garantía final.
+        Integer idMedico = citaData.getMedico().getId_medico();
         Cita nuevaCita = new Cita();
         nuevaCita.setPaciente(pacienteOpt.get());
         nuevaCita.setMedico(medicoOpt.get());
         nuevaCita.setFecha(citaData.getFecha());
         nuevaCita.setHora(citaData.getHora());
+        nuevaCita.setDuracionMinutos(duracion);
         nuevaCita.setEstado(estadoOpt.get()); // Asigna el objeto Estado completo
 
-        Cita citaGuardada = citaRepository.save(nuevaCita);
+        Cita citaGuardada;
+        try {
+            citaGuardada = coordinadorReservas.ejecutar(idMedico, () -> {
+                if (indiceAgendaService.estaOcupado(idMedico, nuevaCita.getFecha(), nuevaCita.getHora(), duracion)) {
+                    return null;
+                }
+                Cita guardada;
+                try {
+                    guardada = citaRepository.saveAndFlush(nuevaCita);
+                } catch (DataIntegrityViolationException e) {
+                    if (!CoordinadorReservas.esSolapamiento(e)) {
+                        throw e;
+                    }
+                    return null;
+                }
+                if (estadoOpt.get().getIdEstado() != Cita.ID_ESTADO_CANCELADA) {
+                    indiceAgendaService.registrarCita(idMedico, guardada.getFecha(), guardada.getHora(), duracion);
+                }
+                return guardada;
+            }, nuevaCita.getFecha());
+        } catch (RuntimeException e) {
+            // La cita pudo quedar marcada en el índice sin confirmarse en la base de datos
+            indiceAgendaService.invalidar(idMedico, nuevaCita.getFecha());
+            throw e;
+        }
+
+        if (citaGuardada == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("El médico ya tiene una cita agendada en la fecha " + citaData.getFecha() + " y hora " + citaData.getHora() + ".");
+        }
 
         // Monitoreo
         monitoriaService.registrarAccion(
@@ -180,12 +287,29 @@ public class CitaController {
         return ResponseEntity.status(HttpStatus.CREATED).body(citaGuardada);
     }
 
+    /**
+     * POST /cita/crearCitasLote[?idUsuarioEditor=...] → Crear varias citas en una sola petición.
+     * Cada elemento tiene el mismo formato que en crearCita. Las citas válidas se crean
+     * aunque otras del lote sean rechazadas; la respuesta trae un resultado por elemento.
+     */
+    @PostMapping("/crearCitasLote")
+    public ResponseEntity<?> postCitasLote(@RequestBody List<Cita> citas, @RequestParam(required = false) Integer idUsuarioEditor) {
+        if (citas == null || citas.isEmpty()) {
+            return ResponseEntity.badRequest().body("El lote no contiene citas.");
+        }
+        if (citas.size() > ReservaLoteService.TAMANO_MAXIMO_LOTE) {
+            return ResponseEntity.badRequest()
+                    .body("El lote no puede tener más de " + ReservaLoteService.TAMANO_MAXIMO_LOTE + " citas.");
+        }
+        return ResponseEntity.ok(reservaLoteService.crear(citas, idUsuarioEditor));
+    }
+
     /**
      * PUT /cita/actualizarCita?idCita=... → Reprogramar o actualizar cita.
-     * Permite cambiar fecha, hora y/o estado de una cita.
+     * Permite cambiar fecha, hora, duración y/o estado de una cita.
      */
     @PutMapping("/actualizarCita")
-    public ResponseEntity<?> putCita(@RequestParam Integer idCita, @RequestBody Cita datosActualizados) {
+    public ResponseEntity<?> putCita(@RequestParam Long idCita, @RequestBody Cita datosActualizados) {
 
         // 1. Validar existencia de la cita
         Optional<Cita> citaOpt = citaRepository.findById(idCita);
@@ -196,30 +320,26 @@ public class CitaController {
         }
 
         Cita citaExistente = citaOpt.get();
+        LocalDate fechaAnterior = citaExistente.getFecha();
         LocalDate nuevaFecha = datosActualizados.getFecha() != null ? datosActualizados.getFecha() : citaExistente.getFecha();
         LocalTime nuevaHora = datosActualizados.getHora() != null ? datosActualizados.getHora() : citaExistente.getHora();
         Integer idNuevoEstado = datosActualizados.getEstado() != null ? datosActualizados.getEstado().getIdEstado() : null;
 
-        // 2. Validar disponibilidad si se intenta reprogramar (cambio de fecha/hora)
-        if (!nuevaFecha.equals(citaExistente.getFecha()) || !nuevaHora.equals(citaExistente.getHora())) {
-            Optional<Cita> citaConflictiva = citaRepository.findByMedicoAndFechaAndHora(
-                    citaExistente.getMedico(), nuevaFecha, nuevaHora
-            );
-
-            // Conflicto solo si existe otra cita con el mismo médico, fecha y hora, y NO es la misma cita que se está actualizando
-            if (citaConflictiva.isPresent() && !citaConflictiva.get().getId_cita().equals(idCita)) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                        .body("El médico no está disponible en la nueva fecha y hora (" + nuevaFecha + " " + nuevaHora + ").");
-            }
+        if (datosActualizados.getDuracionMinutos() != null && datosActualizados.getDuracionMinutos() <= 0) {
+            return ResponseEntity.badRequest().body("La duración de la cita debe ser mayor a cero minutos.");
+        }
 
-            // Si no hay conflicto, actualiza los datos de reprogramación
-            citaExistente.setFecha(nuevaFecha);
-            citaExistente.setHora(nuevaHora);
+        // 2. Reprogramar (fecha, hora y duración). El cruce con otra cita lo valida la
+        // base de datos al guardar.
+        citaExistente.setFecha(nuevaFecha);
+        citaExistente.setHora(nuevaHora);
+        if (datosActualizados.getDuracionMinutos() != null) {
+            citaExistente.setDuracionMinutos(datosActualizados.getDuracionMinutos());
         }
 
         // 3. Actualizar estado si se proporciona
         if (idNuevoEstado != null && !idNuevoEstado.equals(citaExistente.getEstado().getIdEstado())) {
-            Optional<Estado> estadoOpt = estadoRepository.findById(idNuevoEstado);
+            Optional<Estado> estadoOpt = cacheReferencia.estado(idNuevoEstado);
             if (!estadoOpt.isPresent()) {
                 return ResponseEntity.badRequest().body("Estado con ID " + idNuevoEstado + " no encontrado.");
             }
@@ -227,8 +347,27 @@ public class CitaController {
         }
 
 
-        // 4. Guardar y retornar
-        Cita citaActualizada = citaRepository.save(citaExistente);
+        // 4. Guardar y retornar. Se serializa con las demás escrituras del médico en el
+        // día anterior y en el nuevo; el cruce con otra cita lo rechaza la base de datos.
+        Integer idMedico = citaExistente.getMedico().getId_medico();
+        Cita citaActualizada = coordinadorReservas.ejecutar(idMedico, () -> {
+            try {
+                return citaRepository.saveAndFlush(citaExistente);
+            } catch (DataIntegrityViolationException e) {
+                if (!CoordinadorReservas.esSolapamiento(e)) {
+                    throw e;
+                }
+                return null;
+            } finally {
+                indiceAgendaService.invalidar(idMedico, fechaAnterior);
+                indiceAgendaService.invalidar(idMedico, nuevaFecha);
+            }
+        }, fechaAnterior, nuevaFecha);
+
+        if (citaActualizada == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("El médico no está disponible en la nueva fecha y hora (" + nuevaFecha + " " + nuevaHora + ").");
+        }
 
         // Monitoreo
         monitoriaService.registrarAccion(
@@ -245,7 +384,7 @@ public class CitaController {
      * DELETE /cita/eliminarCita?idCita=... → Cancelar cita (cambiar estado a Cancelada).
      */
     @DeleteMapping("/eliminarCita")
-    public ResponseEntity<?> deleteCita(@RequestParam Integer idCita) {
+    public ResponseEntity<?> deleteCita(@RequestParam Long idCita) {
 
         // 1. Validar existencia de la cita
         Optional<Cita> citaOpt = citaRepository.findById(idCita);
@@ -258,13 +397,14 @@ public class CitaController {
         Cita cita = citaOpt.get();
 
         // 2. Buscar el estado "Cancelada" (asume que existe un estado con ese nombre)
-        Optional<Estado> estadoCanceladaOpt = estadoRepository.findByNombreEstado("Cancelada");
+        Optional<Estado> estadoCanceladaOpt = cacheReferencia.estadoPorNombre("Cancelada");
 
         if (!estadoCanceladaOpt.isPresent()) {
             // Si no existe, lanza un error o simplemente elimina la cita (depende de la política)
             // Se opta por eliminar si no hay estado 'Cancelada' o retornar error
             try {
                 citaRepository.deleteById(idCita);
+                indiceAgendaService.invalidar(cita.getMedico().getId_medico(), cita.getFecha());
                 return ResponseEntity.ok("Cita eliminada permanentemente (Estado 'Cancelada' no encontrado).");
             } catch (Exception e) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -275,6 +415,7 @@ public class CitaController {
         // 3. Cambiar el estado a "Cancelada"
         cita.setEstado(estadoCanceladaOpt.get());
         citaRepository.save(cita);
+        indiceAgendaService.invalidar(cita.getMedico().getId_medico(), cita.getFecha());
 
         // Monitoreo
         monitoriaService.registrarAccion(
@@ -286,4 +427,4 @@ public class CitaController {
 
         return ResponseEntity.ok("Cita con ID " + idCita + " cancelada exitosamente.");
     }
-}
\ No newline at end of file
+}
@@ -1,24 +1,42 @@
 package com.healpoint.controller;
 
+import com.healpoint.entity.Cita;
 import com.healpoint.entity.Disponibilidad;
 import com.healpoint.repository.DisponibilidadRepository;
 import com.healpoint.repository.MedicoRepository;
+import com.healpoint.service.BuscadorHorariosService;
+import com.healpoint.service.IndiceAgendaService;
 import com.healpoint.service.MonitoriaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
 @RequestMapping("/disponibilidad")
 public class DisponibilidadController {
 
+    private static final int DIAS_BUSQUEDA_DEFECTO = 14;
+    private static final int DIAS_BUSQUEDA_MAXIMO = 62;
+    private static final int CANTIDAD_HORARIOS_DEFECTO = 10;
+    private static final int CANTIDAD_HORARIOS_MAXIMA = 100;
+
     private final DisponibilidadRepository disponibilidadRepository;
     private final MedicoRepository medicoRepository;
 
     @Autowired
     private MonitoriaService monitoriaService;
 
+    @Autowired
+    private IndiceAgendaService indiceAgendaService;
+
+    @Autowired
+    private BuscadorHorariosService buscadorHorarios;
+
     public DisponibilidadController(DisponibilidadRepository disponibilidadRepository,
                                     MedicoRepository medicoRepository) {
         this.disponibilidadRepository = disponibilidadRepository;
@@ -37,15 +55,51 @@ public class DisponibilidadController {
         return disponibilidadRepository.findByMedico(id_medico);
     }
 
+    // GET → Primeros horarios libres de una especialidad entre todos sus médicos activos.
+    // Sin hasta se buscan los próximos 14 días; sin duracion se usan 30 minutos.
+    @GetMapping("/proximosHorarios")
+    public ResponseEntity<?> getProximosHorarios(
+            @RequestParam String especialidad,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Integer duracion,
+            @RequestParam(required = false) Integer cantidad) {
+
+        if (especialidad.isBlank()) {
+            return ResponseEntity.badRequest().body("La especialidad es obligatoria.");
+        }
+
+        LocalDate fechaFin = hasta != null ? hasta : desde.plusDays(DIAS_BUSQUEDA_DEFECTO - 1);
+        if (fechaFin.isBefore(desde)) {
+            return ResponseEntity.badRequest().body("La fecha final no puede ser anterior a la inicial.");
+        }
+        if (ChronoUnit.DAYS.between(desde, fechaFin) >= DIAS_BUSQUEDA_MAXIMO) {
+            return ResponseEntity.badRequest().body("El rango de búsqueda no puede superar " + DIAS_BUSQUEDA_MAXIMO + " días.");
+        }
+
+        int minutos = duracion != null ? duracion : Cita.DURACION_POR_DEFECTO;
+        if (minutos < 1 || minutos > 24 * 60) {
+            return ResponseEntity.badRequest().body("La duración debe estar entre 1 y 1440 minutos.");
+        }
+
+        int total = cantidad != null ? cantidad : CANTIDAD_HORARIOS_DEFECTO;
+        if (total < 1 || total > CANTIDAD_HORARIOS_MAXIMA) {
+            return ResponseEntity.badRequest().body("La cantidad debe estar entre 1 y " + CANTIDAD_HORARIOS_MAXIMA + ".");
+        }
+
+        return ResponseEntity.ok(buscadorHorarios.buscar(especialidad.trim(), desde, fechaFin, minutos, total));
+    }
+
     // POST → Crear disponibilidad (solo RequestBody)
     @PostMapping("/crearDisponibilidad")
     public Disponibilidad crearDisponibilidad(@RequestBody Disponibilidad disponibilidad,
-                                              @RequestParam Integer idUsuarioEditor) {
+                                              @RequestParam(required = false) Integer idUsuarioEditor) {
 
         medicoRepository.findById(disponibilidad.getMedico().getId_medico())
                 .orElseThrow(() -> new RuntimeException("Médico no encontrado"));
 
         Disponibilidad guardada = disponibilidadRepository.save(disponibilidad);
+        indiceAgendaService.invalidar(disponibilidad.getMedico().getId_medico(), guardada.getFecha());
 
         monitoriaService.registrarAccion(
                 "disponibilidad",
@@ -60,16 +114,22 @@ public class DisponibilidadController {
     // PUT → Actualizar disponibilidad (solo RequestBody)
     @PutMapping("/actualizarDisponibilidad")
     public Disponibilidad actualizarDisponibilidad(@RequestBody Disponibilidad nuevaData,
-                                                   @RequestParam Integer idUsuarioEditor) {
+                                                   @RequestParam(required = false) Integer idUsuarioEditor) {
 
         Disponibilidad actualizada = disponibilidadRepository.findById(nuevaData.getId_disponibilidad()).map(d -> {
 
+            // Se invalida el día anterior y el nuevo en el índice de agenda
+            indiceAgendaService.invalidar(d.getMedico().getId_medico(), d.getFecha());
+
             d.setFecha(nuevaData.getFecha());
             d.setHora_inicio(nuevaData.getHora_inicio());
             d.setHora_fin(nuevaData.getHora_fin());
             d.setMedico(nuevaData.getMedico());
 
             Disponibilidad guardada = disponibilidadRepository.save(d);
+            if (guardada.getMedico() != null) {
+                indiceAgendaService.invalidar(guardada.getMedico().getId_medico(), guardada.getFecha());
+            }
 
             monitoriaService.registrarAccion(
                     "disponibilidad",
@@ -88,10 +148,11 @@ public class DisponibilidadController {
     // DELETE → Eliminar
     @DeleteMapping("/eliminarDisponibilidad")
     public String eliminarDisponibilidad(@RequestParam Integer id,
-                                         @RequestParam Integer idUsuarioEditor) {
+                                         @RequestParam(required = false) Integer idUsuarioEditor) {
 
         disponibilidadRepository.findById(id).ifPresentOrElse(d -> {
             disponibilidadRepository.delete(d);
+            indiceAgendaService.invalidar(d.getMedico().getId_medico(), d.getFecha());
 
             monitoriaService.registrarAccion(
                     "disponibilidad",
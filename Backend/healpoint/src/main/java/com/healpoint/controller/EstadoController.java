@@ -2,6 +2,7 @@ package com.healpoint.controller;
 
 import com.healpoint.entity.Estado;
 import com.healpoint.repository.EstadoRepository;
+import com.healpoint.service.CacheReferenciaService;
 import com.healpoint.service.MonitoriaService;
 
 import org.springframework.http.HttpStatus;
@@ -16,16 +17,19 @@ public class EstadoController {
 
     private final EstadoRepository estadoRepository;
     private final MonitoriaService monitoriaService;
+    private final CacheReferenciaService cacheReferencia;
 
     public EstadoController(EstadoRepository estadoRepository,
-                            MonitoriaService monitoriaService) {
+                            MonitoriaService monitoriaService,
+                            CacheReferenciaService cacheReferencia) {
         this.estadoRepository = estadoRepository;
         this.monitoriaService = monitoriaService;
+        this.cacheReferencia = cacheReferencia;
     }
 
     @GetMapping("/mostrarEstados")
     public ResponseEntity<List<Estado>> getEstados() {
-        return ResponseEntity.ok(estadoRepository.findAll());
+        return ResponseEntity.ok(cacheReferencia.estados());
     }
 
     @GetMapping("/mostrarEstado")
@@ -35,7 +39,7 @@ public class EstadoController {
             return ResponseEntity.badRequest().body("El ID enviado no es válido.");
         }
 
-        Estado estado = estadoRepository.findById(id).orElse(null);
+        Estado estado = cacheReferencia.estado(id).orElse(null);
 
         if (estado == null) {
             return ResponseEntity.badRequest().body("No existe el estado con ID " + id);
@@ -51,7 +55,7 @@ public class EstadoController {
             return ResponseEntity.badRequest().body("Debe ingresar un nombre de estado.");
         }
 
-        Estado estado = estadoRepository.findByNombreEstado(nombre).orElse(null);
+        Estado estado = cacheReferencia.estadoPorNombre(nombre).orElse(null);
 
         if (estado == null) {
             return ResponseEntity.badRequest()
@@ -69,11 +73,12 @@ public class EstadoController {
             return ResponseEntity.badRequest().body("El nombre del estado no puede ser vacío.");
         }
 
-        if (estadoRepository.findByNombreEstado(estado.getNombreEstado()).isPresent()) {
+        if (cacheReferencia.estadoPorNombre(estado.getNombreEstado()).isPresent()) {
             return ResponseEntity.badRequest().body("Ya existe un estado con ese nombre.");
         }
 
         Estado nuevo = estadoRepository.save(estado);
+        cacheReferencia.recargar();
 
         monitoriaService.registrarAccion(
                 "estado",
@@ -109,6 +114,7 @@ public class EstadoController {
         estado.setDescripcion(datos.getDescripcion());
 
         estadoRepository.save(estado);
+        cacheReferencia.recargar();
 
         monitoriaService.registrarAccion(
                 "estado",
@@ -137,6 +143,7 @@ public class EstadoController {
         }
 
         estadoRepository.delete(estado);
+        cacheReferencia.recargar();
 
         monitoriaService.registrarAccion(
                 "estado",
@@ -1,15 +1,19 @@
 package com.healpoint.controller;
 
+import com.healpoint.dto.HistorialResumenDTO;
 import com.healpoint.entity.Cita;
 import com.healpoint.entity.HistorialMedico;
 import com.healpoint.repository.HistorialRepository;
 import com.healpoint.repository.CitaRepository;
 
+import com.healpoint.service.ExportadorJson;
 import com.healpoint.service.MonitoriaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,27 +31,41 @@ public class HistorialController {
     @Autowired
     private MonitoriaService monitoriaService;
 
+    @Autowired
+    private ExportadorJson exportadorJson;
+
     /**
-     * GET /historial/mostrarHistoriales → Listar todos los historiales médicos.
+     * GET /historial/mostrarHistoriales → Listar todos los historiales médicos. El arreglo
+     * se escribe a medida que se leen las filas.
      */
     @GetMapping("/mostrarHistoriales")
-    public ResponseEntity<List<HistorialMedico>> getHistoriales() {
-        return ResponseEntity.ok(historialRepository.findAll());
+    public ResponseEntity<StreamingResponseBody> getHistoriales() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(exportadorJson.arreglo(historialRepository::streamTodos));
+    }
+
+    /**
+     * GET /historial/mostrarResumen?idPaciente=... → Listado liviano de historiales,
+     * opcionalmente de un solo paciente, sin el grafo completo de entidades.
+     */
+    @GetMapping("/mostrarResumen")
+    public ResponseEntity<List<HistorialResumenDTO>> getResumen(@RequestParam(required = false) Integer idPaciente) {
+        return ResponseEntity.ok(historialRepository.findResumen(idPaciente));
     }
 
     /**
      * GET /historial/mostrarHistorialPorCita?idCita=... → Consultar historial por cita.
      */
     @GetMapping("/mostrarHistorialPorCita")
-    public ResponseEntity<?> getHistorialPorCita(@RequestParam Integer idCita) {
+    public ResponseEntity<?> getHistorialPorCita(@RequestParam Long idCita) {
 
-        Optional<Cita> citaOpt = citaRepository.findById(idCita);
-        if (!citaOpt.isPresent()) {
+        if (!citaRepository.existsById(idCita)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("La cita con ID " + idCita + " no existe.");
         }
 
-        Optional<HistorialMedico> historialOpt = historialRepository.findByCita(citaOpt.get());
+        Optional<HistorialMedico> historialOpt = historialRepository.findByIdCita(idCita);
 
         if (!historialOpt.isPresent()) {
             return ResponseEntity.ok("No se ha registrado historial médico para la cita ID " + idCita + ".");
@@ -60,13 +78,13 @@ public class HistorialController {
      * POST /historial/crearHistorial → Registrar nuevo historial médico.
      */
     @PostMapping("/crearHistorial")
-    public ResponseEntity<?> postHistorial(@RequestParam Integer idUsuarioEditor, @RequestBody HistorialMedico historialData) {
+    public ResponseEntity<?> postHistorial(@RequestParam(required = false) Integer idUsuarioEditor, @RequestBody HistorialMedico historialData) {
 
         if (historialData.getCita() == null || historialData.getCita().getId_cita() == null) {
             return ResponseEntity.badRequest().body("El ID de la cita es obligatorio para registrar el historial.");
         }
 
-        Integer idCita = historialData.getCita().getId_cita();
+        Long idCita = historialData.getCita().getId_cita();
         Optional<Cita> citaOpt = citaRepository.findById(idCita);
 
         if (!citaOpt.isPresent()) {
@@ -102,7 +120,7 @@ public class HistorialController {
      * PUT /historial/actualizarHistorial?idHistorial=... → Actualizar observaciones o diagnóstico.
      */
     @PutMapping("/actualizarHistorial")
-    public ResponseEntity<?> putHistorial(@RequestParam Integer idHistorial, @RequestParam Integer idUsuarioEditor,
+    public ResponseEntity<?> putHistorial(@RequestParam Integer idHistorial, @RequestParam(required = false) Integer idUsuarioEditor,
                                           @RequestBody HistorialMedico datosActualizados) {
 
         Optional<HistorialMedico> historialOpt = historialRepository.findById(idHistorial);
@@ -141,7 +159,7 @@ public class HistorialController {
      * DELETE /historial/eliminarHistorial?idHistorial=... → Eliminar historial.
      */
     @DeleteMapping("/eliminarHistorial")
-    public ResponseEntity<?> deleteHistorial(@RequestParam Integer idHistorial, @RequestParam Integer idUsuarioEditor) {
+    public ResponseEntity<?> deleteHistorial(@RequestParam Integer idHistorial, @RequestParam(required = false) Integer idUsuarioEditor) {
 
         if (!historialRepository.existsById(idHistorial)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -3,9 +3,9 @@ package com.healpoint.controller;
 import com.healpoint.entity.Estado;
 import com.healpoint.entity.Medico;
 import com.healpoint.entity.Usuario;
-import com.healpoint.repository.EstadoRepository;
 import com.healpoint.repository.MedicoRepository;
 import com.healpoint.repository.UsuarioRepository;
+import com.healpoint.service.CacheReferenciaService;
 import com.healpoint.service.MonitoriaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -25,7 +25,7 @@ public class MedicoController {
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private EstadoRepository estadoRepository;
+    private CacheReferenciaService cacheReferencia;
 
     @Autowired
     private MonitoriaService monitoriaService;
@@ -62,7 +62,7 @@ public class MedicoController {
     @PostMapping("/crearMedico")
     public Object postMedico(
             @RequestBody Medico medico,
-            @RequestParam Integer idUsuarioEditor
+            @RequestParam(required = false) Integer idUsuarioEditor
     ) {
 
         if (medico.getEspecialidad() == null || medico.getEspecialidad().trim().isEmpty()) {
@@ -82,7 +82,7 @@ public class MedicoController {
             return "Debe enviar un estado válido.";
         }
 
-        Estado estado = estadoRepository.findById(medico.getEstado().getIdEstado()).orElse(null);
+        Estado estado = cacheReferencia.estado(medico.getEstado().getIdEstado()).orElse(null);
         if (estado == null) {
             return "El estado enviado no existe.";
         }
@@ -105,7 +105,7 @@ public class MedicoController {
     @PutMapping("/actualizarMedico")
     public Object actualizarMedico(
             @RequestBody Medico medicoData,
-            @RequestParam Integer idUsuarioEditor
+            @RequestParam(required = false) Integer idUsuarioEditor
     ) {
 
         if (medicoData.getId_medico() == null || medicoData.getId_medico() <= 0) {
@@ -135,7 +135,7 @@ public class MedicoController {
             if (medicoData.getEstado() != null &&
                     medicoData.getEstado().getIdEstado() != null) {
 
-                Estado estado = estadoRepository.findById(
+                Estado estado = cacheReferencia.estado(
                         medicoData.getEstado().getIdEstado()
                 ).orElse(null);
 
@@ -163,7 +163,7 @@ public class MedicoController {
     @DeleteMapping("/desactivarMedico")
     public Object desactivarMedico(
             @RequestParam Integer id,
-            @RequestParam Integer idUsuarioEditor
+            @RequestParam(required = false) Integer idUsuarioEditor
     ) {
 
         if (id == null || id <= 0) {
@@ -172,7 +172,8 @@ public class MedicoController {
 
         return medicoRepository.findById(id).map(m -> {
 
-            Estado inactivo = estadoRepository.findById(2).orElse(null); // 2 = Inactivo
+            // El estado INACTIVO tiene ID 7 (2 es ACTIVA); la búsqueda de horarios excluye este estado
+            Estado inactivo = cacheReferencia.estado(Medico.ID_ESTADO_INACTIVO).orElse(null);
             if (inactivo == null) {
                 return "No se encontró el estado 'Inactivo'.";
             }
@@ -195,7 +196,7 @@ public class MedicoController {
     @PutMapping("/activarMedico")
     public Object activarMedico(
             @RequestParam Integer id,
-            @RequestParam Integer idUsuarioEditor
+            @RequestParam(required = false) Integer idUsuarioEditor
     ) {
 
         if (id == null || id <= 0) {
@@ -204,7 +205,7 @@ public class MedicoController {
 
         return medicoRepository.findById(id).map(m -> {
 
-            Estado activo = estadoRepository.findById(1).orElse(null); // 1 = Activo
+            Estado activo = cacheReferencia.estado(2).orElse(null); // 2 = ACTIVA (1 es PENDIENTE)
             if (activo == null) {
                 return "No se encontró el estado 'Activo'.";
             }
@@ -1,31 +1,199 @@
 package com.healpoint.controller;
 
+import com.healpoint.dto.MonitoriaResumenDTO;
+import com.healpoint.dto.PaginaMonitoriaDTO;
 import com.healpoint.entity.Monitoria;
 import com.healpoint.repository.MonitoriaRepository;
+import com.healpoint.repository.MonitoriaResumenHoraRepository;
+import com.healpoint.repository.MonitoriaResumenHoraRepositoryCustom.Agrupacion;
+import com.healpoint.service.ExportadorJson;
+import com.healpoint.service.ResumenAuditoriaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/monitoria")
 public class MonitoriaController {
 
+    private static final int LIMITE_BUSQUEDA_DEFECTO = 50;
+    private static final int LIMITE_BUSQUEDA_MAXIMO = 200;
+
     @Autowired
     private MonitoriaRepository monitoriaRepository;
 
+    @Autowired
+    private ExportadorJson exportadorJson;
+
+    @Autowired
+    private MonitoriaResumenHoraRepository resumenRepository;
+
+    @Autowired
+    private ResumenAuditoriaService resumenAuditoria;
+
+    /**
+     * GET /monitoria/mostrarMonitorias → Todos los registros de auditoría, o solo los de
+     * desde a hasta (ambos inclusive; sin hasta, solo el día desde). Con rango de fechas
+     * solo se leen las particiones mensuales de esos días. Sin registros se responde un
+     * arreglo vacío.
+     *
+     * El tipo de retorno debe ser ResponseEntity&lt;StreamingResponseBody&gt;: con
+     * ResponseEntity&lt;?&gt; Spring MVC no reconoce el cuerpo como streaming y lo
+     * serializa como un objeto vacío. Por eso los errores también se escriben así.
+     */
     @GetMapping("/mostrarMonitorias")
-    public ResponseEntity<?> getMonitorias() {
-        var lista = monitoriaRepository.findAll();
+    public ResponseEntity<StreamingResponseBody> getMonitorias(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+
+        if (desde == null) {
+            if (hasta != null) {
+                return solicitudIncorrecta("La fecha final requiere una fecha inicial.");
+            }
+
+            // La tabla de auditoría puede tener millones de filas: se escribe en streaming
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(exportadorJson.arreglo(monitoriaRepository::streamTodas));
+        }
+
+        LocalDate fechaFin = hasta != null ? hasta : desde;
+        if (fechaFin.isBefore(desde)) {
+            return solicitudIncorrecta("La fecha final no puede ser anterior a la inicial.");
+        }
+
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = fechaFin.plusDays(1).atStartOfDay();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(exportadorJson.arreglo(() -> monitoriaRepository.streamEntre(inicio, fin)));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> solicitudIncorrecta(String mensaje) {
+        return ResponseEntity.badRequest()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(salida -> salida.write(mensaje.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * GET /monitoria/buscarMonitorias?desde=...&hasta=... → Buscar registros de auditoría
+     * entre dos fechas (ambas inclusive; sin hasta, solo el día desde), del más reciente al
+     * más antiguo. Filtros opcionales: tablaAfectada, accion, idUsuario. Para pedir la
+     * siguiente página se envían antesFecha y antesIdMonitoria con los valores devueltos
+     * en la anterior.
+     */
+    @GetMapping("/buscarMonitorias")
+    public ResponseEntity<?> buscarMonitorias(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String tablaAfectada,
+            @RequestParam(required = false) String accion,
+            @RequestParam(required = false) Integer idUsuario,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime antesFecha,
+            @RequestParam(required = false) Long antesIdMonitoria,
+            @RequestParam(required = false) Integer limite) {
+
+        LocalDate fechaFin = hasta != null ? hasta : desde;
+        if (fechaFin.isBefore(desde)) {
+            return ResponseEntity.badRequest().body("La fecha final no puede ser anterior a la inicial.");
+        }
 
-        if (lista.isEmpty()) {
-            return ResponseEntity.ok("No hay registros de monitoría.");
+        int tamano = limite != null ? limite : LIMITE_BUSQUEDA_DEFECTO;
+        if (tamano < 1 || tamano > LIMITE_BUSQUEDA_MAXIMO) {
+            return ResponseEntity.badRequest().body("El límite debe estar entre 1 y " + LIMITE_BUSQUEDA_MAXIMO + ".");
         }
 
-        return ResponseEntity.ok(lista);
+        boolean hayCursor = antesFecha != null || antesIdMonitoria != null;
+        if (hayCursor && (antesFecha == null || antesIdMonitoria == null)) {
+            return ResponseEntity.badRequest().body("El cursor requiere antesFecha y antesIdMonitoria.");
+        }
+
+        // Sin cursor se empieza justo después del último instante del día final
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = fechaFin.plusDays(1).atStartOfDay();
+        LocalDateTime cursorFecha = hayCursor ? antesFecha : fin;
+        Long cursorId = hayCursor ? antesIdMonitoria : 0L;
+        if (cursorFecha.isAfter(fin)) {
+            cursorFecha = fin;
+            cursorId = 0L;
+        }
+
+        // Se pide una fila de más para saber si existe una página siguiente
+        List<MonitoriaResumenDTO> registros = monitoriaRepository.buscar(
+                inicio, fin, cursorFecha, cursorId,
+                vacioANulo(tablaAfectada), vacioANulo(accion), idUsuario, tamano + 1);
+
+        if (registros.size() <= tamano) {
+            return ResponseEntity.ok(new PaginaMonitoriaDTO(registros, null, null));
+        }
+
+        List<MonitoriaResumenDTO> pagina = registros.subList(0, tamano);
+        MonitoriaResumenDTO ultimo = pagina.get(tamano - 1);
+        return ResponseEntity.ok(new PaginaMonitoriaDTO(
+                List.copyOf(pagina), ultimo.fecha(), ultimo.idMonitoria()));
+    }
+
+    /**
+     * GET /monitoria/resumen?desde=...&hasta=... → Cantidad de acciones por tabla y tipo de
+     * acción entre dos fechas (ambas inclusive; sin hasta, solo el día desde), leída del
+     * resumen por hora. agrupacion: HORA (por defecto), DIA o TOTAL. Filtros opcionales:
+     * tablaAfectada, accion. Las acciones de los últimos segundos pueden no estar incluidas
+     * todavía (healpoint.auditoria.resumen.intervalo-ms).
+     */
+    @GetMapping("/resumen")
+    public ResponseEntity<?> getResumen(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String tablaAfectada,
+            @RequestParam(required = false) String accion,
+            @RequestParam(required = false) Agrupacion agrupacion) {
+
+        LocalDate fechaFin = hasta != null ? hasta : desde;
+        if (fechaFin.isBefore(desde)) {
+            return ResponseEntity.badRequest().body("La fecha final no puede ser anterior a la inicial.");
+        }
+
+        return ResponseEntity.ok(resumenRepository.resumir(
+                desde.atStartOfDay(), fechaFin.plusDays(1).atStartOfDay(),
+                vacioANulo(tablaAfectada), vacioANulo(accion),
+                agrupacion != null ? agrupacion : Agrupacion.HORA));
+    }
+
+    /**
+     * POST /monitoria/resumen/recalcular?desde=...&hasta=... → Recalcular en segundo plano
+     * el resumen por hora entre dos fechas (ambas inclusive) a partir de los registros de
+     * monitoría. La hora actual y la anterior no se recalculan.
+     */
+    @PostMapping("/resumen/recalcular")
+    public ResponseEntity<?> recalcularResumen(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+
+        if (hasta.isBefore(desde)) {
+            return ResponseEntity.badRequest().body("La fecha final no puede ser anterior a la inicial.");
+        }
+
+        if (!resumenAuditoria.iniciarRecalculo(desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Ya hay un recálculo del resumen en curso.");
+        }
+        return ResponseEntity.accepted().body("Recálculo del resumen iniciado entre " + desde + " y " + hasta + ".");
+    }
+
+    private static String vacioANulo(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
     }
 
     @GetMapping("/mostrarMonitoria")
-    public ResponseEntity<?> getMonitoriaById(@RequestParam Integer id) {
+    public ResponseEntity<?> getMonitoriaById(@RequestParam Long id) {
 
         if (id == null || id <= 0) {
             return ResponseEntity.badRequest().body("ID inválido.");
@@ -54,6 +222,7 @@ public class MonitoriaController {
         }
 
         var result = monitoriaRepository.save(monitoria);
+        resumenAuditoria.registrar(result.getTablaAfectada(), result.getAccion(), result.getFecha());
         return ResponseEntity.ok(result);
     }
 }
@@ -3,9 +3,9 @@ package com.healpoint.controller;
 import com.healpoint.entity.Estado;
 import com.healpoint.entity.Paciente;
 import com.healpoint.entity.Usuario;
-import com.healpoint.repository.EstadoRepository;
 import com.healpoint.repository.PacienteRepository;
 import com.healpoint.repository.UsuarioRepository;
+import com.healpoint.service.CacheReferenciaService;
 import com.healpoint.service.MonitoriaService;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,7 +26,7 @@ public class PacienteController {
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private EstadoRepository estadoRepository;
+    private CacheReferenciaService cacheReferencia;
 
     @Autowired
     private MonitoriaService monitoriaService;
@@ -87,7 +87,7 @@ public class PacienteController {
     @PostMapping("/crearPaciente")
     public ResponseEntity<?> crearPaciente(
             @RequestParam Integer idUsuario,
-            @RequestParam Integer idUsuarioEditor,
+            @RequestParam(required = false) Integer idUsuarioEditor,
             @RequestBody Paciente datos) {
 
         Usuario usuario = usuarioRepository.findById(idUsuario).orElse(null);
@@ -99,7 +99,7 @@ public class PacienteController {
             return ResponseEntity.badRequest().body("La EPS es obligatoria.");
         }
 
-        Estado estado = estadoRepository.findById(1).orElse(null);
+        Estado estado = cacheReferencia.estado(1).orElse(null);
         if (estado == null) {
             return ResponseEntity.badRequest().body("No se encontró el estado 'Activo'.");
         }
@@ -126,7 +126,7 @@ public class PacienteController {
     @PutMapping("/actualizarPaciente")
     public ResponseEntity<?> actualizarPaciente(
             @RequestBody Paciente datos,
-            @RequestParam Integer idUsuarioEditor) {
+            @RequestParam(required = false) Integer idUsuarioEditor) {
 
         if (datos.getIdPaciente() == null || datos.getIdPaciente() <= 0) {
             return ResponseEntity.badRequest().body("El ID del paciente es obligatorio.");
@@ -159,7 +159,7 @@ public class PacienteController {
     @DeleteMapping("/eliminarPaciente")
     public ResponseEntity<?> eliminarPaciente(
             @RequestParam Integer id,
-            @RequestParam Integer idUsuarioEditor) {
+            @RequestParam(required = false) Integer idUsuarioEditor) {
 
         if (id == null || id <= 0) {
             return ResponseEntity.badRequest().body("ID inválido.");
@@ -172,7 +172,7 @@ public class PacienteController {
                     .body("No existe un paciente con ID " + id);
         }
 
-        Estado inactivo = estadoRepository.findById(2).orElse(null);
+        Estado inactivo = cacheReferencia.estado(2).orElse(null);
         if (inactivo == null) {
             return ResponseEntity.badRequest().body("No se encontró el estado 'Inactivo'.");
         }
@@ -193,7 +193,7 @@ public class PacienteController {
     @PutMapping("/activarPaciente")
     public ResponseEntity<?> activarPaciente(
             @RequestParam Integer id,
-            @RequestParam Integer idUsuarioEditor) {
+            @RequestParam(required = false) Integer idUsuarioEditor) {
 
         if (id == null || id <= 0) {
             return ResponseEntity.badRequest().body("ID inválido.");
@@ -206,7 +206,7 @@ public class PacienteController {
                     .body("No existe un paciente con ID " + id);
         }
 
-        Estado activo = estadoRepository.findById(1).orElse(null);
+        Estado activo = cacheReferencia.estado(1).orElse(null);
 
         if (activo == null) {
             return ResponseEntity.badRequest().body("No se encontró el estado 'Activo'.");
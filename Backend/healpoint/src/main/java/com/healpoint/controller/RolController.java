@@ -2,8 +2,8 @@ package com.healpoint.controller;
 
 import com.healpoint.entity.Estado;
 import com.healpoint.entity.Rol;
+import com.healpoint.service.CacheReferenciaService;
 import com.healpoint.service.MonitoriaService;
-import com.healpoint.repository.EstadoRepository;
 import com.healpoint.repository.RolRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,7 +21,7 @@ public class RolController {
     private RolRepository rolRepository;
 
     @Autowired
-    private EstadoRepository estadoRepository;
+    private CacheReferenciaService cacheReferencia;
 
     @Autowired
     private MonitoriaService monitoriaService;
@@ -29,7 +29,7 @@ public class RolController {
     @GetMapping("/mostrarRoles")
     public ResponseEntity<?> getRoles() {
 
-        List<Rol> roles = rolRepository.findAll();
+        List<Rol> roles = cacheReferencia.roles();
 
         if (roles.isEmpty()) {
             return ResponseEntity.ok("No hay roles registrados.");
@@ -45,7 +45,7 @@ public class RolController {
             return ResponseEntity.badRequest().body("ID inválido.");
         }
 
-        Rol rol = rolRepository.findById(id).orElse(null);
+        Rol rol = cacheReferencia.rol(id).orElse(null);
 
         if (rol == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -62,7 +62,7 @@ public class RolController {
             return ResponseEntity.badRequest().body("Debe ingresar un nombre.");
         }
 
-        Rol rol = rolRepository.findByNombreRol(nombre).orElse(null);
+        Rol rol = cacheReferencia.rolPorNombre(nombre).orElse(null);
 
         if (rol == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -84,13 +84,13 @@ public class RolController {
             return ResponseEntity.badRequest().body("Debe enviar un estado válido.");
         }
 
-        Estado estado = estadoRepository.findById(datos.getEstado().getIdEstado()).orElse(null);
+        Estado estado = cacheReferencia.estado(datos.getEstado().getIdEstado()).orElse(null);
 
         if (estado == null) {
             return ResponseEntity.badRequest().body("El estado enviado no existe.");
         }
 
-        if (rolRepository.findByNombreRol(datos.getNombreRol()).isPresent()) {
+        if (cacheReferencia.rolPorNombre(datos.getNombreRol()).isPresent()) {
             return ResponseEntity.badRequest().body("Ya existe un rol con ese nombre.");
         }
 
@@ -100,6 +100,7 @@ public class RolController {
         nuevo.setEstado(estado);
 
         rolRepository.save(nuevo);
+        cacheReferencia.recargar();
 
         monitoriaService.registrarAccion(
                 "rol",
@@ -134,6 +135,7 @@ public class RolController {
         rol.setDescripcion(datos.getDescripcion());
 
         rolRepository.save(rol);
+        cacheReferencia.recargar();
 
         monitoriaService.registrarAccion(
                 "rol",
@@ -161,7 +163,7 @@ public class RolController {
         }
 
         // CORREGIDO: El estado Inactivo tiene ID 7, no 2
-        Estado inactivo = estadoRepository.findById(7).orElse(null);
+        Estado inactivo = cacheReferencia.estado(7).orElse(null);
 
         if (inactivo == null) {
             return ResponseEntity.badRequest().body("No se encontró el estado 'Inactivo'.");
@@ -169,6 +171,7 @@ public class RolController {
 
         rol.setEstado(inactivo);
         rolRepository.save(rol);
+        cacheReferencia.recargar();
 
         monitoriaService.registrarAccion(
                 "rol",
@@ -196,7 +199,7 @@ public class RolController {
         }
 
         // CORREGIDO: El estado ACTIVA tiene ID 2, no 1
-        Estado activo = estadoRepository.findById(2).orElse(null);
+        Estado activo = cacheReferencia.estado(2).orElse(null);
 
         if (activo == null) {
             return ResponseEntity.badRequest().body("No se encontró el estado 'Activo'.");
@@ -204,6 +207,7 @@ public class RolController {
 
         rol.setEstado(activo);
         rolRepository.save(rol);
+        cacheReferencia.recargar();
 
         monitoriaService.registrarAccion(
                 "rol",
@@ -3,18 +3,21 @@ package com.healpoint.controller;
 import com.healpoint.entity.Estado;
 import com.healpoint.entity.Rol;
 import com.healpoint.entity.Usuario;
-import com.healpoint.repository.EstadoRepository;
-import com.healpoint.repository.RolRepository;
 import com.healpoint.repository.UsuarioRepository;
+import com.healpoint.service.CacheReferenciaService;
+import com.healpoint.service.ContrasenaService;
+import com.healpoint.service.ExportadorJson;
 import com.healpoint.service.MonitoriaService;
+import com.healpoint.service.TokenSesionService;
 
 import com.healpoint.validator.EmailValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/usuario")
@@ -24,24 +27,41 @@ public class UsuarioController {
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private RolRepository rolRepository;
-
-    @Autowired
-    private EstadoRepository estadoRepository;
+    private CacheReferenciaService cacheReferencia;
 
     @Autowired
     private MonitoriaService monitoriaService;
 
-    @GetMapping("/mostrarUsuarios")
-    public ResponseEntity<?> getUsuarios() {
+    @Autowired
+    private ExportadorJson exportadorJson;
 
-        List<Usuario> usuarios = usuarioRepository.findAll();
+    @Autowired
+    private TokenSesionService tokenSesion;
 
-        if (usuarios.isEmpty()) {
-            return ResponseEntity.ok("No hay usuarios registrados.");
-        }
+    @Autowired
+    private ContrasenaService contrasenaService;
+
+    /**
+     * El grupo de cifrado de contraseñas está saturado (avalancha de logins): se responde
+     * 503 en lugar de dejar la petición esperando.
+     */
+    @ExceptionHandler(ContrasenaService.Saturado.class)
+    public ResponseEntity<?> cifradoSaturado(ContrasenaService.Saturado e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(e.getMessage() + " Intente de nuevo en unos segundos.");
+    }
 
-        return ResponseEntity.ok(usuarios);
+    /**
+     * GET /usuario/mostrarUsuarios → Listar todos los usuarios en streaming; sin usuarios
+     * se responde un arreglo vacío. El tipo de retorno debe ser
+     * ResponseEntity&lt;StreamingResponseBody&gt; para que Spring MVC escriba el arreglo.
+     */
+    @GetMapping("/mostrarUsuarios")
+    public ResponseEntity<StreamingResponseBody> getUsuarios() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(exportadorJson.arreglo(usuarioRepository::streamTodos));
     }
 
     @GetMapping("/mostrarUsuario")
@@ -64,7 +84,7 @@ public class UsuarioController {
     @PostMapping("/crearUsuario")
     public ResponseEntity<?> crearUsuario(
             @RequestBody Usuario datos,
-            @RequestParam Integer idUsuarioEditor) {
+            @RequestParam(required = false) Integer idUsuarioEditor) {
 
         if (datos.getNombre() == null || datos.getNombre().trim().isEmpty()) {
             return ResponseEntity.badRequest().body("El nombre es obligatorio.");
@@ -78,6 +98,9 @@ public class UsuarioController {
         if (usuarioRepository.findByCorreo(datos.getCorreo()).isPresent()) {
             return ResponseEntity.badRequest().body("Ya existe un usuario con ese correo.");
         }
+        if (datos.getContrasena() == null || datos.getContrasena().isBlank()) {
+            return ResponseEntity.badRequest().body("La contraseña es obligatoria.");
+        }
 
         if (datos.getRol() == null || datos.getRol().getIdRol() == null) {
             return ResponseEntity.badRequest().body("Debe indicar un rol válido.");
@@ -87,18 +110,19 @@ public class UsuarioController {
             return ResponseEntity.badRequest().body("Debe indicar un estado válido.");
         }
 
-        Rol rol = rolRepository.findById(datos.getRol().getIdRol()).orElse(null);
+        Rol rol = cacheReferencia.rol(datos.getRol().getIdRol()).orElse(null);
         if (rol == null) {
             return ResponseEntity.badRequest().body("El rol enviado no existe.");
         }
 
-        Estado estado = estadoRepository.findById(datos.getEstado().getIdEstado()).orElse(null);
+        Estado estado = cacheReferencia.estado(datos.getEstado().getIdEstado()).orElse(null);
         if (estado == null) {
             return ResponseEntity.badRequest().body("El estado enviado no existe.");
         }
 
         datos.setRol(rol);
         datos.setEstado(estado);
+        datos.setContrasena(contrasenaService.cifrar(datos.getContrasena()));
 
         usuarioRepository.save(datos);
 
@@ -116,7 +140,7 @@ public class UsuarioController {
     @PutMapping("/actualizarUsuario")
     public ResponseEntity<?> actualizarUsuario(
             @RequestBody Usuario datos,
-            @RequestParam Integer idUsuarioEditor) {
+            @RequestParam(required = false) Integer idUsuarioEditor) {
 
         if (datos.getIdUsuario() == null || datos.getIdUsuario() <= 0) {
             return ResponseEntity.badRequest().body("El ID del usuario es obligatorio y debe ser válido.");
@@ -151,10 +175,15 @@ public class UsuarioController {
         usuario.setDireccion(datos.getDireccion());
         usuario.setTelefono(datos.getTelefono());
         usuario.setFechaNacimiento(datos.getFechaNacimiento());
-        usuario.setContrasena(datos.getContrasena());
+
+        // Sin contraseña (nula o en blanco) se conserva la actual; cualquier otro valor se
+        // cifra como contraseña nueva, aunque coincida con el hash guardado
+        if (datos.getContrasena() != null && !datos.getContrasena().isBlank()) {
+            usuario.setContrasena(contrasenaService.cifrar(datos.getContrasena()));
+        }
 
         if (datos.getRol() != null && datos.getRol().getIdRol() != null) {
-            Rol rol = rolRepository.findById(datos.getRol().getIdRol()).orElse(null);
+            Rol rol = cacheReferencia.rol(datos.getRol().getIdRol()).orElse(null);
             if (rol == null) {
                 return ResponseEntity.badRequest().body("El rol enviado no existe.");
             }
@@ -162,7 +191,7 @@ public class UsuarioController {
         }
 
         if (datos.getEstado() != null && datos.getEstado().getIdEstado() != null) {
-            Estado estado = estadoRepository.findById(datos.getEstado().getIdEstado()).orElse(null);
+            Estado estado = cacheReferencia.estado(datos.getEstado().getIdEstado()).orElse(null);
             if (estado == null) {
                 return ResponseEntity.badRequest().body("El estado enviado no existe.");
             }
@@ -184,7 +213,7 @@ public class UsuarioController {
     @DeleteMapping("/eliminarUsuario")
     public ResponseEntity<?> eliminarUsuario(
             @RequestParam Integer id,
-            @RequestParam Integer idUsuarioEditor) {
+            @RequestParam(required = false) Integer idUsuarioEditor) {
 
         if (id == null || id <= 0) {
             return ResponseEntity.badRequest().body("ID inválido.");
@@ -197,7 +226,7 @@ public class UsuarioController {
                     .body("No existe un usuario con ID " + id);
         }
 
-        Estado inactivo = estadoRepository.findById(2).orElse(null);
+        Estado inactivo = cacheReferencia.estado(2).orElse(null);
 
         if (inactivo == null) {
             return ResponseEntity.badRequest().body("No se encontró el estado 'Inactivo'.");
@@ -219,7 +248,7 @@ public class UsuarioController {
     @PutMapping("/activarUsuario")
     public ResponseEntity<?> activarUsuario(
             @RequestParam Integer id,
-            @RequestParam Integer idUsuarioEditor) {
+            @RequestParam(required = false) Integer idUsuarioEditor) {
 
         if (id == null || id <= 0) {
             return ResponseEntity.badRequest().body("ID inválido.");
@@ -232,7 +261,7 @@ public class UsuarioController {
                     .body("No existe un usuario con ID " + id);
         }
 
-        Estado activo = estadoRepository.findById(1).orElse(null);
+        Estado activo = cacheReferencia.estado(1).orElse(null);
 
         if (activo == null) {
             return ResponseEntity.badRequest().body("No se encontró el estado 'Activo'.");
@@ -251,6 +280,11 @@ public class UsuarioController {
         return ResponseEntity.ok("Usuario activado correctamente.");
     }
 
+    /**
+     * POST /usuario/login → Devuelve el usuario y, en la cabecera X-Token-Sesion, un token
+     * firmado con su ID y rol. Enviándolo como "Authorization: Bearer <token>" las demás
+     * peticiones quedan a nombre de ese usuario sin pasar idUsuarioEditor.
+     */
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody Usuario datos) {
 
@@ -267,7 +301,7 @@ public class UsuarioController {
         }
 
         // Validar contraseña
-        if (!usuario.getContrasena().equals(datos.getContrasena())) {
+        if (!contrasenaService.verificar(datos.getContrasena(), usuario.getContrasena())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body("Contraseña incorrecta.");
         }
@@ -277,9 +311,18 @@ public class UsuarioController {
                     .body("El usuario está inactivo.");
         }
 
-        // Evitar enviar contraseña al frontend
-        usuario.setContrasena(null);
+        // Filas con la contraseña en texto plano o cifradas con menos iteraciones: ahora que
+        // se conoce la contraseña se guarda con el cifrado actual
+        if (contrasenaService.necesitaActualizar(usuario.getContrasena())) {
+            usuario.setContrasena(contrasenaService.cifrar(datos.getContrasena()));
+            usuarioRepository.save(usuario);
+        }
+
+        String token = tokenSesion.emitir(usuario.getIdUsuario(), usuario.getRol().getIdRol());
 
-        return ResponseEntity.ok(usuario);
+        // La contraseña no se envía al frontend (ver Usuario.contrasena)
+        return ResponseEntity.ok()
+                .header(TokenSesionService.CABECERA, token)
+                .body(usuario);
     }
 }
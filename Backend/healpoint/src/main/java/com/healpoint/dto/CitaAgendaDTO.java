@@ -0,0 +1,24 @@
+package com.healpoint.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Fila de la agenda: datos de la cita con los nombres de paciente, médico y estado,
+ * sin el grafo completo de entidades.
+ */
+public record CitaAgendaDTO(
+        Long idCita,
+        LocalDate fecha,
+        LocalTime hora,
+        Integer idPaciente,
+        String nombrePaciente,
+        String apellidoPaciente,
+        Integer idMedico,
+        String nombreMedico,
+        String apellidoMedico,
+        String especialidad,
+        Integer idEstado,
+        String nombreEstado
+) {
+}
@@ -0,0 +1,10 @@
+package com.healpoint.dto;
+
+import java.time.LocalTime;
+
+/**
+ * Hora de inicio y duración de una cita que ocupa la agenda de un médico, sin cargar
+ * la entidad completa.
+ */
+public record CitaOcupada(LocalTime hora, Integer duracionMinutos) {
+}
@@ -0,0 +1,11 @@
+package com.healpoint.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Fecha, hora de inicio y duración de una cita que ocupa la agenda de un médico, sin
+ * cargar la entidad completa.
+ */
+public record CitaOcupadaDia(LocalDate fecha, LocalTime hora, Integer duracionMinutos) {
+}
@@ -0,0 +1,17 @@
+package com.healpoint.dto;
+
+/**
+ * Acumulado de las sentencias SQL ejecutadas mientras un método de controlador atendía
+ * peticiones, desde el arranque o el último reinicio de las estadísticas. El número de
+ * peticiones atendidas está en la métrica http.server.requests.
+ */
+public record EstadisticaControladorDTO(
+        String controlador,
+        long sentencias,
+        long errores,
+        long lentas,
+        long filas,
+        double tiempoTotalMs,
+        double tiempoMaximoMs
+) {
+}
@@ -0,0 +1,18 @@
+package com.healpoint.dto;
+
+/**
+ * Acumulado de una sentencia SQL desde el arranque o el último reinicio de las
+ * estadísticas. Las sentencias con los mismos marcadores ? se agrupan aunque cambien los
+ * valores de los parámetros.
+ */
+public record EstadisticaSentenciaDTO(
+        String sql,
+        long ejecuciones,
+        long errores,
+        long lentas,
+        long filas,
+        double tiempoTotalMs,
+        double tiempoPromedioMs,
+        double tiempoMaximoMs
+) {
+}
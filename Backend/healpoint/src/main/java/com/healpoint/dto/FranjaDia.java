@@ -0,0 +1,10 @@
+package com.healpoint.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Franja [inicio, fin] de disponibilidad de un médico en una fecha, sin cargar la entidad completa.
+ */
+public record FranjaDia(LocalDate fecha, LocalTime inicio, LocalTime fin) {
+}
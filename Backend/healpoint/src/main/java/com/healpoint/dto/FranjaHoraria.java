@@ -0,0 +1,9 @@
+package com.healpoint.dto;
+
+import java.time.LocalTime;
+
+/**
+ * Franja [inicio, fin] de disponibilidad de un médico, sin cargar la entidad completa.
+ */
+public record FranjaHoraria(LocalTime inicio, LocalTime fin) {
+}
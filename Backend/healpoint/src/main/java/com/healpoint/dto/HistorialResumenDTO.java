@@ -0,0 +1,25 @@
+package com.healpoint.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Fila del listado de historiales: datos clínicos básicos con la cita, el paciente y
+ * el médico, sin el grafo completo de entidades.
+ */
+public record HistorialResumenDTO(
+        Integer idHistorial,
+        LocalDate fechaRegistro,
+        String diagnostico,
+        Long idCita,
+        LocalDate fechaCita,
+        LocalTime horaCita,
+        Integer idPaciente,
+        String nombrePaciente,
+        String apellidoPaciente,
+        Integer idMedico,
+        String nombreMedico,
+        String apellidoMedico,
+        String especialidad
+) {
+}
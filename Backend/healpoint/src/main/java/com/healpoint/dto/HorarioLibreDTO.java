@@ -0,0 +1,19 @@
+package com.healpoint.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Horario libre de un médico: un espacio [horaInicio, horaFin) dentro de sus franjas de
+ * disponibilidad que no se cruza con ninguna de sus citas.
+ */
+public record HorarioLibreDTO(
+        Integer idMedico,
+        String nombreMedico,
+        String apellidoMedico,
+        String especialidad,
+        LocalDate fecha,
+        LocalTime horaInicio,
+        LocalTime horaFin
+) {
+}
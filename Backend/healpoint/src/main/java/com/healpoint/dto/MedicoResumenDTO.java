@@ -0,0 +1,7 @@
+package com.healpoint.dto;
+
+/**
+ * ID, nombre y especialidad de un médico, sin cargar el usuario ni el estado.
+ */
+public record MedicoResumenDTO(Integer idMedico, String nombre, String apellido, String especialidad) {
+}
@@ -0,0 +1,17 @@
+package com.healpoint.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de auditoría con el usuario responsable solo por su ID, sin cargar la entidad
+ * Usuario ni su rol y estado.
+ */
+public record MonitoriaResumenDTO(
+        Long idMonitoria,
+        LocalDateTime fecha,
+        String tablaAfectada,
+        String accion,
+        Integer idUsuarioResponsable,
+        String descripcion
+) {
+}
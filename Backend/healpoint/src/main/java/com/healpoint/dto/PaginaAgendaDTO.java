@@ -0,0 +1,17 @@
+package com.healpoint.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Página de la agenda. Si hay más resultados, los campos siguiente* forman el cursor
+ * (fecha, hora, idCita) que se envía en la próxima consulta; si no, son null.
+ */
+public record PaginaAgendaDTO(
+        List<CitaAgendaDTO> citas,
+        LocalDate siguienteFecha,
+        LocalTime siguienteHora,
+        Long siguienteIdCita
+) {
+}
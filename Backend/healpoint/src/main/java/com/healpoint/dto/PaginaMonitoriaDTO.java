@@ -0,0 +1,16 @@
+package com.healpoint.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Página de la búsqueda de auditoría, del registro más reciente al más antiguo. Si hay
+ * más resultados, los campos siguiente* forman el cursor (fecha, idMonitoria) que se
+ * envía en la próxima consulta; si no, son null.
+ */
+public record PaginaMonitoriaDTO(
+        List<MonitoriaResumenDTO> registros,
+        LocalDateTime siguienteFecha,
+        Long siguienteIdMonitoria
+) {
+}
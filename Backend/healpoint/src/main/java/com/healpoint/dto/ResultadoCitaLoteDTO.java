@@ -0,0 +1,9 @@
+package com.healpoint.dto;
+
+/**
+ * Resultado de un elemento de un lote de citas: la posición que tenía en la petición, el
+ * código HTTP que habría devuelto crearCita, el ID de la cita creada (si se creó) y el
+ * mensaje de error (si no).
+ */
+public record ResultadoCitaLoteDTO(int indice, int estado, Long idCita, String mensaje) {
+}
@@ -0,0 +1,10 @@
+package com.healpoint.dto;
+
+import java.util.List;
+
+/**
+ * Respuesta de la creación de citas en lote: totales y un resultado por cada elemento,
+ * en el mismo orden de la petición.
+ */
+public record ResultadoLoteDTO(int creadas, int rechazadas, List<ResultadoCitaLoteDTO> resultados) {
+}
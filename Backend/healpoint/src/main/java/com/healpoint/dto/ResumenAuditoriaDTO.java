@@ -0,0 +1,20 @@
+package com.healpoint.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cantidad de acciones de auditoría de una tabla y acción en un periodo: la hora o el día
+ * que empieza en periodo, o todo el rango consultado si periodo es null.
+ */
+public record ResumenAuditoriaDTO(
+        LocalDateTime periodo,
+        String tablaAfectada,
+        String accion,
+        Long cantidad
+) {
+
+    // Total del rango, sin periodo
+    public ResumenAuditoriaDTO(String tablaAfectada, String accion, Long cantidad) {
+        this(null, tablaAfectada, accion, cantidad);
+    }
+}
@@ -1,24 +1,42 @@
 package com.healpoint.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+// Los proxies LAZY de Hibernate agregan estas propiedades internas, que no se serializan
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
-@Table(name = "cita")
+@Table(name = "cita", indexes = {
+        @Index(name = "idx_cita_fecha_hora", columnList = "fecha, hora, id_cita"),
+        @Index(name = "idx_cita_medico_fecha_hora_id", columnList = "id_medico, fecha, hora, id_cita"),
+        @Index(name = "idx_cita_paciente_fecha_hora_id", columnList = "id_paciente, fecha, hora, id_cita")
+})
 public class Cita {
 
+    // Duración que se asume cuando la cita no la indica
+    public static final int DURACION_POR_DEFECTO = 30;
+
+    // ID del estado CANCELADA. Las citas canceladas no ocupan la agenda del médico
+    // (ver la restricción cita_sin_solapamiento en la base de datos).
+    public static final int ID_ESTADO_CANCELADA = 4;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Integer id_cita;
+    // Los IDs salen de la secuencia de la tabla en bloques de 50 (optimizador pooled):
+    // Hibernate no tiene que esperar el ID de cada fila y puede agrupar los INSERT en
+    // lotes JDBC. El INCREMENT BY de la secuencia en la base de datos debe ser 50.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cita_seq")
+    @SequenceGenerator(name = "cita_seq", sequenceName = "cita_id_cita_seq", allocationSize = 50)
+    private Long id_cita;
 
     // Relación ManyToOne con Paciente
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_paciente", nullable = false)
     private Paciente paciente;
 
     // Relación ManyToOne con Medico
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_medico", nullable = false)
     private Medico medico;
 
@@ -28,8 +46,11 @@ public class Cita {
     @Column(nullable = false)
     private LocalTime hora;
 
+    @Column(name = "duracion_minutos", nullable = false)
+    private Integer duracionMinutos;
+
     // Relación ManyToOne con Estado (Pendiente, Realizada, Cancelada, etc.)
-    @ManyToOne(fetch = FetchType.EAGER) // FetchType.EAGER es útil para el estado
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_estado", nullable = false)
     private Estado estado;
 
@@ -38,11 +59,11 @@ public class Cita {
     }
 
     // Getters y Setters
-    public Integer getId_cita() {
+    public Long getId_cita() {
         return id_cita;
     }
 
-    public void setId_cita(Integer id_cita) {
+    public void setId_cita(Long id_cita) {
         this.id_cita = id_cita;
     }
 
@@ -78,6 +99,14 @@ public class Cita {
         this.hora = hora;
     }
 
+    public Integer getDuracionMinutos() {
+        return duracionMinutos;
+    }
+
+    public void setDuracionMinutos(Integer duracionMinutos) {
+        this.duracionMinutos = duracionMinutos;
+    }
+
     public Estado getEstado() {
         return estado;
     }
@@ -5,14 +5,17 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "disponibilidad")
+@Table(name = "disponibilidad", indexes = {
+        @Index(name = "idx_disponibilidad_medico_fecha", columnList = "id_medico, fecha, hora_inicio, hora_fin")
+})
 public class Disponibilidad {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "disponibilidad_seq")
+    @SequenceGenerator(name = "disponibilidad_seq", sequenceName = "disponibilidad_id_disponibilidad_seq", allocationSize = 50)
     private Integer id_disponibilidad;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_medico", nullable = false)
     private Medico medico;
 
@@ -1,12 +1,15 @@
 package com.healpoint.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
 @Table(name = "estado")
 public class Estado {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "estado_seq")
+    @SequenceGenerator(name = "estado_seq", sequenceName = "estado_id_estado_seq", allocationSize = 50)
     private Integer idEstado;
 
     @Column(name = "nombre_estado", nullable = false, unique = true, length = 100)
@@ -8,11 +8,13 @@ import java.time.LocalDate;
 public class HistorialMedico {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "historial_medico_seq")
+    @SequenceGenerator(name = "historial_medico_seq", sequenceName = "historial_medico_id_historial_seq", allocationSize = 50)
     private Integer id_historial;
 
     // Relación OneToOne con Cita. Una Cita solo debe tener un Historial.
-    @OneToOne(fetch = FetchType.EAGER) // Se carga EAGER ya que siempre necesitaremos la Cita asociada.
+    // Se carga LAZY; las consultas que necesitan la cita la traen con un EntityGraph (ver HistorialRepository)
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_cita", nullable = false, unique = true) // UNIQUE asegura el OneToOne a nivel de DB
     private Cita cita;
 
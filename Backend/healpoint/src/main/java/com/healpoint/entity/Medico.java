@@ -1,23 +1,29 @@
 package com.healpoint.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity
 @Table(name = "medico")
 public class Medico {
 
+    // ID del estado INACTIVO. Los médicos inactivos no aparecen en la búsqueda de horarios.
+    public static final int ID_ESTADO_INACTIVO = 7;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medico_seq")
+    @SequenceGenerator(name = "medico_seq", sequenceName = "medico_id_medico_seq", allocationSize = 50)
     private Integer id_medico;
 
     @Column(nullable = false)
     private String especialidad;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_estado", nullable = false)
     private Estado estado;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario", referencedColumnName = "id_usuario", nullable = false)
     private Usuario usuario;
 
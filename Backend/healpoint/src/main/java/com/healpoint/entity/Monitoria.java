@@ -4,13 +4,19 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "monitoria")
+// En PostgreSQL hay además un índice BRIN sobre fecha (migración V7)
+@Table(name = "monitoria", indexes = {
+        @Index(name = "idx_monitoria_fecha_id", columnList = "fecha, id_monitoria"),
+        @Index(name = "idx_monitoria_usuario_fecha", columnList = "usuario_responsable, fecha, id_monitoria"),
+        @Index(name = "idx_monitoria_tabla_fecha", columnList = "tabla_afectada, fecha, id_monitoria")
+})
 public class Monitoria {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "monitoria_seq")
+    @SequenceGenerator(name = "monitoria_seq", sequenceName = "monitoria_id_monitoria_seq", allocationSize = 50)
     @Column(name = "id_monitoria")
-    private Integer idMonitoria;
+    private Long idMonitoria;
 
     @Column(name = "tabla_afectada", nullable = false, length = 100)
     private String tablaAfectada;
@@ -18,10 +24,11 @@ public class Monitoria {
     @Column(nullable = false, length = 50)
     private String accion;
 
-    @Column(columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    // Columna de partición en PostgreSQL (una partición por mes): siempre debe tener valor
+    @Column(nullable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime fecha;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_responsable")
     private Usuario usuarioResponsable;
 
@@ -42,11 +49,11 @@ public class Monitoria {
 
     // ===== Getters & Setters =====
 
-    public Integer getIdMonitoria() {
+    public Long getIdMonitoria() {
         return idMonitoria;
     }
 
-    public void setIdMonitoria(Integer idMonitoria) {
+    public void setIdMonitoria(Long idMonitoria) {
         this.idMonitoria = idMonitoria;
     }
 
@@ -0,0 +1,45 @@
+package com.healpoint.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Cantidad de registros de auditoría de una tabla y acción en una hora. La mantiene
+ * ResumenAuditoriaService a medida que se registran acciones, para no contar sobre la
+ * tabla monitoria.
+ */
+@Entity
+@Table(name = "monitoria_resumen_hora")
+public class MonitoriaResumenHora {
+
+    @EmbeddedId
+    private MonitoriaResumenHoraId id;
+
+    @Column(nullable = false)
+    private Long cantidad;
+
+    public MonitoriaResumenHora() {
+    }
+
+    public MonitoriaResumenHora(MonitoriaResumenHoraId id, Long cantidad) {
+        this.id = id;
+        this.cantidad = cantidad;
+    }
+
+    // ===== Getters & Setters =====
+
+    public MonitoriaResumenHoraId getId() {
+        return id;
+    }
+
+    public void setId(MonitoriaResumenHoraId id) {
+        this.id = id;
+    }
+
+    public Long getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(Long cantidad) {
+        this.cantidad = cantidad;
+    }
+}
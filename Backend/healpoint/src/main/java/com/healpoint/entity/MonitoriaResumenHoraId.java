@@ -0,0 +1,73 @@
+package com.healpoint.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Llave del resumen por hora de la auditoría: hora (truncada), tabla y acción.
+ */
+@Embeddable
+public class MonitoriaResumenHoraId implements Serializable {
+
+    @Column(nullable = false)
+    private LocalDateTime hora;
+
+    @Column(name = "tabla_afectada", nullable = false, length = 100)
+    private String tablaAfectada;
+
+    @Column(nullable = false, length = 50)
+    private String accion;
+
+    public MonitoriaResumenHoraId() {
+    }
+
+    public MonitoriaResumenHoraId(LocalDateTime hora, String tablaAfectada, String accion) {
+        this.hora = hora;
+        this.tablaAfectada = tablaAfectada;
+        this.accion = accion;
+    }
+
+    // ===== Getters & Setters =====
+
+    public LocalDateTime getHora() {
+        return hora;
+    }
+
+    public void setHora(LocalDateTime hora) {
+        this.hora = hora;
+    }
+
+    public String getTablaAfectada() {
+        return tablaAfectada;
+    }
+
+    public void setTablaAfectada(String tablaAfectada) {
+        this.tablaAfectada = tablaAfectada;
+    }
+
+    public String getAccion() {
+        return accion;
+    }
+
+    public void setAccion(String accion) {
+        this.accion = accion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MonitoriaResumenHoraId otro)) return false;
+        return Objects.equals(hora, otro.hora)
+                && Objects.equals(tablaAfectada, otro.tablaAfectada)
+                && Objects.equals(accion, otro.accion);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hora, tablaAfectada, accion);
+    }
+}
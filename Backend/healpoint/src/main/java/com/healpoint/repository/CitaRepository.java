@@ -1,29 +1,101 @@
 package com.healpoint.repository;
 
+import com.healpoint.dto.CitaOcupada;
+import com.healpoint.dto.CitaOcupadaDia;
 import com.healpoint.entity.Cita;
 import com.healpoint.entity.Paciente;
 import com.healpoint.entity.Medico;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CitaRepository extends JpaRepository<Cita, Integer> {
+public interface CitaRepository extends JpaRepository<Cita, Long>, CitaRepositoryCustom {
+
+    /*
+     * Las asociaciones de Cita son LAZY. Los listados que se devuelven completos como
+     * JSON traen todo el grafo (paciente, médico, usuarios, roles y estados) en una sola
+     * consulta con este EntityGraph, en lugar de una consulta por cada asociación.
+     */
+
+    @Override
+    @EntityGraph(attributePaths = {
+            "paciente.usuario.rol.estado", "paciente.usuario.estado", "paciente.estado",
+            "medico.usuario.rol.estado", "medico.usuario.estado", "medico.estado",
+            "estado"
+    })
+    List<Cita> findAll();
+
+    /**
+     * Las mismas citas y el mismo grafo que findAll, leídas con un cursor de a 500 filas
+     * para escribirlas en streaming (ver ExportadorJson). Debe recorrerse dentro de una
+     * transacción y cerrarse al terminar.
+     */
+    @EntityGraph(attributePaths = {
+            "paciente.usuario.rol.estado", "paciente.usuario.estado", "paciente.estado",
+            "medico.usuario.rol.estado", "medico.usuario.estado", "medico.estado",
+            "estado"
+    })
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Cita c")
+    Stream<Cita> streamTodas();
 
     /**
      * Busca todas las citas de un paciente específico.
      */
+    @EntityGraph(attributePaths = {
+            "paciente.usuario.rol.estado", "paciente.usuario.estado", "paciente.estado",
+            "medico.usuario.rol.estado", "medico.usuario.estado", "medico.estado",
+            "estado"
+    })
     List<Cita> findByPaciente(Paciente paciente);
 
     /**
      * Busca todas las citas de un médico específico.
      */
+    @EntityGraph(attributePaths = {
+            "paciente.usuario.rol.estado", "paciente.usuario.estado", "paciente.estado",
+            "medico.usuario.rol.estado", "medico.usuario.estado", "medico.estado",
+            "estado"
+    })
     List<Cita> findByMedico(Medico medico);
 
+    /**
+     * Citas de un paciente por su ID, con el grafo completo y sin cargar antes el paciente.
+     */
+    @EntityGraph(attributePaths = {
+            "paciente.usuario.rol.estado", "paciente.usuario.estado", "paciente.estado",
+            "medico.usuario.rol.estado", "medico.usuario.estado", "medico.estado",
+            "estado"
+    })
+    @Query("SELECT c FROM Cita c WHERE c.paciente.idPaciente = :idPaciente")
+    List<Cita> findByIdPaciente(@Param("idPaciente") Integer idPaciente);
+
+    /**
+     * Citas de un médico por su ID, con el grafo completo y sin cargar antes el médico.
+     */
+    @EntityGraph(attributePaths = {
+            "paciente.usuario.rol.estado", "paciente.usuario.estado", "paciente.estado",
+            "medico.usuario.rol.estado", "medico.usuario.estado", "medico.estado",
+            "estado"
+    })
+    @Query("SELECT c FROM Cita c WHERE c.medico.id_medico = :idMedico")
+    List<Cita> findByIdMedico(@Param("idMedico") Integer idMedico);
+
     /**
      * Busca citas de un médico en una fecha y hora específicas. Se usará para validar
      * la disponibilidad del médico antes de crear o reprogramar una cita.
@@ -35,4 +107,35 @@ public interface CitaRepository extends JpaRepository<Cita, Integer> {
      * evitar que un paciente tenga dos citas a la misma hora, aunque no es estricto.
      */
     Optional<Cita> findByPacienteAndFechaAndHora(Paciente paciente, LocalDate fecha, LocalTime hora);
-}
\ No newline at end of file
+
+    /**
+     * Citas de un médico en una fecha que ocupan su agenda (todas menos las canceladas),
+     * con su hora y duración. Se usa para cargar el índice de agenda en memoria sin
+     * traer las entidades relacionadas.
+     */
+    default List<CitaOcupada> findCitasOcupadas(Integer idMedico, LocalDate fecha) {
+        return findCitasOcupadasExcepto(idMedico, fecha, Cita.ID_ESTADO_CANCELADA);
+    }
+
+    @Query("SELECT new com.healpoint.dto.CitaOcupada(c.hora, c.duracionMinutos) FROM Cita c " +
+            "WHERE c.medico.id_medico = :idMedico AND c.fecha = :fecha AND c.estado.idEstado <> :idEstadoExcluido")
+    List<CitaOcupada> findCitasOcupadasExcepto(@Param("idMedico") Integer idMedico,
+                                               @Param("fecha") LocalDate fecha,
+                                               @Param("idEstadoExcluido") Integer idEstadoExcluido);
+
+    /**
+     * Citas no canceladas de un médico entre dos fechas, ordenadas por fecha y hora.
+     * Se usa para calcular los horarios libres de varios días con una sola consulta.
+     */
+    default List<CitaOcupadaDia> findCitasOcupadasEntre(Integer idMedico, LocalDate desde, LocalDate hasta) {
+        return findCitasOcupadasEntreExcepto(idMedico, desde, hasta, Cita.ID_ESTADO_CANCELADA);
+    }
+
+    @Query("SELECT new com.healpoint.dto.CitaOcupadaDia(c.fecha, c.hora, c.duracionMinutos) FROM Cita c " +
+            "WHERE c.medico.id_medico = :idMedico AND c.fecha BETWEEN :desde AND :hasta " +
+            "AND c.estado.idEstado <> :idEstadoExcluido ORDER BY c.fecha, c.hora")
+    List<CitaOcupadaDia> findCitasOcupadasEntreExcepto(@Param("idMedico") Integer idMedico,
+                                                       @Param("desde") LocalDate desde,
+                                                       @Param("hasta") LocalDate hasta,
+                                                       @Param("idEstadoExcluido") Integer idEstadoExcluido);
+}
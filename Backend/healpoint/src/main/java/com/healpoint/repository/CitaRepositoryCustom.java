@@ -0,0 +1,20 @@
+package com.healpoint.repository;
+
+import com.healpoint.dto.CitaAgendaDTO;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public interface CitaRepositoryCustom {
+
+    /**
+     * Consulta paginada de la agenda entre dos fechas, ordenada por (fecha, hora, id_cita).
+     * La paginación es por cursor: devuelve las citas posteriores a
+     * (despuesFecha, despuesHora, despuesId). Los filtros null se ignoran.
+     */
+    List<CitaAgendaDTO> findAgenda(LocalDate hasta,
+                                   LocalDate despuesFecha, LocalTime despuesHora, Long despuesId,
+                                   Integer idMedico, Integer idPaciente, Integer idEstado,
+                                   int limite);
+}
@@ -0,0 +1,71 @@
+package com.healpoint.repository;
+
+import com.healpoint.dto.CitaAgendaDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Implementación de las consultas de CitaRepository que se arman según los filtros
+ * recibidos. Solo se agregan las condiciones de los filtros presentes, para que
+ * PostgreSQL pueda elegir el índice compuesto que corresponda en cada caso.
+ */
+public class CitaRepositoryImpl implements CitaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CitaAgendaDTO> findAgenda(LocalDate hasta,
+                                          LocalDate despuesFecha, LocalTime despuesHora, Long despuesId,
+                                          Integer idMedico, Integer idPaciente, Integer idEstado,
+                                          int limite) {
+
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.healpoint.dto.CitaAgendaDTO(" +
+                        "c.id_cita, c.fecha, c.hora, " +
+                        "p.idPaciente, up.nombre, up.apellido, " +
+                        "m.id_medico, um.nombre, um.apellido, m.especialidad, " +
+                        "e.idEstado, e.nombreEstado) " +
+                        "FROM Cita c " +
+                        "JOIN c.paciente p JOIN p.usuario up " +
+                        "JOIN c.medico m JOIN m.usuario um " +
+                        "JOIN c.estado e " +
+                        "WHERE c.fecha >= :despuesFecha AND c.fecha <= :hasta " +
+                        "AND (c.fecha, c.hora, c.id_cita) > (:despuesFecha, :despuesHora, :despuesId)");
+
+        if (idMedico != null) {
+            jpql.append(" AND c.medico.id_medico = :idMedico");
+        }
+        if (idPaciente != null) {
+            jpql.append(" AND c.paciente.idPaciente = :idPaciente");
+        }
+        if (idEstado != null) {
+            jpql.append(" AND c.estado.idEstado = :idEstado");
+        }
+        jpql.append(" ORDER BY c.fecha, c.hora, c.id_cita");
+
+        TypedQuery<CitaAgendaDTO> query = entityManager.createQuery(jpql.toString(), CitaAgendaDTO.class)
+                .setParameter("hasta", hasta)
+                .setParameter("despuesFecha", despuesFecha)
+                .setParameter("despuesHora", despuesHora)
+                .setParameter("despuesId", despuesId)
+                .setMaxResults(limite);
+
+        if (idMedico != null) {
+            query.setParameter("idMedico", idMedico);
+        }
+        if (idPaciente != null) {
+            query.setParameter("idPaciente", idPaciente);
+        }
+        if (idEstado != null) {
+            query.setParameter("idEstado", idEstado);
+        }
+
+        return query.getResultList();
+    }
+}
@@ -1,14 +1,46 @@
 package com.healpoint.repository;
 
+import com.healpoint.dto.FranjaDia;
+import com.healpoint.dto.FranjaHoraria;
 import com.healpoint.entity.Disponibilidad;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface DisponibilidadRepository extends JpaRepository<Disponibilidad, Integer> {
 
+    @Override
+    @EntityGraph(attributePaths = {"medico.usuario.rol.estado", "medico.usuario.estado", "medico.estado"})
+    List<Disponibilidad> findAll();
+
+    @EntityGraph(attributePaths = {"medico.usuario.rol.estado", "medico.usuario.estado", "medico.estado"})
     @Query("SELECT d FROM Disponibilidad d WHERE d.medico.id_medico = :id_medico")
     List<Disponibilidad> findByMedico(@Param("id_medico") Integer id_medico);
 
+    // Franjas de un médico en una fecha, sin cargar la entidad Medico
+    @Query("SELECT new com.healpoint.dto.FranjaHoraria(d.hora_inicio, d.hora_fin) FROM Disponibilidad d " +
+            "WHERE d.medico.id_medico = :id_medico AND d.fecha = :fecha")
+    List<FranjaHoraria> findFranjas(@Param("id_medico") Integer id_medico, @Param("fecha") LocalDate fecha);
+
+    // Franjas de un médico entre dos fechas, ordenadas por fecha y hora de inicio
+    @Query("SELECT new com.healpoint.dto.FranjaDia(d.fecha, d.hora_inicio, d.hora_fin) FROM Disponibilidad d " +
+            "WHERE d.medico.id_medico = :id_medico AND d.fecha BETWEEN :desde AND :hasta " +
+            "ORDER BY d.fecha, d.hora_inicio")
+    List<FranjaDia> findFranjasEntre(@Param("id_medico") Integer id_medico,
+                                     @Param("desde") LocalDate desde,
+                                     @Param("hasta") LocalDate hasta);
+
+    // Existe alguna franja del médico en esa fecha que contenga la hora (índice idx_disponibilidad_medico_fecha)
+    @Query("SELECT CASE WHEN COUNT(d) > 0 THEN true ELSE false END FROM Disponibilidad d " +
+            "WHERE d.medico.id_medico = :id_medico AND d.fecha = :fecha " +
+            "AND d.hora_inicio <= :hora AND d.hora_fin >= :hora")
+    boolean existeDisponibilidad(@Param("id_medico") Integer id_medico,
+                                 @Param("fecha") LocalDate fecha,
+                                 @Param("hora") LocalTime hora);
+
 }
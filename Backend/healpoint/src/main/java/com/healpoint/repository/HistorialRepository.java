@@ -1,17 +1,81 @@
 package com.healpoint.repository;
 
+import com.healpoint.dto.HistorialResumenDTO;
 import com.healpoint.entity.Cita;
 import com.healpoint.entity.HistorialMedico;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface HistorialRepository extends JpaRepository<HistorialMedico, Integer> {
 
+    /**
+     * Lista todos los historiales con su cita y el grafo completo de la cita en una
+     * sola consulta (la relación con Cita es LAZY).
+     */
+    @Override
+    @EntityGraph(attributePaths = {
+            "cita.paciente.usuario.rol.estado", "cita.paciente.usuario.estado", "cita.paciente.estado",
+            "cita.medico.usuario.rol.estado", "cita.medico.usuario.estado", "cita.medico.estado",
+            "cita.estado"
+    })
+    List<HistorialMedico> findAll();
+
+    /**
+     * Los mismos historiales y el mismo grafo que findAll, leídos con un cursor para
+     * escribirlos en streaming. Debe recorrerse dentro de una transacción.
+     */
+    @EntityGraph(attributePaths = {
+            "cita.paciente.usuario.rol.estado", "cita.paciente.usuario.estado", "cita.paciente.estado",
+            "cita.medico.usuario.rol.estado", "cita.medico.usuario.estado", "cita.medico.estado",
+            "cita.estado"
+    })
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h FROM HistorialMedico h")
+    Stream<HistorialMedico> streamTodos();
+
     /**
      * Busca el historial médico asociado a una cita específica (OneToOne).
      */
     Optional<HistorialMedico> findByCita(Cita cita);
-}
\ No newline at end of file
+
+    /**
+     * Historial de una cita por el ID de la cita, con el grafo completo.
+     */
+    @EntityGraph(attributePaths = {
+            "cita.paciente.usuario.rol.estado", "cita.paciente.usuario.estado", "cita.paciente.estado",
+            "cita.medico.usuario.rol.estado", "cita.medico.usuario.estado", "cita.medico.estado",
+            "cita.estado"
+    })
+    @Query("SELECT h FROM HistorialMedico h WHERE h.cita.id_cita = :idCita")
+    Optional<HistorialMedico> findByIdCita(@Param("idCita") Long idCita);
+
+    /**
+     * Resumen de los historiales (opcionalmente de un paciente) sin cargar entidades:
+     * solo las columnas que se muestran en el listado.
+     */
+    @Query("SELECT new com.healpoint.dto.HistorialResumenDTO(" +
+            "h.id_historial, h.fechaRegistro, h.diagnostico, " +
+            "c.id_cita, c.fecha, c.hora, " +
+            "p.idPaciente, up.nombre, up.apellido, " +
+            "m.id_medico, um.nombre, um.apellido, m.especialidad) " +
+            "FROM HistorialMedico h JOIN h.cita c " +
+            "JOIN c.paciente p JOIN p.usuario up " +
+            "JOIN c.medico m JOIN m.usuario um " +
+            "WHERE (:idPaciente IS NULL OR p.idPaciente = :idPaciente) " +
+            "ORDER BY h.fechaRegistro DESC, h.id_historial DESC")
+    List<HistorialResumenDTO> findResumen(@Param("idPaciente") Integer idPaciente);
+}
@@ -1,15 +1,43 @@
 package com.healpoint.repository;
 
+import com.healpoint.dto.MedicoResumenDTO;
 import com.healpoint.entity.Medico;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MedicoRepository extends JpaRepository<Medico, Integer> {
 
+    @Override
+    @EntityGraph(attributePaths = {"usuario.rol.estado", "usuario.estado", "estado"})
+    List<Medico> findAll();
+
     Optional<Medico> findByUsuario_IdUsuario(Integer idUsuario);
 
+    // IDs de la lista que existen, para validar un lote de citas con una sola consulta
+    @Query("SELECT m.id_medico FROM Medico m WHERE m.id_medico IN :ids")
+    List<Integer> findIdsExistentes(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Médicos activos de una especialidad (sin distinguir mayúsculas), con el nombre de
+     * su usuario y sin cargar las entidades.
+     */
+    default List<MedicoResumenDTO> findActivosPorEspecialidad(String especialidad) {
+        return findPorEspecialidadExcepto(especialidad, Medico.ID_ESTADO_INACTIVO);
+    }
+
+    @Query("SELECT new com.healpoint.dto.MedicoResumenDTO(m.id_medico, u.nombre, u.apellido, m.especialidad) " +
+            "FROM Medico m JOIN m.usuario u " +
+            "WHERE LOWER(m.especialidad) = LOWER(:especialidad) AND m.estado.idEstado <> :idEstadoExcluido " +
+            "ORDER BY m.id_medico")
+    List<MedicoResumenDTO> findPorEspecialidadExcepto(@Param("especialidad") String especialidad,
+                                                       @Param("idEstadoExcluido") Integer idEstadoExcluido);
+
 }
@@ -1,10 +1,50 @@
 package com.healpoint.repository;
 
 import com.healpoint.entity.Monitoria;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface MonitoriaRepository extends JpaRepository<Monitoria, Integer> {
+public interface MonitoriaRepository extends JpaRepository<Monitoria, Long>, MonitoriaRepositoryCustom {
+
+    @Override
+    @EntityGraph(attributePaths = {"usuarioResponsable.rol.estado", "usuarioResponsable.estado"})
+    List<Monitoria> findAll();
+
+    /**
+     * Los mismos registros y el mismo grafo que findAll, leídos con un cursor para
+     * escribirlos en streaming. Debe recorrerse dentro de una transacción.
+     */
+    @EntityGraph(attributePaths = {"usuarioResponsable.rol.estado", "usuarioResponsable.estado"})
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Monitoria m")
+    Stream<Monitoria> streamTodas();
+
+    /**
+     * Registros con fecha en [desde, hasta), como streamTodas. Con la tabla particionada
+     * por mes PostgreSQL solo lee las particiones de los meses que toca el rango.
+     */
+    @EntityGraph(attributePaths = {"usuarioResponsable.rol.estado", "usuarioResponsable.estado"})
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Monitoria m WHERE m.fecha >= :desde AND m.fecha < :hasta")
+    Stream<Monitoria> streamEntre(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
 
+    // Hay al menos un registro (sin contar toda la tabla)
+    boolean existsBy();
 }
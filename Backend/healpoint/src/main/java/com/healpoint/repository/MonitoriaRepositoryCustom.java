@@ -0,0 +1,19 @@
+package com.healpoint.repository;
+
+import com.healpoint.dto.MonitoriaResumenDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MonitoriaRepositoryCustom {
+
+    /**
+     * Búsqueda paginada de auditoría con fecha en [desde, hasta), del registro más reciente
+     * al más antiguo: orden (fecha, idMonitoria) descendente. La paginación es por cursor:
+     * devuelve los registros anteriores a (antesFecha, antesId). Los filtros null se ignoran.
+     */
+    List<MonitoriaResumenDTO> buscar(LocalDateTime desde, LocalDateTime hasta,
+                                     LocalDateTime antesFecha, Long antesId,
+                                     String tablaAfectada, String accion, Integer idUsuario,
+                                     int limite);
+}
@@ -0,0 +1,66 @@
+package com.healpoint.repository;
+
+import com.healpoint.dto.MonitoriaResumenDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación de las consultas de MonitoriaRepository que se arman según los filtros
+ * recibidos. Solo se agregan las condiciones de los filtros presentes, para que
+ * PostgreSQL pueda elegir el índice compuesto que corresponda (ver la migración V7).
+ */
+public class MonitoriaRepositoryImpl implements MonitoriaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<MonitoriaResumenDTO> buscar(LocalDateTime desde, LocalDateTime hasta,
+                                            LocalDateTime antesFecha, Long antesId,
+                                            String tablaAfectada, String accion, Integer idUsuario,
+                                            int limite) {
+
+        // usuarioResponsable.idUsuario se lee de la llave foránea, sin unir con usuario
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.healpoint.dto.MonitoriaResumenDTO(" +
+                        "m.idMonitoria, m.fecha, m.tablaAfectada, m.accion, " +
+                        "m.usuarioResponsable.idUsuario, m.descripcion) " +
+                        "FROM Monitoria m " +
+                        "WHERE m.fecha >= :desde AND m.fecha < :hasta " +
+                        "AND (m.fecha, m.idMonitoria) < (:antesFecha, :antesId)");
+
+        if (tablaAfectada != null) {
+            jpql.append(" AND m.tablaAfectada = :tablaAfectada");
+        }
+        if (accion != null) {
+            jpql.append(" AND m.accion = :accion");
+        }
+        if (idUsuario != null) {
+            jpql.append(" AND m.usuarioResponsable.idUsuario = :idUsuario");
+        }
+        jpql.append(" ORDER BY m.fecha DESC, m.idMonitoria DESC");
+
+        TypedQuery<MonitoriaResumenDTO> query = entityManager.createQuery(jpql.toString(), MonitoriaResumenDTO.class)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .setParameter("antesFecha", antesFecha)
+                .setParameter("antesId", antesId)
+                .setMaxResults(limite);
+
+        if (tablaAfectada != null) {
+            query.setParameter("tablaAfectada", tablaAfectada);
+        }
+        if (accion != null) {
+            query.setParameter("accion", accion);
+        }
+        if (idUsuario != null) {
+            query.setParameter("idUsuario", idUsuario);
+        }
+
+        return query.getResultList();
+    }
+}
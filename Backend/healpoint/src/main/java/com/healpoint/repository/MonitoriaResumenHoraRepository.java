@@ -0,0 +1,11 @@
+package com.healpoint.repository;
+
+import com.healpoint.entity.MonitoriaResumenHora;
+import com.healpoint.entity.MonitoriaResumenHoraId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MonitoriaResumenHoraRepository
+        extends JpaRepository<MonitoriaResumenHora, MonitoriaResumenHoraId>, MonitoriaResumenHoraRepositoryCustom {
+}
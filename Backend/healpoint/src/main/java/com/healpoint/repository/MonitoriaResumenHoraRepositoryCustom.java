@@ -0,0 +1,19 @@
+package com.healpoint.repository;
+
+import com.healpoint.dto.ResumenAuditoriaDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MonitoriaResumenHoraRepositoryCustom {
+
+    enum Agrupacion { HORA, DIA, TOTAL }
+
+    /**
+     * Cantidades de auditoría de las horas en [desde, hasta), sumadas por hora, por día o en
+     * total según la agrupación, y ordenadas por periodo, tabla y acción. Los filtros null
+     * se ignoran.
+     */
+    List<ResumenAuditoriaDTO> resumir(LocalDateTime desde, LocalDateTime hasta,
+                                      String tablaAfectada, String accion, Agrupacion agrupacion);
+}
@@ -0,0 +1,58 @@
+package com.healpoint.repository;
+
+import com.healpoint.dto.ResumenAuditoriaDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación de las consultas de MonitoriaResumenHoraRepository que se arman según
+ * la agrupación y los filtros recibidos.
+ */
+public class MonitoriaResumenHoraRepositoryImpl implements MonitoriaResumenHoraRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ResumenAuditoriaDTO> resumir(LocalDateTime desde, LocalDateTime hasta,
+                                             String tablaAfectada, String accion, Agrupacion agrupacion) {
+
+        String periodo = switch (agrupacion) {
+            case HORA -> "r.id.hora, ";
+            case DIA -> "trunc(r.id.hora, day), ";
+            case TOTAL -> "";
+        };
+
+        StringBuilder jpql = new StringBuilder("SELECT new com.healpoint.dto.ResumenAuditoriaDTO(")
+                .append(periodo)
+                .append("r.id.tablaAfectada, r.id.accion, sum(r.cantidad)) ")
+                .append("FROM MonitoriaResumenHora r ")
+                .append("WHERE r.id.hora >= :desde AND r.id.hora < :hasta");
+
+        if (tablaAfectada != null) {
+            jpql.append(" AND r.id.tablaAfectada = :tablaAfectada");
+        }
+        if (accion != null) {
+            jpql.append(" AND r.id.accion = :accion");
+        }
+        jpql.append(" GROUP BY ").append(periodo).append("r.id.tablaAfectada, r.id.accion");
+        jpql.append(" ORDER BY ").append(periodo).append("r.id.tablaAfectada, r.id.accion");
+
+        TypedQuery<ResumenAuditoriaDTO> query = entityManager.createQuery(jpql.toString(), ResumenAuditoriaDTO.class)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta);
+
+        if (tablaAfectada != null) {
+            query.setParameter("tablaAfectada", tablaAfectada);
+        }
+        if (accion != null) {
+            query.setParameter("accion", accion);
+        }
+
+        return query.getResultList();
+    }
+}
@@ -2,12 +2,26 @@ package com.healpoint.repository;
 
 import com.healpoint.entity.Paciente;
 import com.healpoint.entity.Usuario;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PacienteRepository extends JpaRepository<Paciente, Integer> {
 
+    @Override
+    @EntityGraph(attributePaths = {"usuario.rol.estado", "usuario.estado", "estado"})
+    List<Paciente> findAll();
+
     Paciente findByUsuario(Usuario usuario);
 
+    // IDs de la lista que existen, para validar un lote de citas con una sola consulta
+    @Query("SELECT p.idPaciente FROM Paciente p WHERE p.idPaciente IN :ids")
+    List<Integer> findIdsExistentes(@Param("ids") Collection<Integer> ids);
+
 }
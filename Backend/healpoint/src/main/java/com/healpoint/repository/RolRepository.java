@@ -1,14 +1,20 @@
 package com.healpoint.repository;
 
 import com.healpoint.entity.Rol;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RolRepository extends JpaRepository<Rol, Integer> {
 
+    @Override
+    @EntityGraph(attributePaths = "estado")
+    List<Rol> findAll();
+
     Optional<Rol> findByNombreRol(String nombreRol);
 
 }
@@ -1,14 +1,38 @@
 package com.healpoint.repository;
 
 import com.healpoint.entity.Usuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
 
+    @Override
+    @EntityGraph(attributePaths = {"rol.estado", "estado"})
+    List<Usuario> findAll();
+
+    /**
+     * Los mismos usuarios y el mismo grafo que findAll, leídos con un cursor para
+     * escribirlos en streaming. Debe recorrerse dentro de una transacción.
+     */
+    @EntityGraph(attributePaths = {"rol.estado", "estado"})
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM Usuario u")
+    Stream<Usuario> streamTodos();
+
+    @EntityGraph(attributePaths = {"rol.estado", "estado"})
     Optional<Usuario> findByCorreo(String correo);
 
 }
\ No newline at end of file
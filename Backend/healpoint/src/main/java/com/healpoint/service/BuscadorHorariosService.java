@@ -0,0 +1,198 @@
+package com.healpoint.service;
+
+import com.healpoint.dto.CitaOcupadaDia;
+import com.healpoint.dto.FranjaDia;
+import com.healpoint.dto.HorarioLibreDTO;
+import com.healpoint.dto.MedicoResumenDTO;
+import com.healpoint.entity.Cita;
+import com.healpoint.repository.CitaRepository;
+import com.healpoint.repository.DisponibilidadRepository;
+import com.healpoint.repository.MedicoRepository;
+import com.healpoint.service.Intervalos.Intervalo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Busca los primeros horarios libres de una especialidad entre todos sus médicos activos.
+ *
+ * Por cada médico se traen con dos consultas sus franjas de disponibilidad y sus citas no
+ * canceladas en el rango de fechas, y para cada día se restan las citas de las franjas
+ * recorriendo las dos listas ordenadas (ver {@link Intervalos}). Los médicos se procesan
+ * en paralelo en un grupo acotado de hilos, para no ocupar más conexiones de las
+ * configuradas, y cada uno se detiene al encontrar la cantidad pedida de horarios.
+ */
+@Service
+public class BuscadorHorariosService {
+
+    private static final int MINUTOS_DIA = 24 * 60;
+
+    private static final Comparator<HorarioLibreDTO> POR_FECHA_Y_HORA =
+            Comparator.comparing(HorarioLibreDTO::fecha)
+                    .thenComparing(HorarioLibreDTO::horaInicio)
+                    .thenComparing(HorarioLibreDTO::idMedico);
+
+    private final MedicoRepository medicoRepository;
+    private final DisponibilidadRepository disponibilidadRepository;
+    private final CitaRepository citaRepository;
+    private final ThreadPoolExecutor ejecutor;
+    private final Clock reloj;
+
+    @Autowired
+    public BuscadorHorariosService(MedicoRepository medicoRepository,
+                                   DisponibilidadRepository disponibilidadRepository,
+                                   CitaRepository citaRepository,
+                                   @Value("${healpoint.horarios.hilos:4}") int hilos) {
+        this(medicoRepository, disponibilidadRepository, citaRepository, hilos, Clock.systemDefaultZone());
+    }
+
+    BuscadorHorariosService(MedicoRepository medicoRepository,
+                            DisponibilidadRepository disponibilidadRepository,
+                            CitaRepository citaRepository,
+                            int hilos,
+                            Clock reloj) {
+        this.medicoRepository = medicoRepository;
+        this.disponibilidadRepository = disponibilidadRepository;
+        this.citaRepository = citaRepository;
+        this.reloj = reloj;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "buscador-horarios-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.ejecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Devuelve hasta cantidad horarios libres de la duración indicada entre desde y hasta
+     * (ambas incluidas), ordenados por fecha, hora y médico. Los horarios que ya pasaron
+     * no se incluyen.
+     */
+    public List<HorarioLibreDTO> buscar(String especialidad, LocalDate desde, LocalDate hasta,
+                                        int duracionMinutos, int cantidad) {
+        List<MedicoResumenDTO> medicos = medicoRepository.findActivosPorEspecialidad(especialidad);
+        if (medicos.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime ahora = LocalDateTime.now(reloj);
+        List<CompletableFuture<List<HorarioLibreDTO>>> tareas = new ArrayList<>(medicos.size());
+        for (MedicoResumenDTO medico : medicos) {
+            tareas.add(CompletableFuture.supplyAsync(
+                    () -> horariosDelMedico(medico, desde, hasta, duracionMinutos, cantidad, ahora), ejecutor));
+        }
+
+        // Cada lista ya viene ordenada; basta con quedarse con los primeros del conjunto
+        PriorityQueue<HorarioLibreDTO> primeros = new PriorityQueue<>(POR_FECHA_Y_HORA.reversed());
+        for (CompletableFuture<List<HorarioLibreDTO>> tarea : tareas) {
+            for (HorarioLibreDTO horario : tarea.join()) {
+                if (primeros.size() < cantidad) {
+                    primeros.add(horario);
+                } else if (POR_FECHA_Y_HORA.compare(horario, primeros.peek()) < 0) {
+                    primeros.poll();
+                    primeros.add(horario);
+                } else {
+                    break;
+                }
+            }
+        }
+
+        List<HorarioLibreDTO> resultado = new ArrayList<>(primeros);
+        resultado.sort(POR_FECHA_Y_HORA);
+        return resultado;
+    }
+
+    private List<HorarioLibreDTO> horariosDelMedico(MedicoResumenDTO medico, LocalDate desde, LocalDate hasta,
+                                                    int duracionMinutos, int cantidad, LocalDateTime ahora) {
+        LocalDate primerDia = desde.isBefore(ahora.toLocalDate()) ? ahora.toLocalDate() : desde;
+        if (primerDia.isAfter(hasta)) {
+            return List.of();
+        }
+
+        TreeMap<LocalDate, List<Intervalo>> franjas = new TreeMap<>();
+        for (FranjaDia f : disponibilidadRepository.findFranjasEntre(medico.idMedico(), primerDia, hasta)) {
+            if (f.inicio() == null || f.fin() == null) {
+                continue;
+            }
+            // El horario debe quedar completo dentro de la franja: se redondea hacia adentro
+            int inicio = minuto(f.inicio()) + (esMinutoExacto(f.inicio()) ? 0 : 1);
+            franjas.computeIfAbsent(f.fecha(), d -> new ArrayList<>()).add(new Intervalo(inicio, minuto(f.fin())));
+        }
+        if (franjas.isEmpty()) {
+            return List.of();
+        }
+
+        Map<LocalDate, List<Intervalo>> citas = new HashMap<>();
+        for (CitaOcupadaDia c : citaRepository.findCitasOcupadasEntre(medico.idMedico(), primerDia, hasta)) {
+            int duracion = c.duracionMinutos() != null ? c.duracionMinutos() : Cita.DURACION_POR_DEFECTO;
+            // La cita ocupa hacia afuera: una hora con segundos bloquea también ese minuto
+            int inicio = minuto(c.hora());
+            int fin = Math.min(inicio + Math.max(duracion, 1) + (esMinutoExacto(c.hora()) ? 0 : 1), MINUTOS_DIA);
+            citas.computeIfAbsent(c.fecha(), d -> new ArrayList<>()).add(new Intervalo(inicio, fin));
+        }
+
+        List<HorarioLibreDTO> horarios = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<Intervalo>> dia : franjas.entrySet()) {
+            LocalDate fecha = dia.getKey();
+            int minimo = fecha.equals(ahora.toLocalDate()) ? minutoSiguiente(ahora.toLocalTime()) : 0;
+
+            List<Intervalo> libres = Intervalos.restar(
+                    Intervalos.unir(dia.getValue()),
+                    Intervalos.unir(citas.getOrDefault(fecha, List.of())));
+
+            for (Intervalo libre : libres) {
+                // Los horarios se cortan desde el inicio del espacio libre; si parte de él ya
+                // pasó, se salta al siguiente corte en lugar de empezar en un minuto suelto
+                int primero = libre.inicio();
+                if (primero < minimo) {
+                    primero += (minimo - primero + duracionMinutos - 1) / duracionMinutos * duracionMinutos;
+                }
+                for (int inicio = primero; inicio + duracionMinutos <= libre.fin(); inicio += duracionMinutos) {
+                    horarios.add(new HorarioLibreDTO(
+                            medico.idMedico(), medico.nombre(), medico.apellido(), medico.especialidad(),
+                            fecha, hora(inicio), hora(inicio + duracionMinutos)));
+                    if (horarios.size() == cantidad) {
+                        return horarios;
+                    }
+                }
+            }
+        }
+        return horarios;
+    }
+
+    private static boolean esMinutoExacto(LocalTime hora) {
+        return hora.getSecond() == 0 && hora.getNano() == 0;
+    }
+
+    private static int minuto(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+
+    // Primer minuto completo después de la hora indicada
+    private static int minutoSiguiente(LocalTime hora) {
+        return minuto(hora) + 1;
+    }
+
+    private static LocalTime hora(int minuto) {
+        return LocalTime.of(minuto / 60, minuto % 60);
+    }
+}
@@ -0,0 +1,213 @@
+package com.healpoint.service;
+
+import com.healpoint.entity.Estado;
+import com.healpoint.entity.Rol;
+import com.healpoint.repository.EstadoRepository;
+import com.healpoint.repository.RolRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria de las tablas de referencia estado y rol.
+ *
+ * Los datos se guardan en una instantánea inmutable que se reemplaza completa cada vez
+ * que EstadoController o RolController modifican alguna de las dos tablas, así que las
+ * lecturas nunca ven una carga a medias ni necesitan bloqueos. La instantánea guarda
+ * copias propias de las entidades: los objetos devueltos se comparten entre peticiones
+ * y no deben modificarse. Si un ID o nombre no está en la instantánea se consulta la
+ * base de datos, por si el dato se cargó por fuera de la aplicación.
+ */
+@Service
+public class CacheReferenciaService {
+
+    private final EstadoRepository estadoRepository;
+    private final RolRepository rolRepository;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final Counter recargas;
+
+    private volatile Instantanea instantanea;
+
+    public CacheReferenciaService(EstadoRepository estadoRepository,
+                                  RolRepository rolRepository,
+                                  MeterRegistry registry) {
+        this.estadoRepository = estadoRepository;
+        this.rolRepository = rolRepository;
+
+        FunctionCounter.builder("healpoint.cache.referencia.consultas", aciertos, AtomicLong::get)
+                .tag("resultado", "acierto")
+                .description("Consultas de estado y rol resueltas desde memoria")
+                .register(registry);
+        FunctionCounter.builder("healpoint.cache.referencia.consultas", fallos, AtomicLong::get)
+                .tag("resultado", "fallo")
+                .description("Consultas de estado y rol que tuvieron que ir a la base de datos")
+                .register(registry);
+        Gauge.builder("healpoint.cache.referencia.tasa.aciertos", this, CacheReferenciaService::getTasaAciertos)
+                .description("Proporción de consultas de estado y rol resueltas desde memoria")
+                .register(registry);
+        this.recargas = Counter.builder("healpoint.cache.referencia.recargas")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        recargar();
+    }
+
+    public Optional<Estado> estado(Integer id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Estado estado = actual().estadosPorId().get(id);
+        if (estado != null) {
+            aciertos.incrementAndGet();
+            return Optional.of(estado);
+        }
+        fallos.incrementAndGet();
+        return recargarSiExiste(estadoRepository.findById(id).isPresent())
+                .map(Instantanea::estadosPorId).map(m -> m.get(id));
+    }
+
+    public Optional<Estado> estadoPorNombre(String nombre) {
+        if (nombre == null) {
+            return Optional.empty();
+        }
+        Estado estado = actual().estadosPorNombre().get(nombre);
+        if (estado != null) {
+            aciertos.incrementAndGet();
+            return Optional.of(estado);
+        }
+        fallos.incrementAndGet();
+        return recargarSiExiste(estadoRepository.findByNombreEstado(nombre).isPresent())
+                .map(Instantanea::estadosPorNombre).map(m -> m.get(nombre));
+    }
+
+    public Optional<Rol> rol(Integer id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Rol rol = actual().rolesPorId().get(id);
+        if (rol != null) {
+            aciertos.incrementAndGet();
+            return Optional.of(rol);
+        }
+        fallos.incrementAndGet();
+        return recargarSiExiste(rolRepository.findById(id).isPresent())
+                .map(Instantanea::rolesPorId).map(m -> m.get(id));
+    }
+
+    public Optional<Rol> rolPorNombre(String nombre) {
+        if (nombre == null) {
+            return Optional.empty();
+        }
+        Rol rol = actual().rolesPorNombre().get(nombre);
+        if (rol != null) {
+            aciertos.incrementAndGet();
+            return Optional.of(rol);
+        }
+        fallos.incrementAndGet();
+        return recargarSiExiste(rolRepository.findByNombreRol(nombre).isPresent())
+                .map(Instantanea::rolesPorNombre).map(m -> m.get(nombre));
+    }
+
+    public List<Estado> estados() {
+        aciertos.incrementAndGet();
+        return actual().estados();
+    }
+
+    public List<Rol> roles() {
+        aciertos.incrementAndGet();
+        return actual().roles();
+    }
+
+    /**
+     * Vuelve a leer las dos tablas y publica una instantánea nueva. Se sincroniza para
+     * que dos recargas concurrentes no publiquen una instantánea vieja sobre una nueva.
+     */
+    public synchronized void recargar() {
+        Map<Integer, Estado> estadosPorId = new HashMap<>();
+        Map<String, Estado> estadosPorNombre = new HashMap<>();
+        for (Estado original : estadoRepository.findAll()) {
+            Estado estado = copiar(original);
+            estadosPorId.put(estado.getIdEstado(), estado);
+            estadosPorNombre.put(estado.getNombreEstado(), estado);
+        }
+
+        Map<Integer, Rol> rolesPorId = new HashMap<>();
+        Map<String, Rol> rolesPorNombre = new HashMap<>();
+        for (Rol original : rolRepository.findAll()) {
+            Rol rol = new Rol();
+            rol.setIdRol(original.getIdRol());
+            rol.setNombreRol(original.getNombreRol());
+            rol.setDescripcion(original.getDescripcion());
+            if (original.getEstado() != null) {
+                Estado estado = estadosPorId.get(original.getEstado().getIdEstado());
+                rol.setEstado(estado != null ? estado : copiar(original.getEstado()));
+            }
+            rolesPorId.put(rol.getIdRol(), rol);
+            rolesPorNombre.putIfAbsent(rol.getNombreRol(), rol);
+        }
+
+        instantanea = new Instantanea(
+                Map.copyOf(estadosPorId),
+                Map.copyOf(estadosPorNombre),
+                Map.copyOf(rolesPorId),
+                Map.copyOf(rolesPorNombre),
+                List.copyOf(new TreeMap<>(estadosPorId).values()),
+                List.copyOf(new TreeMap<>(rolesPorId).values())
+        );
+        recargas.increment();
+    }
+
+    public double getTasaAciertos() {
+        long a = aciertos.get();
+        long total = a + fallos.get();
+        return total == 0 ? 1.0 : (double) a / total;
+    }
+
+    private Instantanea actual() {
+        Instantanea i = instantanea;
+        if (i == null) {
+            recargar();
+            i = instantanea;
+        }
+        return i;
+    }
+
+    private Optional<Instantanea> recargarSiExiste(boolean existe) {
+        if (!existe) {
+            return Optional.empty();
+        }
+        recargar();
+        return Optional.of(instantanea);
+    }
+
+    private static Estado copiar(Estado original) {
+        Estado estado = new Estado(original.getNombreEstado(), original.getDescripcion());
+        estado.setIdEstado(original.getIdEstado());
+        return estado;
+    }
+
+    private record Instantanea(
+            Map<Integer, Estado> estadosPorId,
+            Map<String, Estado> estadosPorNombre,
+            Map<Integer, Rol> rolesPorId,
+            Map<String, Rol> rolesPorNombre,
+            List<Estado> estados,
+            List<Rol> roles
+    ) {
+    }
+}
@@ -0,0 +1,202 @@
+package com.healpoint.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cifra y verifica contraseñas con PBKDF2-HMAC-SHA256.
+ *
+ * El costo lo fija healpoint.contrasena.iteraciones: cada cifrado o verificación ocupa un
+ * núcleo durante todo el cálculo. Para que una avalancha de logins (el cambio de turno)
+ * no deje a Tomcat sin CPU para las demás peticiones, los cálculos se hacen en un grupo
+ * propio de healpoint.contrasena.hilos hilos con una cola de capacidad-cola tareas. Si la
+ * cola está llena o el resultado no llega en espera-maxima-ms se lanza
+ * ContrasenaService.Saturado y el controlador responde 503.
+ *
+ * Formato guardado: pbkdf2-sha256$iteraciones$sal$hash (sal y hash en base64). Las filas
+ * anteriores tienen la contraseña en texto plano; se aceptan y necesitaActualizar indica
+ * que hay que volver a cifrarlas.
+ */
+@Service
+public class ContrasenaService {
+
+    /** No se pudo calcular el hash a tiempo porque el grupo de cifrado está saturado. */
+    public static class Saturado extends RuntimeException {
+        public Saturado(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    /** Comienzo de todo hash que devuelve cifrar. */
+    public static final String PREFIJO = "pbkdf2-sha256$";
+
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA256";
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+
+    private static final Base64.Encoder CODIFICADOR = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODIFICADOR = Base64.getDecoder();
+
+    private final SecureRandom aleatorio = new SecureRandom();
+    private final int iteraciones;
+    private final long esperaMaximaMs;
+    private final ThreadPoolExecutor grupo;
+
+    private final Timer duracion;
+    private final Counter rechazadas;
+
+    @Autowired
+    public ContrasenaService(MeterRegistry registry,
+                             @Value("${healpoint.contrasena.iteraciones:310000}") int iteraciones,
+                             @Value("${healpoint.contrasena.hilos:0}") int hilos,
+                             @Value("${healpoint.contrasena.capacidad-cola:64}") int capacidadCola,
+                             @Value("${healpoint.contrasena.espera-maxima-ms:5000}") long esperaMaximaMs) {
+        if (iteraciones < 1) {
+            throw new IllegalArgumentException("healpoint.contrasena.iteraciones debe ser positivo");
+        }
+        this.iteraciones = iteraciones;
+        this.esperaMaximaMs = esperaMaximaMs;
+
+        // Por defecto la mitad de los núcleos: la otra mitad queda para atender peticiones
+        int tamano = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger numero = new AtomicInteger();
+        this.grupo = new ThreadPoolExecutor(tamano, tamano, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread t = new Thread(r, "cifrado-contrasena-" + numero.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("healpoint.contrasena.cola.tamano", grupo, g -> g.getQueue().size())
+                .description("Cálculos de contraseña esperando un hilo")
+                .register(registry);
+        this.duracion = Timer.builder("healpoint.contrasena.calculo")
+                .description("Tiempo de CPU de cada cifrado o verificación")
+                .register(registry);
+        this.rechazadas = Counter.builder("healpoint.contrasena.rechazadas")
+                .description("Cálculos rechazados por cola llena o espera agotada")
+                .register(registry);
+    }
+
+    public int getIteraciones() {
+        return iteraciones;
+    }
+
+    /**
+     * Cifra la contraseña con una sal nueva y las iteraciones configuradas.
+     */
+    public String cifrar(String contrasena) {
+        byte[] sal = new byte[BYTES_SAL];
+        aleatorio.nextBytes(sal);
+        byte[] hash = ejecutar(() -> pbkdf2(contrasena, sal, iteraciones));
+        return PREFIJO + iteraciones + "$" + CODIFICADOR.encodeToString(sal) + "$" + CODIFICADOR.encodeToString(hash);
+    }
+
+    /**
+     * Compara la contraseña con la guardada, sea un hash de cifrar o texto plano antiguo.
+     */
+    public boolean verificar(String contrasena, String guardada) {
+        if (contrasena == null || guardada == null) {
+            return false;
+        }
+        if (!guardada.startsWith(PREFIJO)) {
+            return MessageDigest.isEqual(
+                    contrasena.getBytes(StandardCharsets.UTF_8), guardada.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] partes = guardada.substring(PREFIJO.length()).split("\\$");
+        if (partes.length != 3) {
+            return false;
+        }
+        int iteracionesGuardadas;
+        byte[] sal;
+        byte[] esperado;
+        try {
+            iteracionesGuardadas = Integer.parseInt(partes[0]);
+            sal = DECODIFICADOR.decode(partes[1]);
+            esperado = DECODIFICADOR.decode(partes[2]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        byte[] calculado = ejecutar(() -> pbkdf2(contrasena, sal, iteracionesGuardadas));
+        return MessageDigest.isEqual(calculado, esperado);
+    }
+
+    /**
+     * true si la contraseña guardada está en texto plano o se cifró con menos iteraciones
+     * que las configuradas, y conviene volver a cifrarla después de un login correcto.
+     */
+    public boolean necesitaActualizar(String guardada) {
+        if (guardada == null || !guardada.startsWith(PREFIJO)) {
+            return true;
+        }
+        int fin = guardada.indexOf('$', PREFIJO.length());
+        try {
+            return fin < 0 || Integer.parseInt(guardada.substring(PREFIJO.length(), fin)) < iteraciones;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private byte[] ejecutar(Callable<byte[]> calculo) {
+        Future<byte[]> resultado;
+        try {
+            resultado = grupo.submit(() -> duracion.recordCallable(calculo));
+        } catch (RejectedExecutionException e) {
+            rechazadas.increment();
+            throw new Saturado("Hay demasiados inicios de sesión en curso.");
+        }
+        try {
+            return resultado.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            rechazadas.increment();
+            throw new Saturado("El cálculo de la contraseña tardó demasiado.");
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new Saturado("Se interrumpió el cálculo de la contraseña.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falló el cálculo de la contraseña", e.getCause());
+        }
+    }
+
+    static byte[] pbkdf2(String contrasena, byte[] sal, int iteraciones) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(contrasena.toCharArray(), sal, iteraciones, BITS_HASH);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        grupo.shutdownNow();
+    }
+}
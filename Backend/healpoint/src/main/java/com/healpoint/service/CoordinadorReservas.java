@@ -0,0 +1,171 @@
+package com.healpoint.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa las escrituras de citas que afectan al mismo médico en el mismo día.
+ *
+ * Dentro del proceso se usa un arreglo fijo de candados (lock striping): cada par
+ * (médico, día) cae siempre en el mismo candado, así que dos reservas para ese par se
+ * ejecutan una detrás de otra y las de médicos distintos casi nunca comparten candado.
+ * Con healpoint.reservas.bloqueo-distribuido=true la acción se ejecuta además dentro de
+ * una transacción que toma pg_advisory_xact_lock para el mismo par, lo que serializa
+ * también entre varias instancias de la aplicación; el bloqueo se libera al terminar
+ * la transacción.
+ *
+ * En ese modo el índice de agenda de esta instancia no ve las citas que guardaron las
+ * otras, así que con el advisory lock tomado se descartan del índice los días bloqueados:
+ * la acción los vuelve a cargar dentro de la transacción y ve todo lo que las demás
+ * instancias confirmaron antes de soltar el bloqueo. Cuesta una recarga del día por
+ * reserva, a cambio de no responder 409 por citas que ya no existen ni dejar pasar
+ * cruces hasta la restricción de la base de datos.
+ *
+ * Cuando una acción toca dos días (una cita que se reprograma) los candados se toman
+ * siempre en el mismo orden para no provocar bloqueos mutuos.
+ */
+@Service
+public class CoordinadorReservas {
+
+    private final ReentrantLock[] candados;
+    private final int mascara;
+    private final boolean bloqueoDistribuido;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final IndiceAgendaService indiceAgendaService;
+    private final Timer espera;
+
+    public CoordinadorReservas(TransactionTemplate transactionTemplate,
+                               JdbcTemplate jdbcTemplate,
+                               IndiceAgendaService indiceAgendaService,
+                               MeterRegistry registry,
+                               @Value("${healpoint.reservas.candados:256}") int cantidadCandados,
+                               @Value("${healpoint.reservas.bloqueo-distribuido:false}") boolean bloqueoDistribuido) {
+        // Se redondea a potencia de dos para elegir el candado con una máscara
+        int tamano = cantidadCandados <= 1 ? 1 : Integer.highestOneBit(cantidadCandados - 1) << 1;
+        this.candados = new ReentrantLock[tamano];
+        for (int i = 0; i < tamano; i++) {
+            candados[i] = new ReentrantLock();
+        }
+        this.mascara = tamano - 1;
+        this.bloqueoDistribuido = bloqueoDistribuido;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.indiceAgendaService = indiceAgendaService;
+        this.espera = Timer.builder("healpoint.reservas.espera")
+                .description("Tiempo esperando el candado de un médico y día antes de reservar")
+                .register(registry);
+    }
+
+    /**
+     * Ejecuta la acción con exclusión sobre los días indicados del médico. Los días
+     * repetidos o nulos se ignoran.
+     */
+    public <T> T ejecutar(Integer idMedico, Supplier<T> accion, LocalDate... fechas) {
+        List<ClaveReserva> claves = Arrays.stream(fechas)
+                .filter(f -> f != null)
+                .map(f -> new ClaveReserva(idMedico, f))
+                .toList();
+        return ejecutarConClaves(claves, accion);
+    }
+
+    /**
+     * Igual que {@link #ejecutar} pero para varios médicos a la vez, como en la creación de
+     * citas en lote. Todos los candados se toman en un orden global fijo, así que dos lotes
+     * (o un lote y una reserva individual) no se bloquean entre sí.
+     */
+    public <T> T ejecutarLote(Map<Integer, ? extends Collection<LocalDate>> diasPorMedico, Supplier<T> accion) {
+        List<ClaveReserva> claves = new ArrayList<>();
+        diasPorMedico.forEach((idMedico, dias) -> dias.stream()
+                .filter(f -> f != null)
+                .forEach(f -> claves.add(new ClaveReserva(idMedico, f))));
+        return ejecutarConClaves(claves, accion);
+    }
+
+    private <T> T ejecutarConClaves(List<ClaveReserva> claves, Supplier<T> accion) {
+        ClaveReserva[] ordenadas = claves.stream()
+                .distinct()
+                .sorted(Comparator.comparing(ClaveReserva::idMedico).thenComparing(ClaveReserva::fecha))
+                .toArray(ClaveReserva[]::new);
+        int[] indices = Arrays.stream(ordenadas)
+                .mapToInt(c -> indice(c.idMedico(), c.fecha()))
+                .distinct()
+                .sorted()
+                .toArray();
+
+        long inicio = System.nanoTime();
+        for (int i : indices) {
+            candados[i].lock();
+        }
+        espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        try {
+            if (!bloqueoDistribuido) {
+                return accion.get();
+            }
+            return transactionTemplate.execute(status -> {
+                for (ClaveReserva clave : ordenadas) {
+                    // Clave de dos enteros: (médico, día contado desde 1970-01-01)
+                    jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> { },
+                            clave.idMedico(), (int) clave.fecha().toEpochDay());
+                }
+                for (ClaveReserva clave : ordenadas) {
+                    indiceAgendaService.invalidar(clave.idMedico(), clave.fecha());
+                }
+                T resultado = accion.get();
+                // Si una escritura interna falló y la acción ya lo convirtió en su
+                // resultado, se revierte sin lanzar UnexpectedRollbackException.
+                if (status.isRollbackOnly()) {
+                    status.setRollbackOnly();
+                }
+                return resultado;
+            });
+        } finally {
+            for (int j = indices.length - 1; j >= 0; j--) {
+                candados[indices[j]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Indica si el error viene de la restricción de exclusión cita_sin_solapamiento
+     * (SQLState 23P01 en PostgreSQL): el médico ya tiene una cita que se cruza.
+     */
+    public static boolean esSolapamiento(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException sql && "23P01".equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int indice(Integer idMedico, LocalDate fecha) {
+        int h = 31 * idMedico.hashCode() + fecha.hashCode();
+        h ^= (h >>> 16);
+        return h & mascara;
+    }
+
+    int getCantidadCandados() {
+        return candados.length;
+    }
+
+    private record ClaveReserva(Integer idMedico, LocalDate fecha) {
+    }
+}
@@ -1,12 +1,10 @@
 package com.healpoint.service;
 
-import com.healpoint.entity.Disponibilidad;
 import com.healpoint.repository.DisponibilidadRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.List;
 
 @Service
 public class DisponibilidadService {
@@ -17,15 +15,12 @@ public class DisponibilidadService {
         this.disponibilidadRepository = disponibilidadRepository;
     }
 
+    /**
+     * Indica si la hora cae dentro de alguna franja [hora_inicio, hora_fin] del médico en esa fecha.
+     * Se resuelve con una sola consulta acotada por médico, fecha y hora, en lugar de cargar
+     * todo el historial de disponibilidades del médico.
+     */
     public boolean medicoDisponible(Integer idMedico, LocalDate fecha, LocalTime hora) {
-
-        List<Disponibilidad> disponibilidades =
-                disponibilidadRepository.findByMedico(idMedico);
-
-        return disponibilidades.stream().anyMatch(d ->
-                d.getFecha().equals(fecha)
-                        && ( !hora.isBefore(d.getHora_inicio()) )
-                        && ( !hora.isAfter(d.getHora_fin()) )
-        );
+        return disponibilidadRepository.existeDisponibilidad(idMedico, fecha, hora);
     }
 }
@@ -0,0 +1,277 @@
+package com.healpoint.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escribe los eventos de auditoría en la tabla monitoria en segundo plano.
+ *
+ * Los eventos se encolan en una cola acotada sin bloqueos y un hilo dedicado los
+ * inserta en lotes JDBC cuando se junta un lote completo o cuando pasa el intervalo
+ * configurado, lo que ocurra primero. El usuario responsable se inserta por ID con una
+ * subconsulta, así que no se carga la entidad Usuario. Al apagar la aplicación se
+ * escriben los eventos que queden en la cola, también los que se encolen mientras se
+ * apaga. Cada evento insertado se cuenta en el resumen por hora
+ * (ResumenAuditoriaService); los descartados y fallidos no.
+ */
+@Component
+public class EscritorAuditoria {
+
+    private static final Logger log = LoggerFactory.getLogger(EscritorAuditoria.class);
+
+    static final String SECUENCIA = "monitoria_id_monitoria_seq";
+
+    public enum PoliticaColaLlena { BLOQUEAR, SINCRONO, DESCARTAR }
+
+    static final String SQL_INSERTAR =
+            "INSERT INTO monitoria (id_monitoria, tabla_afectada, accion, fecha, usuario_responsable, descripcion) " +
+            "VALUES (?, ?, ?, ?, (SELECT u.id_usuario FROM usuario u WHERE u.id_usuario = ?), ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Secuencias.Bloque ids;
+    private final ResumenAuditoriaService resumenAuditoria;
+    private final int capacidad;
+    private final int tamanoLote;
+    private final long intervaloNanos;
+    private final PoliticaColaLlena politica;
+    private final long esperaMaximaNanos;
+
+    private final ConcurrentLinkedQueue<EventoAuditoria> cola = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tamano = new AtomicInteger();
+
+    private final Timer duracionLote;
+    private final Counter escritos;
+    private final Counter descartados;
+    private final Counter fallidos;
+
+    private volatile boolean activo = true;
+    private volatile Thread hilo;
+
+    public EscritorAuditoria(JdbcTemplate jdbcTemplate,
+                             Secuencias secuencias,
+                             ResumenAuditoriaService resumenAuditoria,
+                             MeterRegistry registry,
+                             @Value("${healpoint.auditoria.capacidad-cola:10000}") int capacidad,
+                             @Value("${healpoint.auditoria.tamano-lote:200}") int tamanoLote,
+                             @Value("${healpoint.auditoria.intervalo-ms:500}") long intervaloMs,
+                             @Value("${healpoint.auditoria.politica-cola-llena:BLOQUEAR}") PoliticaColaLlena politica,
+                             @Value("${healpoint.auditoria.espera-maxima-ms:2000}") long esperaMaximaMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Un nextval por cada 50 eventos, no uno por fila
+        this.ids = secuencias.bloque(SECUENCIA);
+        this.resumenAuditoria = resumenAuditoria;
+        this.capacidad = capacidad;
+        this.tamanoLote = tamanoLote;
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        this.politica = politica;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+
+        Gauge.builder("healpoint.auditoria.cola.tamano", tamano, AtomicInteger::get)
+                .description("Eventos de auditoría pendientes de escribir")
+                .register(registry);
+        Gauge.builder("healpoint.auditoria.cola.capacidad", () -> capacidad)
+                .description("Eventos de auditoría que caben en la cola")
+                .register(registry);
+        this.duracionLote = Timer.builder("healpoint.auditoria.lote.duracion")
+                .description("Tiempo de escritura de cada lote de auditoría")
+                .register(registry);
+        this.escritos = Counter.builder("healpoint.auditoria.eventos")
+                .tag("resultado", "escrito").register(registry);
+        this.descartados = Counter.builder("healpoint.auditoria.eventos")
+                .tag("resultado", "descartado").register(registry);
+        this.fallidos = Counter.builder("healpoint.auditoria.eventos")
+                .tag("resultado", "fallido").register(registry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        Thread t = new Thread(this::ejecutar, "escritor-auditoria");
+        t.setDaemon(true);
+        hilo = t;
+        t.start();
+    }
+
+    /**
+     * Encola un evento. Si la cola está llena se aplica la política configurada.
+     */
+    public void encolar(EventoAuditoria evento) {
+        if (ofrecer(evento)) {
+            return;
+        }
+
+        switch (politica) {
+            case DESCARTAR -> {
+                descartados.increment();
+                log.warn("Cola de auditoría llena, se descartó el evento {} {}", evento.accion(), evento.tablaAfectada());
+            }
+            case SINCRONO -> escribir(List.of(evento));
+            case BLOQUEAR -> {
+                long limite = System.nanoTime() + esperaMaximaNanos;
+                while (System.nanoTime() < limite) {
+                    despertar();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    if (ofrecer(evento)) {
+                        return;
+                    }
+                }
+                escribir(List.of(evento));
+            }
+        }
+    }
+
+    public int getTamanoCola() {
+        return tamano.get();
+    }
+
+    private boolean ofrecer(EventoAuditoria evento) {
+        if (!activo) {
+            // Después del apagado los eventos se escriben directamente
+            escribir(List.of(evento));
+            return true;
+        }
+        if (tamano.incrementAndGet() > capacidad) {
+            tamano.decrementAndGet();
+            return false;
+        }
+        cola.offer(evento);
+        if (!activo) {
+            // detener() pudo hacer su último vaciado entre la comprobación de arriba y el
+            // offer: se vacía aquí para que el evento no quede en la cola
+            vaciar();
+        } else if (tamano.get() >= tamanoLote) {
+            despertar();
+        }
+        return true;
+    }
+
+    private void despertar() {
+        Thread t = hilo;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    private void ejecutar() {
+        long proximoVaciado = System.nanoTime() + intervaloNanos;
+        while (activo) {
+            long espera = proximoVaciado - System.nanoTime();
+            if (tamano.get() < tamanoLote && espera > 0) {
+                LockSupport.parkNanos(this, espera);
+                continue;
+            }
+            vaciar();
+            proximoVaciado = System.nanoTime() + intervaloNanos;
+        }
+    }
+
+    /**
+     * Escribe todo lo que haya en la cola, en lotes de tamanoLote.
+     */
+    void vaciar() {
+        List<EventoAuditoria> lote = new ArrayList<>(tamanoLote);
+        EventoAuditoria evento;
+        while ((evento = cola.poll()) != null) {
+            tamano.decrementAndGet();
+            lote.add(evento);
+            if (lote.size() == tamanoLote) {
+                escribir(lote);
+                lote = new ArrayList<>(tamanoLote);
+            }
+        }
+        if (!lote.isEmpty()) {
+            escribir(lote);
+        }
+    }
+
+    private void escribir(List<EventoAuditoria> lote) {
+        long inicio = System.nanoTime();
+        try {
+            List<EventoConId> filas = new ArrayList<>(lote.size());
+            for (EventoAuditoria evento : lote) {
+                filas.add(new EventoConId(ids.siguiente(), evento));
+            }
+            jdbcTemplate.batchUpdate(SQL_INSERTAR, filas, filas.size(),
+                    (ps, fila) -> asignarParametros(ps, fila.id(), fila.evento()));
+            escritos.increment(lote.size());
+            for (EventoAuditoria evento : lote) {
+                contar(evento);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falló el lote de auditoría ({} eventos), se reintenta uno por uno: {}", lote.size(), e.getMessage());
+            escribirUnoPorUno(lote);
+        } finally {
+            duracionLote.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void escribirUnoPorUno(List<EventoAuditoria> lote) {
+        for (EventoAuditoria evento : lote) {
+            try {
+                long id = ids.siguiente();
+                jdbcTemplate.update(SQL_INSERTAR, ps -> asignarParametros(ps, id, evento));
+                escritos.increment();
+                contar(evento);
+            } catch (RuntimeException e) {
+                fallidos.increment();
+                log.error("No se pudo registrar la auditoría {} {}: {}",
+                        evento.accion(), evento.tablaAfectada(), e.getMessage());
+            }
+        }
+    }
+
+    private void contar(EventoAuditoria evento) {
+        resumenAuditoria.registrar(evento.tablaAfectada(), evento.accion(), evento.fecha());
+    }
+
+    // Los IDs se toman antes de abrir el lote, así el lote no pide conexión para la secuencia
+    private record EventoConId(long id, EventoAuditoria evento) {
+    }
+
+    private static void asignarParametros(PreparedStatement ps, long id, EventoAuditoria evento) throws SQLException {
+        ps.setLong(1, id);
+        ps.setString(2, evento.tablaAfectada());
+        ps.setString(3, evento.accion());
+        ps.setTimestamp(4, Timestamp.valueOf(evento.fecha()));
+        if (evento.idUsuario() != null) {
+            ps.setInt(5, evento.idUsuario());
+        } else {
+            ps.setNull(5, Types.INTEGER);
+        }
+        ps.setString(6, evento.descripcion());
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        Thread t = hilo;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(TimeUnit.NANOSECONDS.toMillis(intervaloNanos) + 5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        vaciar();
+    }
+}
@@ -0,0 +1,16 @@
+package com.healpoint.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acción pendiente de registrar en la tabla monitoria. El usuario responsable se
+ * guarda solo por su ID.
+ */
+public record EventoAuditoria(
+        String tablaAfectada,
+        String accion,
+        Integer idUsuario,
+        String descripcion,
+        LocalDateTime fecha
+) {
+}
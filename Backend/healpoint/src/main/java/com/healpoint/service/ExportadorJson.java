@@ -0,0 +1,85 @@
+package com.healpoint.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Escribe listados grandes como un arreglo JSON a medida que se leen de la base de datos,
+ * sin armar antes la lista completa en memoria.
+ *
+ * La consulta se recorre con un cursor de solo avance dentro de una transacción de solo
+ * lectura (el driver de PostgreSQL solo usa cursor con autocommit desactivado y un fetch
+ * size; ver los métodos stream* de los repositorios). Cada entidad se serializa con el
+ * mismo ObjectMapper de los controladores, así que el JSON es igual al de la lista
+ * completa. Cada {@link #FILAS_POR_BLOQUE} filas se vacía el contexto de persistencia y
+ * se envía lo escrito, para que la memoria no crezca con el número de filas.
+ */
+@Service
+public class ExportadorJson {
+
+    static final int FILAS_POR_BLOQUE = 500;
+
+    private final EntityManager entityManager;
+    private final ObjectWriter escritor;
+    private final TransactionTemplate lectura;
+
+    public ExportadorJson(EntityManager entityManager, ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        // El flujo se vacía por bloques y no después de cada elemento
+        this.escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+    }
+
+    /**
+     * Cuerpo de respuesta que escribe el arreglo cuando Spring MVC lo envía. La consulta
+     * se ejecuta en ese momento, en el hilo que escribe la respuesta.
+     */
+    public <T> StreamingResponseBody arreglo(Supplier<Stream<T>> consulta) {
+        return salida -> escribir(consulta, salida);
+    }
+
+    /**
+     * Escribe en la salida un arreglo JSON con las filas de la consulta. No cierra la salida.
+     */
+    public <T> void escribir(Supplier<Stream<T>> consulta, OutputStream salida) throws IOException {
+        try {
+            lectura.executeWithoutResult(estado -> {
+                try (Stream<T> filas = consulta.get();
+                     JsonGenerator generador = escritor.createGenerator(salida)) {
+                    generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generador.writeStartArray();
+
+                    int escritas = 0;
+                    for (Iterator<T> it = filas.iterator(); it.hasNext(); ) {
+                        escritor.writeValue(generador, it.next());
+                        if (++escritas % FILAS_POR_BLOQUE == 0) {
+                            entityManager.clear();
+                            generador.flush();
+                        }
+                    }
+                    generador.writeEndArray();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.healpoint.service;
+
+import com.healpoint.dto.CitaOcupada;
+import com.healpoint.dto.FranjaHoraria;
+import com.healpoint.entity.Cita;
+import com.healpoint.repository.CitaRepository;
+import com.healpoint.repository.DisponibilidadRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de la agenda de cada médico, organizado por médico y día.
+ *
+ * Cada día guarda dos mapas de bits con un bit por minuto del día: los minutos que
+ * ocupan las citas no canceladas del médico (desde la hora de inicio y durante su
+ * duración) y los minutos cubiertos por sus franjas de disponibilidad.
+ * Un día se carga de la base de datos la primera vez que se consulta y después se
+ * mantiene al día con las escrituras de CitaController y DisponibilidadController, de
+ * modo que las validaciones de conflicto y disponibilidad se responden desde memoria.
+ *
+ * La memoria queda acotada: purgar descarta periódicamente los días que ya pasaron y,
+ * si aun así quedan más de maximoDias, los más lejanos a hoy. Entre dos purgas el índice
+ * puede crecer hasta el doble del máximo; por encima de eso los días se consultan en la
+ * base de datos sin guardarlos.
+ *
+ * El índice no es la garantía contra reservas dobles: eso lo hace la restricción
+ * cita_sin_solapamiento de la base de datos.
+ */
+@Service
+public class IndiceAgendaService {
+
+    private static final int MINUTOS_DIA = 24 * 60;
+
+    // Días (médico, fecha) que se conservan después de cada purga
+    static final int MAX_DIAS_EN_MEMORIA = 50_000;
+
+    private final CitaRepository citaRepository;
+    private final DisponibilidadRepository disponibilidadRepository;
+    private final DisponibilidadService disponibilidadService;
+    private final int maximoDias;
+    private final Clock reloj;
+
+    private final ConcurrentHashMap<ClaveDia, DiaAgenda> dias = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IndiceAgendaService(CitaRepository citaRepository,
+                               DisponibilidadRepository disponibilidadRepository,
+                               DisponibilidadService disponibilidadService) {
+        this(citaRepository, disponibilidadRepository, disponibilidadService,
+                MAX_DIAS_EN_MEMORIA, Clock.systemDefaultZone());
+    }
+
+    IndiceAgendaService(CitaRepository citaRepository,
+                        DisponibilidadRepository disponibilidadRepository,
+                        DisponibilidadService disponibilidadService,
+                        int maximoDias, Clock reloj) {
+        this.citaRepository = citaRepository;
+        this.disponibilidadRepository = disponibilidadRepository;
+        this.disponibilidadService = disponibilidadService;
+        this.maximoDias = maximoDias;
+        this.reloj = reloj;
+    }
+
+    public int getDias() {
+        return dias.size();
+    }
+
+    /**
+     * Indica si una cita de esa duración a esa hora se cruzaría con alguna cita no
+     * cancelada del médico. Las horas con segundos se redondean hacia afuera al minuto.
+     */
+    public boolean estaOcupado(Integer idMedico, LocalDate fecha, LocalTime hora, int duracionMinutos) {
+        return dia(idMedico, fecha).ocupado(minuto(hora), finEnMinutos(hora, duracionMinutos));
+    }
+
+    /**
+     * Indica si la hora cae dentro de alguna franja de disponibilidad del médico ese día.
+     */
+    public boolean medicoDisponible(Integer idMedico, LocalDate fecha, LocalTime hora) {
+        if (!esMinutoExacto(hora)) {
+            return disponibilidadService.medicoDisponible(idMedico, fecha, hora);
+        }
+        return dia(idMedico, fecha).disponible(minuto(hora));
+    }
+
+    /**
+     * Marca como ocupados los minutos de una cita recién guardada.
+     */
+    public void registrarCita(Integer idMedico, LocalDate fecha, LocalTime hora, int duracionMinutos) {
+        dias.computeIfPresent(new ClaveDia(idMedico, fecha), (clave, dia) -> {
+            dia.ocupar(minuto(hora), finEnMinutos(hora, duracionMinutos));
+            return dia;
+        });
+    }
+
+    /**
+     * Descarta el día para que se vuelva a cargar en la siguiente consulta. Se usa
+     * cuando una cita se mueve, cambia de duración, se cancela o se elimina, y cuando
+     * cambian las disponibilidades.
+     */
+    public void invalidar(Integer idMedico, LocalDate fecha) {
+        if (idMedico == null || fecha == null) {
+            return;
+        }
+        dias.remove(new ClaveDia(idMedico, fecha));
+    }
+
+    private DiaAgenda dia(Integer idMedico, LocalDate fecha) {
+        ClaveDia clave = new ClaveDia(idMedico, fecha);
+        DiaAgenda dia = dias.get(clave);
+        if (dia != null) {
+            return dia;
+        }
+        if (dias.size() >= 2L * maximoDias) {
+            // Lleno hasta la siguiente purga: el día se responde sin guardarlo
+            return cargar(clave);
+        }
+        // La carga se hace dentro de computeIfAbsent para que una escritura concurrente
+        // sobre el mismo día espere a que termine y no se pierda.
+        return dias.computeIfAbsent(clave, this::cargar);
+    }
+
+    /**
+     * Descarta los días que ya pasaron y, si aun así quedan más de maximoDias, los más
+     * lejanos a hoy (hacia adelante o hacia atrás) hasta bajar del 90 % del máximo. Un
+     * día descartado se vuelve a cargar de la base de datos si se consulta de nuevo.
+     */
+    @Scheduled(fixedDelayString = "${healpoint.agenda.indice.purga-ms:60000}")
+    public void purgar() {
+        LocalDate hoy = LocalDate.now(reloj);
+        dias.keySet().removeIf(c -> c.fecha().isBefore(hoy));
+
+        if (dias.size() <= maximoDias) {
+            return;
+        }
+        List<ClaveDia> claves = new ArrayList<>(dias.keySet());
+        claves.sort(Comparator.comparingLong((ClaveDia c) -> Math.abs(ChronoUnit.DAYS.between(hoy, c.fecha())))
+                .reversed());
+        int exceso = claves.size() - maximoDias * 9 / 10;
+        for (ClaveDia clave : claves.subList(0, exceso)) {
+            dias.remove(clave);
+        }
+    }
+
+    private DiaAgenda cargar(ClaveDia clave) {
+        DiaAgenda dia = new DiaAgenda();
+
+        for (CitaOcupada cita : citaRepository.findCitasOcupadas(clave.idMedico(), clave.fecha())) {
+            int duracion = cita.duracionMinutos() != null ? cita.duracionMinutos() : Cita.DURACION_POR_DEFECTO;
+            dia.ocupar(minuto(cita.hora()), finEnMinutos(cita.hora(), duracion));
+        }
+
+        List<FranjaHoraria> franjas = disponibilidadRepository.findFranjas(clave.idMedico(), clave.fecha());
+        for (FranjaHoraria franja : franjas) {
+            if (franja.inicio() == null || franja.fin() == null) {
+                continue;
+            }
+            // Solo se marcan los minutos exactos contenidos en [inicio, fin]
+            int desde = minuto(franja.inicio()) + (esMinutoExacto(franja.inicio()) ? 0 : 1);
+            int hasta = minuto(franja.fin());
+            if (desde <= hasta) {
+                dia.habilitar(desde, hasta + 1);
+            }
+        }
+
+        return dia;
+    }
+
+    private static boolean esMinutoExacto(LocalTime hora) {
+        return hora.getSecond() == 0 && hora.getNano() == 0;
+    }
+
+    private static int minuto(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+
+    // Primer minuto libre después de la cita, sin pasar del fin del día
+    private static int finEnMinutos(LocalTime hora, int duracionMinutos) {
+        int fin = minuto(hora) + Math.max(duracionMinutos, 1) + (esMinutoExacto(hora) ? 0 : 1);
+        return Math.min(fin, MINUTOS_DIA);
+    }
+
+    private record ClaveDia(Integer idMedico, LocalDate fecha) {
+    }
+
+    private static final class DiaAgenda {
+
+        private final BitSet ocupados = new BitSet(MINUTOS_DIA);
+        private final BitSet disponibles = new BitSet(MINUTOS_DIA);
+
+        // Hay algún minuto ocupado en [desde, hasta)
+        synchronized boolean ocupado(int desde, int hasta) {
+            int siguiente = ocupados.nextSetBit(desde);
+            return siguiente >= 0 && siguiente < hasta;
+        }
+
+        synchronized boolean disponible(int minuto) {
+            return disponibles.get(minuto);
+        }
+
+        synchronized void ocupar(int desde, int hasta) {
+            ocupados.set(desde, hasta);
+        }
+
+        synchronized void habilitar(int desde, int hasta) {
+            disponibles.set(desde, hasta);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.healpoint.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operaciones sobre intervalos de minutos del día [inicio, fin), pensadas para listas ya
+ * ordenadas por inicio: se recorren una sola vez, sin mapas de bits ni ordenamientos.
+ */
+final class Intervalos {
+
+    record Intervalo(int inicio, int fin) {
+    }
+
+    private Intervalos() {
+    }
+
+    /**
+     * Une los intervalos que se cruzan o se tocan. La lista debe venir ordenada por inicio.
+     */
+    static List<Intervalo> unir(List<Intervalo> ordenados) {
+        List<Intervalo> unidos = new ArrayList<>(ordenados.size());
+        int inicio = -1;
+        int fin = -1;
+        for (Intervalo i : ordenados) {
+            if (i.fin() <= i.inicio()) {
+                continue;
+            }
+            if (inicio >= 0 && i.inicio() <= fin) {
+                fin = Math.max(fin, i.fin());
+            } else {
+                if (inicio >= 0) {
+                    unidos.add(new Intervalo(inicio, fin));
+                }
+                inicio = i.inicio();
+                fin = i.fin();
+            }
+        }
+        if (inicio >= 0) {
+            unidos.add(new Intervalo(inicio, fin));
+        }
+        return unidos;
+    }
+
+    /**
+     * Quita de base los minutos cubiertos por ocupados. Las dos listas deben estar unidas
+     * (ver {@link #unir}); el resultado también lo está.
+     */
+    static List<Intervalo> restar(List<Intervalo> base, List<Intervalo> ocupados) {
+        List<Intervalo> libres = new ArrayList<>();
+        int j = 0;
+        for (Intervalo b : base) {
+            int cursor = b.inicio();
+            // Los ocupados que terminan antes de este intervalo ya no afectan a los siguientes
+            while (j < ocupados.size() && ocupados.get(j).fin() <= cursor) {
+                j++;
+            }
+            int k = j;
+            while (k < ocupados.size() && ocupados.get(k).inicio() < b.fin()) {
+                Intervalo o = ocupados.get(k);
+                if (o.inicio() > cursor) {
+                    libres.add(new Intervalo(cursor, o.inicio()));
+                }
+                cursor = Math.max(cursor, o.fin());
+                if (o.fin() >= b.fin()) {
+                    break;
+                }
+                k++;
+            }
+            if (cursor < b.fin()) {
+                libres.add(new Intervalo(cursor, b.fin()));
+            }
+        }
+        return libres;
+    }
+}
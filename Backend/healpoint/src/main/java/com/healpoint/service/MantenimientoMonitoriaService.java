@@ -0,0 +1,133 @@
+package com.healpoint.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mantiene las particiones mensuales de la tabla monitoria (ver la migración V6).
+ *
+ * Al arrancar y una vez al día crea las particiones del mes actual y de los meses
+ * siguientes configurados, para que las inserciones no caigan en monitoria_default.
+ * Los meses más viejos que la retención configurada se desacoplan de la tabla (quedan
+ * como tablas sueltas que se pueden archivar y borrar a mano) o se borran directamente,
+ * en ambos casos sin DELETE fila por fila.
+ *
+ * Solo funciona sobre PostgreSQL; en las pruebas con H2 se desactiva con
+ * healpoint.monitoria.particiones.habilitado=false.
+ */
+@Service
+@ConditionalOnProperty(name = "healpoint.monitoria.particiones.habilitado", havingValue = "true", matchIfMissing = true)
+public class MantenimientoMonitoriaService {
+
+    private static final Logger log = LoggerFactory.getLogger(MantenimientoMonitoriaService.class);
+
+    public enum AccionRetencion { DESACOPLAR, ELIMINAR }
+
+    // Nombre que da crear_particion_monitoria: monitoria_AAAA_MM
+    private static final Pattern NOMBRE_PARTICION = Pattern.compile("monitoria_(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int mesesAdelantados;
+    private final int retencionMeses;
+    private final AccionRetencion accionRetencion;
+
+    public MantenimientoMonitoriaService(JdbcTemplate jdbcTemplate,
+                                         @Value("${healpoint.monitoria.particiones.meses-adelantados:3}") int mesesAdelantados,
+                                         @Value("${healpoint.monitoria.particiones.retencion-meses:24}") int retencionMeses,
+                                         @Value("${healpoint.monitoria.particiones.accion-retencion:DESACOPLAR}") AccionRetencion accionRetencion) {
+        if (mesesAdelantados < 0) {
+            throw new IllegalArgumentException("healpoint.monitoria.particiones.meses-adelantados no puede ser negativo");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.mesesAdelantados = mesesAdelantados;
+        this.retencionMeses = retencionMeses;
+        this.accionRetencion = accionRetencion;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        mantener();
+    }
+
+    @Scheduled(cron = "${healpoint.monitoria.particiones.cron:0 30 2 * * *}")
+    public void mantener() {
+        try {
+            mantener(LocalDate.now());
+        } catch (RuntimeException e) {
+            // Se reintenta en la siguiente ejecución; mientras tanto las filas van al default
+            log.error("Falló el mantenimiento de las particiones de monitoría: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Crea las particiones que faltan y aplica la retención tomando hoy como fecha actual.
+     * Devuelve los nombres de las particiones que se desacoplaron o borraron.
+     */
+    List<String> mantener(LocalDate hoy) {
+        YearMonth actual = YearMonth.from(hoy);
+        for (int i = 0; i <= mesesAdelantados; i++) {
+            crearParticion(actual.plusMonths(i));
+        }
+        return aplicarRetencion(actual);
+    }
+
+    void crearParticion(YearMonth mes) {
+        jdbcTemplate.queryForObject("SELECT crear_particion_monitoria(?)", String.class,
+                Date.valueOf(mes.atDay(1)));
+    }
+
+    /**
+     * Particiones mensuales actualmente acopladas a monitoria, ordenadas por mes.
+     */
+    TreeMap<YearMonth, String> particiones() {
+        List<String> nombres = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = 'monitoria'::regclass", String.class);
+
+        TreeMap<YearMonth, String> particiones = new TreeMap<>();
+        for (String nombre : nombres) {
+            Matcher m = NOMBRE_PARTICION.matcher(nombre);
+            if (m.matches()) {
+                particiones.put(YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))), nombre);
+            }
+        }
+        return particiones;
+    }
+
+    private List<String> aplicarRetencion(YearMonth actual) {
+        List<String> retiradas = new ArrayList<>();
+        if (retencionMeses <= 0) {
+            // Sin retención configurada se conserva todo
+            return retiradas;
+        }
+
+        // Se conservan el mes actual y los retencionMeses - 1 anteriores
+        YearMonth primerMesConservado = actual.minusMonths(retencionMeses - 1L);
+        for (String nombre : particiones().headMap(primerMesConservado).values()) {
+            jdbcTemplate.execute("ALTER TABLE monitoria DETACH PARTITION " + nombre);
+            if (accionRetencion == AccionRetencion.ELIMINAR) {
+                jdbcTemplate.execute("DROP TABLE " + nombre);
+            }
+            log.info("Partición de monitoría {} {}", nombre,
+                    accionRetencion == AccionRetencion.ELIMINAR ? "eliminada" : "desacoplada");
+            retiradas.add(nombre);
+        }
+        return retiradas;
+    }
+}
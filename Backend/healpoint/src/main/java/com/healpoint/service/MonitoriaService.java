@@ -1,33 +1,33 @@
 package com.healpoint.service;
 
-import com.healpoint.entity.Monitoria;
-import com.healpoint.entity.Usuario;
-import com.healpoint.repository.MonitoriaRepository;
-import com.healpoint.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 public class MonitoriaService {
 
     @Autowired
-    private MonitoriaRepository monitoriaRepository;
-
-    @Autowired
-    private UsuarioRepository usuarioRepository;
-
+    private EscritorAuditoria escritorAuditoria;
+
+    /**
+     * Registra una acción en la monitoría. La escritura se hace en segundo plano y por
+     * lotes (ver EscritorAuditoria), así que no agrega consultas a la petición actual.
+     * Al escribirse, la acción se cuenta también en el resumen por hora (ver
+     * ResumenAuditoriaService).
+     *
+     * Si la petición trae un token de sesión válido el responsable es el usuario del token;
+     * idUsuario (el parámetro idUsuarioEditor de los controladores) solo se usa para los
+     * clientes que todavía no envían el token.
+     */
     public void registrarAccion(String tabla, String accion, Integer idUsuario, String descripcion) {
-
-        Monitoria monitoria = new Monitoria();
-        monitoria.setTablaAfectada(tabla);
-        monitoria.setAccion(accion);
-        monitoria.setDescripcion(descripcion);
-
-        if (idUsuario != null) {
-            Usuario u = usuarioRepository.findById(idUsuario).orElse(null);
-            monitoria.setUsuarioResponsable(u);
-        }
-
-        monitoriaRepository.save(monitoria);
+        escritorAuditoria.encolar(new EventoAuditoria(
+                tabla,
+                accion,
+                SesionUsuario.actual().map(SesionUsuario::idUsuario).orElse(idUsuario),
+                descripcion,
+                LocalDateTime.now()
+        ));
     }
 }
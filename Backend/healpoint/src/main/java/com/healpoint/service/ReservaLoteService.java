@@ -0,0 +1,302 @@
+package com.healpoint.service;
+
+import com.healpoint.dto.ResultadoCitaLoteDTO;
+import com.healpoint.dto.ResultadoLoteDTO;
+import com.healpoint.entity.Cita;
+import com.healpoint.entity.Estado;
+import com.healpoint.repository.MedicoRepository;
+import com.healpoint.repository.PacienteRepository;
+import com.healpoint.validator.FechaValidator;
+import com.healpoint.validator.HoraValidator;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Crea muchas citas en una sola petición (campañas de vacunación, planes de terapia).
+ *
+ * Los pacientes y médicos del lote se validan con una consulta cada uno y el estado sale
+ * de la caché de referencia. Después, con los candados de todos los pares (médico, día)
+ * del lote tomados (ver CoordinadorReservas), la disponibilidad y los cruces se revisan
+ * en el índice de agenda, incluidos los cruces entre citas del mismo lote, y las citas
+ * aceptadas se insertan con lotes JDBC en una sola transacción.
+ *
+ * Si la base de datos rechaza el lote por un cruce que el índice no conocía (una reserva
+ * hecha por otra instancia), se reintenta cita por cita, así que un fallo parcial no
+ * deshace el resto del lote. Sin bloqueo distribuido el lote y cada reintento son
+ * transacciones separadas. Con él ya hay una transacción abierta, la del advisory lock
+ * (ver CoordinadorReservas), y cada inserción usa un savepoint de JDBC dentro de ella:
+ * abrir transacciones nuevas pediría una segunda conexión del pool por cada lote.
+ */
+@Service
+public class ReservaLoteService {
+
+    public static final int TAMANO_MAXIMO_LOTE = 500;
+
+    // Filas por cada executeBatch
+    private static final int FILAS_POR_BATCH = 100;
+
+    private final PacienteRepository pacienteRepository;
+    private final MedicoRepository medicoRepository;
+    private final CacheReferenciaService cacheReferencia;
+    private final IndiceAgendaService indiceAgendaService;
+    private final CoordinadorReservas coordinadorReservas;
+    private final MonitoriaService monitoriaService;
+    private final JdbcTemplate jdbcTemplate;
+    private static final String SQL_INSERTAR =
+            "INSERT INTO cita (id_cita, id_paciente, id_medico, id_estado, fecha, hora, duracion_minutos) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final Secuencias.Bloque idsCita;
+    private final TransactionTemplate transaccion;
+
+    public ReservaLoteService(PacienteRepository pacienteRepository,
+                              MedicoRepository medicoRepository,
+                              CacheReferenciaService cacheReferencia,
+                              IndiceAgendaService indiceAgendaService,
+                              CoordinadorReservas coordinadorReservas,
+                              MonitoriaService monitoriaService,
+                              JdbcTemplate jdbcTemplate,
+                              Secuencias secuencias,
+                              PlatformTransactionManager transactionManager) {
+        this.pacienteRepository = pacienteRepository;
+        this.medicoRepository = medicoRepository;
+        this.cacheReferencia = cacheReferencia;
+        this.indiceAgendaService = indiceAgendaService;
+        this.coordinadorReservas = coordinadorReservas;
+        this.monitoriaService = monitoriaService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.idsCita = secuencias.bloque("cita_id_cita_seq");
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
+
+    // Cita del lote que pasó las validaciones que no dependen de la agenda
+    record Pendiente(int indice, Integer idPaciente, Integer idMedico, Estado estado,
+                     LocalDate fecha, LocalTime hora, int duracion) {
+    }
+
+    public ResultadoLoteDTO crear(List<Cita> solicitudes, Integer idUsuarioEditor) {
+        ResultadoCitaLoteDTO[] resultados = new ResultadoCitaLoteDTO[solicitudes.size()];
+
+        Set<Integer> idsPacientes = new HashSet<>();
+        Set<Integer> idsMedicos = new HashSet<>();
+        for (Cita c : solicitudes) {
+            if (c != null && c.getPaciente() != null && c.getPaciente().getIdPaciente() != null) {
+                idsPacientes.add(c.getPaciente().getIdPaciente());
+            }
+            if (c != null && c.getMedico() != null && c.getMedico().getId_medico() != null) {
+                idsMedicos.add(c.getMedico().getId_medico());
+            }
+        }
+        Set<Integer> pacientes = idsPacientes.isEmpty()
+                ? Set.of() : new HashSet<>(pacienteRepository.findIdsExistentes(idsPacientes));
+        Set<Integer> medicos = idsMedicos.isEmpty()
+                ? Set.of() : new HashSet<>(medicoRepository.findIdsExistentes(idsMedicos));
+
+        List<Pendiente> pendientes = new ArrayList<>();
+        for (int i = 0; i < solicitudes.size(); i++) {
+            Cita c = solicitudes.get(i);
+            String error = validar(c, pacientes, medicos);
+            if (error != null) {
+                resultados[i] = rechazo(i, HttpStatus.BAD_REQUEST, error);
+                continue;
+            }
+            pendientes.add(new Pendiente(i,
+                    c.getPaciente().getIdPaciente(),
+                    c.getMedico().getId_medico(),
+                    cacheReferencia.estado(c.getEstado().getIdEstado()).orElseThrow(),
+                    c.getFecha(),
+                    c.getHora(),
+                    c.getDuracionMinutos() != null ? c.getDuracionMinutos() : Cita.DURACION_POR_DEFECTO));
+        }
+
+        if (!pendientes.isEmpty()) {
+            Map<Integer, Set<LocalDate>> diasPorMedico = new HashMap<>();
+            for (Pendiente p : pendientes) {
+                diasPorMedico.computeIfAbsent(p.idMedico(), k -> new HashSet<>()).add(p.fecha());
+            }
+            try {
+                coordinadorReservas.ejecutarLote(diasPorMedico, () -> {
+                    reservar(pendientes, resultados);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                // Las citas aceptadas pudieron quedar marcadas en el índice sin guardarse
+                diasPorMedico.forEach((idMedico, dias) -> dias.forEach(d -> indiceAgendaService.invalidar(idMedico, d)));
+                throw e;
+            }
+        }
+
+        List<ResultadoCitaLoteDTO> lista = Arrays.asList(resultados);
+        List<Long> creadas = lista.stream().map(ResultadoCitaLoteDTO::idCita).filter(Objects::nonNull).toList();
+        if (!creadas.isEmpty()) {
+            monitoriaService.registrarAccion(
+                    "cita",
+                    "CREATE_LOTE",
+                    idUsuarioEditor,
+                    "Se crearon " + creadas.size() + " citas en lote (" + (resultados.length - creadas.size())
+                            + " rechazadas). IDs: " + creadas
+            );
+        }
+        return new ResultadoLoteDTO(creadas.size(), resultados.length - creadas.size(), List.copyOf(lista));
+    }
+
+    // Mismas validaciones y mensajes que POST /cita/crearCita, sin consultas por cita
+    private String validar(Cita c, Set<Integer> pacientes, Set<Integer> medicos) {
+        if (c == null || c.getPaciente() == null || c.getPaciente().getIdPaciente() == null ||
+                c.getMedico() == null || c.getMedico().getId_medico() == null ||
+                c.getEstado() == null || c.getEstado().getIdEstado() == null ||
+                c.getFecha() == null || c.getHora() == null) {
+            return "Datos de la cita incompletos (Paciente, Médico, Estado, Fecha u Hora).";
+        }
+        if (!pacientes.contains(c.getPaciente().getIdPaciente())) {
+            return "Paciente con ID " + c.getPaciente().getIdPaciente() + " no encontrado.";
+        }
+        if (!medicos.contains(c.getMedico().getId_medico())) {
+            return "Médico con ID " + c.getMedico().getId_medico() + " no encontrado.";
+        }
+        if (cacheReferencia.estado(c.getEstado().getIdEstado()).isEmpty()) {
+            return "Estado con ID " + c.getEstado().getIdEstado() + " no encontrado.";
+        }
+        if (c.getDuracionMinutos() != null && c.getDuracionMinutos() <= 0) {
+            return "La duración de la cita debe ser mayor a cero minutos.";
+        }
+        if (!FechaValidator.esFechaValida(c.getFecha())) {
+            return "La fecha no puede ser anterior a hoy.";
+        }
+        if (!HoraValidator.esHoraEnRango(c.getHora())) {
+            return "La hora debe estar entre 6:00 y 20:00.";
+        }
+        if (HoraValidator.esHoraDelPasado(c.getFecha(), c.getHora())) {
+            return "La hora indicada ya pasó.";
+        }
+        return null;
+    }
+
+    /**
+     * Revisa la agenda e inserta las citas aceptadas. Se ejecuta con los candados del lote
+     * tomados: las citas aceptadas se marcan en el índice en cuanto se aceptan para que
+     * las siguientes del mismo lote choquen con ellas.
+     */
+    private void reservar(List<Pendiente> pendientes, ResultadoCitaLoteDTO[] resultados) {
+        List<Pendiente> aceptadas = new ArrayList<>();
+        for (Pendiente p : pendientes) {
+            if (!indiceAgendaService.medicoDisponible(p.idMedico(), p.fecha(), p.hora())) {
+                resultados[p.indice()] = rechazo(p.indice(), HttpStatus.CONFLICT,
+                        "El médico no está disponible en ese horario.");
+            } else if (indiceAgendaService.estaOcupado(p.idMedico(), p.fecha(), p.hora(), p.duracion())) {
+                resultados[p.indice()] = conflicto(p);
+            } else {
+                aceptadas.add(p);
+                if (p.estado().getIdEstado() != Cita.ID_ESTADO_CANCELADA) {
+                    indiceAgendaService.registrarCita(p.idMedico(), p.fecha(), p.hora(), p.duracion());
+                }
+            }
+        }
+        if (aceptadas.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids;
+        try {
+            ids = insertarAparte(aceptadas);
+        } catch (DataIntegrityViolationException e) {
+            if (!CoordinadorReservas.esSolapamiento(e)) {
+                throw e;
+            }
+            reservarUnaPorUna(aceptadas, resultados);
+            return;
+        }
+        for (int i = 0; i < aceptadas.size(); i++) {
+            Pendiente p = aceptadas.get(i);
+            resultados[p.indice()] = new ResultadoCitaLoteDTO(p.indice(), HttpStatus.CREATED.value(), ids.get(i), null);
+        }
+    }
+
+    private void reservarUnaPorUna(List<Pendiente> aceptadas, ResultadoCitaLoteDTO[] resultados) {
+        // El índice tiene marcadas citas que no llegaron a guardarse
+        for (Pendiente p : aceptadas) {
+            indiceAgendaService.invalidar(p.idMedico(), p.fecha());
+        }
+        for (Pendiente p : aceptadas) {
+            try {
+                Long id = insertarAparte(List.of(p)).get(0);
+                resultados[p.indice()] = new ResultadoCitaLoteDTO(p.indice(), HttpStatus.CREATED.value(), id, null);
+            } catch (DataIntegrityViolationException e) {
+                if (!CoordinadorReservas.esSolapamiento(e)) {
+                    throw e;
+                }
+                resultados[p.indice()] = conflicto(p);
+            }
+        }
+    }
+
+    // Inserta las citas de forma que un error deshaga solo estas: en su propia transacción
+    // o, si ya hay una abierta (bloqueo distribuido), hasta un savepoint dentro de ella.
+    // En el segundo caso no se usa transaccion.execute, que al fallar marcaría como
+    // rollback-only la transacción exterior.
+    private List<Long> insertarAparte(List<Pendiente> citas) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return insertar(citas, true);
+        }
+        return transaccion.execute(status -> insertar(citas, false));
+    }
+
+    // Inserta las citas con lotes JDBC y devuelve sus IDs en el mismo orden. Los IDs salen
+    // de un bloque de la secuencia, así el lote pide un nextval por cada 50 citas y no uno por fila
+    private List<Long> insertar(List<Pendiente> citas, boolean conSavepoint) {
+        List<Long> ids = new ArrayList<>(citas.size());
+        for (int i = 0; i < citas.size(); i++) {
+            ids.add(idsCita.siguiente());
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) con -> {
+            Savepoint savepoint = conSavepoint ? con.setSavepoint() : null;
+            try (PreparedStatement ps = con.prepareStatement(SQL_INSERTAR)) {
+                for (int desde = 0; desde < citas.size(); desde += FILAS_POR_BATCH) {
+                    for (int i = desde; i < Math.min(desde + FILAS_POR_BATCH, citas.size()); i++) {
+                        Pendiente p = citas.get(i);
+                        ps.setLong(1, ids.get(i));
+                        ps.setInt(2, p.idPaciente());
+                        ps.setInt(3, p.idMedico());
+                        ps.setInt(4, p.estado().getIdEstado());
+                        ps.setObject(5, p.fecha());
+                        ps.setObject(6, p.hora());
+                        ps.setInt(7, p.duracion());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (savepoint != null) {
+                    con.rollback(savepoint);
+                }
+                throw e;
+            }
+            if (savepoint != null) {
+                con.releaseSavepoint(savepoint);
+            }
+            return ids;
+        });
+    }
+
+    private static ResultadoCitaLoteDTO rechazo(int indice, HttpStatus estado, String mensaje) {
+        return new ResultadoCitaLoteDTO(indice, estado.value(), null, mensaje);
+    }
+
+    private static ResultadoCitaLoteDTO conflicto(Pendiente p) {
+        return rechazo(p.indice(), HttpStatus.CONFLICT,
+                "El médico ya tiene una cita agendada en la fecha " + p.fecha() + " y hora " + p.hora() + ".");
+    }
+}
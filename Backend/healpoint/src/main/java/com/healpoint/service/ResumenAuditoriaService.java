@@ -0,0 +1,209 @@
+package com.healpoint.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resumen por hora de la auditoría: cuántas acciones de cada tipo hubo en cada tabla en
+ * cada hora, en la tabla monitoria_resumen_hora.
+ *
+ * EscritorAuditoria cuenta en memoria cada acción que logró insertar en monitoria, así el
+ * resumen no incluye los eventos descartados o fallidos, con un contador por (hora,
+ * tabla, acción). Cada healpoint.auditoria.resumen.intervalo-ms los contadores se quitan
+ * del mapa y se suman a la tabla con un upsert por lotes. Sumar (merge) y quitar
+ * (remove) son atómicos por clave, así que una acción contada mientras se vacía queda en
+ * un contador nuevo para el siguiente vaciado y no se pierde. Si la escritura falla las
+ * cantidades se devuelven a memoria para el siguiente intento.
+ *
+ * El resumen también se puede recalcular desde los registros de monitoria en segundo
+ * plano, por ejemplo después de cargar auditoría por fuera de la aplicación.
+ */
+@Service
+public class ResumenAuditoriaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumenAuditoriaService.class);
+
+    private static final String SQL_SUMAR_POSTGRES =
+            "INSERT INTO monitoria_resumen_hora (hora, tabla_afectada, accion, cantidad) VALUES (?, ?, ?, ?) " +
+                    "ON CONFLICT (hora, tabla_afectada, accion) " +
+                    "DO UPDATE SET cantidad = monitoria_resumen_hora.cantidad + EXCLUDED.cantidad";
+
+    // Otras bases (H2 en las pruebas): MERGE estándar
+    private static final String SQL_SUMAR_ESTANDAR =
+            "MERGE INTO monitoria_resumen_hora r " +
+                    "USING (VALUES (CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(50)), CAST(? AS BIGINT))) " +
+                    "AS n (hora, tabla_afectada, accion, cantidad) " +
+                    "ON r.hora = n.hora AND r.tabla_afectada = n.tabla_afectada AND r.accion = n.accion " +
+                    "WHEN MATCHED THEN UPDATE SET cantidad = r.cantidad + n.cantidad " +
+                    "WHEN NOT MATCHED THEN INSERT (hora, tabla_afectada, accion, cantidad) " +
+                    "VALUES (n.hora, n.tabla_afectada, n.accion, n.cantidad)";
+
+    private static final String SQL_BORRAR_RANGO =
+            "DELETE FROM monitoria_resumen_hora WHERE hora >= ? AND hora < ?";
+
+    private static final String SQL_RECALCULAR_RANGO =
+            "INSERT INTO monitoria_resumen_hora (hora, tabla_afectada, accion, cantidad) " +
+                    "SELECT DATE_TRUNC('HOUR', fecha), tabla_afectada, accion, COUNT(*) FROM monitoria " +
+                    "WHERE fecha >= ? AND fecha < ? " +
+                    "GROUP BY DATE_TRUNC('HOUR', fecha), tabla_afectada, accion";
+
+    record Clave(LocalDateTime hora, String tablaAfectada, String accion) {
+    }
+
+    private record Pendiente(Clave clave, long cantidad) {
+    }
+
+    private final ConcurrentHashMap<Clave, Long> contadores = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String sqlSumar;
+    private final Clock reloj;
+
+    private final ExecutorService recalculo = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "recalculo-resumen-auditoria");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean recalculando = new AtomicBoolean();
+
+    @Autowired
+    public ResumenAuditoriaService(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   EntityManagerFactory entityManagerFactory) {
+        this(jdbcTemplate, transactionTemplate, entityManagerFactory, Clock.systemDefaultZone());
+    }
+
+    ResumenAuditoriaService(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            EntityManagerFactory entityManagerFactory,
+                            Clock reloj) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.reloj = reloj;
+
+        boolean postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        this.sqlSumar = postgres ? SQL_SUMAR_POSTGRES : SQL_SUMAR_ESTANDAR;
+    }
+
+    /**
+     * Cuenta una acción de auditoría en la hora de su fecha.
+     */
+    public void registrar(String tablaAfectada, String accion, LocalDateTime fecha) {
+        sumar(new Clave(fecha.truncatedTo(ChronoUnit.HOURS), tablaAfectada, accion), 1);
+    }
+
+    private void sumar(Clave clave, long cantidad) {
+        contadores.merge(clave, cantidad, Long::sum);
+    }
+
+    /**
+     * Suma a la tabla lo contado desde la escritura anterior.
+     */
+    @Scheduled(fixedDelayString = "${healpoint.auditoria.resumen.intervalo-ms:10000}")
+    public synchronized void vaciar() {
+        List<Pendiente> pendientes = new ArrayList<>();
+        for (Clave clave : contadores.keySet()) {
+            Long cantidad = contadores.remove(clave);
+            if (cantidad != null) {
+                pendientes.add(new Pendiente(clave, cantidad));
+            }
+        }
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(sqlSumar, pendientes, pendientes.size(), (ps, pendiente) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(pendiente.clave().hora()));
+                ps.setString(2, pendiente.clave().tablaAfectada());
+                ps.setString(3, pendiente.clave().accion());
+                ps.setLong(4, pendiente.cantidad());
+            });
+        } catch (RuntimeException e) {
+            log.warn("No se pudo escribir el resumen de auditoría ({} contadores), se reintenta luego: {}",
+                    pendientes.size(), e.getMessage());
+            for (Pendiente pendiente : pendientes) {
+                sumar(pendiente.clave(), pendiente.cantidad());
+            }
+        }
+    }
+
+    /**
+     * Recalcula en segundo plano el resumen de las horas en [desde, hasta) a partir de los
+     * registros de monitoria. Devuelve false si ya hay un recálculo en curso.
+     */
+    public boolean iniciarRecalculo(LocalDateTime desde, LocalDateTime hasta) {
+        if (!recalculando.compareAndSet(false, true)) {
+            return false;
+        }
+        recalculo.execute(() -> {
+            try {
+                recalcular(desde, hasta);
+            } catch (RuntimeException e) {
+                log.error("Falló el recálculo del resumen de auditoría: {}", e.getMessage(), e);
+            } finally {
+                recalculando.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRecalculando() {
+        return recalculando.get();
+    }
+
+    /**
+     * Reemplaza el resumen de las horas en [desde, hasta) por el conteo de los registros de
+     * monitoria, un día por transacción. Solo se recalculan horas cerradas: la hora actual
+     * y la anterior todavía pueden tener acciones contadas en memoria sin escribir, que se
+     * sumarían dos veces. Devuelve la cantidad de filas de resumen escritas.
+     */
+    int recalcular(LocalDateTime desde, LocalDateTime hasta) {
+        LocalDateTime limite = LocalDateTime.now(reloj).truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        LocalDateTime fin = hasta.isAfter(limite) ? limite : hasta;
+
+        int escritas = 0;
+        LocalDateTime inicio = desde.truncatedTo(ChronoUnit.HOURS);
+        while (inicio.isBefore(fin)) {
+            LocalDateTime finDia = inicio.plusDays(1).isAfter(fin) ? fin : inicio.plusDays(1);
+            Timestamp a = Timestamp.valueOf(inicio);
+            Timestamp b = Timestamp.valueOf(finDia);
+            Integer filas = transactionTemplate.execute(estado -> {
+                jdbcTemplate.update(SQL_BORRAR_RANGO, a, b);
+                return jdbcTemplate.update(SQL_RECALCULAR_RANGO, a, b);
+            });
+            escritas += filas != null ? filas : 0;
+            inicio = finDia;
+        }
+        log.info("Resumen de auditoría recalculado entre {} y {}: {} filas", desde, fin, escritas);
+        return escritas;
+    }
+
+    @PreDestroy
+    public void detener() {
+        recalculo.shutdownNow();
+        vaciar();
+    }
+}
@@ -0,0 +1,74 @@
+package com.healpoint.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * IDs de secuencia para las escrituras que se hacen con JDBC directo (auditoría, citas en
+ * lote), tomados de la misma secuencia que usan las entidades. Así no dependen de que la
+ * columna tenga un valor por defecto, que en PostgreSQL existe (DEFAULT nextval) pero no
+ * en el esquema que Hibernate genera para H2 en las pruebas.
+ *
+ * Las secuencias avanzan de 50 en 50 (allocationSize de las entidades, optimizador pooled
+ * de Hibernate): cada valor es el tope de un bloque de 50 IDs. Por eso los escritores
+ * JDBC no pueden poner nextval en cada fila, que gastaría 50 IDs por fila, sino que
+ * reservan bloques igual que Hibernate con {@link #bloque}.
+ */
+@Component
+public class Secuencias {
+
+    /**
+     * Incremento de las secuencias, igual al allocationSize de las entidades.
+     */
+    public static final int TAMANO_BLOQUE = 50;
+
+    private final Dialect dialect;
+    private final JdbcTemplate jdbcTemplate;
+
+    public Secuencias(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Generador de IDs que pide a la secuencia un valor por cada TAMANO_BLOQUE IDs, por
+     * ejemplo con select nextval('cita_id_cita_seq') en PostgreSQL.
+     */
+    public Bloque bloque(String secuencia) {
+        String sql = dialect.getSequenceSupport().getSequenceNextValString(secuencia);
+        return new Bloque(() -> jdbcTemplate.queryForObject(sql, Long.class), TAMANO_BLOQUE);
+    }
+
+    /**
+     * Reparte los IDs de un bloque a la vez, como el optimizador pooled de Hibernate: el
+     * valor v de la secuencia reserva los IDs v - tamano + 1 a v. Los bloques que Hibernate
+     * y los escritores JDBC piden a la misma secuencia nunca se cruzan, porque cada uno
+     * sale de un nextval distinto.
+     */
+    public static final class Bloque {
+
+        private final LongSupplier siguienteValor;
+        private final int tamano;
+        private long proximo;
+        private long tope = -1;
+
+        public Bloque(LongSupplier siguienteValor, int tamano) {
+            this.siguienteValor = siguienteValor;
+            this.tamano = tamano;
+        }
+
+        public synchronized long siguiente() {
+            if (proximo > tope) {
+                tope = siguienteValor.getAsLong();
+                // El primer valor de una secuencia nueva (1) solo alcanza para un ID
+                proximo = Math.max(1, tope - tamano + 1);
+            }
+            return proximo++;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.healpoint.service;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Usuario autenticado de la petición actual, tal como viene en su token de sesión (ver
+ * TokenSesionService). FiltroSesion lo deja como atributo de la petición después de
+ * verificar la firma, sin consultar la base.
+ */
+public record SesionUsuario(
+        Integer idUsuario,
+        Integer idRol,
+        Instant expira
+) {
+
+    public static final String ATRIBUTO = SesionUsuario.class.getName();
+
+    /**
+     * Sesión de la petición que se está atendiendo en este hilo, si trae un token válido.
+     * Fuera de una petición (tareas programadas, hilos propios) siempre está vacía.
+     */
+    public static Optional<SesionUsuario> actual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((SesionUsuario) atributos.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST));
+    }
+}
@@ -0,0 +1,147 @@
+package com.healpoint.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Emite y verifica los tokens de sesión que entrega POST /usuario/login.
+ *
+ * El token lleva el ID del usuario, su rol y el vencimiento, firmados con HMAC-SHA256:
+ * base64url("idUsuario:idRol:vencimiento") + "." + base64url(firma). Verificarlo solo
+ * requiere recalcular la firma, así que ninguna petición consulta la base para saber
+ * quién la hace. Un cambio de rol o de estado del usuario se ve en su siguiente login.
+ *
+ * Si healpoint.sesion.secreto está vacío se usa una clave aleatoria: los tokens dejan de
+ * servir al reiniciar y no se comparten entre instancias.
+ */
+@Service
+public class TokenSesionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenSesionService.class);
+
+    /** Cabecera de la respuesta del login que trae el token. */
+    public static final String CABECERA = "X-Token-Sesion";
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final int LARGO_MINIMO_SECRETO = 32;
+
+    private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODIFICADOR = Base64.getUrlDecoder();
+
+    private final SecretKeySpec clave;
+    private final Duration duracion;
+    private final Clock reloj;
+
+    // Mac no es seguro entre hilos; se reutiliza uno por hilo en vez de crearlo por petición
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public TokenSesionService(@Value("${healpoint.sesion.secreto:}") String secreto,
+                              @Value("${healpoint.sesion.duracion-minutos:720}") long duracionMinutos) {
+        this(claveDe(secreto), Duration.ofMinutes(duracionMinutos), Clock.systemUTC());
+    }
+
+    TokenSesionService(byte[] secreto, Duration duracion, Clock reloj) {
+        if (secreto.length < LARGO_MINIMO_SECRETO) {
+            throw new IllegalArgumentException(
+                    "healpoint.sesion.secreto debe tener al menos " + LARGO_MINIMO_SECRETO + " bytes");
+        }
+        if (duracion.isNegative() || duracion.isZero()) {
+            throw new IllegalArgumentException("healpoint.sesion.duracion-minutos debe ser positivo");
+        }
+        this.clave = new SecretKeySpec(secreto, ALGORITMO);
+        this.duracion = duracion;
+        this.reloj = reloj;
+        this.macs = ThreadLocal.withInitial(this::nuevoMac);
+    }
+
+    private static byte[] claveDe(String secreto) {
+        if (secreto == null || secreto.isBlank()) {
+            log.warn("healpoint.sesion.secreto no está configurado: se usa una clave aleatoria y las sesiones "
+                    + "se pierden al reiniciar");
+            byte[] aleatoria = new byte[LARGO_MINIMO_SECRETO];
+            new SecureRandom().nextBytes(aleatoria);
+            return aleatoria;
+        }
+        return secreto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Mac nuevoMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(clave);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo inicializar " + ALGORITMO, e);
+        }
+    }
+
+    private byte[] firmar(byte[] contenido) {
+        return macs.get().doFinal(contenido);
+    }
+
+    public String emitir(Integer idUsuario, Integer idRol) {
+        long vence = Instant.now(reloj).plus(duracion).getEpochSecond();
+        byte[] contenido = (idUsuario + ":" + idRol + ":" + vence).getBytes(StandardCharsets.US_ASCII);
+        return CODIFICADOR.encodeToString(contenido) + "." + CODIFICADOR.encodeToString(firmar(contenido));
+    }
+
+    /**
+     * Devuelve la sesión del token si la firma es correcta y no venció; vacío en
+     * cualquier otro caso (token mal formado, alterado, firmado con otra clave o vencido).
+     */
+    public Optional<SesionUsuario> verificar(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int punto = token.indexOf('.');
+        if (punto <= 0 || punto != token.lastIndexOf('.')) {
+            return Optional.empty();
+        }
+
+        byte[] contenido;
+        byte[] firma;
+        try {
+            contenido = DECODIFICADOR.decode(token.substring(0, punto));
+            firma = DECODIFICADOR.decode(token.substring(punto + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        // Comparación en tiempo constante: no revela cuántos bytes de la firma coinciden
+        if (!MessageDigest.isEqual(firmar(contenido), firma)) {
+            return Optional.empty();
+        }
+
+        String[] partes = new String(contenido, StandardCharsets.US_ASCII).split(":");
+        if (partes.length != 3) {
+            return Optional.empty();
+        }
+        try {
+            Instant expira = Instant.ofEpochSecond(Long.parseLong(partes[2]));
+            if (!Instant.now(reloj).isBefore(expira)) {
+                return Optional.empty();
+            }
+            return Optional.of(new SesionUsuario(
+                    Integer.valueOf(partes[0]),
+                    Integer.valueOf(partes[1]),
+                    expira));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
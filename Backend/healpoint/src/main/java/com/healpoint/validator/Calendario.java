@@ -0,0 +1,62 @@
+package com.healpoint.validator;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Fecha y hora local actuales de un reloj, leídas sin crear objetos en cada consulta.
+ *
+ * LocalDate.now() y LocalTime.now() consultan las reglas de la zona horaria y crean un
+ * Instant y el resultado cada vez. Aquí el desfase de la zona se calcula una vez y se
+ * guarda junto con el tramo de tiempo en que es válido (hasta el siguiente cambio de
+ * horario). Mientras el reloj esté dentro del tramo, la hora local es solo el instante en
+ * milisegundos más el desfase. La precisión es la del reloj en milisegundos.
+ */
+final class Calendario {
+
+    static final long MILIS_POR_DIA = 86_400_000L;
+
+    // Desfase de la zona válido en [desde, hasta), en milisegundos desde la época
+    private record Tramo(long desde, long hasta, long desfase) {
+    }
+
+    private final Clock reloj;
+
+    // Empieza vacío para que la primera consulta lo calcule
+    private volatile Tramo tramo = new Tramo(0, 0, 0);
+
+    Calendario(Clock reloj) {
+        this.reloj = reloj;
+    }
+
+    /**
+     * Milisegundos locales desde la época: el instante actual más el desfase de la zona.
+     */
+    long ahoraLocal() {
+        long ahora = reloj.millis();
+        Tramo t = tramo;
+        if (ahora < t.desde() || ahora >= t.hasta()) {
+            t = calcular(ahora);
+            tramo = t;
+        }
+        return ahora + t.desfase();
+    }
+
+    private Tramo calcular(long ahora) {
+        Instant instante = Instant.ofEpochMilli(ahora);
+        ZoneRules reglas = reloj.getZone().getRules();
+        ZoneOffsetTransition siguiente = reglas.nextTransition(instante);
+        long hasta = siguiente == null ? Long.MAX_VALUE : siguiente.toEpochSecond() * 1_000L;
+        return new Tramo(ahora, hasta, reglas.getOffset(instante).getTotalSeconds() * 1_000L);
+    }
+
+    static long dia(long milisLocales) {
+        return Math.floorDiv(milisLocales, MILIS_POR_DIA);
+    }
+
+    static long milisDelDia(long milisLocales) {
+        return Math.floorMod(milisLocales, MILIS_POR_DIA);
+    }
+}
@@ -1,16 +1,55 @@
 package com.healpoint.validator;
 
-import java.util.regex.Pattern;
-
+/**
+ * Valida correos con la forma local@dominio, equivalente a la expresión
+ * ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$.
+ *
+ * Se recorre el texto una sola vez con tablas de caracteres permitidos, sin compilar la
+ * expresión ni crear un Matcher en cada llamada: se usa al crear y editar usuarios y en
+ * las cargas masivas.
+ */
 public class EmailValidator {
 
-    private static final String EMAIL_REGEX =
-            "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$";
+    // Caracteres ASCII permitidos antes y después de la arroba
+    private static final boolean[] LOCAL = new boolean[128];
+    private static final boolean[] DOMINIO = new boolean[128];
+
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            LOCAL[c] = DOMINIO[c] = true;
+            LOCAL[c + ('a' - 'A')] = DOMINIO[c + ('a' - 'A')] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            LOCAL[c] = DOMINIO[c] = true;
+        }
+        LOCAL['.'] = DOMINIO['.'] = true;
+        LOCAL['-'] = DOMINIO['-'] = true;
+        LOCAL['+'] = true;
+        LOCAL['_'] = true;
+    }
 
     public static boolean esCorreoValido(String correo) {
-        if (correo == null || correo.trim().isEmpty()) {
+        if (correo == null) {
             return false;
         }
-        return Pattern.matches(EMAIL_REGEX, correo);
+        int largo = correo.length();
+        int i = 0;
+        while (i < largo && permitido(LOCAL, correo.charAt(i))) {
+            i++;
+        }
+        // Al menos un carácter antes de la arroba
+        if (i == 0 || i == largo || correo.charAt(i) != '@') {
+            return false;
+        }
+        int arroba = i++;
+        while (i < largo && permitido(DOMINIO, correo.charAt(i))) {
+            i++;
+        }
+        // Al menos un carácter después de la arroba y nada más al final
+        return i == largo && i > arroba + 1;
+    }
+
+    private static boolean permitido(boolean[] tabla, char c) {
+        return c < 128 && tabla[c];
     }
 }
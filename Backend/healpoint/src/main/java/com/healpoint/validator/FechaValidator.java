@@ -1,12 +1,32 @@
 package com.healpoint.validator;
 
+import java.time.Clock;
 import java.time.LocalDate;
 
 public class FechaValidator {
 
+    private static final FechaValidator SISTEMA = new FechaValidator(Clock.systemDefaultZone());
+
+    private final Calendario calendario;
+
+    /**
+     * Validador que toma la fecha actual del reloj dado, por ejemplo un Clock.fixed en
+     * las pruebas.
+     */
+    public FechaValidator(Clock reloj) {
+        this.calendario = new Calendario(reloj);
+    }
+
     public static boolean esFechaValida(LocalDate fecha) {
+        return SISTEMA.esValida(fecha);
+    }
+
+    /**
+     * Indica si la fecha es hoy o posterior según el reloj del validador.
+     */
+    public boolean esValida(LocalDate fecha) {
         if (fecha == null) return false;
 
-        return !fecha.isBefore(LocalDate.now());
+        return fecha.toEpochDay() >= Calendario.dia(calendario.ahoraLocal());
     }
 }
@@ -1,5 +1,6 @@
 package com.healpoint.validator;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
@@ -8,6 +9,18 @@ public class HoraValidator {
     private static final LocalTime HORA_MIN = LocalTime.of(6, 0);
     private static final LocalTime HORA_MAX = LocalTime.of(20, 0);
 
+    private static final HoraValidator SISTEMA = new HoraValidator(Clock.systemDefaultZone());
+
+    private final Calendario calendario;
+
+    /**
+     * Validador que toma la fecha y la hora actuales del reloj dado, por ejemplo un
+     * Clock.fixed en las pruebas.
+     */
+    public HoraValidator(Clock reloj) {
+        this.calendario = new Calendario(reloj);
+    }
+
     public static boolean esHoraEnRango(LocalTime hora) {
         if (hora == null) return false;
 
@@ -15,8 +28,17 @@ public class HoraValidator {
     }
 
     public static boolean esHoraDelPasado(LocalDate fecha, LocalTime hora) {
-        if (fecha.equals(LocalDate.now())) {
-            return hora.isBefore(LocalTime.now());
+        return SISTEMA.esDelPasado(fecha, hora);
+    }
+
+    /**
+     * Indica si la hora ya pasó cuando la fecha es hoy según el reloj del validador.
+     * Para otras fechas devuelve false.
+     */
+    public boolean esDelPasado(LocalDate fecha, LocalTime hora) {
+        long ahora = calendario.ahoraLocal();
+        if (fecha.toEpochDay() == Calendario.dia(ahora)) {
+            return hora.toNanoOfDay() < Calendario.milisDelDia(ahora) * 1_000_000L;
         }
         return false;
     }
@@ -0,0 +1,16 @@
+-- La agenda filtrada por médico o por paciente se pagina por cursor (fecha, hora,
+-- id_cita), pero sus índices terminaban en hora: con varias citas a la misma hora
+-- PostgreSQL tenía que ordenar esas filas por id_cita en cada página. Se reemplazan por
+-- índices que terminan en id_cita, como idx_cita_fecha_hora.
+--
+-- Las bases restauradas desde el backup ya tienen los índices de tres columnas (V2 no
+-- los cambia por el IF NOT EXISTS), así que los nuevos llevan otro nombre y después se
+-- borran los anteriores. Todo con CONCURRENTLY para no bloquear las reservas; Flyway
+-- ejecuta este script fuera de una transacción y cada paso se puede repetir si falla.
+-- (No se renombran: ALTER INDEX es transaccional y Flyway no lo mezcla con CONCURRENTLY).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cita_medico_fecha_hora_id ON cita (id_medico, fecha, hora, id_cita);
+DROP INDEX CONCURRENTLY IF EXISTS idx_cita_medico_fecha_hora;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cita_paciente_fecha_hora_id ON cita (id_paciente, fecha, hora, id_cita);
+DROP INDEX CONCURRENTLY IF EXISTS idx_cita_paciente_fecha_hora;
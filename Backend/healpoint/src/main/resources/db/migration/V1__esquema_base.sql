@@ -0,0 +1,127 @@
+-- ================================
+-- ESQUEMA BASE DE HEALPOINT
+-- ================================
+-- Tablas, llaves y datos de referencia tal como estaban en la primera versión de
+-- BD_POSTGRESQL/HealPoint-Backup.sql. Los cambios posteriores van en migraciones nuevas;
+-- esta no se modifica.
+--
+-- En una base ya existente (restaurada desde el backup) Flyway no ejecuta este script:
+-- la marca como versión 1 (spring.flyway.baseline-on-migrate) y aplica solo las siguientes.
+
+CREATE TABLE estado (
+    id_estado integer GENERATED BY DEFAULT AS IDENTITY,
+    nombre_estado character varying(100) NOT NULL,
+    descripcion character varying(255),
+    CONSTRAINT estado_pkey PRIMARY KEY (id_estado),
+    CONSTRAINT estado_nombre_estado_key UNIQUE (nombre_estado)
+);
+
+CREATE TABLE rol (
+    id_estado integer NOT NULL,
+    id_rol integer GENERATED BY DEFAULT AS IDENTITY,
+    descripcion character varying(255),
+    nombre_rol character varying(255) NOT NULL,
+    CONSTRAINT rol_pkey PRIMARY KEY (id_rol),
+    CONSTRAINT fk80hduj4jn6rqkuj60uhcj4ork FOREIGN KEY (id_estado) REFERENCES estado (id_estado)
+);
+
+CREATE TABLE usuario (
+    fecha_nacimiento date NOT NULL,
+    id_estado integer NOT NULL,
+    id_rol integer NOT NULL,
+    id_usuario integer GENERATED BY DEFAULT AS IDENTITY,
+    telefono character varying(20) NOT NULL,
+    apellido character varying(100) NOT NULL,
+    correo character varying(100) NOT NULL,
+    nombre character varying(100) NOT NULL,
+    contrasena character varying(150) NOT NULL,
+    direccion character varying(150) NOT NULL,
+    CONSTRAINT usuario_pkey PRIMARY KEY (id_usuario),
+    CONSTRAINT usuario_correo_key UNIQUE (correo),
+    CONSTRAINT fkmyv3138vvci6kaq3y5kt4cntu FOREIGN KEY (id_rol) REFERENCES rol (id_rol),
+    CONSTRAINT fkoi2e3mgfjvia6vuw1s5dh88t2 FOREIGN KEY (id_estado) REFERENCES estado (id_estado)
+);
+
+CREATE TABLE medico (
+    id_estado integer NOT NULL,
+    id_medico integer GENERATED BY DEFAULT AS IDENTITY,
+    id_usuario integer NOT NULL,
+    especialidad character varying(255) NOT NULL,
+    CONSTRAINT medico_pkey PRIMARY KEY (id_medico),
+    CONSTRAINT medico_id_usuario_key UNIQUE (id_usuario),
+    CONSTRAINT fk88ukndsp99d9kgb7kg5oj0v22 FOREIGN KEY (id_usuario) REFERENCES usuario (id_usuario),
+    CONSTRAINT fkll3w9pixe8t9047wdj3xh1d0i FOREIGN KEY (id_estado) REFERENCES estado (id_estado)
+);
+
+CREATE TABLE paciente (
+    id_estado integer NOT NULL,
+    id_paciente integer GENERATED BY DEFAULT AS IDENTITY,
+    id_usuario integer NOT NULL,
+    eps character varying(255) NOT NULL,
+    CONSTRAINT paciente_pkey PRIMARY KEY (id_paciente),
+    CONSTRAINT fk1vx4fcl7eb0wbyvff1184dr0m FOREIGN KEY (id_usuario) REFERENCES usuario (id_usuario),
+    CONSTRAINT fksvkk5htp0eltsie419b5q2mts FOREIGN KEY (id_estado) REFERENCES estado (id_estado)
+);
+
+CREATE TABLE disponibilidad (
+    fecha date,
+    hora_fin time(6) without time zone,
+    hora_inicio time(6) without time zone,
+    id_disponibilidad integer GENERATED BY DEFAULT AS IDENTITY,
+    id_medico integer NOT NULL,
+    CONSTRAINT disponibilidad_pkey PRIMARY KEY (id_disponibilidad),
+    CONSTRAINT fke5kqwg1gh821weoulpotbjgct FOREIGN KEY (id_medico) REFERENCES medico (id_medico)
+);
+
+CREATE TABLE cita (
+    fecha date NOT NULL,
+    hora time(6) without time zone NOT NULL,
+    id_cita integer GENERATED BY DEFAULT AS IDENTITY,
+    id_estado integer NOT NULL,
+    id_medico integer NOT NULL,
+    id_paciente integer NOT NULL,
+    CONSTRAINT cita_pkey PRIMARY KEY (id_cita),
+    CONSTRAINT fk3m4sa30jkr6uyy4krl6k7jir3 FOREIGN KEY (id_medico) REFERENCES medico (id_medico),
+    CONSTRAINT fk6dirrhf28fq8ijbkkgp84tu5v FOREIGN KEY (id_estado) REFERENCES estado (id_estado),
+    CONSTRAINT fk7fljkhue1c7r80b4li70f6fh3 FOREIGN KEY (id_paciente) REFERENCES paciente (id_paciente)
+);
+
+CREATE TABLE historial_medico (
+    fecha_registro date NOT NULL,
+    id_cita integer NOT NULL,
+    id_historial integer GENERATED BY DEFAULT AS IDENTITY,
+    diagnostico text,
+    observaciones text,
+    tratamiento text,
+    CONSTRAINT historial_medico_pkey PRIMARY KEY (id_historial),
+    CONSTRAINT historial_medico_id_cita_key UNIQUE (id_cita),
+    CONSTRAINT fkq0bww3hohbk4tapum7a04oqg5 FOREIGN KEY (id_cita) REFERENCES cita (id_cita)
+);
+
+CREATE TABLE monitoria (
+    id_monitoria integer GENERATED BY DEFAULT AS IDENTITY,
+    usuario_responsable integer,
+    fecha timestamp without time zone DEFAULT CURRENT_TIMESTAMP,
+    accion character varying(50) NOT NULL,
+    tabla_afectada character varying(100) NOT NULL,
+    descripcion text,
+    CONSTRAINT monitoria_pkey PRIMARY KEY (id_monitoria),
+    CONSTRAINT fk9kedi67yf10hukn407bn4rlw6 FOREIGN KEY (usuario_responsable) REFERENCES usuario (id_usuario)
+);
+
+-- Datos de referencia: el código usa estos IDs directamente (por ejemplo 4 = CANCELADA)
+INSERT INTO estado (id_estado, nombre_estado, descripcion) VALUES
+    (1, 'PENDIENTE', 'Cita solicitada por el paciente, esperando confirmación del médico'),
+    (2, 'ACTIVA', 'Cita confirmada por el médico, programada para realizarse'),
+    (3, 'COMPLETADA', 'Consulta realizada, con observaciones médicas registradas'),
+    (4, 'CANCELADA', 'Cita cancelada por el paciente o el médico'),
+    (5, 'NO_ASISTIO', 'El paciente no asistió a la cita programada'),
+    (7, 'INACTIVO', 'Estado general para desactivar recursos o usuarios');
+
+INSERT INTO rol (id_estado, id_rol, descripcion, nombre_rol) VALUES
+    (2, 1, 'Administrador del sistema', 'Administrador'),
+    (2, 2, 'Profesional de salud con agenda y pacientes', 'Medico'),
+    (2, 3, 'Usuario paciente del sistema', 'Paciente');
+
+SELECT setval(pg_get_serial_sequence('estado', 'id_estado'), 7);
+SELECT setval(pg_get_serial_sequence('rol', 'id_rol'), 3);
@@ -0,0 +1,15 @@
+-- Índices de las consultas de agenda y disponibilidad. IF NOT EXISTS porque las bases
+-- restauradas desde el backup actual ya los tienen.
+
+-- Listado paginado por cursor (fecha, hora, id_cita)
+CREATE INDEX IF NOT EXISTS idx_cita_fecha_hora ON cita (fecha, hora, id_cita);
+
+-- Citas de un médico por día (validación de disponibilidad, índice de agenda, horarios libres)
+CREATE INDEX IF NOT EXISTS idx_cita_medico_fecha_hora ON cita (id_medico, fecha, hora);
+
+-- Citas de un paciente
+CREATE INDEX IF NOT EXISTS idx_cita_paciente_fecha_hora ON cita (id_paciente, fecha, hora);
+
+-- Franjas de un médico por día
+CREATE INDEX IF NOT EXISTS idx_disponibilidad_medico_fecha
+    ON disponibilidad (id_medico, fecha, hora_inicio, hora_fin);
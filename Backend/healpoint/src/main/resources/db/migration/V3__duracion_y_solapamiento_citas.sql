@@ -0,0 +1,83 @@
+-- Duración de cada cita y restricción que impide que un médico tenga dos citas no
+-- canceladas (id_estado 4 = CANCELADA) cuyos intervalos
+-- [fecha + hora, fecha + hora + duracion_minutos) se crucen.
+--
+-- Una base existente (ver spring.flyway.baseline-on-migrate) puede tener ya citas que se
+-- cruzan, reservadas antes de esta restricción, y con ellas la restricción no se podría
+-- crear. Por eso, antes de crearla, se cancela cada cita que se cruza con una anterior
+-- del mismo médico (la que empieza antes o, si empiezan a la vez, la de menor ID se
+-- conserva). Cada cancelación queda en monitoria (acción CANCEL_MIGRACION) y en el log
+-- de la migración como WARNING, para avisar a los pacientes y reprogramarlas.
+--
+-- Para revisar los cruces antes de aplicar la migración en producción:
+--
+--   SELECT a.id_cita, b.id_cita AS se_cruza_con, a.id_medico, a.fecha, a.hora
+--   FROM cita a JOIN cita b ON b.id_medico = a.id_medico AND b.fecha = a.fecha
+--    AND b.id_cita <> a.id_cita AND a.id_estado <> 4 AND b.id_estado <> 4
+--    AND (b.hora, b.id_cita) < (a.hora, a.id_cita)
+--    AND a.fecha + a.hora < b.fecha + b.hora + interval '30 minutes';
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE cita ADD COLUMN IF NOT EXISTS duracion_minutos integer DEFAULT 30 NOT NULL;
+
+DO $$
+DECLARE
+    c record;
+    medico integer;
+    conservada integer;
+    fin_conservada timestamp;
+    canceladas integer := 0;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'cita_sin_solapamiento') THEN
+        RETURN;
+    END IF;
+
+    -- En orden de inicio, las citas conservadas de un médico no se cruzan entre sí, así
+    -- que basta comparar cada cita con la última conservada
+    FOR c IN SELECT id_cita, id_medico, fecha + hora AS inicio,
+                    fecha + hora + duracion_minutos * interval '1 minute' AS fin
+             FROM cita
+             WHERE id_estado <> 4
+             ORDER BY id_medico, fecha, hora, id_cita
+    LOOP
+        IF medico IS DISTINCT FROM c.id_medico THEN
+            medico := c.id_medico;
+            fin_conservada := NULL;
+        END IF;
+
+        IF fin_conservada IS NOT NULL AND c.inicio < fin_conservada THEN
+            UPDATE cita SET id_estado = 4 WHERE id_cita = c.id_cita;
+            INSERT INTO monitoria (usuario_responsable, fecha, accion, tabla_afectada, descripcion)
+            VALUES (NULL, CURRENT_TIMESTAMP, 'CANCEL_MIGRACION', 'cita',
+                    format('Migración V3: se canceló la cita ID %s del médico ID %s (%s) porque se cruza con la cita ID %s',
+                           c.id_cita, c.id_medico, c.inicio, conservada));
+            RAISE WARNING 'Se canceló la cita % del médico % (%): se cruza con la cita %',
+                c.id_cita, c.id_medico, c.inicio, conservada;
+            canceladas := canceladas + 1;
+        ELSE
+            conservada := c.id_cita;
+            fin_conservada := c.fin;
+        END IF;
+    END LOOP;
+
+    IF canceladas > 0 THEN
+        RAISE WARNING 'Se cancelaron % citas que se cruzaban; ver monitoria con accion = CANCEL_MIGRACION', canceladas;
+    END IF;
+END
+$$;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'cita_duracion_minutos_check') THEN
+        ALTER TABLE cita ADD CONSTRAINT cita_duracion_minutos_check CHECK (duracion_minutos > 0);
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'cita_sin_solapamiento') THEN
+        ALTER TABLE cita ADD CONSTRAINT cita_sin_solapamiento EXCLUDE USING gist (
+            id_medico WITH =,
+            tsrange(fecha + hora, fecha + hora + duracion_minutos * interval '1 minute') WITH &&
+        ) WHERE (id_estado <> 4);
+    END IF;
+END
+$$;
@@ -0,0 +1,54 @@
+-- Las entidades generan los IDs con @SequenceGenerator y reservan bloques de 50
+-- (optimizador pooled de Hibernate): cada valor de la secuencia es el tope de un bloque,
+-- así que el incremento debe coincidir con el allocationSize.
+--
+-- Las columnas IDENTITY se cambian por secuencias propias de la columna: PostgreSQL no
+-- muestra las secuencias de IDENTITY en information_schema.sequences y la validación de
+-- Hibernate (ddl-auto=validate) no las encontraría. El DEFAULT nextval se conserva para
+-- las inserciones hechas fuera de JPA.
+
+DO $$
+DECLARE
+    t record;
+    secuencia text;
+    actual text;
+    ultimo bigint;
+    maximo bigint;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES
+            ('cita', 'id_cita'),
+            ('disponibilidad', 'id_disponibilidad'),
+            ('estado', 'id_estado'),
+            ('historial_medico', 'id_historial'),
+            ('medico', 'id_medico'),
+            ('monitoria', 'id_monitoria'),
+            ('paciente', 'id_paciente'),
+            ('rol', 'id_rol'),
+            ('usuario', 'id_usuario')) AS v(tabla, columna)
+    LOOP
+        secuencia := t.tabla || '_' || t.columna || '_seq';
+
+        -- Último valor entregado por la secuencia actual, sea IDENTITY o no
+        ultimo := 0;
+        actual := pg_get_serial_sequence(t.tabla, t.columna);
+        IF actual IS NOT NULL THEN
+            EXECUTE format('SELECT last_value FROM %s', actual) INTO ultimo;
+        END IF;
+
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema()
+                     AND table_name = t.tabla AND column_name = t.columna AND is_identity = 'YES') THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN %I DROP IDENTITY', t.tabla, t.columna);
+        END IF;
+
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I AS integer', secuencia);
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50 OWNED BY %I.%I', secuencia, t.tabla, t.columna);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN %I SET DEFAULT nextval(%L::regclass)',
+                       t.tabla, t.columna, secuencia);
+
+        -- El siguiente bloque empieza después de cualquier ID ya usado
+        EXECUTE format('SELECT COALESCE(max(%I), 0) FROM %I', t.columna, t.tabla) INTO maximo;
+        PERFORM setval(secuencia, GREATEST(maximo, ultimo) + 50);
+    END LOOP;
+END
+$$;
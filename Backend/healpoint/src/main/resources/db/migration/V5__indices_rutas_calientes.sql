@@ -0,0 +1,15 @@
+-- Índices que faltaban en las consultas frecuentes. Se crean con CONCURRENTLY para no
+-- bloquear las escrituras en monitoria, que crece con cada operación; por eso Flyway
+-- ejecuta este script fuera de una transacción.
+
+-- Auditoría por rango de fechas
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_monitoria_fecha ON monitoria (fecha);
+
+-- Auditoría de un usuario (y la llave foránea al borrar usuarios)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_monitoria_usuario_responsable ON monitoria (usuario_responsable);
+
+-- Paciente de un usuario (inicio de sesión y perfil)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_paciente_usuario ON paciente (id_usuario);
+
+-- Médicos por especialidad sin distinguir mayúsculas (búsqueda de horarios libres)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medico_especialidad ON medico (lower(especialidad));
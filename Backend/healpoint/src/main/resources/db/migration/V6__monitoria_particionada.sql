@@ -0,0 +1,80 @@
+-- La auditoría se guarda en particiones mensuales por fecha. Las consultas por rango de
+-- fechas solo leen los meses pedidos y los registros viejos se quitan desacoplando o
+-- borrando su partición completa, sin DELETE masivos (ver MantenimientoMonitoriaService).
+--
+-- La llave primaria de una tabla particionada debe incluir la columna de partición, así
+-- que pasa a ser (id_monitoria, fecha); el ID sigue saliendo de la misma secuencia.
+-- Los registros que no caen en ninguna partición mensual van a monitoria_default.
+
+ALTER SEQUENCE monitoria_id_monitoria_seq OWNED BY NONE;
+ALTER TABLE monitoria RENAME TO monitoria_sin_particiones;
+
+CREATE TABLE monitoria (
+    id_monitoria integer NOT NULL DEFAULT nextval('monitoria_id_monitoria_seq'::regclass),
+    usuario_responsable integer,
+    fecha timestamp without time zone NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    accion character varying(50) NOT NULL,
+    tabla_afectada character varying(100) NOT NULL,
+    descripcion text
+) PARTITION BY RANGE (fecha);
+
+ALTER SEQUENCE monitoria_id_monitoria_seq OWNED BY monitoria.id_monitoria;
+
+CREATE TABLE monitoria_default PARTITION OF monitoria DEFAULT;
+
+-- Crea la partición monitoria_AAAA_MM del mes que contiene la fecha dada, si no existe.
+-- Si ya llegaron registros de ese mes a monitoria_default, se mueven a la nueva partición
+-- (PostgreSQL no permite crearla mientras el default tenga filas de su rango).
+CREATE OR REPLACE FUNCTION crear_particion_monitoria(mes date) RETURNS text
+LANGUAGE plpgsql AS $$
+DECLARE
+    desde timestamp := date_trunc('month', mes);
+    hasta timestamp := date_trunc('month', mes) + interval '1 month';
+    nombre text := 'monitoria_' || to_char(mes, 'YYYY_MM');
+BEGIN
+    -- Varias instancias pueden ejecutar el mantenimiento a la vez
+    PERFORM pg_advisory_xact_lock(hashtext('crear_particion_monitoria'));
+
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN nombre;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM monitoria_default WHERE fecha >= desde AND fecha < hasta) THEN
+        EXECUTE format('CREATE TABLE %I (LIKE monitoria INCLUDING DEFAULTS)', nombre);
+        EXECUTE format('WITH movidas AS (DELETE FROM monitoria_default WHERE fecha >= %L AND fecha < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM movidas', desde, hasta, nombre);
+        EXECUTE format('ALTER TABLE monitoria ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       nombre, desde, hasta);
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF monitoria FOR VALUES FROM (%L) TO (%L)',
+                       nombre, desde, hasta);
+    END IF;
+    RETURN nombre;
+END
+$$;
+
+-- Una partición por cada mes con registros, más el mes actual y los tres siguientes
+SELECT crear_particion_monitoria(mes::date)
+FROM (
+    SELECT DISTINCT date_trunc('month', fecha) AS mes FROM monitoria_sin_particiones WHERE fecha IS NOT NULL
+    UNION
+    SELECT generate_series(date_trunc('month', CURRENT_TIMESTAMP),
+                           date_trunc('month', CURRENT_TIMESTAMP) + interval '3 months',
+                           interval '1 month')
+) AS meses;
+
+-- La fecha pasa a ser obligatoria; la aplicación siempre la asigna
+INSERT INTO monitoria (id_monitoria, usuario_responsable, fecha, accion, tabla_afectada, descripcion)
+SELECT id_monitoria, usuario_responsable, COALESCE(fecha, CURRENT_TIMESTAMP), accion, tabla_afectada, descripcion
+FROM monitoria_sin_particiones;
+
+DROP TABLE monitoria_sin_particiones;
+
+-- Restricciones e índices después de copiar los datos. Se crean en la tabla particionada
+-- y PostgreSQL los replica en cada partición, también en las que se creen después.
+ALTER TABLE monitoria ADD CONSTRAINT monitoria_pkey PRIMARY KEY (id_monitoria, fecha);
+ALTER TABLE monitoria ADD CONSTRAINT fk9kedi67yf10hukn407bn4rlw6
+    FOREIGN KEY (usuario_responsable) REFERENCES usuario (id_usuario);
+
+CREATE INDEX idx_monitoria_fecha ON monitoria (fecha);
+CREATE INDEX idx_monitoria_usuario_responsable ON monitoria (usuario_responsable);
@@ -0,0 +1,24 @@
+-- Índices de la búsqueda de auditoría (MonitoriaRepository.buscar), que pagina por cursor
+-- en orden (fecha, id_monitoria) descendente. Cada filtro tiene un índice que termina en
+-- (fecha, id_monitoria), así la página se lee en orden sin ordenar todo el rango.
+--
+-- monitoria es una tabla particionada y PostgreSQL no permite CREATE INDEX CONCURRENTLY
+-- sobre ella: mientras se crean estos índices las inserciones de auditoría esperan.
+
+-- Sin filtros o solo por acción; reemplaza al índice de solo fecha
+DROP INDEX IF EXISTS idx_monitoria_fecha;
+CREATE INDEX IF NOT EXISTS idx_monitoria_fecha_id ON monitoria (fecha, id_monitoria);
+
+-- Lo que hizo un usuario; también sirve a la llave foránea, así que reemplaza al anterior
+DROP INDEX IF EXISTS idx_monitoria_usuario_responsable;
+CREATE INDEX IF NOT EXISTS idx_monitoria_usuario_fecha ON monitoria (usuario_responsable, fecha, id_monitoria);
+
+-- Cambios en una tabla. La acción queda fuera: tiene pocos valores (CREATE, UPDATE,
+-- DELETE...) y con ella en medio el índice ya no sirve para ordenar cuando solo se
+-- filtra por tabla; se descarta al leer
+CREATE INDEX IF NOT EXISTS idx_monitoria_tabla_fecha ON monitoria (tabla_afectada, fecha, id_monitoria);
+
+-- Recorridos de rangos largos de fechas (exportaciones y reportes). Los registros se
+-- insertan en orden de fecha, así que cada bloque de la tabla cubre un intervalo corto
+-- y el índice BRIN ocupa unas pocas páginas por partición.
+CREATE INDEX IF NOT EXISTS idx_monitoria_fecha_brin ON monitoria USING brin (fecha);
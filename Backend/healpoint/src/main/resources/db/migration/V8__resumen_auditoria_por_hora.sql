@@ -0,0 +1,19 @@
+-- Resumen por hora de la auditoría (ver ResumenAuditoriaService): cantidad de acciones
+-- por tabla y tipo de acción en cada hora. Las consultas del tablero leen este resumen
+-- en lugar de contar sobre monitoria.
+
+CREATE TABLE IF NOT EXISTS monitoria_resumen_hora (
+    hora timestamp without time zone NOT NULL,
+    tabla_afectada character varying(100) NOT NULL,
+    accion character varying(50) NOT NULL,
+    cantidad bigint NOT NULL,
+    CONSTRAINT monitoria_resumen_hora_pkey PRIMARY KEY (hora, tabla_afectada, accion)
+);
+
+-- Resumen de la auditoría existente. La aplicación no está corriendo mientras se migra,
+-- así que no hay acciones contadas en memoria que se sumen dos veces.
+INSERT INTO monitoria_resumen_hora (hora, tabla_afectada, accion, cantidad)
+SELECT date_trunc('hour', fecha), tabla_afectada, accion, count(*)
+FROM monitoria
+GROUP BY date_trunc('hour', fecha), tabla_afectada, accion
+ON CONFLICT DO NOTHING;
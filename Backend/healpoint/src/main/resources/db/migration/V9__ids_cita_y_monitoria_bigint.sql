@@ -0,0 +1,15 @@
+-- Las citas y la auditoría son las tablas que más crecen: sus IDs pasan a bigint. Cada
+-- valor de la secuencia reserva 50 IDs (ver V4), así que una secuencia integer se agota
+-- mucho antes de llegar a 2^31 filas si algún bloque queda sin usar.
+--
+-- Cambiar el tipo reescribe la tabla y sus índices con un bloqueo exclusivo; en bases
+-- grandes conviene aplicarla en una ventana de mantenimiento.
+
+ALTER SEQUENCE cita_id_cita_seq AS bigint;
+ALTER SEQUENCE monitoria_id_monitoria_seq AS bigint;
+
+ALTER TABLE cita ALTER COLUMN id_cita TYPE bigint;
+ALTER TABLE historial_medico ALTER COLUMN id_cita TYPE bigint;
+
+-- En la tabla particionada el cambio se propaga a todas las particiones
+ALTER TABLE monitoria ALTER COLUMN id_monitoria TYPE bigint;
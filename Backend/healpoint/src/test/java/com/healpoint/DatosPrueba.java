@@ -0,0 +1,79 @@
+package com.healpoint;
+
+import com.healpoint.entity.*;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Ayudas para sembrar datos en las pruebas que usan la base H2 en memoria.
+ */
+public final class DatosPrueba {
+
+    private final TestEntityManager em;
+    private final Estado activo;
+    private final Rol rolMedico;
+    private final Rol rolPaciente;
+    private int consecutivo;
+
+    public DatosPrueba(TestEntityManager em) {
+        this.em = em;
+        this.activo = em.persist(new Estado("ACTIVA", "Activo"));
+        this.rolMedico = em.persist(new Rol("Medico", null, activo));
+        this.rolPaciente = em.persist(new Rol("Paciente", null, activo));
+    }
+
+    public Estado getActivo() {
+        return activo;
+    }
+
+    public Estado estado(String nombre) {
+        return em.persist(new Estado(nombre, null));
+    }
+
+    public Medico medico(String especialidad) {
+        Medico medico = new Medico();
+        medico.setEspecialidad(especialidad);
+        medico.setEstado(activo);
+        medico.setUsuario(usuario("Medico", rolMedico));
+        return em.persist(medico);
+    }
+
+    public Paciente paciente() {
+        return em.persist(new Paciente("SURA", usuario("Paciente", rolPaciente), activo));
+    }
+
+    public Cita cita(Paciente paciente, Medico medico, LocalDate fecha, LocalTime hora, Estado estado) {
+        Cita cita = new Cita();
+        cita.setPaciente(paciente);
+        cita.setMedico(medico);
+        cita.setFecha(fecha);
+        cita.setHora(hora);
+        cita.setDuracionMinutos(Cita.DURACION_POR_DEFECTO);
+        cita.setEstado(estado);
+        return em.persist(cita);
+    }
+
+    public Disponibilidad disponibilidad(Medico medico, LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        Disponibilidad d = new Disponibilidad();
+        d.setMedico(medico);
+        d.setFecha(fecha);
+        d.setHora_inicio(inicio);
+        d.setHora_fin(fin);
+        return em.persist(d);
+    }
+
+    public HistorialMedico historial(Cita cita, String diagnostico) {
+        HistorialMedico h = new HistorialMedico();
+        h.setCita(cita);
+        h.setDiagnostico(diagnostico);
+        return em.persist(h);
+    }
+
+    private Usuario usuario(String nombre, Rol rol) {
+        int n = ++consecutivo;
+        return em.persist(new Usuario(nombre + n, "Prueba", "usuario" + n + "@healpoint.com", "Calle " + n,
+                "300000" + n, LocalDate.of(1990, 1, 1), "clave" + n, rol, activo));
+    }
+}
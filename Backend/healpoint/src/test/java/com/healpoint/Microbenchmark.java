@@ -0,0 +1,177 @@
+package com.healpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Arnés mínimo de microbenchmarks para las pruebas con @Tag("benchmark"), al estilo de
+ * JMH en modo de tiempo promedio (avgt, ns/op) con un solo hilo y sin forks.
+ *
+ * Cada benchmark hace iteraciones de calentamiento y de medición de duración fija. El
+ * resultado de cada invocación se consume en un campo volátil para que el JIT no
+ * elimine el trabajo medido. Además del tiempo se mide cuántos bytes asigna cada
+ * invocación en el heap (la métrica ·gc.alloc.rate.norm de JMH). Al cerrar, los resultados se escriben en
+ * target/benchmarks/&lt;nombre&gt;.json con el mismo formato que "-rf json" de JMH, para
+ * compararlos entre versiones con un diff o con las herramientas de JMH.
+ *
+ * Las iteraciones y su duración se pueden cambiar con las propiedades del sistema
+ * healpoint.benchmark.iteraciones, healpoint.benchmark.calentamiento y
+ * healpoint.benchmark.duracion-ms.
+ */
+public final class Microbenchmark {
+
+    // Cuantil 0,9995 de la t de Student por grados de libertad (1 a 30), para el
+    // intervalo de confianza del 99,9 % que reporta JMH
+    private static final double[] T_999 = {
+            636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+            4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+            3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646};
+
+    private final String nombre;
+    private final int iteracionesCalentamiento;
+    private final int iteraciones;
+    private final long duracionNanos;
+    private final List<Map<String, Object>> resultados = new ArrayList<>();
+
+    // Sumidero de resultados, al estilo del Blackhole de JMH
+    private volatile Object sumidero;
+
+    private static final com.sun.management.ThreadMXBean HILOS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Resultado de un benchmark: tiempo promedio por invocación y bytes asignados por
+     * invocación.
+     */
+    public record Medicion(double nanosPorOperacion, double bytesPorOperacion) {
+    }
+
+    public Microbenchmark(String nombre) {
+        this.nombre = nombre;
+        this.iteracionesCalentamiento = Integer.getInteger("healpoint.benchmark.calentamiento", 5);
+        this.iteraciones = Integer.getInteger("healpoint.benchmark.iteraciones", 10);
+        this.duracionNanos = Long.getLong("healpoint.benchmark.duracion-ms", 200L) * 1_000_000L;
+    }
+
+    /**
+     * Mide el tiempo promedio y los bytes asignados por invocación de la operación,
+     * promediando las iteraciones de medición.
+     */
+    public Medicion medir(String benchmark, Callable<?> operacion) {
+        return medir(benchmark, Map.of(), operacion);
+    }
+
+    public Medicion medir(String benchmark, Map<String, String> parametros, Callable<?> operacion) {
+        for (int i = 0; i < iteracionesCalentamiento; i++) {
+            iteracion(operacion);
+        }
+        long hilo = Thread.currentThread().getId();
+        long operaciones = 0;
+        long asignadosAntes = HILOS.getThreadAllocatedBytes(hilo);
+        double[] nanosPorOperacion = new double[iteraciones];
+        for (int i = 0; i < iteraciones; i++) {
+            long inicio = System.nanoTime();
+            long hechas = iteracion(operacion);
+            nanosPorOperacion[i] = (double) (System.nanoTime() - inicio) / hechas;
+            operaciones += hechas;
+        }
+        double bytesPorOperacion = (double) (HILOS.getThreadAllocatedBytes(hilo) - asignadosAntes) / operaciones;
+        return registrar(benchmark, parametros, nanosPorOperacion, bytesPorOperacion);
+    }
+
+    // Devuelve la cantidad de invocaciones hechas durante la iteración
+    private long iteracion(Callable<?> operacion) {
+        long operaciones = 0;
+        long fin = System.nanoTime() + duracionNanos;
+        try {
+            do {
+                // Se consulta el reloj cada 64 invocaciones para no medir System.nanoTime
+                for (int i = 0; i < 64; i++) {
+                    sumidero = operacion.call();
+                }
+                operaciones += 64;
+            } while (System.nanoTime() < fin);
+        } catch (Exception e) {
+            throw new IllegalStateException("Falló el benchmark " + nombre, e);
+        }
+        return operaciones;
+    }
+
+    private Medicion registrar(String benchmark, Map<String, String> parametros, double[] muestras,
+                              double bytesPorOperacion) {
+        double promedio = Arrays.stream(muestras).average().orElse(Double.NaN);
+        double varianza = Arrays.stream(muestras).map(m -> (m - promedio) * (m - promedio)).sum()
+                / Math.max(1, muestras.length - 1);
+        int gradosLibertad = muestras.length - 1;
+        double t = gradosLibertad <= 0 ? Double.NaN
+                : gradosLibertad <= T_999.length ? T_999[gradosLibertad - 1] : 3.291;
+        double error = t * Math.sqrt(varianza / muestras.length);
+
+        double[] ordenadas = muestras.clone();
+        Arrays.sort(ordenadas);
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("0.0", ordenadas[0]);
+        percentiles.put("50.0", ordenadas[ordenadas.length / 2]);
+        percentiles.put("100.0", ordenadas[ordenadas.length - 1]);
+
+        Map<String, Object> metrica = new LinkedHashMap<>();
+        metrica.put("score", promedio);
+        metrica.put("scoreError", error);
+        metrica.put("scoreConfidence", List.of(promedio - error, promedio + error));
+        metrica.put("scorePercentiles", percentiles);
+        metrica.put("scoreUnit", "ns/op");
+        metrica.put("rawData", List.of(muestras));
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("benchmark", nombre + "." + benchmark);
+        resultado.put("mode", "avgt");
+        resultado.put("threads", 1);
+        resultado.put("forks", 0);
+        resultado.put("jvm", System.getProperty("java.home"));
+        resultado.put("jdkVersion", System.getProperty("java.version"));
+        resultado.put("warmupIterations", iteracionesCalentamiento);
+        resultado.put("warmupTime", duracionNanos / 1_000_000 + " ms");
+        resultado.put("measurementIterations", iteraciones);
+        resultado.put("measurementTime", duracionNanos / 1_000_000 + " ms");
+        if (!parametros.isEmpty()) {
+            resultado.put("params", new LinkedHashMap<>(parametros));
+        }
+        resultado.put("primaryMetric", metrica);
+        Map<String, Object> asignacion = new LinkedHashMap<>();
+        asignacion.put("score", bytesPorOperacion);
+        asignacion.put("scoreUnit", "B/op");
+        resultado.put("secondaryMetrics", Map.of("·gc.alloc.rate.norm", asignacion));
+        resultados.add(resultado);
+
+        System.out.printf("%-60s %s %,12.1f +- %,.1f ns/op %,10.1f B/op%n",
+                nombre + "." + benchmark, parametros.isEmpty() ? "" : parametros, promedio, error, bytesPorOperacion);
+        return new Medicion(promedio, bytesPorOperacion);
+    }
+
+    /**
+     * Escribe los resultados medidos en target/benchmarks/&lt;nombre&gt;.json.
+     */
+    public Path escribir() {
+        Path archivo = Paths.get("target", "benchmarks", nombre + ".json");
+        try {
+            Files.createDirectories(archivo.getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(archivo.toFile(), resultados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return archivo;
+    }
+}
@@ -0,0 +1,87 @@
+package com.healpoint.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EndpointPrometheusTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EndpointPrometheus endpoint = new EndpointPrometheus(registry);
+
+    private List<String> lineas() {
+        return endpoint.exportar().lines().toList();
+    }
+
+    @Test
+    void contadoresYGaugesConSusEtiquetas() {
+        Counter.builder("healpoint.auditoria.eventos").tag("resultado", "escrito")
+                .description("Eventos de auditoría").register(registry).increment(3);
+        Counter.builder("healpoint.auditoria.eventos").tag("resultado", "descartado").register(registry);
+        Gauge.builder("healpoint.auditoria.cola.tamano", () -> 42).register(registry);
+
+        List<String> lineas = lineas();
+
+        assertTrue(lineas.contains("# HELP healpoint_auditoria_eventos_total Eventos de auditoría"));
+        assertEquals(1, lineas.stream().filter(l -> l.startsWith("# TYPE healpoint_auditoria_eventos_total")).count());
+        assertTrue(lineas.contains("healpoint_auditoria_eventos_total{resultado=\"escrito\"} 3"));
+        assertTrue(lineas.contains("healpoint_auditoria_eventos_total{resultado=\"descartado\"} 0"));
+        assertTrue(lineas.contains("# TYPE healpoint_auditoria_cola_tamano gauge"));
+        assertTrue(lineas.contains("healpoint_auditoria_cola_tamano 42"));
+    }
+
+    @Test
+    void losTimersConCubetasSePublicanComoHistogramaEnSegundos() {
+        Timer timer = Timer.builder("http.server.requests")
+                .tags("uri", "/cita/crearCita", "controlador", "CitaController.postCita")
+                .serviceLevelObjectives(Duration.ofMillis(10), Duration.ofMillis(100))
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        timer.record(Duration.ofMillis(5));
+        timer.record(Duration.ofMillis(50));
+        timer.record(Duration.ofMillis(500));
+
+        List<String> lineas = lineas();
+        String etiquetas = "controlador=\"CitaController.postCita\",uri=\"/cita/crearCita\"";
+
+        assertTrue(lineas.contains("# TYPE http_server_requests_seconds histogram"));
+        // Las cubetas son acumuladas
+        assertTrue(lineas.contains("http_server_requests_seconds_bucket{" + etiquetas + ",le=\"0.01\"} 1"));
+        assertTrue(lineas.contains("http_server_requests_seconds_bucket{" + etiquetas + ",le=\"0.1\"} 2"));
+        assertTrue(lineas.contains("http_server_requests_seconds_bucket{" + etiquetas + ",le=\"+Inf\"} 3"));
+        assertTrue(lineas.contains("http_server_requests_seconds_count{" + etiquetas + "} 3"));
+        assertTrue(lineas.contains("http_server_requests_seconds_sum{" + etiquetas + "} 0.555"));
+        assertTrue(lineas.contains("http_server_requests_seconds_max{" + etiquetas + "} 0.5"));
+    }
+
+    @Test
+    void losTimersSinCubetasSePublicanComoSummaryConSusPercentiles() {
+        Timer timer = Timer.builder("healpoint.auditoria.lote.duracion").publishPercentiles(0.95).register(registry);
+        timer.record(Duration.ofMillis(20));
+
+        List<String> lineas = lineas();
+
+        assertTrue(lineas.contains("# TYPE healpoint_auditoria_lote_duracion_seconds summary"));
+        assertTrue(lineas.contains("healpoint_auditoria_lote_duracion_seconds_count 1"));
+        assertTrue(lineas.contains("healpoint_auditoria_lote_duracion_seconds_sum 0.02"));
+        // El percentil se aproxima con el histograma interno de Micrometer
+        String percentil = lineas.stream()
+                .filter(l -> l.startsWith("healpoint_auditoria_lote_duracion_percentile_seconds{phi=\"0.95\"} "))
+                .findFirst().orElseThrow();
+        assertEquals(0.02, Double.parseDouble(percentil.substring(percentil.indexOf(' ') + 1)), 0.001);
+    }
+
+    @Test
+    void losValoresDeLasEtiquetasSeEscapan() {
+        Counter.builder("healpoint.prueba").tag("uri", "/a\"b\\c\nd").register(registry).increment();
+
+        assertTrue(lineas().contains("healpoint_prueba_total{uri=\"/a\\\"b\\\\c\\nd\"} 1"));
+    }
+}
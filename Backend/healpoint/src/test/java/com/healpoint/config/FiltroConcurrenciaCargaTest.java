@@ -0,0 +1,122 @@
+package com.healpoint.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga local: muchos más clientes que conexiones en el pool. Sin límite cada
+ * petición espera su turno por una conexión y el p99 crece con la cantidad de clientes;
+ * con FiltroConcurrencia el exceso se rechaza con 503 y el p99 de las atendidas queda
+ * cerca del tiempo de servicio.
+ *
+ * El pool se simula con un semáforo de CONEXIONES permisos y un tiempo fijo por consulta.
+ *
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+public class FiltroConcurrenciaCargaTest {
+
+    private static final int CONEXIONES = 10;
+    private static final long SERVICIO_MS = 5;
+    private static final int CLIENTES = 100;
+    private static final long DURACION_MS = 4_000;
+    private static final long ESPERA_REINTENTO_MS = 50;
+
+    private record Resultado(double p50, double p99, int atendidas, int rechazadas) {
+    }
+
+    @Test
+    void conSobrecargaElP99DeLasAtendidasQuedaAcotado() throws Exception {
+        Resultado sinLimite = medir(null);
+        LimiteConcurrencia limite = new LimiteConcurrencia("interactivo", CONEXIONES, 1, 100);
+        FiltroConcurrencia filtro = new FiltroConcurrencia(
+                limite,
+                new LimiteConcurrencia("masivo", 1, 1, 1),
+                Set.of(), new SimpleMeterRegistry());
+        Resultado conLimite = medir(filtro);
+
+        System.out.printf("sin límite | p50=%6.1f ms | p99=%6.1f ms | atendidas=%,6d | rechazadas=%,6d%n",
+                sinLimite.p50(), sinLimite.p99(), sinLimite.atendidas(), sinLimite.rechazadas());
+        System.out.printf("con límite | p50=%6.1f ms | p99=%6.1f ms | atendidas=%,6d | rechazadas=%,6d%n",
+                conLimite.p50(), conLimite.p99(), conLimite.atendidas(), conLimite.rechazadas());
+        System.out.printf("límite final=%d (pool de %d conexiones)%n", limite.getLimite(), CONEXIONES);
+
+        assertTrue(conLimite.rechazadas() > 0);
+        assertTrue(conLimite.p99() < sinLimite.p99() / 2,
+                "p99 con límite " + conLimite.p99() + " ms, sin límite " + sinLimite.p99() + " ms");
+    }
+
+    private Resultado medir(Filter filtro) throws Exception {
+        Semaphore pool = new Semaphore(CONEXIONES, true);
+        List<Long> latencias = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rechazadas = new AtomicInteger();
+        // El primer segundo es de calentamiento (JIT y ajuste inicial del límite)
+        long medirDesde = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        long fin = medirDesde + TimeUnit.MILLISECONDS.toNanos(DURACION_MS);
+
+        ExecutorService clientes = Executors.newFixedThreadPool(CLIENTES);
+        for (int c = 0; c < CLIENTES; c++) {
+            clientes.submit(() -> {
+                while (System.nanoTime() < fin) {
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    MockFilterChain consulta = new MockFilterChain() {
+                        @Override
+                        public void doFilter(ServletRequest request, ServletResponse resp) {
+                            pool.acquireUninterruptibly();
+                            try {
+                                Thread.sleep(SERVICIO_MS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            } finally {
+                                pool.release();
+                            }
+                        }
+                    };
+                    long inicio = System.nanoTime();
+                    if (filtro == null) {
+                        consulta.doFilter(null, response);
+                    } else {
+                        filtro.doFilter(new MockHttpServletRequest("POST", "/cita/crearCita"), response, consulta);
+                    }
+                    if (response.getStatus() == 503) {
+                        rechazadas.incrementAndGet();
+                        // El cliente espera antes de reintentar (menos que el Retry-After)
+                        Thread.sleep(ESPERA_REINTENTO_MS);
+                    } else if (inicio > medirDesde) {
+                        latencias.add(System.nanoTime() - inicio);
+                    }
+                }
+                return null;
+            });
+        }
+        clientes.shutdown();
+        assertTrue(clientes.awaitTermination(DURACION_MS * 3, TimeUnit.MILLISECONDS));
+
+        List<Long> ordenadas = new ArrayList<>(latencias);
+        Collections.sort(ordenadas);
+        return new Resultado(percentil(ordenadas, 0.50), percentil(ordenadas, 0.99), ordenadas.size(), rechazadas.get());
+    }
+
+    private static double percentil(List<Long> ordenadas, double p) {
+        return ordenadas.get((int) Math.min(ordenadas.size() - 1, Math.round(p * (ordenadas.size() - 1)))) / 1e6;
+    }
+}
@@ -0,0 +1,96 @@
+package com.healpoint.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FiltroConcurrenciaTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LimiteConcurrencia interactivo = new LimiteConcurrencia("interactivo", 2, 1, 10);
+    private final LimiteConcurrencia masivo = new LimiteConcurrencia("masivo", 1, 1, 4);
+    private final FiltroConcurrencia filtro = new FiltroConcurrencia(
+            interactivo, masivo, Set.of("/cita/mostrarCitas"), registry);
+
+    private MockHttpServletResponse ejecutar(MockHttpServletRequest request, MockFilterChain cadena) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, cadena);
+        return response;
+    }
+
+    // Cadena que deja la petición abierta como un listado en streaming
+    private static MockFilterChain asincrona() {
+        return new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                request.startAsync();
+            }
+        };
+    }
+
+    private static MockHttpServletRequest peticion(String metodo, String ruta) {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, ruta);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    @Test
+    void laPeticionTerminadaLiberaSuLugar() throws Exception {
+        MockHttpServletResponse response = ejecutar(peticion("POST", "/cita/crearCita"), new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(0, interactivo.getEnCurso());
+    }
+
+    @Test
+    void elListadoEnStreamingOcupaSuLugarHastaTerminar() throws Exception {
+        MockHttpServletRequest primero = peticion("GET", "/cita/mostrarCitas");
+        ejecutar(primero, asincrona());
+        assertEquals(1, masivo.getEnCurso());
+
+        // El segundo listado supera el límite del grupo masivo
+        MockHttpServletResponse rechazado = ejecutar(peticion("GET", "/cita/mostrarCitas"), asincrona());
+        assertEquals(503, rechazado.getStatus());
+        assertEquals(FiltroConcurrencia.SEGUNDOS_REINTENTO, rechazado.getHeader("Retry-After"));
+        assertEquals(1.0, registry.get("healpoint.concurrencia.rechazadas").tag("grupo", "masivo").counter().count());
+
+        // Una reserva sigue pasando porque usa el límite interactivo
+        assertEquals(200, ejecutar(peticion("POST", "/cita/crearCita"), new MockFilterChain()).getStatus());
+
+        ((MockAsyncContext) primero.getAsyncContext()).complete();
+        assertEquals(0, masivo.getEnCurso());
+        assertEquals(200, ejecutar(peticion("GET", "/cita/mostrarCitas"), new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    void solamenteLasLecturasDeLasRutasMasivasUsanElLimiteMasivo() throws Exception {
+        ejecutar(peticion("GET", "/cita/agenda"), asincrona());
+        ejecutar(peticion("DELETE", "/cita/mostrarCitas"), asincrona());
+
+        assertEquals(2, interactivo.getEnCurso());
+        assertEquals(0, masivo.getEnCurso());
+        assertEquals(2.0, registry.get("healpoint.concurrencia.en_curso").tag("grupo", "interactivo").gauge().value());
+    }
+
+    @Test
+    void siLaPeticionFallaIgualSeLibera() {
+        MockFilterChain falla = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                throw new IllegalStateException("falla");
+            }
+        };
+
+        assertThrows(IllegalStateException.class, () -> ejecutar(peticion("PUT", "/usuario/actualizarUsuario"), falla));
+        assertEquals(0, interactivo.getEnCurso());
+    }
+}
@@ -0,0 +1,84 @@
+package com.healpoint.config;
+
+import com.healpoint.service.SesionUsuario;
+import com.healpoint.service.TokenSesionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FiltroSesionTest {
+
+    private final TokenSesionService tokens = new TokenSesionService("clave-de-prueba-con-32-caracteres!", 60);
+    private final FiltroSesion filtro = new FiltroSesion(tokens);
+
+    // Ejecuta el filtro; la cadena queda con la petición solo si el filtro la dejó seguir
+    private MockFilterChain filtrar(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        MockFilterChain cadena = new MockFilterChain();
+        filtro.doFilter(request, response, cadena);
+        return cadena;
+    }
+
+    @Test
+    void conTokenValidoLaSesionQuedaEnLaPeticion() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/cita/crearCita");
+        request.addHeader("Authorization", "Bearer " + tokens.emitir(8, 2));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNotNull(filtrar(request, response).getRequest());
+
+        SesionUsuario sesion = (SesionUsuario) request.getAttribute(SesionUsuario.ATRIBUTO);
+        assertEquals(200, response.getStatus());
+        assertEquals(8, sesion.idUsuario());
+        assertEquals(2, sesion.idRol());
+    }
+
+    @Test
+    void sinTokenLaPeticionSigueSinSesion() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cita/mostrarCitas");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNotNull(filtrar(request, response).getRequest());
+        assertEquals(200, response.getStatus());
+        assertNull(request.getAttribute(SesionUsuario.ATRIBUTO));
+    }
+
+    @Test
+    void conTokenInvalidoSeResponde401SinSeguir() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/usuario/eliminarUsuario");
+        request.addHeader("Authorization", "Bearer " + tokens.emitir(8, 2) + "x");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(filtrar(request, response).getRequest());
+        assertEquals(401, response.getStatus());
+        assertTrue(response.getContentAsString(StandardCharsets.UTF_8).startsWith("Sesión inválida"));
+    }
+
+    @Test
+    void enLasRutasPublicasUnTokenInvalidoSeIgnora() throws Exception {
+        TokenSesionService otraClave = new TokenSesionService("otra-clave-de-prueba-con-32-caracteres", 60);
+        for (String ruta : FiltroSesion.RUTAS_PUBLICAS) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", ruta);
+            request.addHeader("Authorization", "Bearer " + otraClave.emitir(8, 2));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            assertNotNull(filtrar(request, response).getRequest(), ruta);
+            assertEquals(200, response.getStatus());
+            assertNull(request.getAttribute(SesionUsuario.ATRIBUTO));
+        }
+    }
+
+    @Test
+    void enLasRutasPublicasUnTokenValidoSeConserva() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/usuario/crearUsuario");
+        request.addHeader("Authorization", "Bearer " + tokens.emitir(8, 1));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNotNull(filtrar(request, response).getRequest());
+        assertEquals(8, ((SesionUsuario) request.getAttribute(SesionUsuario.ATRIBUTO)).idUsuario());
+    }
+}
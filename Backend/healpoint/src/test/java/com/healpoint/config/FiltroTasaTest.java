@@ -0,0 +1,66 @@
+package com.healpoint.config;
+
+import com.healpoint.service.SesionUsuario;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FiltroTasaTest {
+
+    private final FiltroTasa filtro = new FiltroTasa(new LimitadorTasa(
+            Map.of("/usuario/login", new LimitadorTasa.Regla("/usuario/login", 2, Duration.ofMinutes(1))),
+            new LimitadorTasa.Regla("defecto", 100, Duration.ofMinutes(1)),
+            1_000), new SimpleMeterRegistry());
+
+    private MockHttpServletResponse ejecutar(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest login(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/usuario/login");
+        request.setRemoteAddr(ip);
+        return request;
+    }
+
+    @Test
+    void lasRespuestasLlevanLasCabecerasDelLimite() throws Exception {
+        MockHttpServletResponse response = ejecutar(login("10.0.0.1"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("2", response.getHeader("RateLimit-Limit"));
+        assertEquals("1", response.getHeader("RateLimit-Remaining"));
+        assertEquals("30", response.getHeader("RateLimit-Reset"));
+    }
+
+    @Test
+    void alSuperarElLimiteSeResponde429ConRetryAfter() throws Exception {
+        ejecutar(login("10.0.0.1"));
+        ejecutar(login("10.0.0.1"));
+
+        MockHttpServletResponse response = ejecutar(login("10.0.0.1"));
+
+        assertEquals(429, response.getStatus());
+        assertEquals("30", response.getHeader("Retry-After"));
+        assertEquals("0", response.getHeader("RateLimit-Remaining"));
+        assertEquals(200, ejecutar(login("10.0.0.2")).getStatus());
+    }
+
+    @Test
+    void conSesionElClienteEsElUsuarioYNoLaIp() {
+        MockHttpServletRequest request = login("10.0.0.1");
+        assertEquals("ip:10.0.0.1", FiltroTasa.cliente(request));
+
+        request.setAttribute(SesionUsuario.ATRIBUTO, new SesionUsuario(7, 2, Instant.now()));
+        assertEquals("usuario:7", FiltroTasa.cliente(request));
+    }
+}
@@ -0,0 +1,150 @@
+package com.healpoint.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimitadorTasaTest {
+
+    // Reloj que solo avanza cuando la prueba lo pide
+    private static class RelojManual extends Clock {
+        private Instant ahora = Instant.parse("2030-03-04T08:00:00Z");
+
+        void avanzar(Duration duracion) {
+            ahora = ahora.plus(duracion);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+
+    private final RelojManual reloj = new RelojManual();
+
+    private LimitadorTasa limitador(int maximoCubetas) {
+        return new LimitadorTasa(
+                Map.of("/usuario/login", new LimitadorTasa.Regla("/usuario/login", 5, Duration.ofMinutes(1))),
+                new LimitadorTasa.Regla("defecto", 100, Duration.ofMinutes(1)),
+                maximoCubetas, reloj);
+    }
+
+    @Test
+    void admiteUnaRafagaHastaElLimiteYDespuesRechaza() {
+        LimitadorTasa limitador = limitador(100);
+
+        for (int i = 4; i >= 0; i--) {
+            LimitadorTasa.Resultado resultado = limitador.intentar("/usuario/login", "ip:10.0.0.1");
+            assertTrue(resultado.admitida());
+            assertEquals(i, resultado.restantes());
+        }
+
+        LimitadorTasa.Resultado rechazado = limitador.intentar("/usuario/login", "ip:10.0.0.1");
+        assertFalse(rechazado.admitida());
+        assertEquals(0, rechazado.restantes());
+        // Una ficha cada 12 segundos
+        assertEquals(12, rechazado.segundosParaReintentar());
+        assertEquals(60, rechazado.segundosParaLlenarse());
+    }
+
+    @Test
+    void lasFichasSeRecuperanConElTiempo() {
+        LimitadorTasa limitador = limitador(100);
+        for (int i = 0; i < 5; i++) {
+            limitador.intentar("/usuario/login", "ip:10.0.0.1");
+        }
+
+        reloj.avanzar(Duration.ofSeconds(11));
+        assertFalse(limitador.intentar("/usuario/login", "ip:10.0.0.1").admitida());
+
+        reloj.avanzar(Duration.ofSeconds(1));
+        assertTrue(limitador.intentar("/usuario/login", "ip:10.0.0.1").admitida());
+        assertFalse(limitador.intentar("/usuario/login", "ip:10.0.0.1").admitida());
+
+        reloj.avanzar(Duration.ofMinutes(5));
+        assertEquals(4, limitador.intentar("/usuario/login", "ip:10.0.0.1").restantes());
+    }
+
+    @Test
+    void cadaClienteYCadaReglaTienenSuPropiaCubeta() {
+        LimitadorTasa limitador = limitador(100);
+        for (int i = 0; i < 5; i++) {
+            limitador.intentar("/usuario/login", "ip:10.0.0.1");
+        }
+
+        assertFalse(limitador.intentar("/usuario/login", "ip:10.0.0.1").admitida());
+        assertTrue(limitador.intentar("/usuario/login", "ip:10.0.0.2").admitida());
+        assertTrue(limitador.intentar("/cita/mostrarCitas", "ip:10.0.0.1").admitida());
+        // Las rutas sin regla comparten la cubeta por defecto
+        assertEquals(98, limitador.intentar("/medico/mostrarMedicos", "ip:10.0.0.1").restantes());
+    }
+
+    @Test
+    void conAccesosConcurrentesNoSeAdmiteMasQueElLimite() throws Exception {
+        LimitadorTasa limitador = limitador(100);
+        AtomicInteger admitidas = new AtomicInteger();
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tareas.add(hilos.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    if (limitador.intentar("/cita/crearCita", "usuario:7").admitida()) {
+                        admitidas.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        hilos.shutdown();
+
+        assertEquals(100, admitidas.get());
+    }
+
+    @Test
+    void lasCubetasLlenasSeBorranYLaMemoriaQuedaAcotada() {
+        LimitadorTasa limitador = limitador(1_000);
+        for (int i = 0; i < 5_000; i++) {
+            limitador.intentar("/cita/crearCita", "ip:10.0." + (i / 256) + "." + (i % 256));
+            assertTrue(limitador.getCubetas() <= 1_000);
+        }
+
+        reloj.avanzar(Duration.ofMinutes(1));
+        limitador.purgar();
+        assertEquals(0, limitador.getCubetas());
+    }
+
+    @Test
+    void lasReglasSeLeenDeLasPropiedades() {
+        LimitadorTasa.Regla regla = TasaConfig.regla("/usuario/login", " 10/1m ");
+
+        assertEquals(10, regla.peticiones());
+        assertEquals(Duration.ofMinutes(1), regla.periodo());
+        assertThrows(IllegalArgumentException.class, () -> TasaConfig.regla("x", "10"));
+        assertThrows(IllegalArgumentException.class, () -> TasaConfig.regla("x", "0/1s"));
+    }
+}
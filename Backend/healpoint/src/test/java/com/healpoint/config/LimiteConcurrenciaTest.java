@@ -0,0 +1,75 @@
+package com.healpoint.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimiteConcurrenciaTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // Completa ventanas de peticiones con el límite lleno y la duración indicada
+    private static void saturar(LimiteConcurrencia limite, long duracionNanos, int ventanas) {
+        for (int v = 0; v < ventanas; v++) {
+            int peticiones = limite.tamanoVentana();
+            for (int i = 0; i < peticiones; i++) {
+                limite.ajustar(duracionNanos, limite.getLimite());
+            }
+        }
+    }
+
+    @Test
+    void noAdmiteMasQueElLimite() {
+        LimiteConcurrencia limite = new LimiteConcurrencia("prueba", 3, 1, 10);
+
+        assertTrue(limite.adquirir());
+        assertTrue(limite.adquirir());
+        assertTrue(limite.adquirir());
+        assertFalse(limite.adquirir());
+        assertEquals(3, limite.getEnCurso());
+
+        limite.liberar(MS, false);
+        assertTrue(limite.adquirir());
+    }
+
+    @Test
+    void conLatenciaEstableElLimiteCreceHastaElMaximo() {
+        LimiteConcurrencia limite = new LimiteConcurrencia("prueba", 5, 1, 40);
+
+        saturar(limite, 5 * MS, 200);
+
+        assertEquals(40, limite.getLimite());
+    }
+
+    @Test
+    void cuandoLaLatenciaSubeElLimiteBaja() {
+        LimiteConcurrencia limite = new LimiteConcurrencia("prueba", 20, 2, 40);
+        saturar(limite, 5 * MS, 200);
+        int antes = limite.getLimite();
+
+        // Las peticiones empiezan a esperar conexión: diez veces más lentas
+        saturar(limite, 50 * MS, 20);
+
+        assertTrue(limite.getLimite() < antes / 2, "Límite " + limite.getLimite() + " con " + antes + " antes");
+        assertTrue(limite.getLimite() >= 2);
+    }
+
+    @Test
+    void sinCargaLaLatenciaNoCambiaElLimite() {
+        LimiteConcurrencia limite = new LimiteConcurrencia("prueba", 20, 2, 40);
+
+        for (int i = 0; i < 1_000; i++) {
+            limite.ajustar((i % 2 == 0 ? 5 : 500) * MS, 3);
+        }
+
+        assertEquals(20, limite.getLimite());
+    }
+
+    @Test
+    void losLimitesDebenSerCoherentes() {
+        assertThrows(IllegalArgumentException.class, () -> new LimiteConcurrencia("prueba", 5, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new LimiteConcurrencia("prueba", 20, 1, 10));
+    }
+}
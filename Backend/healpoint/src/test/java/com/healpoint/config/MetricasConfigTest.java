@@ -0,0 +1,69 @@
+package com.healpoint.config;
+
+import com.healpoint.DatosPrueba;
+import com.healpoint.controller.CitaController;
+import com.healpoint.entity.Medico;
+import com.healpoint.repository.MedicoRepository;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class MetricasConfigTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    private final MetricasConfig config = new MetricasConfig();
+
+    @Test
+    void lasPeticionesSeEtiquetanConElMetodoDelControlador() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cita/mostrarCitas");
+        ServerRequestObservationContext context = new ServerRequestObservationContext(request, new MockHttpServletResponse());
+        assertEquals(KeyValue.of("controlador", "ninguno"), MetricasConfig.controlador(context));
+
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new CitaController(), CitaController.class.getMethod("getCitas")));
+        assertTrue(config.convencionPeticiones().getLowCardinalityKeyValues(context).stream()
+                .anyMatch(KeyValue.of("controlador", "CitaController.getCitas")::equals));
+    }
+
+    @Test
+    void lasEstadisticasDeHibernateSePublicanComoContadores() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        config.metricasHibernate(entityManagerFactory).bindTo(registry);
+        double consultasAntes = registry.get("hibernate.query.executions").functionCounter().count();
+        double cargasAntes = registry.get("hibernate.entities.loads").functionCounter().count();
+
+        Integer idMedico = new DatosPrueba(em).medico("Pediatría").getId_medico();
+        em.flush();
+        em.clear();
+        Medico medico = medicoRepository.findById(idMedico).orElseThrow();
+        medicoRepository.findAll();
+
+        assertEquals("Pediatría", medico.getEspecialidad());
+        assertTrue(registry.get("hibernate.query.executions").functionCounter().count() > consultasAntes);
+        assertTrue(registry.get("hibernate.entities.loads").functionCounter().count() > cargasAntes);
+        assertTrue(registry.get("hibernate.statements").tag("status", "prepared").functionCounter().count() > 0);
+    }
+}
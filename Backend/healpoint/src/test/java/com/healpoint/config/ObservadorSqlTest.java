@@ -0,0 +1,151 @@
+package com.healpoint.config;
+
+import com.healpoint.controller.CitaController;
+import com.healpoint.dto.EstadisticaControladorDTO;
+import com.healpoint.dto.EstadisticaSentenciaDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+public class ObservadorSqlTest {
+
+    private static final String INSERTAR = "INSERT INTO prueba_sql (id, nombre, fecha) VALUES (?, ?, ?)";
+    private static final String CONSULTAR = "SELECT id FROM prueba_sql WHERE id > ?";
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbc(ObservadorSql observador) {
+        return new JdbcTemplate(new DataSourceObservado(dataSource, observador));
+    }
+
+    private static EstadisticaSentenciaDTO estadistica(ObservadorSql observador, String sql) {
+        return observador.resumen(100).stream().filter(e -> e.sql().equals(sql)).findFirst().orElseThrow();
+    }
+
+    @BeforeEach
+    void crearTabla() {
+        new JdbcTemplate(dataSource).execute("CREATE TABLE prueba_sql (id INT PRIMARY KEY, nombre VARCHAR(50), fecha DATE)");
+    }
+
+    @AfterEach
+    void limpiar() {
+        RequestContextHolder.resetRequestAttributes();
+        new JdbcTemplate(dataSource).execute("DROP TABLE prueba_sql");
+    }
+
+    @Test
+    void cuentaEjecucionesYFilasPorSentencia() {
+        ObservadorSql observador = new ObservadorSql(10_000, 0, 100);
+        JdbcTemplate jdbc = jdbc(observador);
+
+        jdbc.batchUpdate(INSERTAR, List.of(
+                new Object[]{1, "Ana", Date.valueOf(LocalDate.of(2030, 1, 1))},
+                new Object[]{2, "Luis", null},
+                new Object[]{3, "Eva", Date.valueOf(LocalDate.of(2030, 1, 3))}));
+        assertEquals(2, jdbc.queryForList(CONSULTAR, Integer.class, 1).size());
+        assertEquals(3, jdbc.queryForList(CONSULTAR, Integer.class, 0).size());
+        assertEquals(1, jdbc.update("UPDATE prueba_sql SET nombre = 'Ana María' WHERE id = 1"));
+
+        EstadisticaSentenciaDTO insercion = estadistica(observador, INSERTAR);
+        assertEquals(1, insercion.ejecuciones());
+        assertEquals(3, insercion.filas());
+
+        EstadisticaSentenciaDTO consulta = estadistica(observador, CONSULTAR);
+        assertEquals(2, consulta.ejecuciones());
+        assertEquals(5, consulta.filas());
+        assertEquals(0, consulta.lentas());
+        assertTrue(consulta.tiempoMaximoMs() > 0);
+
+        // Los literales de las sentencias sin parámetros no separan las estadísticas
+        assertEquals(1, estadistica(observador, "UPDATE prueba_sql SET nombre = ? WHERE id = ?").filas());
+    }
+
+    @Test
+    void lasSentenciasLentasSeRegistranConParametrosYControlador(CapturedOutput salida) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cita/mostrarCitas");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new CitaController(), CitaController.class.getMethod("getCitas")));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // Umbral 0: todas son lentas
+        ObservadorSql observador = new ObservadorSql(0, 0, 100);
+        JdbcTemplate jdbc = jdbc(observador);
+        jdbc.update(INSERTAR, 1, "Ana", Date.valueOf(LocalDate.of(2030, 1, 1)));
+        jdbc.update(INSERTAR, 2, null, null);
+
+        EstadisticaControladorDTO controlador = observador.resumenPorControlador(10).get(0);
+        assertEquals("CitaController.getCitas", controlador.controlador());
+        assertEquals(2, controlador.sentencias());
+        assertEquals(2, controlador.lentas());
+        assertEquals(2, controlador.filas());
+
+        assertTrue(salida.getOut().contains("SQL lenta"));
+        // JdbcTemplate pasa los parámetros con setObject y setNull. Sin tildes: la salida
+        // capturada depende de la codificación de la consola
+        assertTrue(salida.getOut().contains("1 filas, CitaController.getCitas, par"), salida.getOut());
+        assertTrue(salida.getOut().contains("metros (Integer, String, Date): " + INSERTAR), salida.getOut());
+        assertTrue(salida.getOut().contains("metros (Integer, null, null): " + INSERTAR), salida.getOut());
+        // Nunca se escriben los valores
+        assertFalse(salida.getOut().contains("Ana"));
+    }
+
+    @Test
+    void sinPeticionNiUmbralSoloSeRegistraLaMuestra(CapturedOutput salida) {
+        JdbcTemplate rapidas = jdbc(new ObservadorSql(10_000, 0, 100));
+        rapidas.queryForList(CONSULTAR, Integer.class, 0);
+        assertFalse(salida.getOut().contains("SQL"));
+
+        JdbcTemplate todas = jdbc(new ObservadorSql(10_000, 1, 100));
+        todas.queryForList(CONSULTAR, Integer.class, 0);
+        assertTrue(salida.getOut().contains("SQL (muestra)"));
+        assertTrue(salida.getOut().contains("0 filas, sin petici")
+                && salida.getOut().contains("metros (Integer): " + CONSULTAR), salida.getOut());
+    }
+
+    @Test
+    void losErroresSeCuentanYLasSentenciasDistintasEstanAcotadas() {
+        ObservadorSql observador = new ObservadorSql(10_000, 0, 2);
+        JdbcTemplate jdbc = jdbc(observador);
+
+        assertThrows(BadSqlGrammarException.class, () -> jdbc.queryForList("SELECT * FROM no_existe", Integer.class));
+        assertEquals(1, estadistica(observador, "SELECT * FROM no_existe").errores());
+
+        jdbc.queryForList("SELECT id FROM prueba_sql", Integer.class);
+        jdbc.queryForList("SELECT nombre FROM prueba_sql", String.class);
+        jdbc.queryForList("SELECT fecha FROM prueba_sql", Date.class);
+
+        assertEquals(3, observador.resumen(100).size());
+        assertEquals(2, estadistica(observador, ObservadorSql.OTRAS).ejecuciones());
+
+        // Sin petición no hay controlador al que atribuirlas
+        assertTrue(observador.resumenPorControlador(100).isEmpty());
+
+        observador.reiniciar();
+        assertTrue(observador.resumen(100).isEmpty());
+    }
+}
@@ -1,21 +1,39 @@
 package com.healpoint.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healpoint.dto.ResultadoCitaLoteDTO;
+import com.healpoint.dto.ResultadoLoteDTO;
 import com.healpoint.entity.*;
 import com.healpoint.repository.*;
-import com.healpoint.service.DisponibilidadService;
+import com.healpoint.service.CacheReferenciaService;
+import com.healpoint.service.CoordinadorReservas;
+import com.healpoint.service.ExportadorJson;
+import com.healpoint.service.IndiceAgendaService;
 import com.healpoint.service.MonitoriaService;
+import com.healpoint.service.ReservaLoteService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,19 +53,35 @@ public class CitaControllerTest {
     private MedicoRepository medicoRepository;
 
     @MockBean
-    private EstadoRepository estadoRepository;
+    private CacheReferenciaService cacheReferencia;
 
     @MockBean
     private CitaRepository citaRepository;
 
     @MockBean
-    private DisponibilidadService disponibilidadService;
+    private IndiceAgendaService indiceAgendaService;
 
     @MockBean
     private MonitoriaService monitoriaService;
 
+    @MockBean
+    private CoordinadorReservas coordinadorReservas;
+
+    @MockBean
+    private ReservaLoteService reservaLoteService;
+
+    @MockBean
+    private ExportadorJson exportadorJson;
+
+    @BeforeEach
+    void setUp() {
+        // El coordinador ejecuta la acción directamente, sin candados
+        when(coordinadorReservas.ejecutar(any(), any(), any(LocalDate[].class)))
+                .thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+    }
+
     // -------------------------------------------------------------
-    // 1) Médico NO disponible según DisponibilidadService
+    // 1) Médico NO disponible según el índice de agenda
     // -------------------------------------------------------------
     @Test
     void testCrearCita_MedicoNoDisponible() throws Exception {
@@ -69,12 +103,9 @@ public class CitaControllerTest {
 
         when(pacienteRepository.findById(1)).thenReturn(Optional.of(p));
         when(medicoRepository.findById(1)).thenReturn(Optional.of(m));
-        when(estadoRepository.findById(1)).thenReturn(Optional.of(e));
-
-        when(citaRepository.findByMedicoAndFechaAndHora(any(), any(), any()))
-                .thenReturn(Optional.empty());
+        when(cacheReferencia.estado(1)).thenReturn(Optional.of(e));
 
-        when(disponibilidadService.medicoDisponible(1,
+        when(indiceAgendaService.medicoDisponible(1,
                 cita.getFecha(), cita.getHora()))
                 .thenReturn(false);
 
@@ -108,21 +139,21 @@ public class CitaControllerTest {
 
         when(pacienteRepository.findById(1)).thenReturn(Optional.of(p));
         when(medicoRepository.findById(1)).thenReturn(Optional.of(m));
-        when(estadoRepository.findById(1)).thenReturn(Optional.of(e));
+        when(cacheReferencia.estado(1)).thenReturn(Optional.of(e));
 
-        when(citaRepository.findByMedicoAndFechaAndHora(any(), any(), any()))
-                .thenReturn(Optional.empty());
-
-        when(disponibilidadService.medicoDisponible(
+        when(indiceAgendaService.medicoDisponible(
                 1, cita.getFecha(), cita.getHora()
         )).thenReturn(true);
 
-        when(citaRepository.save(any())).thenReturn(cita);
+        when(citaRepository.saveAndFlush(any())).thenReturn(cita);
 
         mockMvc.perform(post("/cita/crearCita")
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(cita)))
                 .andExpect(status().isCreated());
+
+        // Sin duración en la petición se usa la duración por defecto
+        verify(citaRepository).saveAndFlush(argThat(c -> c.getDuracionMinutos() == Cita.DURACION_POR_DEFECTO));
     }
 
     // -------------------------------------------------------------
@@ -148,12 +179,15 @@ public class CitaControllerTest {
 
         when(pacienteRepository.findById(1)).thenReturn(Optional.of(p));
         when(medicoRepository.findById(1)).thenReturn(Optional.of(m));
-        when(estadoRepository.findById(1)).thenReturn(Optional.of(e));
+        when(cacheReferencia.estado(1)).thenReturn(Optional.of(e));
 
-        // simulamos una cita YA existente
-        when(citaRepository.findByMedicoAndFechaAndHora(m,
-                cita.getFecha(), cita.getHora()))
-                .thenReturn(Optional.of(new Cita()));
+        when(indiceAgendaService.medicoDisponible(1, cita.getFecha(), cita.getHora()))
+                .thenReturn(true);
+
+        // simulamos la restricción de exclusión de PostgreSQL: ya hay una cita que se cruza
+        when(citaRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException(
+                "cita_sin_solapamiento",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
 
         mockMvc.perform(post("/cita/crearCita")
                         .contentType("application/json")
@@ -164,4 +198,110 @@ public class CitaControllerTest {
                                 + cita.getFecha() + " y hora " + cita.getHora() + "."
                 ));
     }
+
+    // -------------------------------------------------------------
+    // 4) El índice en memoria ya ve la franja ocupada → conflicto sin escribir
+    // -------------------------------------------------------------
+    @Test
+    void testCrearCita_ConflictoDetectadoEnElIndice() throws Exception {
+
+        Cita cita = new Cita();
+        cita.setFecha(LocalDate.now().plusDays(2));
+        cita.setHora(LocalTime.of(11, 15));
+        cita.setDuracionMinutos(20);
+
+        Medico m = new Medico();
+        m.setId_medico(1);
+        Paciente p = new Paciente();
+        p.setIdPaciente(1);
+        Estado e = new Estado();
+        e.setIdEstado(1);
+
+        cita.setMedico(m);
+        cita.setPaciente(p);
+        cita.setEstado(e);
+
+        when(pacienteRepository.findById(1)).thenReturn(Optional.of(p));
+        when(medicoRepository.findById(1)).thenReturn(Optional.of(m));
+        when(cacheReferencia.estado(1)).thenReturn(Optional.of(e));
+        when(indiceAgendaService.medicoDisponible(1, cita.getFecha(), cita.getHora()))
+                .thenReturn(true);
+        when(indiceAgendaService.estaOcupado(1, cita.getFecha(), cita.getHora(), 20))
+                .thenReturn(true);
+
+        mockMvc.perform(post("/cita/crearCita")
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(cita)))
+                .andExpect(status().isConflict());
+
+        verify(citaRepository, never()).saveAndFlush(any());
+        verify(coordinadorReservas).ejecutar(eq(1), any(), eq(cita.getFecha()));
+    }
+
+    // -------------------------------------------------------------
+    // 5) Lote vacío o demasiado grande → 400 sin llamar al servicio
+    // -------------------------------------------------------------
+    @Test
+    void testCrearCitasLote_ValidaElTamano() throws Exception {
+
+        mockMvc.perform(post("/cita/crearCitasLote")
+                        .param("idUsuarioEditor", "1")
+                        .contentType("application/json")
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("El lote no contiene citas."));
+
+        Cita[] demasiadas = new Cita[ReservaLoteService.TAMANO_MAXIMO_LOTE + 1];
+        Arrays.fill(demasiadas, new Cita());
+        mockMvc.perform(post("/cita/crearCitasLote")
+                        .param("idUsuarioEditor", "1")
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(demasiadas)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(reservaLoteService);
+    }
+
+    // -------------------------------------------------------------
+    // 6) Lote válido → devuelve el resultado por elemento
+    // -------------------------------------------------------------
+    @Test
+    void testCrearCitasLote_DevuelveElResultadoPorElemento() throws Exception {
+
+        when(reservaLoteService.crear(anyList(), eq(9))).thenReturn(new ResultadoLoteDTO(1, 1, List.of(
+                new ResultadoCitaLoteDTO(0, 201, 50L, null),
+                new ResultadoCitaLoteDTO(1, 409, null, "El médico no está disponible en ese horario."))));
+
+        mockMvc.perform(post("/cita/crearCitasLote")
+                        .param("idUsuarioEditor", "9")
+                        .contentType("application/json")
+                        .content(mapper.writeValueAsString(List.of(new Cita(), new Cita()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.creadas").value(1))
+                .andExpect(jsonPath("$.resultados[0].idCita").value(50))
+                .andExpect(jsonPath("$.resultados[1].estado").value(409));
+    }
+
+    // -------------------------------------------------------------
+    // 7) Listado completo → se escribe en streaming como JSON
+    // -------------------------------------------------------------
+    @Test
+    void testMostrarCitas_EscribeEnStreaming() throws Exception {
+
+        StreamingResponseBody cuerpo = salida ->
+                salida.write("[{\"id_cita\":1},{\"id_cita\":2}]".getBytes(StandardCharsets.UTF_8));
+        when(exportadorJson.<Cita>arreglo(any())).thenReturn(cuerpo);
+
+        MvcResult resultado = mockMvc.perform(get("/cita/mostrarCitas"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"))
+                .andExpect(jsonPath("$[1].id_cita").value(2));
+
+        // La consulta no se ejecuta en el hilo de la petición sino al escribir la respuesta
+        verify(citaRepository, never()).findAll();
+    }
 }
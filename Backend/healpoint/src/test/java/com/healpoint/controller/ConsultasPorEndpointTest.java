@@ -0,0 +1,258 @@
+package com.healpoint.controller;
+
+import com.healpoint.config.ObservadorSql;
+import com.healpoint.dto.EstadisticaControladorDTO;
+import com.healpoint.entity.*;
+import com.healpoint.repository.*;
+import com.healpoint.service.CacheReferenciaService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Límite de sentencias SQL y filas leídas por petición en los endpoints de los
+ * controladores, con la aplicación completa sobre H2 y datos sembrados.
+ *
+ * Los límites son los valores actuales: si un cambio agrega consultas (por ejemplo una
+ * relación LAZY que se recorre fila por fila al serializar), la prueba falla con las
+ * sentencias de la petición. Si un cambio las reduce, conviene bajar el límite.
+ *
+ * Se cuentan las sentencias que ObservadorSql atribuye al método del controlador, así que
+ * no entran las de los filtros ni las del escritor de auditoría. Con SEMBRADOS filas por
+ * tabla, un N+1 se nota como un salto de decenas de sentencias. Cada petición comprueba
+ * también el cuerpo de la respuesta (los listados traen todas las filas sembradas): un
+ * límite bajo no vale nada si la respuesta está mal.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = {
+        "spring.datasource.url=jdbc:h2:mem:consultas;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "healpoint.sql.habilitado=true",
+        "healpoint.sql.umbral-ms=60000",
+        "healpoint.sql.muestreo=0",
+        "healpoint.tasa.habilitado=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ConsultasPorEndpointTest {
+
+    private static final int SEMBRADOS = 20;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObservadorSql observador;
+    @Autowired private EstadoRepository estadoRepository;
+    @Autowired private RolRepository rolRepository;
+    @Autowired private UsuarioRepository usuarioRepository;
+    @Autowired private PacienteRepository pacienteRepository;
+    @Autowired private MedicoRepository medicoRepository;
+    @Autowired private CitaRepository citaRepository;
+    @Autowired private HistorialRepository historialRepository;
+    @Autowired private DisponibilidadRepository disponibilidadRepository;
+    @Autowired private CacheReferenciaService cacheReferencia;
+
+    private final LocalDate fecha = LocalDate.now().plusDays(10);
+    private Estado activo;
+    private Medico medico;
+    private Paciente paciente;
+    private Cita cita;
+    private HistorialMedico historial;
+    private final List<Cita> sinHistorial = new ArrayList<>();
+    private int consecutivo;
+
+    @BeforeAll
+    void sembrar() {
+        activo = estadoRepository.findByNombreEstado("ACTIVA")
+                .orElseGet(() -> estadoRepository.save(new Estado("ACTIVA", "Activo")));
+        estadoRepository.findByNombreEstado("INACTIVA")
+                .orElseGet(() -> estadoRepository.save(new Estado("INACTIVA", "Inactivo")));
+        Rol rol = rolRepository.save(new Rol("Consultas", null, activo));
+
+        List<Medico> medicos = new ArrayList<>();
+        List<Paciente> pacientes = new ArrayList<>();
+        for (int i = 0; i < SEMBRADOS; i++) {
+            Medico m = new Medico();
+            m.setEspecialidad(i % 2 == 0 ? "General" : "Pediatría");
+            m.setEstado(activo);
+            m.setUsuario(usuario(rol));
+            medicos.add(medicoRepository.save(m));
+            pacientes.add(pacienteRepository.save(new Paciente("SURA", usuario(rol), activo)));
+
+            Disponibilidad d = new Disponibilidad();
+            d.setMedico(medicos.get(i));
+            d.setFecha(fecha);
+            d.setHora_inicio(LocalTime.of(8, 0));
+            d.setHora_fin(LocalTime.of(12, 0));
+            disponibilidadRepository.save(d);
+        }
+        medico = medicos.get(0);
+        paciente = pacientes.get(0);
+
+        // Cada médico y cada paciente con varias citas, la mitad con historial
+        for (int i = 0; i < SEMBRADOS * 2; i++) {
+            Cita c = new Cita();
+            c.setMedico(medicos.get(i % SEMBRADOS));
+            c.setPaciente(pacientes.get((i * 7) % SEMBRADOS));
+            c.setFecha(fecha);
+            c.setHora(LocalTime.of(8, 0).plusMinutes(30L * (i / SEMBRADOS)));
+            c.setDuracionMinutos(Cita.DURACION_POR_DEFECTO);
+            c.setEstado(activo);
+            c = citaRepository.save(c);
+            if (i % 2 == 0) {
+                HistorialMedico h = new HistorialMedico();
+                h.setCita(c);
+                h.setDiagnostico("Diagnóstico " + i);
+                historialRepository.save(h);
+            } else {
+                sinHistorial.add(c);
+            }
+        }
+        cita = citaRepository.findByIdMedico(medico.getId_medico()).get(0);
+        historial = historialRepository.findByIdCita(cita.getId_cita()).orElseThrow();
+
+        // Los estados y roles se sembraron por fuera de EstadoController y RolController
+        cacheReferencia.recargar();
+    }
+
+    private Usuario usuario(Rol rol) {
+        int n = ++consecutivo;
+        return usuarioRepository.save(new Usuario("Usuario" + n, "Consultas", "consultas" + n + "@healpoint.com",
+                "Calle " + n, "310" + n, LocalDate.of(1990, 1, 1), "clave" + n, rol, activo));
+    }
+
+    /**
+     * Ejecuta la petición (y la respuesta asíncrona, si la hay), comprueba que el
+     * controlador no haya ejecutado más de maximoSentencias sentencias ni leído más de
+     * maximoFilas filas y devuelve el cuerpo de la respuesta.
+     */
+    private String assertConsultas(String controlador, int maximoSentencias, long maximoFilas,
+                                 MockHttpServletRequestBuilder peticion) throws Exception {
+        observador.reiniciar();
+        MvcResult resultado = mockMvc.perform(peticion).andReturn();
+        if (resultado.getRequest().isAsyncStarted()) {
+            resultado = mockMvc.perform(asyncDispatch(resultado)).andReturn();
+        }
+        int estado = resultado.getResponse().getStatus();
+        assertTrue(estado < 400, controlador + " respondió " + estado + ": "
+                + resultado.getResponse().getContentAsString());
+
+        EstadisticaControladorDTO consultas = observador.resumenPorControlador(Integer.MAX_VALUE).stream()
+                .filter(e -> e.controlador().equals(controlador))
+                .findFirst()
+                .orElse(new EstadisticaControladorDTO(controlador, 0, 0, 0, 0, 0, 0));
+        String detalle = controlador + ": " + consultas.sentencias() + " sentencias, " + consultas.filas()
+                + " filas\n" + String.join("\n", observador.resumen(Integer.MAX_VALUE).stream()
+                .map(e -> e.ejecuciones() + " x " + e.sql()).toList());
+        assertTrue(consultas.sentencias() <= maximoSentencias,
+                "Más sentencias que el límite de " + maximoSentencias + " en " + detalle);
+        assertTrue(consultas.filas() <= maximoFilas,
+                "Más filas que el límite de " + maximoFilas + " en " + detalle);
+        return resultado.getResponse().getContentAsString();
+    }
+
+    private static <T> T json(String cuerpo, String ruta) {
+        return JsonPath.read(cuerpo, ruta);
+    }
+
+    @Test
+    void citas() throws Exception {
+        assertEquals(SEMBRADOS * 2, (int) json(
+                assertConsultas("CitaController.getCitas", 1, 40, get("/cita/mostrarCitas")), "$.length()"));
+        assertEquals(SEMBRADOS * 2, (int) json(assertConsultas("CitaController.getAgenda", 1, 40,
+                get("/cita/agenda").param("desde", fecha.toString()).param("limite", "50")), "$.citas.length()"));
+        // Al paciente 0 le tocan las citas 0 y 20, y al médico 0 las mismas
+        assertEquals(2, (int) json(assertConsultas("CitaController.getCitasPorPaciente", 2, 3,
+                get("/cita/mostrarCitasPorPaciente").param("idPaciente", paciente.getIdPaciente().toString())),
+                "$.length()"));
+        assertEquals(2, (int) json(assertConsultas("CitaController.getCitasPorMedico", 2, 3,
+                get("/cita/mostrarCitasPorMedico").param("idMedico", medico.getId_medico().toString())),
+                "$.length()"));
+        assertEquals("11:00:00", json(assertConsultas("CitaController.postCita", 9, 10, post("/cita/crearCita")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"paciente\":{\"idPaciente\":" + paciente.getIdPaciente() + "},"
+                        + "\"medico\":{\"id_medico\":" + medico.getId_medico() + "},"
+                        + "\"estado\":{\"idEstado\":" + activo.getIdEstado() + "},"
+                        + "\"fecha\":\"" + fecha + "\",\"hora\":\"11:00:00\"}")), "$.hora"));
+    }
+
+    @Test
+    void historiales() throws Exception {
+        assertEquals(SEMBRADOS, (int) json(assertConsultas("HistorialController.getHistoriales", 1, 20,
+                get("/historial/mostrarHistoriales")), "$.length()"));
+        assertEquals(SEMBRADOS, (int) json(assertConsultas("HistorialController.getResumen", 1, 20,
+                get("/historial/mostrarResumen")), "$.length()"));
+        assertEquals(historial.getId_historial(), json(assertConsultas("HistorialController.getHistorialPorCita", 2, 2,
+                get("/historial/mostrarHistorialPorCita").param("idCita", cita.getId_cita().toString())),
+                "$.id_historial"));
+        assertEquals("Control", json(assertConsultas("HistorialController.postHistorial", 9, 8,
+                post("/historial/crearHistorial")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cita\":{\"id_cita\":" + sinHistorial.get(0).getId_cita() + "},"
+                                + "\"diagnostico\":\"Control\"}")), "$.diagnostico"));
+        assertEquals("Reposo", json(assertConsultas("HistorialController.putHistorial", 9, 9,
+                put("/historial/actualizarHistorial")
+                        .param("idHistorial", historial.getId_historial().toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tratamiento\":\"Reposo\"}")), "$.tratamiento"));
+    }
+
+    @Test
+    void pacientes() throws Exception {
+        assertEquals(SEMBRADOS, (int) json(assertConsultas("PacienteController.getPacientes", 1, 20,
+                get("/paciente/mostrarPacientes")), "$.length()"));
+        assertEquals(paciente.getIdPaciente(), json(assertConsultas("PacienteController.getPacienteById", 4, 4,
+                get("/paciente/mostrarPaciente").param("id", paciente.getIdPaciente().toString())), "$.idPaciente"));
+        assertEquals(paciente.getIdPaciente(), json(assertConsultas("PacienteController.getPacienteByIdUsuario", 4, 4,
+                get("/paciente/mostrarPacientePorIdUsuario")
+                        .param("idUsuario", paciente.getUsuario().getIdUsuario().toString())), "$.idPaciente"));
+        assertEquals("Paciente actualizado correctamente.", assertConsultas("PacienteController.actualizarPaciente", 2, 2,
+                put("/paciente/actualizarPaciente")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idPaciente\":" + paciente.getIdPaciente() + ",\"eps\":\"Sanitas\"}")));
+    }
+
+    @Test
+    void medicosYDisponibilidades() throws Exception {
+        assertEquals(SEMBRADOS, (int) json(assertConsultas("MedicoController.getMedicos", 1, 20,
+                get("/medico/mostrarMedicos")), "$.length()"));
+        assertEquals(medico.getId_medico(), json(assertConsultas("MedicoController.getMedicoById", 4, 4,
+                get("/medico/mostrarMedico").param("id", medico.getId_medico().toString())), "$.id_medico"));
+        assertEquals(SEMBRADOS, (int) json(assertConsultas("DisponibilidadController.getDisponibilidades", 1, 20,
+                get("/disponibilidad/mostrarDisponibilidades")), "$.length()"));
+        assertEquals(1, (int) json(assertConsultas("DisponibilidadController.getDisponibilidadByMedico", 1, 1,
+                get("/disponibilidad/mostrarDisponibilidad").param("id_medico", medico.getId_medico().toString())),
+                "$.length()"));
+    }
+
+    @Test
+    void usuariosEstadosYRoles() throws Exception {
+        assertEquals(SEMBRADOS * 2, (int) json(assertConsultas("UsuarioController.getUsuarios", 1, 40,
+                get("/usuario/mostrarUsuarios")), "$.length()"));
+        assertEquals(paciente.getUsuario().getIdUsuario(), json(assertConsultas("UsuarioController.getUsuarioById", 3, 3,
+                get("/usuario/mostrarUsuario").param("id", paciente.getUsuario().getIdUsuario().toString())),
+                "$.idUsuario"));
+        // Estados y roles salen de CacheReferenciaService sin ir a la base de datos
+        assertEquals((int) estadoRepository.count(), (int) json(assertConsultas("EstadoController.getEstados", 0, 0,
+                get("/estado/mostrarEstados")), "$.length()"));
+        assertEquals((int) rolRepository.count(), (int) json(assertConsultas("RolController.getRoles", 0, 0,
+                get("/rol/mostrarRoles")), "$.length()"));
+    }
+}
@@ -0,0 +1,161 @@
+package com.healpoint.controller;
+
+import com.healpoint.entity.*;
+import com.healpoint.repository.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Los listados que se escriben en streaming (ExportadorJson), pedidos por HTTP con la
+ * aplicación completa sobre H2: el cuerpo debe ser el arreglo JSON con las filas.
+ *
+ * ExportadorJsonTest prueba el exportador por separado; aquí se comprueba además que cada
+ * controlador devuelva ResponseEntity&lt;StreamingResponseBody&gt;. Con
+ * ResponseEntity&lt;?&gt; Spring MVC no usa el manejador de streaming y responde {}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = {
+        "spring.datasource.url=jdbc:h2:mem:listados;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "healpoint.tasa.habilitado=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ListadosStreamingTest {
+
+    private static final int CITAS = 3;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private EstadoRepository estadoRepository;
+    @Autowired private RolRepository rolRepository;
+    @Autowired private UsuarioRepository usuarioRepository;
+    @Autowired private PacienteRepository pacienteRepository;
+    @Autowired private MedicoRepository medicoRepository;
+    @Autowired private CitaRepository citaRepository;
+    @Autowired private HistorialRepository historialRepository;
+    @Autowired private MonitoriaRepository monitoriaRepository;
+
+    private long usuarios;
+
+    @BeforeAll
+    void sembrar() {
+        Estado activo = estadoRepository.findByNombreEstado("ACTIVA")
+                .orElseGet(() -> estadoRepository.save(new Estado("ACTIVA", "Activo")));
+        Rol rol = rolRepository.save(new Rol("Listados", null, activo));
+
+        Usuario usuarioMedico = usuarioRepository.save(new Usuario("Medico", "Listados", "medico@healpoint.com",
+                "Calle 1", "3001", LocalDate.of(1980, 1, 1), "clave1", rol, activo));
+        Usuario usuarioPaciente = usuarioRepository.save(new Usuario("Paciente", "Listados", "paciente@healpoint.com",
+                "Calle 2", "3002", LocalDate.of(1990, 1, 1), "clave2", rol, activo));
+        usuarios = usuarioRepository.count();
+
+        Medico medico = new Medico();
+        medico.setEspecialidad("General");
+        medico.setEstado(activo);
+        medico.setUsuario(usuarioMedico);
+        medico = medicoRepository.save(medico);
+        Paciente paciente = pacienteRepository.save(new Paciente("SURA", usuarioPaciente, activo));
+
+        for (int i = 0; i < CITAS; i++) {
+            Cita cita = new Cita();
+            cita.setMedico(medico);
+            cita.setPaciente(paciente);
+            cita.setFecha(LocalDate.now().plusDays(5));
+            cita.setHora(LocalTime.of(8, 0).plusMinutes(30L * i));
+            cita.setDuracionMinutos(Cita.DURACION_POR_DEFECTO);
+            cita.setEstado(activo);
+            cita = citaRepository.save(cita);
+
+            HistorialMedico historial = new HistorialMedico();
+            historial.setCita(cita);
+            historial.setDiagnostico("Diagnóstico " + i);
+            historialRepository.save(historial);
+        }
+
+        monitoriaRepository.save(new Monitoria("cita", "CREATE", usuarioMedico, "Se creó la cita"));
+        monitoriaRepository.save(new Monitoria("cita", "UPDATE", usuarioMedico, "Se actualizó la cita"));
+    }
+
+    // El cuerpo en streaming se escribe en un despacho asíncrono
+    private ResultActions despachar(MockHttpServletRequestBuilder peticion) throws Exception {
+        MvcResult resultado = mockMvc.perform(peticion)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(resultado));
+    }
+
+    private ResultActions listar(MockHttpServletRequestBuilder peticion) throws Exception {
+        return despachar(peticion)
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"));
+    }
+
+    @Test
+    void mostrarCitas() throws Exception {
+        listar(get("/cita/mostrarCitas"))
+                .andExpect(jsonPath("$", hasSize(CITAS)))
+                .andExpect(jsonPath("$[0].id_cita").isNumber())
+                .andExpect(jsonPath("$[0].paciente.eps").value("SURA"));
+    }
+
+    @Test
+    void mostrarHistoriales() throws Exception {
+        listar(get("/historial/mostrarHistoriales"))
+                .andExpect(jsonPath("$", hasSize(CITAS)))
+                .andExpect(jsonPath("$[0].diagnostico").value("Diagnóstico 0"));
+    }
+
+    @Test
+    void mostrarUsuarios() throws Exception {
+        listar(get("/usuario/mostrarUsuarios"))
+                .andExpect(jsonPath("$", hasSize((int) usuarios)))
+                .andExpect(jsonPath("$[?(@.correo == 'medico@healpoint.com')]").exists())
+                // La contraseña nunca sale en el listado
+                .andExpect(jsonPath("$[0].contrasena").doesNotExist());
+    }
+
+    @Test
+    void mostrarMonitorias() throws Exception {
+        listar(get("/monitoria/mostrarMonitorias"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].tablaAfectada").value("cita"));
+
+        LocalDate hoy = LocalDate.now();
+        listar(get("/monitoria/mostrarMonitorias").param("desde", hoy.toString()))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void sinFilasSeRespondeUnArregloVacio() throws Exception {
+        LocalDate antes = LocalDate.now().minusYears(1);
+        listar(get("/monitoria/mostrarMonitorias").param("desde", antes.toString()))
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void losErroresDeLaMonitoriaSonTexto() throws Exception {
+        despachar(get("/monitoria/mostrarMonitorias").param("hasta", "2030-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andExpect(content().string("La fecha final requiere una fecha inicial."));
+    }
+}
@@ -0,0 +1,114 @@
+package com.healpoint.controller;
+
+import com.healpoint.entity.*;
+import com.healpoint.repository.*;
+import com.healpoint.service.CacheReferenciaService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Desactivar y activar un médico con la aplicación completa sobre H2, y comprobar que la
+ * búsqueda de horarios (que excluye el estado INACTIVO) lo deja de mostrar y lo vuelve a
+ * mostrar.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = {
+        "spring.datasource.url=jdbc:h2:mem:medicos;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "healpoint.tasa.habilitado=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MedicoControllerTest {
+
+    private static final String ESPECIALIDAD = "Neurología";
+    private static final LocalDate FECHA = LocalDate.now().plusDays(3);
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private CacheReferenciaService cacheReferencia;
+    @Autowired private EstadoRepository estadoRepository;
+    @Autowired private RolRepository rolRepository;
+    @Autowired private UsuarioRepository usuarioRepository;
+    @Autowired private MedicoRepository medicoRepository;
+    @Autowired private DisponibilidadRepository disponibilidadRepository;
+
+    private Medico desactivado;
+    private Medico activo;
+
+    @BeforeAll
+    void sembrar() {
+        // Los estados con los IDs de producción (V1): 2 = ACTIVA, 7 = INACTIVO
+        jdbcTemplate.update("INSERT INTO estado (id_estado, nombre_estado, descripcion) VALUES " +
+                "(2, 'ACTIVA', 'Activo'), (7, 'INACTIVO', 'Inactivo')");
+        cacheReferencia.recargar();
+        Estado activa = estadoRepository.findById(2).orElseThrow();
+
+        Rol rol = rolRepository.save(new Rol("Medico", null, activa));
+        desactivado = medico(rol, activa, "uno@healpoint.com");
+        activo = medico(rol, activa, "dos@healpoint.com");
+    }
+
+    private Medico medico(Rol rol, Estado activa, String correo) {
+        Usuario usuario = usuarioRepository.save(new Usuario("Medico", correo, correo,
+                "Calle 1", "3001", LocalDate.of(1980, 1, 1), "clave", rol, activa));
+        Medico medico = new Medico();
+        medico.setEspecialidad(ESPECIALIDAD);
+        medico.setEstado(activa);
+        medico.setUsuario(usuario);
+        medico = medicoRepository.save(medico);
+
+        Disponibilidad d = new Disponibilidad();
+        d.setMedico(medico);
+        d.setFecha(FECHA);
+        d.setHora_inicio(LocalTime.of(8, 0));
+        d.setHora_fin(LocalTime.of(12, 0));
+        disponibilidadRepository.save(d);
+        return medico;
+    }
+
+    private ResultActions buscar() throws Exception {
+        return mockMvc.perform(get("/disponibilidad/proximosHorarios")
+                        .param("especialidad", ESPECIALIDAD)
+                        .param("desde", FECHA.toString())
+                        .param("hasta", FECHA.toString()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unMedicoDesactivadoNoApareceEnLaBusquedaDeHorarios() throws Exception {
+        buscar().andExpect(jsonPath("$[*].idMedico", hasItems(desactivado.getId_medico(), activo.getId_medico())));
+
+        mockMvc.perform(delete("/medico/desactivarMedico").param("id", desactivado.getId_medico().toString()))
+                .andExpect(status().isOk());
+        assertEquals(Medico.ID_ESTADO_INACTIVO,
+                medicoRepository.findById(desactivado.getId_medico()).orElseThrow().getEstado().getIdEstado());
+
+        buscar().andExpect(jsonPath("$[*].idMedico", everyItem(is(activo.getId_medico()))))
+                .andExpect(jsonPath("$", not(empty())));
+
+        mockMvc.perform(put("/medico/activarMedico").param("id", desactivado.getId_medico().toString()))
+                .andExpect(status().isOk());
+        assertEquals(2, medicoRepository.findById(desactivado.getId_medico()).orElseThrow().getEstado().getIdEstado());
+
+        buscar().andExpect(jsonPath("$[*].idMedico", hasItem(desactivado.getId_medico())));
+    }
+}
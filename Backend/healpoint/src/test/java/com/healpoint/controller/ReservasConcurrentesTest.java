@@ -0,0 +1,243 @@
+package com.healpoint.controller;
+
+import com.healpoint.dto.ResultadoLoteDTO;
+import com.healpoint.entity.*;
+import com.healpoint.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reservas concurrentes contra CitaController con la aplicación completa sobre H2.
+ *
+ * H2 no tiene la restricción de exclusión de PostgreSQL, así que aquí lo único que
+ * evita las reservas dobles es la serialización por médico y día de CoordinadorReservas
+ * junto con el índice de agenda, tanto en crearCita como en crearCitasLote.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservas;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@ActiveProfiles("test")
+public class ReservasConcurrentesTest {
+
+    private static final int DURACION = 30;
+
+    @Autowired private CitaController citaController;
+    @Autowired private EstadoRepository estadoRepository;
+    @Autowired private RolRepository rolRepository;
+    @Autowired private UsuarioRepository usuarioRepository;
+    @Autowired private PacienteRepository pacienteRepository;
+    @Autowired private MedicoRepository medicoRepository;
+    @Autowired private DisponibilidadRepository disponibilidadRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Estado activo;
+    private Rol rol;
+    private Paciente paciente;
+    private final List<Medico> medicos = new ArrayList<>();
+    private static int consecutivo;
+
+    @BeforeEach
+    void setUp() {
+        activo = estadoRepository.findByNombreEstado("ACTIVA")
+                .orElseGet(() -> estadoRepository.save(new Estado("ACTIVA", "Activo")));
+        rol = rolRepository.findByNombreRol("Prueba")
+                .orElseGet(() -> rolRepository.save(new Rol("Prueba", null, activo)));
+        paciente = pacienteRepository.save(new Paciente("SURA", usuario(), activo));
+    }
+
+    private Usuario usuario() {
+        int n = ++consecutivo;
+        return usuarioRepository.save(new Usuario("Usuario" + n, "Prueba", "reserva" + n + "@healpoint.com",
+                "Calle " + n, "300" + n, LocalDate.of(1990, 1, 1), "clave" + n, rol, activo));
+    }
+
+    private void crearMedicos(int cantidad, LocalDate fecha) {
+        medicos.clear();
+        for (int i = 0; i < cantidad; i++) {
+            Medico medico = new Medico();
+            medico.setEspecialidad("General");
+            medico.setEstado(activo);
+            medico.setUsuario(usuario());
+            medico = medicoRepository.save(medico);
+
+            Disponibilidad d = new Disponibilidad();
+            d.setMedico(medico);
+            d.setFecha(fecha);
+            d.setHora_inicio(LocalTime.of(6, 0));
+            d.setHora_fin(LocalTime.of(20, 0));
+            disponibilidadRepository.save(d);
+            medicos.add(medico);
+        }
+    }
+
+    private Cita solicitud(Medico medico, LocalDate fecha, LocalTime hora) {
+        Cita cita = new Cita();
+        Paciente p = new Paciente();
+        p.setIdPaciente(paciente.getIdPaciente());
+        Medico m = new Medico();
+        m.setId_medico(medico.getId_medico());
+        Estado e = new Estado();
+        e.setIdEstado(activo.getIdEstado());
+        cita.setPaciente(p);
+        cita.setMedico(m);
+        cita.setEstado(e);
+        cita.setFecha(fecha);
+        cita.setHora(hora);
+        cita.setDuracionMinutos(DURACION);
+        return cita;
+    }
+
+    private record Resultado(int creadas, int conflictos, long nanos) {
+    }
+
+    /**
+     * Lanza los intentos de reserva desde varios hilos. Los médicos se eligen con una
+     * distribución sesgada para que unos pocos concentren la mayoría de las reservas, y
+     * las horas van de 15 en 15 minutos para que las citas de 30 minutos se crucen.
+     */
+    private Resultado reservar(LocalDate fecha, int hilos, int intentos) throws Exception {
+        AtomicInteger creadas = new AtomicInteger();
+        AtomicInteger conflictos = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int t = 0; t < hilos; t++) {
+            long semilla = t;
+            tareas.add(pool.submit(() -> {
+                Random random = new Random(semilla);
+                salida.await();
+                for (int i = 0; i < intentos / hilos; i++) {
+                    int indice = (int) Math.min(medicos.size() - 1, Math.abs(random.nextGaussian()) * 2);
+                    LocalTime hora = LocalTime.of(7, 0).plusMinutes(15L * random.nextInt(48));
+                    ResponseEntity<?> respuesta = citaController.postCita(solicitud(medicos.get(indice), fecha, hora));
+                    if (respuesta.getStatusCode() == HttpStatus.CREATED) {
+                        creadas.incrementAndGet();
+                    } else if (respuesta.getStatusCode() == HttpStatus.CONFLICT) {
+                        conflictos.incrementAndGet();
+                    } else {
+                        fail("Respuesta inesperada: " + respuesta.getStatusCode() + " " + respuesta.getBody());
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long inicio = System.nanoTime();
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(5, TimeUnit.MINUTES);
+        }
+        long nanos = System.nanoTime() - inicio;
+        pool.shutdown();
+        return new Resultado(creadas.get(), conflictos.get(), nanos);
+    }
+
+    // Cuenta los pares de citas no canceladas del mismo médico que se cruzan en la fecha
+    private int contarSolapamientos(LocalDate fecha) {
+        Map<Integer, List<int[]>> porMedico = new HashMap<>();
+        jdbcTemplate.query("SELECT id_medico, hora, duracion_minutos FROM cita WHERE fecha = ? AND id_estado <> ?",
+                rs -> {
+                    LocalTime hora = rs.getObject(2, LocalTime.class);
+                    int inicio = hora.toSecondOfDay() / 60;
+                    porMedico.computeIfAbsent(rs.getInt(1), k -> new ArrayList<>())
+                            .add(new int[]{inicio, inicio + rs.getInt(3)});
+                }, fecha, Cita.ID_ESTADO_CANCELADA);
+
+        int solapamientos = 0;
+        for (List<int[]> citas : porMedico.values()) {
+            citas.sort(Comparator.comparingInt(c -> c[0]));
+            for (int i = 1; i < citas.size(); i++) {
+                if (citas.get(i)[0] < citas.get(i - 1)[1]) {
+                    solapamientos++;
+                }
+            }
+        }
+        return solapamientos;
+    }
+
+    @Test
+    void reservasConcurrentesNoProducenCitasCruzadas() throws Exception {
+        LocalDate fecha = LocalDate.now().plusDays(10);
+        crearMedicos(4, fecha);
+
+        Resultado resultado = reservar(fecha, 16, 800);
+
+        assertTrue(resultado.creadas() > 0);
+        assertTrue(resultado.conflictos() > 0, "La prueba debe generar contención");
+        assertEquals(0, contarSolapamientos(fecha));
+    }
+
+    @Test
+    void lotesYReservasIndividualesNoProducenCitasCruzadas() throws Exception {
+        LocalDate fecha = LocalDate.now().plusDays(15);
+        crearMedicos(4, fecha);
+
+        // Un hilo crea lotes mientras los demás reservan de a una cita
+        AtomicInteger creadasEnLote = new AtomicInteger();
+        ExecutorService hiloLotes = Executors.newSingleThreadExecutor();
+        Future<?> lotes = hiloLotes.submit(() -> {
+            Random random = new Random(99);
+            for (int l = 0; l < 10; l++) {
+                List<Cita> lote = new ArrayList<>();
+                for (int i = 0; i < 40; i++) {
+                    lote.add(solicitud(medicos.get(random.nextInt(medicos.size())), fecha,
+                            LocalTime.of(7, 0).plusMinutes(15L * random.nextInt(48))));
+                }
+                ResponseEntity<?> respuesta = citaController.postCitasLote(lote, paciente.getIdPaciente());
+                assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+                creadasEnLote.addAndGet(((ResultadoLoteDTO) respuesta.getBody()).creadas());
+            }
+            return null;
+        });
+        Resultado individuales = reservar(fecha, 8, 400);
+        lotes.get(5, TimeUnit.MINUTES);
+        hiloLotes.shutdown();
+
+        assertTrue(creadasEnLote.get() > 0);
+        assertEquals(creadasEnLote.get() + individuales.creadas(),
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cita WHERE fecha = ?", Integer.class, fecha));
+        assertEquals(0, contarSolapamientos(fecha));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkReservasPorSegundoBajoContencion() throws Exception {
+        LocalDate fecha = LocalDate.now().plusDays(20);
+        crearMedicos(20, fecha);
+
+        // Calentamiento en otra fecha para no medir la carga inicial del contexto
+        LocalDate calentamiento = fecha.plusDays(1);
+        crearMedicos(20, calentamiento);
+        reservar(calentamiento, 8, 2_000);
+        crearMedicos(20, fecha);
+
+        Resultado resultado = reservar(fecha, 64, 20_000);
+        double segundos = resultado.nanos() / 1e9;
+
+        System.out.printf("Reservas concurrentes: 64 hilos, %d intentos, %d creadas, %d conflictos, "
+                        + "%.0f intentos/s, %.0f reservas/s%n",
+                resultado.creadas() + resultado.conflictos(), resultado.creadas(), resultado.conflictos(),
+                (resultado.creadas() + resultado.conflictos()) / segundos, resultado.creadas() / segundos);
+
+        assertEquals(0, contarSolapamientos(fecha));
+    }
+}
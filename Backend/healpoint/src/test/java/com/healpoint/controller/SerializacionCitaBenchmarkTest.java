@@ -0,0 +1,104 @@
+package com.healpoint.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healpoint.Microbenchmark;
+import com.healpoint.entity.*;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mide la serialización a JSON del grafo de una cita (paciente, médico, usuarios, roles
+ * y estados) con el ObjectMapper que configura Spring Boot, como la hacen
+ * mostrarCitasPorPaciente y mostrarCitasPorMedico. Los resultados quedan en
+ * target/benchmarks/SerializacionCitaBenchmarkTest.json.
+ *
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=SerializacionCitaBenchmarkTest
+ */
+@Tag("benchmark")
+@JsonTest
+public class SerializacionCitaBenchmarkTest {
+
+    private static final int[] TAMANOS_LISTA = {1, 20, 200};
+
+    private static Microbenchmark benchmark;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    static void iniciar() {
+        benchmark = new Microbenchmark(SerializacionCitaBenchmarkTest.class.getSimpleName());
+    }
+
+    @AfterAll
+    static void escribir() {
+        benchmark.escribir();
+    }
+
+    @Test
+    void serializarCitas() {
+        for (int tamano : TAMANOS_LISTA) {
+            List<Cita> citas = citas(tamano);
+            benchmark.medir("writeValueAsBytes", Map.of("citas", String.valueOf(tamano)),
+                    () -> objectMapper.writeValueAsBytes(citas));
+        }
+    }
+
+    // Citas de un mismo paciente con varios médicos, como en el historial de un paciente
+    private static List<Cita> citas(int cantidad) {
+        Estado activo = new Estado("ACTIVA", "Activo");
+        activo.setIdEstado(1);
+        Estado pendiente = new Estado("PENDIENTE", "Cita pendiente de atención");
+        pendiente.setIdEstado(2);
+        Rol rolPaciente = new Rol("Paciente", "Paciente de la IPS", activo);
+        rolPaciente.setIdRol(3);
+        Rol rolMedico = new Rol("Medico", "Médico de la IPS", activo);
+        rolMedico.setIdRol(2);
+
+        Paciente paciente = new Paciente("SURA", usuario(1, "Ana", rolPaciente, activo), activo);
+        paciente.setIdPaciente(1);
+
+        List<Medico> medicos = new ArrayList<>();
+        String[] especialidades = {"Medicina General", "Cardiología", "Pediatría", "Dermatología"};
+        for (int i = 0; i < especialidades.length; i++) {
+            Medico medico = new Medico();
+            medico.setId_medico(i + 1);
+            medico.setEspecialidad(especialidades[i]);
+            medico.setEstado(activo);
+            medico.setUsuario(usuario(10 + i, "Medico" + i, rolMedico, activo));
+            medicos.add(medico);
+        }
+
+        List<Cita> citas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Cita cita = new Cita();
+            cita.setId_cita(i + 1L);
+            cita.setPaciente(paciente);
+            cita.setMedico(medicos.get(i % medicos.size()));
+            cita.setFecha(LocalDate.of(2030, 1, 1).plusDays(i / 8));
+            cita.setHora(LocalTime.of(8, 0).plusMinutes(30L * (i % 8)));
+            cita.setDuracionMinutos(Cita.DURACION_POR_DEFECTO);
+            cita.setEstado(pendiente);
+            citas.add(cita);
+        }
+        return citas;
+    }
+
+    private static Usuario usuario(int id, String nombre, Rol rol, Estado estado) {
+        Usuario usuario = new Usuario(nombre, "Prueba", nombre.toLowerCase() + "@healpoint.com", "Calle " + id,
+                "300000" + id, LocalDate.of(1990, 1, 1), "pbkdf2-sha256$310000$c2Fs$aGFzaA", rol, estado);
+        usuario.setIdUsuario(id);
+        return usuario;
+    }
+}
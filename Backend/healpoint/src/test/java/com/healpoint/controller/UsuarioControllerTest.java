@@ -0,0 +1,168 @@
+package com.healpoint.controller;
+
+import com.healpoint.entity.Estado;
+import com.healpoint.entity.Rol;
+import com.healpoint.entity.Usuario;
+import com.healpoint.repository.UsuarioRepository;
+import com.healpoint.service.CacheReferenciaService;
+import com.healpoint.service.ContrasenaService;
+import com.healpoint.service.ExportadorJson;
+import com.healpoint.service.MonitoriaService;
+import com.healpoint.service.TokenSesionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UsuarioController.class)
+public class UsuarioControllerTest {
+
+    @TestConfiguration
+    static class Config {
+        // Cifrado real con pocas iteraciones para que las pruebas sean rápidas
+        @Bean
+        ContrasenaService contrasenaService() {
+            return new ContrasenaService(new SimpleMeterRegistry(), 1_000, 1, 4, 5_000);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private ContrasenaService contrasenaService;
+
+    @MockitoBean
+    private UsuarioRepository usuarioRepository;
+
+    @MockitoBean
+    private CacheReferenciaService cacheReferencia;
+
+    @MockitoBean
+    private MonitoriaService monitoriaService;
+
+    @MockitoBean
+    private ExportadorJson exportadorJson;
+
+    @MockitoBean
+    private TokenSesionService tokenSesion;
+
+    private static final String LOGIN = "{\"correo\":\"ana@healpoint.com\",\"contrasena\":\"pac123\"}";
+
+    private Usuario usuario(String contrasena) {
+        Estado activo = new Estado();
+        activo.setIdEstado(2);
+        Rol rol = new Rol();
+        rol.setIdRol(3);
+        Usuario usuario = new Usuario("Ana", "Ruiz", "ana@healpoint.com", "Calle 1", "3000000000",
+                LocalDate.of(1990, 1, 1), contrasena, rol, activo);
+        usuario.setIdUsuario(15);
+        return usuario;
+    }
+
+    @Test
+    void login_ContrasenaEnTextoPlanoSeCifraYNoSeDevuelve() throws Exception {
+        when(usuarioRepository.findByCorreo("ana@healpoint.com")).thenReturn(Optional.of(usuario("pac123")));
+        when(tokenSesion.emitir(15, 3)).thenReturn("token");
+
+        mockMvc.perform(post("/usuario/login").contentType("application/json").content(LOGIN))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TokenSesionService.CABECERA, "token"))
+                .andExpect(jsonPath("$.idUsuario").value(15))
+                .andExpect(jsonPath("$.contrasena").doesNotExist());
+
+        ArgumentCaptor<Usuario> guardado = ArgumentCaptor.forClass(Usuario.class);
+        verify(usuarioRepository).save(guardado.capture());
+        String hash = guardado.getValue().getContrasena();
+        assertTrue(hash.startsWith(ContrasenaService.PREFIJO));
+        assertTrue(contrasenaService.verificar("pac123", hash));
+    }
+
+    @Test
+    void login_ContrasenaYaCifradaNoSeVuelveAGuardar() throws Exception {
+        String hash = contrasenaService.cifrar("pac123");
+        when(usuarioRepository.findByCorreo("ana@healpoint.com")).thenReturn(Optional.of(usuario(hash)));
+
+        mockMvc.perform(post("/usuario/login").contentType("application/json").content(LOGIN))
+                .andExpect(status().isOk());
+
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    void login_ContrasenaIncorrecta() throws Exception {
+        Usuario usuario = usuario(contrasenaService.cifrar("otra"));
+        when(usuarioRepository.findByCorreo("ana@healpoint.com")).thenReturn(Optional.of(usuario));
+
+        mockMvc.perform(post("/usuario/login").contentType("application/json").content(LOGIN))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().string("Contraseña incorrecta."));
+    }
+
+    @Test
+    void login_CifradoSaturadoResponde503() throws Exception {
+        when(usuarioRepository.findByCorreo("ana@healpoint.com")).thenReturn(Optional.of(usuario("pac123")));
+        doThrow(new ContrasenaService.Saturado("Hay demasiados inicios de sesión en curso."))
+                .when(contrasenaService).verificar(anyString(), anyString());
+
+        mockMvc.perform(post("/usuario/login").contentType("application/json").content(LOGIN))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void actualizarUsuario_SinContrasenaNuevaConservaLaActual() throws Exception {
+        String hash = contrasenaService.cifrar("pac123");
+        Usuario existente = usuario(hash);
+        when(usuarioRepository.findById(15)).thenReturn(Optional.of(existente));
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(existente));
+
+        mockMvc.perform(put("/usuario/actualizarUsuario").contentType("application/json")
+                        .content("{\"idUsuario\":15,\"nombre\":\"Ana\",\"apellido\":\"Ruiz\"," +
+                                "\"correo\":\"ana@healpoint.com\",\"contrasena\":\"\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals(hash, existente.getContrasena());
+
+        mockMvc.perform(put("/usuario/actualizarUsuario").contentType("application/json")
+                        .content("{\"idUsuario\":15,\"nombre\":\"Ana\",\"apellido\":\"Ruiz\"," +
+                                "\"correo\":\"ana@healpoint.com\",\"contrasena\":\"nueva123\"}"))
+                .andExpect(status().isOk());
+
+        assertTrue(contrasenaService.verificar("nueva123", existente.getContrasena()));
+    }
+
+    @Test
+    void actualizarUsuario_ElHashGuardadoSeTrataComoContrasenaNueva() throws Exception {
+        String hash = contrasenaService.cifrar("pac123");
+        Usuario existente = usuario(hash);
+        when(usuarioRepository.findById(15)).thenReturn(Optional.of(existente));
+        when(usuarioRepository.findByCorreo(anyString())).thenReturn(Optional.of(existente));
+
+        // Quien conoce el hash no puede usarlo para dejar la contraseña como está
+        mockMvc.perform(put("/usuario/actualizarUsuario").contentType("application/json")
+                        .content("{\"idUsuario\":15,\"nombre\":\"Ana\",\"apellido\":\"Ruiz\"," +
+                                "\"correo\":\"ana@healpoint.com\",\"contrasena\":\"" + hash + "\"}"))
+                .andExpect(status().isOk());
+
+        assertNotEquals(hash, existente.getContrasena());
+        assertTrue(contrasenaService.verificar(hash, existente.getContrasena()));
+        assertFalse(contrasenaService.verificar("pac123", existente.getContrasena()));
+    }
+}
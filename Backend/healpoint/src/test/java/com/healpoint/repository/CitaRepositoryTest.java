@@ -0,0 +1,116 @@
+package com.healpoint.repository;
+
+import com.healpoint.DatosPrueba;
+import com.healpoint.dto.CitaAgendaDTO;
+import com.healpoint.entity.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class CitaRepositoryTest {
+
+    private static final LocalDate LUNES = LocalDate.of(2030, 3, 4);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    private Medico cardiologo;
+    private Medico pediatra;
+    private Paciente paciente;
+    private Estado activa;
+    private Estado cancelada;
+
+    @BeforeEach
+    void setUp() {
+        DatosPrueba datos = new DatosPrueba(em);
+        cardiologo = datos.medico("Cardiología");
+        pediatra = datos.medico("Pediatría");
+        paciente = datos.paciente();
+        Paciente otroPaciente = datos.paciente();
+        activa = datos.getActivo();
+        cancelada = datos.estado("CANCELADA");
+
+        // Dos médicos con citas intercaladas durante tres días, más una fuera del rango
+        for (int dia = 0; dia < 3; dia++) {
+            LocalDate fecha = LUNES.plusDays(dia);
+            datos.cita(paciente, cardiologo, fecha, LocalTime.of(9, 0), activa);
+            datos.cita(otroPaciente, pediatra, fecha, LocalTime.of(9, 0), activa);
+            datos.cita(otroPaciente, cardiologo, fecha, LocalTime.of(10, 30), cancelada);
+        }
+        datos.cita(paciente, cardiologo, LUNES.plusDays(7), LocalTime.of(9, 0), activa);
+        em.flush();
+        em.clear();
+    }
+
+    private List<CitaAgendaDTO> recorrer(LocalDate desde, LocalDate hasta,
+                                         Integer idMedico, Integer idPaciente, Integer idEstado, int limite) {
+        List<CitaAgendaDTO> todas = new ArrayList<>();
+        LocalDate fecha = desde;
+        LocalTime hora = LocalTime.MIN;
+        Long id = 0L;
+        while (true) {
+            List<CitaAgendaDTO> pagina = citaRepository.findAgenda(
+                    hasta, fecha, hora, id, idMedico, idPaciente, idEstado, limite);
+            todas.addAll(pagina);
+            if (pagina.size() < limite) {
+                return todas;
+            }
+            CitaAgendaDTO ultima = pagina.get(pagina.size() - 1);
+            fecha = ultima.fecha();
+            hora = ultima.hora();
+            id = ultima.idCita();
+        }
+    }
+
+    @Test
+    void findAgenda_RecorreTodasLasPaginasEnOrdenSinRepetir() {
+        List<CitaAgendaDTO> citas = recorrer(LUNES, LUNES.plusDays(2), null, null, null, 2);
+
+        assertEquals(9, citas.size());
+        for (int i = 1; i < citas.size(); i++) {
+            CitaAgendaDTO a = citas.get(i - 1);
+            CitaAgendaDTO b = citas.get(i);
+            int orden = a.fecha().compareTo(b.fecha());
+            if (orden == 0) orden = a.hora().compareTo(b.hora());
+            if (orden == 0) orden = a.idCita().compareTo(b.idCita());
+            assertTrue(orden < 0, "Orden incorrecto entre " + a + " y " + b);
+        }
+    }
+
+    @Test
+    void findAgenda_FiltraPorMedicoYEstado() {
+        List<CitaAgendaDTO> delCardiologo = recorrer(LUNES, LUNES.plusDays(2), cardiologo.getId_medico(), null, null, 50);
+        assertEquals(6, delCardiologo.size());
+        assertTrue(delCardiologo.stream().allMatch(c -> c.idMedico().equals(cardiologo.getId_medico())));
+        assertEquals("Cardiología", delCardiologo.get(0).especialidad());
+
+        List<CitaAgendaDTO> activas = recorrer(LUNES, LUNES.plusDays(2), cardiologo.getId_medico(), null, activa.getIdEstado(), 50);
+        assertEquals(3, activas.size());
+    }
+
+    @Test
+    void findAgenda_FiltraPorPacienteYRespetaElRango() {
+        List<CitaAgendaDTO> citas = recorrer(LUNES, LUNES.plusDays(30), null, paciente.getIdPaciente(), null, 50);
+
+        assertEquals(4, citas.size());
+        assertEquals(LUNES.plusDays(7), citas.get(3).fecha());
+        assertNotNull(citas.get(0).nombrePaciente());
+        assertNotNull(citas.get(0).nombreMedico());
+    }
+}
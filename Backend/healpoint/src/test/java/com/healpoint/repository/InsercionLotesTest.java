@@ -0,0 +1,210 @@
+package com.healpoint.repository;
+
+import com.healpoint.DatosPrueba;
+import com.healpoint.entity.*;
+
+import jakarta.persistence.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que las inserciones por JPA se agrupen en lotes JDBC ahora que los IDs salen
+ * de secuencias con optimizador pooled, y compara en un benchmark contra IDENTITY.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class InsercionLotesTest {
+
+    private static final int FILAS = 500;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private MonitoriaRepository monitoriaRepository;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    private Paciente paciente;
+    private Medico medico;
+    private Estado activa;
+
+    @BeforeEach
+    void setUp() {
+        DatosPrueba datos = new DatosPrueba(em);
+        paciente = datos.paciente();
+        medico = datos.medico("Vacunación");
+        activa = datos.getActivo();
+        em.flush();
+    }
+
+    private Statistics estadisticas() {
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        return estadisticas;
+    }
+
+    private Cita cita(int i) {
+        Cita cita = new Cita();
+        cita.setPaciente(paciente);
+        cita.setMedico(medico);
+        cita.setEstado(activa);
+        cita.setFecha(LocalDate.of(2030, 1, 1).plusDays(i / 20));
+        cita.setHora(LocalTime.of(6, 0).plusMinutes(30L * (i % 20)));
+        cita.setDuracionMinutos(Cita.DURACION_POR_DEFECTO);
+        return cita;
+    }
+
+    private static Monitoria auditoria(int i) {
+        return new Monitoria("cita", "CREATE", null, "Se creó la cita ID " + i);
+    }
+
+    @Test
+    void auditoriaSeInsertaEnLotes() {
+        Statistics estadisticas = estadisticas();
+
+        List<Monitoria> filas = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            filas.add(auditoria(i));
+        }
+        monitoriaRepository.saveAll(filas);
+        em.flush();
+
+        // 10 lotes de 50 filas y 10 llamadas a la secuencia (una cada 50 IDs), en lugar
+        // de una sentencia por fila
+        assertEquals(FILAS, estadisticas.getEntityInsertCount());
+        assertTrue(estadisticas.getPrepareStatementCount() <= 2 * FILAS / 50 + 2,
+                "Sentencias: " + estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void citasSeInsertanEnLotes() {
+        Statistics estadisticas = estadisticas();
+
+        List<Cita> citas = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            citas.add(cita(i));
+        }
+        citaRepository.saveAll(citas);
+        em.flush();
+
+        assertEquals(FILAS, estadisticas.getEntityInsertCount());
+        assertTrue(estadisticas.getPrepareStatementCount() <= 2 * FILAS / 50 + 2,
+                "Sentencias: " + estadisticas.getPrepareStatementCount());
+
+        // Los IDs de un mismo bloque de la secuencia son consecutivos
+        assertEquals(FILAS, citas.stream().map(Cita::getId_cita).distinct().count());
+        assertEquals(49, citas.get(49).getId_cita() - citas.get(0).getId_cita());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkIdentityContraSecuenciaPooled() {
+        int filas = 20_000;
+        // Calentamiento
+        medir("calentamiento", 2_000, InsercionLotesTest::auditoria);
+        medir("calentamiento", 2_000, AuditoriaIdentity::new);
+
+        medir("auditoría, IDENTITY (antes)", filas, AuditoriaIdentity::new);
+        medir("auditoría, SEQUENCE pooled (después)", filas, InsercionLotesTest::auditoria);
+        medir("citas, IDENTITY (antes)", filas, i -> new CitaIdentity(cita(i)));
+        medir("citas, SEQUENCE pooled (después)", filas, this::cita);
+    }
+
+    private void medir(String nombre, int filas, IntFunction<Object> crear) {
+        em.clear();
+        Statistics estadisticas = estadisticas();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < filas; i++) {
+            em.persist(crear.apply(i));
+            if (i % 1_000 == 999) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        em.clear();
+
+        System.out.printf("%-40s %6d filas, %6d sentencias, %8.0f filas/s%n",
+                nombre, filas, estadisticas.getPrepareStatementCount(), filas / segundos);
+    }
+
+    /**
+     * Misma forma que Monitoria pero con IDENTITY, como estaban las entidades antes.
+     */
+    @Entity
+    @Table(name = "benchmark_auditoria_identity")
+    public static class AuditoriaIdentity {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Integer id;
+
+        private String tablaAfectada;
+        private String accion;
+        private LocalDateTime fecha;
+        private String descripcion;
+
+        protected AuditoriaIdentity() {
+        }
+
+        AuditoriaIdentity(int i) {
+            this.tablaAfectada = "cita";
+            this.accion = "CREATE";
+            this.fecha = LocalDateTime.now();
+            this.descripcion = "Se creó la cita ID " + i;
+        }
+    }
+
+    /**
+     * Mismas columnas que Cita pero con IDENTITY y las llaves foráneas como enteros.
+     */
+    @Entity
+    @Table(name = "benchmark_cita_identity")
+    public static class CitaIdentity {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Integer id;
+
+        private Integer idPaciente;
+        private Integer idMedico;
+        private Integer idEstado;
+        private LocalDate fecha;
+        private LocalTime hora;
+        private Integer duracionMinutos;
+
+        protected CitaIdentity() {
+        }
+
+        CitaIdentity(Cita cita) {
+            this.idPaciente = cita.getPaciente().getIdPaciente();
+            this.idMedico = cita.getMedico().getId_medico();
+            this.idEstado = cita.getEstado().getIdEstado();
+            this.fecha = cita.getFecha();
+            this.hora = cita.getHora();
+            this.duracionMinutos = cita.getDuracionMinutos();
+        }
+    }
+}
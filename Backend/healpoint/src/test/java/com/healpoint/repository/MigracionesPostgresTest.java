@@ -0,0 +1,323 @@
+package com.healpoint.repository;
+
+import com.healpoint.entity.Medico;
+import com.healpoint.entity.Paciente;
+import com.healpoint.entity.Usuario;
+
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.mapping.Table;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.tool.schema.spi.SchemaFilter;
+import org.hibernate.tool.schema.spi.SchemaFilterProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aplica las migraciones de Flyway sobre un PostgreSQL real, valida las entidades contra
+ * el esquema resultante (ddl-auto=validate) y revisa con EXPLAIN que cada consulta de
+ * los repositorios pueda resolverse con el índice esperado.
+ *
+ * Se toma el SQL que Hibernate genera para cada método y se explica su plan genérico
+ * (el mismo para cualquier valor de los parámetros) con el recorrido secuencial
+ * desactivado: en tablas vacías PostgreSQL siempre lo preferiría, así que lo que se
+ * comprueba es que exista un índice que sirva para la consulta, no la elección que
+ * hará con datos reales.
+ *
+ * Requiere Docker; si no está disponible la prueba se omite.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=true",
+        // Protocolo simple: el driver envía los $1, $2... del EXPLAIN sin tratarlos como parámetros
+        "spring.datasource.hikari.data-source-properties.preferQueryMode=simple",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.healpoint.repository.MigracionesPostgresTest$SentenciasEjecutadas",
+        "spring.jpa.properties.hibernate.hbm2ddl.schema_filter_provider="
+                + "com.healpoint.repository.MigracionesPostgresTest$SinTablasDeBenchmark"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class MigracionesPostgresTest {
+
+    // EXPLAIN (GENERIC_PLAN) existe desde PostgreSQL 16
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final LocalDate FECHA = LocalDate.of(2030, 3, 4);
+    private static final LocalTime HORA = LocalTime.of(9, 0);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private DisponibilidadRepository disponibilidadRepository;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private MonitoriaRepository monitoriaRepository;
+
+    /**
+     * Guarda el SQL de cada sentencia que prepara Hibernate.
+     */
+    public static class SentenciasEjecutadas implements StatementInspector {
+
+        static final List<String> SENTENCIAS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SENTENCIAS.add(sql);
+            return sql;
+        }
+    }
+
+    /**
+     * Deja fuera de la validación las entidades que solo existen en los benchmarks
+     * (por ejemplo las de InsercionLotesTest), que no tienen tabla en las migraciones.
+     */
+    public static class SinTablasDeBenchmark implements SchemaFilterProvider {
+
+        private static final SchemaFilter FILTRO = new SchemaFilter() {
+            @Override
+            public boolean includeNamespace(Namespace namespace) {
+                return true;
+            }
+
+            @Override
+            public boolean includeTable(Table table) {
+                return !table.getName().startsWith("benchmark_");
+            }
+
+            @Override
+            public boolean includeSequence(Sequence sequence) {
+                return true;
+            }
+        };
+
+        @Override
+        public SchemaFilter getCreateFilter() {
+            return FILTRO;
+        }
+
+        @Override
+        public SchemaFilter getDropFilter() {
+            return FILTRO;
+        }
+
+        @Override
+        public SchemaFilter getTruncatorFilter() {
+            return FILTRO;
+        }
+
+        @Override
+        public SchemaFilter getMigrateFilter() {
+            return FILTRO;
+        }
+
+        @Override
+        public SchemaFilter getValidateFilter() {
+            return FILTRO;
+        }
+    }
+
+    /**
+     * Ejecuta la consulta y devuelve el plan de la última sentencia que generó.
+     */
+    private String plan(Runnable consulta) {
+        return explicar(ultimaSentencia(consulta));
+    }
+
+    private String ultimaSentencia(Runnable consulta) {
+        SentenciasEjecutadas.SENTENCIAS.clear();
+        consulta.run();
+        List<String> sentencias = SentenciasEjecutadas.SENTENCIAS;
+        assertFalse(sentencias.isEmpty(), "La consulta no generó SQL");
+        return sentencias.get(sentencias.size() - 1);
+    }
+
+    private String explicar(String sql) {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        List<String> lineas = jdbcTemplate.queryForList(
+                "EXPLAIN (GENERIC_PLAN) " + numerarParametros(sql), String.class);
+        return String.join("\n", lineas);
+    }
+
+    /**
+     * Plan de la consulta con valores concretos. Con el protocolo simple el driver los
+     * escribe en el SQL, así que PostgreSQL puede descartar particiones al planificar
+     * (en el plan genérico solo las descarta al ejecutar).
+     */
+    private String explicarConValores(String sql, Object... valores) {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, valores));
+    }
+
+    // EXPLAIN (GENERIC_PLAN) necesita los parámetros como $1, $2... en lugar de ?
+    private static String numerarParametros(String sql) {
+        StringBuilder resultado = new StringBuilder(sql.length() + 16);
+        boolean enTexto = false;
+        int numero = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                enTexto = !enTexto;
+            }
+            if (c == '?' && !enTexto) {
+                resultado.append('$').append(++numero);
+            } else {
+                resultado.append(c);
+            }
+        }
+        return resultado.toString();
+    }
+
+    private static void assertUsaIndice(String indice, String plan) {
+        assertTrue(plan.contains(indice), "Se esperaba el índice " + indice + " en el plan:\n" + plan);
+        assertFalse(plan.contains("Seq Scan"), "El plan recorre una tabla completa:\n" + plan);
+    }
+
+    private Medico medico() {
+        return em.getEntityManager().getReference(Medico.class, 1);
+    }
+
+    private Paciente paciente() {
+        return em.getEntityManager().getReference(Paciente.class, 1);
+    }
+
+    @Test
+    void citasDeUnMedicoUsanElIndiceDeMedicoYFecha() {
+        String indice = "idx_cita_medico_fecha_hora_id";
+        assertUsaIndice(indice, plan(() -> citaRepository.findByIdMedico(1)));
+        assertUsaIndice(indice, plan(() -> citaRepository.findByMedicoAndFechaAndHora(medico(), FECHA, HORA)));
+        assertUsaIndice(indice, plan(() -> citaRepository.findCitasOcupadas(1, FECHA)));
+        assertUsaIndice(indice, plan(() -> citaRepository.findCitasOcupadasEntre(1, FECHA, FECHA.plusDays(14))));
+    }
+
+    @Test
+    void citasDeUnPacienteUsanElIndiceDePacienteYFecha() {
+        String indice = "idx_cita_paciente_fecha_hora_id";
+        assertUsaIndice(indice, plan(() -> citaRepository.findByIdPaciente(1)));
+        assertUsaIndice(indice, plan(() -> citaRepository.findByPacienteAndFechaAndHora(paciente(), FECHA, HORA)));
+    }
+
+    @Test
+    void agendaUsaElIndiceQueCorrespondeAlFiltro() {
+        assertUsaIndice("idx_cita_fecha_hora", plan(() -> citaRepository.findAgenda(
+                FECHA.plusDays(7), FECHA, LocalTime.MIN, 0L, null, null, null, 50)));
+        assertUsaIndice("idx_cita_medico_fecha_hora_id", plan(() -> citaRepository.findAgenda(
+                FECHA.plusDays(7), FECHA, LocalTime.MIN, 0L, 1, null, null, 50)));
+        assertUsaIndice("idx_cita_paciente_fecha_hora_id", plan(() -> citaRepository.findAgenda(
+                FECHA.plusDays(7), FECHA, LocalTime.MIN, 0L, null, 1, null, 50)));
+    }
+
+    @Test
+    void franjasDeUnMedicoUsanElIndiceDeDisponibilidad() {
+        String indice = "idx_disponibilidad_medico_fecha";
+        assertUsaIndice(indice, plan(() -> disponibilidadRepository.findByMedico(1)));
+        assertUsaIndice(indice, plan(() -> disponibilidadRepository.findFranjas(1, FECHA)));
+        assertUsaIndice(indice, plan(() -> disponibilidadRepository.findFranjasEntre(1, FECHA, FECHA.plusDays(14))));
+        assertUsaIndice(indice, plan(() -> disponibilidadRepository.existeDisponibilidad(1, FECHA, HORA)));
+    }
+
+    @Test
+    void medicosPorEspecialidadUsanElIndiceSobreLower() {
+        assertUsaIndice("idx_medico_especialidad",
+                plan(() -> medicoRepository.findActivosPorEspecialidad("Cardiología")));
+    }
+
+    @Test
+    void busquedasPorUsuarioUsanSuIndice() {
+        Usuario usuario = em.getEntityManager().getReference(Usuario.class, 1);
+        assertUsaIndice("idx_paciente_usuario", plan(() -> pacienteRepository.findByUsuario(usuario)));
+        assertUsaIndice("medico_id_usuario_key", plan(() -> medicoRepository.findByUsuario_IdUsuario(1)));
+        assertUsaIndice("usuario_correo_key", plan(() -> usuarioRepository.findByCorreo("ana@healpoint.com")));
+    }
+
+    @Test
+    void historialDeUnaCitaUsaLaRestriccionUnica() {
+        assertUsaIndice("historial_medico_id_cita_key", plan(() -> historialRepository.findByIdCita(1L)));
+    }
+
+    @Test
+    void auditoriaPorFechasSoloLeeLasParticionesDelRango() {
+        // La migración crea las particiones del mes actual y de los tres siguientes
+        YearMonth mes = YearMonth.now();
+        LocalDateTime inicio = mes.atDay(1).atStartOfDay();
+        LocalDateTime fin = inicio.plusDays(7);
+
+        String sql = ultimaSentencia(() -> monitoriaRepository.streamEntre(inicio, fin).close());
+        String plan = explicarConValores(sql, Timestamp.valueOf(inicio), Timestamp.valueOf(fin));
+
+        assertUsaIndice(particion(mes) + "_fecha", plan);
+        assertFalse(plan.contains(particion(mes.plusMonths(1))), "El plan lee otros meses:\n" + plan);
+        assertFalse(plan.contains("monitoria_default"), "El plan lee la partición por defecto:\n" + plan);
+    }
+
+    @Test
+    void busquedaDeAuditoriaLeeCadaFiltroEnOrdenDesdeSuIndice() {
+        LocalDateTime inicio = YearMonth.now().atDay(1).atStartOfDay();
+        LocalDateTime fin = inicio.plusDays(7);
+        String mes = particion(YearMonth.now());
+
+        assertLeeEnOrden(mes + "_fecha_id_monitoria_idx",
+                plan(() -> monitoriaRepository.buscar(inicio, fin, fin, 0L, null, null, null, 51)));
+        assertLeeEnOrden(mes + "_fecha_id_monitoria_idx",
+                plan(() -> monitoriaRepository.buscar(inicio, fin, fin, 0L, null, "DELETE", null, 51)));
+        assertLeeEnOrden(mes + "_usuario_responsable_fecha_id_monitoria_idx",
+                plan(() -> monitoriaRepository.buscar(inicio, fin, fin, 0L, null, null, 1, 51)));
+        assertLeeEnOrden(mes + "_tabla_afectada_fecha_id_monitoria_idx",
+                plan(() -> monitoriaRepository.buscar(inicio, fin, fin, 0L, "cita", null, null, 51)));
+        assertLeeEnOrden(mes + "_tabla_afectada_fecha_id_monitoria_idx",
+                plan(() -> monitoriaRepository.buscar(inicio, fin, fin, 0L, "cita", "UPDATE", null, 51)));
+    }
+
+    // Un nodo Sort del plan (el Merge Append que une las particiones solo muestra "Sort Key")
+    private static final Pattern NODO_SORT = Pattern.compile("^\\s*(->\\s+)?(Incremental )?Sort\\s+\\(", Pattern.MULTILINE);
+
+    // La página sale del índice ya ordenada y sin unir con usuario
+    private static void assertLeeEnOrden(String indice, String plan) {
+        assertUsaIndice(indice, plan);
+        assertFalse(NODO_SORT.matcher(plan).find(), "El plan ordena todo el rango:\n" + plan);
+        assertFalse(plan.contains("usuario_pkey"), "El plan une con usuario:\n" + plan);
+    }
+
+    private static String particion(YearMonth mes) {
+        return "monitoria_" + mes.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.healpoint.repository;
+
+import com.healpoint.DatosPrueba;
+import com.healpoint.dto.MonitoriaResumenDTO;
+import com.healpoint.entity.Monitoria;
+import com.healpoint.entity.Usuario;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class MonitoriaRepositoryTest {
+
+    private static final LocalDateTime LUNES = LocalDateTime.of(2030, 3, 4, 0, 0);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private MonitoriaRepository monitoriaRepository;
+
+    private Usuario ana;
+    private Usuario luis;
+
+    @BeforeEach
+    void setUp() {
+        DatosPrueba datos = new DatosPrueba(em);
+        ana = datos.paciente().getUsuario();
+        luis = datos.medico("Cardiología").getUsuario();
+
+        // Siete días con cuatro registros cada uno, varios en el mismo instante, más uno
+        // del sistema (sin usuario) y uno fuera del rango
+        for (int dia = 0; dia < 7; dia++) {
+            LocalDateTime fecha = LUNES.plusDays(dia).plusHours(9);
+            registrar("cita", "CREATE", ana, fecha);
+            registrar("cita", "UPDATE", luis, fecha);
+            registrar("usuario", "UPDATE", ana, fecha);
+            registrar("cita", "DELETE", luis, fecha.plusMinutes(30));
+        }
+        registrar("disponibilidad", "CREATE", null, LUNES.plusHours(12));
+        registrar("cita", "CREATE", ana, LUNES.plusDays(10));
+        em.flush();
+        em.clear();
+    }
+
+    private void registrar(String tabla, String accion, Usuario usuario, LocalDateTime fecha) {
+        Monitoria monitoria = new Monitoria(tabla, accion, usuario, "Prueba " + accion + " " + tabla);
+        monitoria.setFecha(fecha);
+        em.persist(monitoria);
+    }
+
+    private List<MonitoriaResumenDTO> recorrer(String tabla, String accion, Integer idUsuario, int limite) {
+        LocalDateTime desde = LUNES;
+        LocalDateTime hasta = LUNES.plusDays(7);
+        List<MonitoriaResumenDTO> todos = new ArrayList<>();
+        LocalDateTime fecha = hasta;
+        Long id = 0L;
+        while (true) {
+            List<MonitoriaResumenDTO> pagina = monitoriaRepository.buscar(
+                    desde, hasta, fecha, id, tabla, accion, idUsuario, limite);
+            todos.addAll(pagina);
+            if (pagina.size() < limite) {
+                return todos;
+            }
+            MonitoriaResumenDTO ultimo = pagina.get(pagina.size() - 1);
+            fecha = ultimo.fecha();
+            id = ultimo.idMonitoria();
+        }
+    }
+
+    @Test
+    void buscar_RecorreTodasLasPaginasDelMasRecienteAlMasAntiguo() {
+        List<MonitoriaResumenDTO> registros = recorrer(null, null, null, 3);
+
+        assertEquals(29, registros.size());
+        Comparator<MonitoriaResumenDTO> orden = Comparator.comparing(MonitoriaResumenDTO::fecha)
+                .thenComparing(MonitoriaResumenDTO::idMonitoria);
+        for (int i = 1; i < registros.size(); i++) {
+            assertTrue(orden.compare(registros.get(i - 1), registros.get(i)) > 0,
+                    "Orden incorrecto entre " + registros.get(i - 1) + " y " + registros.get(i));
+        }
+    }
+
+    @Test
+    void buscar_FiltraPorUsuarioYTabla() {
+        List<MonitoriaResumenDTO> deAnaEnCitas = recorrer("cita", null, ana.getIdUsuario(), 2);
+
+        assertEquals(7, deAnaEnCitas.size());
+        assertTrue(deAnaEnCitas.stream().allMatch(r ->
+                r.idUsuarioResponsable().equals(ana.getIdUsuario()) && r.tablaAfectada().equals("cita")));
+        assertEquals("CREATE", deAnaEnCitas.get(0).accion());
+    }
+
+    @Test
+    void buscar_FiltraPorTablaYAccion() {
+        List<MonitoriaResumenDTO> borrados = recorrer("cita", "DELETE", null, 50);
+
+        assertEquals(7, borrados.size());
+        assertEquals(LUNES.plusDays(6).plusHours(9).plusMinutes(30), borrados.get(0).fecha());
+        assertEquals(luis.getIdUsuario(), borrados.get(0).idUsuarioResponsable());
+    }
+
+    @Test
+    void buscar_IncluyeRegistrosSinUsuario() {
+        List<MonitoriaResumenDTO> creaciones = recorrer("disponibilidad", "CREATE", null, 50);
+
+        assertEquals(1, creaciones.size());
+        assertNull(creaciones.get(0).idUsuarioResponsable());
+    }
+}
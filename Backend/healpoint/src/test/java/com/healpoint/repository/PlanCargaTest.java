@@ -0,0 +1,129 @@
+package com.healpoint.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healpoint.DatosPrueba;
+import com.healpoint.dto.HistorialResumenDTO;
+import com.healpoint.entity.*;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que los listados traigan el grafo que se serializa a JSON con un número
+ * acotado de sentencias SQL, sin importar cuántas filas devuelvan.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class PlanCargaTest {
+
+    private static final int CITAS = 1_000;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    private Paciente paciente;
+    private Medico medico;
+
+    @BeforeEach
+    void setUp() {
+        DatosPrueba datos = new DatosPrueba(em);
+        List<Paciente> pacientes = new ArrayList<>();
+        List<Medico> medicos = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            pacientes.add(datos.paciente());
+            medicos.add(datos.medico("Especialidad " + i));
+        }
+        Estado cancelada = datos.estado("CANCELADA");
+        LocalDate inicio = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < CITAS; i++) {
+            Cita cita = datos.cita(pacientes.get(i % 25), medicos.get((i / 25) % 25),
+                    inicio.plusDays(i / 40), LocalTime.of(8, 0).plusMinutes((i % 40) * 15L),
+                    i % 10 == 0 ? cancelada : datos.getActivo());
+            if (i % 5 == 0) {
+                datos.historial(cita, "Diagnóstico " + i);
+            }
+        }
+        paciente = pacientes.get(0);
+        medico = medicos.get(0);
+        em.flush();
+        em.clear();
+    }
+
+    private Statistics estadisticas() {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        return stats;
+    }
+
+    @Test
+    void findAll_TraeMilCitasYSuGrafoEnUnaSolaConsulta() throws Exception {
+        Statistics stats = estadisticas();
+
+        List<Cita> citas = citaRepository.findAll();
+        String json = mapper.writeValueAsString(citas);
+
+        assertEquals(CITAS, citas.size());
+        assertTrue(json.contains("\"nombreEstado\":\"CANCELADA\""));
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByIdPacienteYMedico_UnaConsultaCadaUno() throws Exception {
+        Statistics stats = estadisticas();
+
+        mapper.writeValueAsString(citaRepository.findByIdPaciente(paciente.getIdPaciente()));
+        mapper.writeValueAsString(citaRepository.findByIdMedico(medico.getId_medico()));
+
+        assertEquals(2, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void historiales_UnaConsultaConElGrafoCompleto() throws Exception {
+        Statistics stats = estadisticas();
+
+        List<HistorialMedico> historiales = historialRepository.findAll();
+        mapper.writeValueAsString(historiales);
+
+        assertEquals(CITAS / 5, historiales.size());
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void resumenDeHistoriales_ProyeccionFiltradaPorPaciente() {
+        Statistics stats = estadisticas();
+
+        List<HistorialResumenDTO> resumen = historialRepository.findResumen(paciente.getIdPaciente());
+
+        // Las citas del primer paciente son las múltiplos de 25, y todas tienen historial
+        assertEquals(CITAS / 25, resumen.size());
+        assertTrue(resumen.stream().allMatch(r -> r.idPaciente().equals(paciente.getIdPaciente())));
+        assertEquals(0, stats.getEntityLoadCount());
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(CITAS / 5, historialRepository.findResumen(null).size());
+    }
+}
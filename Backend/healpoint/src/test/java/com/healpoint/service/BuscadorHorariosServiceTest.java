@@ -0,0 +1,125 @@
+package com.healpoint.service;
+
+import com.healpoint.dto.CitaOcupadaDia;
+import com.healpoint.dto.FranjaDia;
+import com.healpoint.dto.HorarioLibreDTO;
+import com.healpoint.dto.MedicoResumenDTO;
+import com.healpoint.repository.CitaRepository;
+import com.healpoint.repository.DisponibilidadRepository;
+import com.healpoint.repository.MedicoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.*;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BuscadorHorariosServiceTest {
+
+    private static final LocalDate LUNES = LocalDate.of(2030, 3, 4);
+    private static final LocalDate MARTES = LUNES.plusDays(1);
+
+    private MedicoRepository medicoRepository;
+    private DisponibilidadRepository disponibilidadRepository;
+    private CitaRepository citaRepository;
+    private BuscadorHorariosService buscador;
+
+    @BeforeEach
+    void setUp() {
+        medicoRepository = Mockito.mock(MedicoRepository.class);
+        disponibilidadRepository = Mockito.mock(DisponibilidadRepository.class);
+        citaRepository = Mockito.mock(CitaRepository.class);
+
+        // Domingo anterior a las 10:00
+        Clock reloj = Clock.fixed(LUNES.minusDays(1).atTime(10, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        buscador = new BuscadorHorariosService(medicoRepository, disponibilidadRepository, citaRepository, 2, reloj);
+
+        when(medicoRepository.findActivosPorEspecialidad("Cardiología")).thenReturn(List.of(
+                new MedicoResumenDTO(1, "Carlos", "Gomez", "Cardiología"),
+                new MedicoResumenDTO(2, "Luisa", "Martinez", "Cardiología")));
+
+        // Médico 1: lunes de 8:00 a 10:00, con la primera hora ocupada por dos citas
+        franjas(1, new FranjaDia(LUNES, LocalTime.of(8, 0), LocalTime.of(10, 0)));
+        citas(1, new CitaOcupadaDia(LUNES, LocalTime.of(8, 0), 30),
+                new CitaOcupadaDia(LUNES, LocalTime.of(8, 30), 30));
+
+        // Médico 2: lunes de 9:15 a 9:45 y martes desde las 7:00
+        franjas(2, new FranjaDia(LUNES, LocalTime.of(9, 15), LocalTime.of(9, 45)),
+                new FranjaDia(MARTES, LocalTime.of(7, 0), LocalTime.of(12, 0)));
+        citas(2);
+    }
+
+    // Los repositorios simulados respetan el rango de fechas pedido, como la consulta real
+    private void franjas(int idMedico, FranjaDia... franjas) {
+        when(disponibilidadRepository.findFranjasEntre(eq(idMedico), any(), any())).thenAnswer(inv ->
+                Stream.of(franjas).filter(f -> dentro(f.fecha(), inv.getArgument(1), inv.getArgument(2))).toList());
+    }
+
+    private void citas(int idMedico, CitaOcupadaDia... citas) {
+        when(citaRepository.findCitasOcupadasEntre(eq(idMedico), any(), any())).thenAnswer(inv ->
+                Stream.of(citas).filter(c -> dentro(c.fecha(), inv.getArgument(1), inv.getArgument(2))).toList());
+    }
+
+    private static boolean dentro(LocalDate fecha, LocalDate desde, LocalDate hasta) {
+        return !fecha.isBefore(desde) && !fecha.isAfter(hasta);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buscador.detener();
+    }
+
+    private static String resumen(HorarioLibreDTO h) {
+        return h.idMedico() + " " + h.fecha().getDayOfWeek() + " " + h.horaInicio() + "-" + h.horaFin();
+    }
+
+    @Test
+    void devuelveLosPrimerosHorariosEntreTodosLosMedicos() {
+        List<HorarioLibreDTO> horarios = buscador.buscar("Cardiología", LUNES, MARTES, 30, 4);
+
+        assertEquals(List.of(
+                "1 MONDAY 09:00-09:30",
+                "2 MONDAY 09:15-09:45",
+                "1 MONDAY 09:30-10:00",
+                "2 TUESDAY 07:00-07:30"
+        ), horarios.stream().map(BuscadorHorariosServiceTest::resumen).toList());
+        assertEquals("Luisa", horarios.get(1).nombreMedico());
+    }
+
+    @Test
+    void unHorarioDebeCaberCompletoEnLaFranja() {
+        List<HorarioLibreDTO> horarios = buscador.buscar("Cardiología", LUNES, LUNES, 45, 10);
+
+        assertEquals(List.of("1 MONDAY 09:00-09:45"),
+                horarios.stream().map(BuscadorHorariosServiceTest::resumen).toList());
+    }
+
+    @Test
+    void noIncluyeHorariosQueYaPasaron() {
+        Clock reloj = Clock.fixed(LUNES.atTime(9, 10).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        BuscadorHorariosService ahora = new BuscadorHorariosService(
+                medicoRepository, disponibilidadRepository, citaRepository, 2, reloj);
+        try {
+            List<HorarioLibreDTO> horarios = ahora.buscar("Cardiología", LUNES.minusDays(3), LUNES, 30, 10);
+
+            // Médico 1 tiene libre desde las 9:00: el corte de las 9:00 ya pasó y sigue el de las 9:30
+            assertEquals(List.of("2 MONDAY 09:15-09:45", "1 MONDAY 09:30-10:00"),
+                    horarios.stream().map(BuscadorHorariosServiceTest::resumen).toList());
+            verify(disponibilidadRepository).findFranjasEntre(1, LUNES, LUNES);
+        } finally {
+            ahora.detener();
+        }
+    }
+
+    @Test
+    void sinMedicosActivosNoConsultaAgendas() {
+        assertTrue(buscador.buscar("Neurología", LUNES, MARTES, 30, 5).isEmpty());
+        verifyNoInteractions(disponibilidadRepository, citaRepository);
+    }
+}
@@ -0,0 +1,117 @@
+package com.healpoint.service;
+
+import com.healpoint.entity.Estado;
+import com.healpoint.entity.Rol;
+import com.healpoint.repository.EstadoRepository;
+import com.healpoint.repository.RolRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class CacheReferenciaServiceTest {
+
+    private EstadoRepository estadoRepository;
+    private RolRepository rolRepository;
+    private SimpleMeterRegistry registry;
+    private CacheReferenciaService cache;
+
+    private static Estado estado(int id, String nombre) {
+        Estado e = new Estado(nombre, null);
+        e.setIdEstado(id);
+        return e;
+    }
+
+    private static Rol rol(int id, String nombre, Estado estado) {
+        Rol r = new Rol(nombre, null, estado);
+        r.setIdRol(id);
+        return r;
+    }
+
+    @BeforeEach
+    void setUp() {
+        estadoRepository = Mockito.mock(EstadoRepository.class);
+        rolRepository = Mockito.mock(RolRepository.class);
+        registry = new SimpleMeterRegistry();
+
+        Estado activa = estado(2, "ACTIVA");
+        when(estadoRepository.findAll()).thenReturn(List.of(estado(7, "INACTIVO"), activa));
+        when(rolRepository.findAll()).thenReturn(List.of(rol(1, "ADMIN", activa)));
+
+        cache = new CacheReferenciaService(estadoRepository, rolRepository, registry);
+        cache.precargar();
+    }
+
+    @Test
+    void resuelveDesdeMemoriaSinConsultarLaBaseDeDatos() {
+        assertEquals("ACTIVA", cache.estado(2).orElseThrow().getNombreEstado());
+        assertEquals(7, cache.estadoPorNombre("INACTIVO").orElseThrow().getIdEstado());
+        assertEquals("ADMIN", cache.rol(1).orElseThrow().getNombreRol());
+        assertEquals(1, cache.rolPorNombre("ADMIN").orElseThrow().getIdRol());
+        assertSame(cache.estado(2).orElseThrow(), cache.rol(1).orElseThrow().getEstado());
+
+        verify(estadoRepository, times(1)).findAll();
+        verify(estadoRepository, never()).findById(any());
+        verify(rolRepository, never()).findById(any());
+        assertEquals(1.0, cache.getTasaAciertos());
+    }
+
+    @Test
+    void devuelveLosListadosOrdenadosPorId() {
+        assertEquals(List.of(2, 7), cache.estados().stream().map(Estado::getIdEstado).toList());
+    }
+
+    @Test
+    void unFalloConsultaLaBaseDeDatosYNoRecargaSiNoExiste() {
+        when(estadoRepository.findById(99)).thenReturn(Optional.empty());
+
+        assertTrue(cache.estado(99).isEmpty());
+
+        verify(estadoRepository).findById(99);
+        verify(estadoRepository, times(1)).findAll();
+        assertEquals(1.0, registry.get("healpoint.cache.referencia.consultas")
+                .tag("resultado", "fallo").functionCounter().count());
+    }
+
+    @Test
+    void unFalloQueExisteEnLaBaseDeDatosRecargaLaInstantanea() {
+        Estado nuevo = estado(8, "SUSPENDIDO");
+        when(estadoRepository.findById(8)).thenReturn(Optional.of(nuevo));
+        when(estadoRepository.findAll()).thenReturn(List.of(estado(2, "ACTIVA"), estado(7, "INACTIVO"), nuevo));
+
+        assertEquals("SUSPENDIDO", cache.estado(8).orElseThrow().getNombreEstado());
+        assertTrue(cache.estadoPorNombre("SUSPENDIDO").isPresent());
+        verify(estadoRepository, times(1)).findById(8);
+    }
+
+    @Test
+    void recargarPublicaLosCambiosSinModificarLaInstantaneaAnterior() {
+        List<Estado> antes = cache.estados();
+        when(estadoRepository.findAll()).thenReturn(List.of(estado(2, "ACTIVO")));
+
+        cache.recargar();
+
+        assertEquals("ACTIVO", cache.estado(2).orElseThrow().getNombreEstado());
+        assertTrue(cache.estadoPorNombre("ACTIVA").isEmpty());
+        assertEquals(2, antes.size());
+        assertThrows(UnsupportedOperationException.class, () -> cache.estados().add(estado(3, "X")));
+    }
+
+    @Test
+    void guardaCopiasDeLasEntidades() {
+        Estado original = estado(5, "NO_ASISTIO");
+        when(estadoRepository.findAll()).thenReturn(List.of(original));
+        cache.recargar();
+
+        original.setNombreEstado("modificado");
+
+        assertEquals("NO_ASISTIO", cache.estado(5).orElseThrow().getNombreEstado());
+    }
+}
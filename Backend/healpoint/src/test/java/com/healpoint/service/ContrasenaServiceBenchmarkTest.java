@@ -0,0 +1,65 @@
+package com.healpoint.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mide cuántos logins por segundo y por núcleo soporta la verificación de contraseñas
+ * con distintas cantidades de iteraciones, para elegir healpoint.contrasena.iteraciones.
+ * Los logins se lanzan desde más clientes que hilos de cifrado, como en un cambio de
+ * turno; el grupo de cifrado usa todos los núcleos.
+ *
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+public class ContrasenaServiceBenchmarkTest {
+
+    private static final int[] ITERACIONES = {100_000, 310_000, 600_000};
+    private static final int CLIENTES = 32;
+    private static final int LOGINS_POR_CLIENTE = 4;
+
+    @Test
+    void loginsPorSegundoYPorNucleo() throws Exception {
+        int nucleos = Runtime.getRuntime().availableProcessors();
+
+        for (int iteraciones : ITERACIONES) {
+            ContrasenaService contrasenas = new ContrasenaService(
+                    new SimpleMeterRegistry(), iteraciones, nucleos, CLIENTES, 60_000);
+            String hash = contrasenas.cifrar("clave123");
+
+            // Calentamiento
+            logins(contrasenas, hash, CLIENTES);
+            long inicio = System.nanoTime();
+            int total = logins(contrasenas, hash, CLIENTES * LOGINS_POR_CLIENTE);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            contrasenas.detener();
+
+            System.out.printf("verificar | iteraciones=%,7d | %,6.1f logins/s | %,5.1f logins/s por núcleo (%d núcleos)%n",
+                    iteraciones, total / segundos, total / segundos / nucleos, nucleos);
+            assertEquals(CLIENTES * LOGINS_POR_CLIENTE, total);
+        }
+    }
+
+    private int logins(ContrasenaService contrasenas, String hash, int cantidad) throws Exception {
+        ExecutorService clientes = Executors.newFixedThreadPool(CLIENTES);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            resultados.add(clientes.submit(() -> contrasenas.verificar("clave123", hash)));
+        }
+        int correctos = 0;
+        for (Future<Boolean> resultado : resultados) {
+            correctos += resultado.get() ? 1 : 0;
+        }
+        clientes.shutdown();
+        return correctos;
+    }
+}
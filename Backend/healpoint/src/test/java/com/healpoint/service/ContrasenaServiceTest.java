@@ -0,0 +1,101 @@
+package com.healpoint.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContrasenaServiceTest {
+
+    private final List<ContrasenaService> creados = new ArrayList<>();
+
+    private ContrasenaService servicio(int iteraciones, int hilos, int capacidadCola) {
+        ContrasenaService servicio = new ContrasenaService(new SimpleMeterRegistry(), iteraciones, hilos, capacidadCola, 60_000);
+        creados.add(servicio);
+        return servicio;
+    }
+
+    @AfterEach
+    void tearDown() {
+        creados.forEach(ContrasenaService::detener);
+    }
+
+    @Test
+    void laContrasenaCifradaSeVerifica() {
+        ContrasenaService contrasenas = servicio(1_000, 1, 4);
+        String hash = contrasenas.cifrar("clave123");
+
+        assertTrue(hash.startsWith(ContrasenaService.PREFIJO + "1000$"));
+        assertTrue(hash.length() <= 150, "No cabe en usuario.contrasena: " + hash);
+        assertTrue(contrasenas.verificar("clave123", hash));
+        assertFalse(contrasenas.verificar("clave124", hash));
+        assertFalse(contrasenas.necesitaActualizar(hash));
+        // Cada cifrado usa una sal distinta
+        assertNotEquals(hash, contrasenas.cifrar("clave123"));
+    }
+
+    @Test
+    void lasContrasenasEnTextoPlanoSeAceptanYPidenActualizarse() {
+        ContrasenaService contrasenas = servicio(1_000, 1, 4);
+
+        assertTrue(contrasenas.verificar("pac123", "pac123"));
+        assertFalse(contrasenas.verificar("pac12", "pac123"));
+        assertTrue(contrasenas.necesitaActualizar("pac123"));
+    }
+
+    @Test
+    void alSubirLasIteracionesLosHashesAnterioresSiguenSirviendoYPidenActualizarse() {
+        String anterior = servicio(1_000, 1, 4).cifrar("clave123");
+        ContrasenaService actual = servicio(2_000, 1, 4);
+
+        assertTrue(actual.verificar("clave123", anterior));
+        assertTrue(actual.necesitaActualizar(anterior));
+    }
+
+    @Test
+    void losHashesMalFormadosNoSeAceptan() {
+        ContrasenaService contrasenas = servicio(1_000, 1, 4);
+
+        assertFalse(contrasenas.verificar("x", "pbkdf2-sha256$"));
+        assertFalse(contrasenas.verificar("x", "pbkdf2-sha256$abc$AAAA$AAAA"));
+        assertFalse(contrasenas.verificar("x", "pbkdf2-sha256$1000$%%%$AAAA"));
+        assertFalse(contrasenas.verificar(null, "x"));
+    }
+
+    @Test
+    void conLaColaLlenaSeRechazaEnVezDeEsperar() throws Exception {
+        // Un hilo y un lugar en la cola: de tres cálculos simultáneos uno se rechaza
+        ContrasenaService contrasenas = servicio(300_000, 1, 1);
+        ExecutorService clientes = Executors.newFixedThreadPool(3);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<String>> logins = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            logins.add(clientes.submit(() -> {
+                salida.await();
+                return contrasenas.cifrar("clave123");
+            }));
+        }
+        salida.countDown();
+
+        int rechazados = 0;
+        for (Future<String> login : logins) {
+            try {
+                login.get();
+            } catch (ExecutionException e) {
+                assertInstanceOf(ContrasenaService.Saturado.class, e.getCause());
+                rechazados++;
+            }
+        }
+        clientes.shutdown();
+        assertEquals(1, rechazados);
+    }
+}
@@ -0,0 +1,150 @@
+package com.healpoint.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class CoordinadorReservasTest {
+
+    private static final LocalDate LUNES = LocalDate.of(2030, 3, 4);
+
+    private final TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+    private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+    private final IndiceAgendaService indice = Mockito.mock(IndiceAgendaService.class);
+
+    private CoordinadorReservas crear(boolean distribuido) {
+        return new CoordinadorReservas(transactionTemplate, jdbcTemplate, indice, new SimpleMeterRegistry(), 64, distribuido);
+    }
+
+    private int contador;
+
+    @Test
+    void elMismoMedicoYDiaSeEjecutaDeAUno() throws Exception {
+        CoordinadorReservas coordinador = crear(false);
+        ExecutorService hilos = Executors.newFixedThreadPool(16);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int t = 0; t < 16; t++) {
+            tareas.add(hilos.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    // Lectura y escritura no atómicas: solo es correcto si se serializa
+                    coordinador.ejecutar(7, () -> contador = contador + 1, LUNES);
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        hilos.shutdown();
+
+        assertEquals(16 * 2_000, contador);
+    }
+
+    @Test
+    void medicosEnCandadosDistintosAvanzanEnParalelo() throws Exception {
+        CoordinadorReservas coordinador = crear(false);
+        int otroMedico = 2;
+        while (coordinador.indice(otroMedico, LUNES) == coordinador.indice(1, LUNES)) {
+            otroMedico++;
+        }
+        int medicoB = otroMedico;
+
+        CountDownLatch dentroA = new CountDownLatch(1);
+        CountDownLatch terminoB = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+
+        // A no sale hasta que B haya entrado y salido; si B esperara el candado de A se trabaría
+        Future<Boolean> a = hilos.submit(() -> coordinador.ejecutar(1, () -> {
+            dentroA.countDown();
+            try {
+                return terminoB.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, LUNES));
+        dentroA.await();
+        hilos.submit(() -> coordinador.ejecutar(medicoB, () -> {
+            terminoB.countDown();
+            return null;
+        }, LUNES));
+
+        assertTrue(a.get(10, TimeUnit.SECONDS));
+        hilos.shutdown();
+    }
+
+    @Test
+    void reprogramacionesCruzadasNoSeBloqueanMutuamente() throws Exception {
+        CoordinadorReservas coordinador = crear(false);
+        LocalDate martes = LUNES.plusDays(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+
+        Future<?> ida = hilos.submit(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                coordinador.ejecutar(1, () -> null, LUNES, martes);
+            }
+        });
+        Future<?> vuelta = hilos.submit(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                coordinador.ejecutar(1, () -> null, martes, LUNES);
+            }
+        });
+
+        ida.get(30, TimeUnit.SECONDS);
+        vuelta.get(30, TimeUnit.SECONDS);
+        hilos.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enModoDistribuidoTomaUnAdvisoryLockPorDiaDentroDeLaTransaccion() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(new SimpleTransactionStatus()));
+        CoordinadorReservas coordinador = crear(true);
+        LocalDate martes = LUNES.plusDays(1);
+
+        String resultado = coordinador.ejecutar(5, () -> {
+            // La acción ya encuentra los días descartados del índice
+            verify(indice).invalidar(5, LUNES);
+            verify(indice).invalidar(5, martes);
+            return "ok";
+        }, martes, LUNES, martes);
+
+        assertEquals("ok", resultado);
+        var orden = inOrder(jdbcTemplate, indice);
+        orden.verify(jdbcTemplate).query(eq("SELECT pg_advisory_xact_lock(?, ?)"), any(RowCallbackHandler.class),
+                eq(5), eq((int) LUNES.toEpochDay()));
+        orden.verify(jdbcTemplate).query(eq("SELECT pg_advisory_xact_lock(?, ?)"), any(RowCallbackHandler.class),
+                eq(5), eq((int) martes.toEpochDay()));
+        orden.verify(indice).invalidar(5, LUNES);
+        orden.verify(indice).invalidar(5, martes);
+        verifyNoMoreInteractions(jdbcTemplate, indice);
+    }
+
+    @Test
+    void sinModoDistribuidoNoSeDescartaElIndice() {
+        crear(false).ejecutar(5, () -> "ok", LUNES);
+
+        verifyNoInteractions(indice, transactionTemplate, jdbcTemplate);
+    }
+
+    @Test
+    void laCantidadDeCandadosSeRedondeaAPotenciaDeDos() {
+        assertEquals(64, crear(false).getCantidadCandados());
+        assertEquals(128, new CoordinadorReservas(transactionTemplate, jdbcTemplate, indice,
+                new SimpleMeterRegistry(), 100, false).getCantidadCandados());
+    }
+}
@@ -0,0 +1,122 @@
+package com.healpoint.service;
+
+import com.healpoint.Microbenchmark;
+import com.healpoint.entity.*;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mide la latencia de DisponibilidadService.medicoDisponible a medida que crece el
+ * historial de disponibilidades del médico. Con la consulta acotada por
+ * (id_medico, fecha, hora) la latencia debe mantenerse plana. Los resultados quedan en
+ * target/benchmarks/DisponibilidadServiceBenchmarkTest.json.
+ *
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(DisponibilidadService.class)
+public class DisponibilidadServiceBenchmarkTest {
+
+    private static final int[] TAMANOS_HISTORIAL = {1_000, 10_000, 50_000};
+    // Horas consultadas: dentro de la franja del día, en sus bordes y fuera de ella
+    private static final LocalTime[] HORAS = {
+            LocalTime.of(9, 0), LocalTime.of(8, 0), LocalTime.of(12, 0), LocalTime.of(14, 30)};
+    private static final LocalDate FECHA = LocalDate.of(2030, 1, 10);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DisponibilidadService disponibilidadService;
+
+    private static Microbenchmark benchmark;
+
+    private Integer idMedico;
+    private int consulta;
+
+    @BeforeAll
+    static void iniciar() {
+        benchmark = new Microbenchmark(DisponibilidadServiceBenchmarkTest.class.getSimpleName());
+    }
+
+    @AfterAll
+    static void escribir() {
+        benchmark.escribir();
+    }
+
+    @BeforeEach
+    void setUp() {
+        Estado activo = em.persist(new Estado("ACTIVA", null));
+        Rol rol = em.persist(new Rol("Medico", null, activo));
+        Usuario usuario = em.persist(new Usuario("Carlos", "Gomez", "medico@healpoint.com", "Calle 3",
+                "3011111111", LocalDate.of(1985, 3, 10), "med123", rol, activo));
+
+        Medico medico = new Medico();
+        medico.setEspecialidad("Medicina General");
+        medico.setEstado(activo);
+        medico.setUsuario(usuario);
+        idMedico = em.persist(medico).getId_medico();
+        em.flush();
+    }
+
+    @Test
+    void latenciaPlanaAlCrecerElHistorial() {
+        int insertadas = 0;
+        List<Double> latencias = new ArrayList<>();
+
+        for (int tamano : TAMANOS_HISTORIAL) {
+            insertarHistorial(insertadas, tamano - insertadas);
+            insertadas = tamano;
+
+            latencias.add(benchmark.medir("medicoDisponible", Map.of("historial", String.valueOf(tamano)),
+                    () -> disponibilidadService.medicoDisponible(idMedico, FECHA, HORAS[consulta++ & 3])).nanosPorOperacion());
+        }
+
+        double primera = latencias.get(0);
+        double ultima = latencias.get(latencias.size() - 1);
+        assertTrue(ultima < primera * 3,
+                "La latencia creció con el historial: " + latencias);
+    }
+
+    // Días pasados con una franja cada uno, más la franja del día consultado
+    private void insertarHistorial(int desde, int cantidad) {
+        List<Object[]> filas = new ArrayList<>(cantidad + 1);
+        for (int i = desde; i < desde + cantidad; i++) {
+            filas.add(new Object[]{idMedico, Date.valueOf(FECHA.minusDays(i + 1)),
+                    Time.valueOf(LocalTime.of(8, 0)), Time.valueOf(LocalTime.of(12, 0))});
+        }
+        if (desde == 0) {
+            filas.add(new Object[]{idMedico, Date.valueOf(FECHA),
+                    Time.valueOf(LocalTime.of(8, 0)), Time.valueOf(LocalTime.of(12, 0))});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO disponibilidad (id_disponibilidad, id_medico, fecha, hora_inicio, hora_fin) " +
+                        "VALUES (NEXT VALUE FOR disponibilidad_id_disponibilidad_seq, ?, ?, ?, ?)",
+                filas);
+    }
+}
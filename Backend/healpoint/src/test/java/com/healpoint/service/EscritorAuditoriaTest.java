@@ -0,0 +1,232 @@
+package com.healpoint.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.time.LocalDateTime;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EscritorAuditoriaTest {
+
+    private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+    private final Secuencias secuencias = Mockito.mock(Secuencias.class);
+    private final ResumenAuditoriaService resumen = Mockito.mock(ResumenAuditoriaService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Integer> lotes = new CopyOnWriteArrayList<>();
+    private final AtomicLong secuencia = new AtomicLong();
+    private EscritorAuditoria escritor;
+
+    private EscritorAuditoria crear(int capacidad, int tamanoLote, long intervaloMs,
+                                    EscritorAuditoria.PoliticaColaLlena politica) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    lotes.add(((Collection<?>) inv.getArgument(1)).size());
+                    return new int[0][];
+                });
+        // Secuencia que avanza de 50 en 50 y empieza en 1, como la de PostgreSQL
+        when(secuencias.bloque(EscritorAuditoria.SECUENCIA)).thenReturn(new Secuencias.Bloque(
+                () -> secuencia.getAndAdd(Secuencias.TAMANO_BLOQUE) + 1, Secuencias.TAMANO_BLOQUE));
+        escritor = new EscritorAuditoria(jdbcTemplate, secuencias, resumen, registry, capacidad, tamanoLote, intervaloMs, politica, 50);
+        return escritor;
+    }
+
+    private static EventoAuditoria evento(int i) {
+        return new EventoAuditoria("cita", "CREATE", 1, "Se creó la cita ID " + i, LocalDateTime.now());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (escritor != null) {
+            escritor.detener();
+        }
+    }
+
+    @Test
+    void escribeEnLotesAlCompletarElTamano() throws Exception {
+        crear(1_000, 10, 60_000, EscritorAuditoria.PoliticaColaLlena.BLOQUEAR).iniciar();
+
+        for (int i = 0; i < 25; i++) {
+            escritor.encolar(evento(i));
+        }
+
+        esperarHasta(() -> lotes.stream().mapToInt(Integer::intValue).sum() >= 20);
+        assertTrue(lotes.stream().allMatch(n -> n <= 10));
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    void escribeAlCumplirseElIntervalo() throws Exception {
+        crear(1_000, 100, 50, EscritorAuditoria.PoliticaColaLlena.BLOQUEAR).iniciar();
+
+        escritor.encolar(evento(1));
+
+        esperarHasta(() -> !lotes.isEmpty());
+        assertEquals(List.of(1), lotes);
+        assertEquals(0, escritor.getTamanoCola());
+    }
+
+    // En las pruebas de cola llena no se inicia el hilo, para que la cola no se vacíe
+    @Test
+    void descartaCuandoLaColaEstaLlena() {
+        crear(3, 100, 60_000, EscritorAuditoria.PoliticaColaLlena.DESCARTAR);
+
+        for (int i = 0; i < 5; i++) {
+            escritor.encolar(evento(i));
+        }
+
+        assertEquals(3, escritor.getTamanoCola());
+        assertEquals(2.0, registry.get("healpoint.auditoria.eventos").tag("resultado", "descartado").counter().count());
+
+        // En el resumen por hora solo se cuentan los eventos que se escribieron
+        escritor.vaciar();
+        verify(resumen, times(3)).registrar(eq("cita"), eq("CREATE"), any());
+    }
+
+    @Test
+    void escribeDirectamenteConPoliticaSincrona() {
+        crear(2, 100, 60_000, EscritorAuditoria.PoliticaColaLlena.SINCRONO);
+
+        for (int i = 0; i < 4; i++) {
+            escritor.encolar(evento(i));
+        }
+
+        assertEquals(2, escritor.getTamanoCola());
+        assertEquals(List.of(1, 1), lotes);
+    }
+
+    @Test
+    void vaciaLaColaAlDetenerse() {
+        crear(1_000, 100, 60_000, EscritorAuditoria.PoliticaColaLlena.BLOQUEAR).iniciar();
+
+        for (int i = 0; i < 7; i++) {
+            escritor.encolar(evento(i));
+        }
+        escritor.detener();
+        escritor = null;
+
+        assertEquals(7, lotes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void noSePierdenEventosEncoladosMientrasSeDetiene() throws Exception {
+        int hilos = 4;
+        int porHilo = 500;
+        for (int ronda = 0; ronda < 50; ronda++) {
+            lotes.clear();
+            crear(10_000, 10_000, 60_000, EscritorAuditoria.PoliticaColaLlena.BLOQUEAR);
+            EscritorAuditoria actual = escritor;
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Thread> productores = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                Thread t = new Thread(() -> {
+                    try {
+                        salida.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < porHilo; i++) {
+                        actual.encolar(evento(i));
+                    }
+                });
+                t.start();
+                productores.add(t);
+            }
+
+            salida.countDown();
+            actual.detener();
+            for (Thread t : productores) {
+                t.join();
+            }
+
+            assertEquals(hilos * porHilo, lotes.stream().mapToInt(Integer::intValue).sum(), "Ronda " + ronda);
+            assertEquals(0, actual.getTamanoCola());
+        }
+        escritor = null;
+    }
+
+    @Test
+    void reintentaUnoPorUnoSiFallaElLote() {
+        crear(1_000, 100, 60_000, EscritorAuditoria.PoliticaColaLlena.BLOQUEAR);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("fk"));
+
+        escritor.encolar(evento(1));
+        escritor.encolar(evento(2));
+        escritor.vaciar();
+
+        verify(jdbcTemplate, times(2)).update(eq(EscritorAuditoria.SQL_INSERTAR),
+                any(PreparedStatementSetter.class));
+        verify(resumen, times(2)).registrar(eq("cita"), eq("CREATE"), any());
+    }
+
+    @Test
+    void losEventosQueNoSeEscribenNoSeCuentanEnElResumen() {
+        crear(1_000, 100, 60_000, EscritorAuditoria.PoliticaColaLlena.BLOQUEAR);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("fk"));
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("fk"));
+
+        escritor.encolar(evento(1));
+        escritor.encolar(evento(2));
+        escritor.vaciar();
+
+        assertEquals(1.0, registry.get("healpoint.auditoria.eventos").tag("resultado", "fallido").counter().count());
+        verify(resumen, times(1)).registrar(eq("cita"), eq("CREATE"), any());
+    }
+
+    @Test
+    void tomaLosIdsDeBloquesDeLaSecuencia() throws Exception {
+        List<Long> ids = new CopyOnWriteArrayList<>();
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+        doAnswer(inv -> ids.add(inv.getArgument(1))).when(ps).setLong(eq(1), anyLong());
+        crear(1_000, 40, 60_000, EscritorAuditoria.PoliticaColaLlena.BLOQUEAR);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    ParameterizedPreparedStatementSetter<Object> asignar = inv.getArgument(3);
+                    for (Object fila : inv.<Collection<?>>getArgument(1)) {
+                        asignar.setValues(ps, fila);
+                    }
+                    return new int[0][];
+                });
+
+        for (int i = 0; i < 120; i++) {
+            escritor.encolar(evento(i));
+        }
+        escritor.vaciar();
+
+        // Cuatro nextval (1, 51, 101 y 151) para 120 eventos: el 1 solo da un ID
+        List<Long> esperados = new ArrayList<>();
+        for (long id = 1; id <= 120; id++) {
+            esperados.add(id);
+        }
+        assertEquals(esperados, ids);
+        assertEquals(4 * Secuencias.TAMANO_BLOQUE, secuencia.get());
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "Tiempo de espera agotado");
+            Thread.sleep(10);
+        }
+    }
+}
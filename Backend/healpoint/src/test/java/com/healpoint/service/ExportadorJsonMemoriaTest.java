@@ -0,0 +1,161 @@
+package com.healpoint.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.healpoint.HealpointApplication;
+import com.healpoint.repository.MonitoriaRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Escribe un millón de registros de monitoría en streaming dentro de una JVM con poca
+ * memoria. Con la lista completa en memoria (como antes) no caben: cada entidad con su
+ * contexto de persistencia ocupa varios cientos de bytes, y además el JSON completo.
+ *
+ * La prueba lanza otra JVM con -Xmx pequeño que arranca la aplicación sobre H2, reemplaza
+ * la tabla monitoria por una vista que genera las filas (así la base no ocupa memoria) y
+ * recorre el JSON a medida que se escribe, contando los elementos.
+ */
+public class ExportadorJsonMemoriaTest {
+
+    private static final int FILAS = 1_000_000;
+    private static final String MEMORIA_MAXIMA = "-Xmx96m";
+
+    @Test
+    void unMillonDeFilasCabeEnPocaMemoria() throws Exception {
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        Process proceso = new ProcessBuilder(List.of(
+                java.toString(), MEMORIA_MAXIMA, "-XX:+UseSerialGC",
+                // devtools relanzaría main en otro hilo sin los argumentos
+                "-Dspring.devtools.restart.enabled=false",
+                "-cp", System.getProperty("java.class.path"),
+                Hijo.class.getName(), String.valueOf(FILAS)))
+                .redirectErrorStream(true)
+                .start();
+
+        CompletableFuture<String> salida = CompletableFuture.supplyAsync(() -> {
+            try (InputStream entrada = proceso.getInputStream()) {
+                return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                return e.toString();
+            }
+        });
+
+        if (!proceso.waitFor(5, TimeUnit.MINUTES)) {
+            proceso.destroyForcibly();
+            fail("La exportación no terminó en 5 minutos");
+        }
+        String log = salida.get(10, TimeUnit.SECONDS);
+        String resumen = log.lines().filter(l -> l.startsWith("RESULTADO ")).findFirst().orElse(null);
+
+        assertEquals(0, proceso.exitValue(), "La JVM hija falló:\n" + ultimasLineas(log));
+        assertNotNull(resumen, ultimasLineas(log));
+        System.out.println(resumen);
+        assertTrue(resumen.contains("filas=" + FILAS + " "), resumen);
+    }
+
+    private static String ultimasLineas(String log) {
+        List<String> lineas = log.lines().toList();
+        return String.join("\n", lineas.subList(Math.max(0, lineas.size() - 40), lineas.size()));
+    }
+
+    /**
+     * Programa que se ejecuta en la JVM con poca memoria.
+     */
+    public static class Hijo {
+
+        public static void main(String[] args) throws Exception {
+            int filas = Integer.parseInt(args[0]);
+
+            ConfigurableApplicationContext contexto = new SpringApplicationBuilder(HealpointApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .run(
+                            // Consultas perezosas: H2 no arma el resultado completo antes de devolverlo
+                            "--spring.datasource.url=jdbc:h2:mem:streaming;LAZY_QUERY_EXECUTION=TRUE;DB_CLOSE_DELAY=-1",
+                            "--spring.datasource.driver-class-name=org.h2.Driver",
+                            "--spring.datasource.username=sa",
+                            "--spring.datasource.password=",
+                            "--logging.level.root=WARN");
+
+            JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+            jdbcTemplate.execute("DROP TABLE monitoria");
+            jdbcTemplate.execute("CREATE VIEW monitoria AS SELECT "
+                    + "CAST(X AS INTEGER) AS id_monitoria, "
+                    + "CAST('cita' AS VARCHAR(100)) AS tabla_afectada, "
+                    + "CAST('CREATE' AS VARCHAR(50)) AS accion, "
+                    + "DATEADD(SECOND, X, TIMESTAMP '2030-01-01 00:00:00') AS fecha, "
+                    + "CAST(NULL AS INTEGER) AS usuario_responsable, "
+                    + "'Se creó la cita ID ' || X AS descripcion "
+                    + "FROM SYSTEM_RANGE(1, " + filas + ")");
+
+            ExportadorJson exportador = contexto.getBean(ExportadorJson.class);
+            MonitoriaRepository repositorio = contexto.getBean(MonitoriaRepository.class);
+
+            // El JSON se lee mientras se escribe, en otro hilo, sin guardarlo completo
+            PipedInputStream entrada = new PipedInputStream(64 * 1024);
+            PipedOutputStream salida = new PipedOutputStream(entrada);
+            CompletableFuture<Long> contados = CompletableFuture.supplyAsync(() -> contarElementos(entrada));
+
+            long inicio = System.nanoTime();
+            try (OutputStream s = salida) {
+                exportador.escribir(repositorio::streamTodas, s);
+            }
+            long elementos = contados.get();
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            System.out.printf("RESULTADO filas=%d segundos=%.1f pico heap=%d MB de %d MB%n",
+                    elementos, segundos, picoHeap() / (1024 * 1024),
+                    Runtime.getRuntime().maxMemory() / (1024 * 1024));
+            contexto.close();
+            System.exit(0);
+        }
+
+        private static long contarElementos(InputStream entrada) {
+            try (JsonParser parser = new JsonFactory().createParser(entrada)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IllegalStateException("Se esperaba un arreglo JSON");
+                }
+                long elementos = 0;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    elementos++;
+                }
+                return elementos;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static long picoHeap() {
+            long pico = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pico += pool.getPeakUsage().getUsed();
+                }
+            }
+            return pico;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.healpoint.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healpoint.DatosPrueba;
+import com.healpoint.entity.*;
+import com.healpoint.repository.CitaRepository;
+import com.healpoint.repository.HistorialRepository;
+import com.healpoint.repository.MonitoriaRepository;
+import com.healpoint.repository.UsuarioRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Los listados en streaming deben producir exactamente el mismo JSON que la lista
+ * completa que devolvían antes los controladores.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ExportadorJson.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class ExportadorJsonTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ExportadorJson exportador;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private MonitoriaRepository monitoriaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private <T> String exportar(Supplier<Stream<T>> consulta) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportador.escribir(consulta, salida);
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+
+    private void sembrar() {
+        DatosPrueba datos = new DatosPrueba(em);
+        List<Paciente> pacientes = new ArrayList<>();
+        List<Medico> medicos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pacientes.add(datos.paciente());
+            medicos.add(datos.medico("Especialidad " + i));
+        }
+        // Más filas que un bloque, para pasar por las limpiezas del contexto de persistencia
+        int citas = ExportadorJson.FILAS_POR_BLOQUE * 2 + 37;
+        for (int i = 0; i < citas; i++) {
+            Cita cita = datos.cita(pacientes.get(i % 10), medicos.get((i / 10) % 10),
+                    LocalDate.of(2030, 1, 1).plusDays(i / 40), LocalTime.of(8, 0).plusMinutes((i % 40) * 15L),
+                    datos.getActivo());
+            if (i % 3 == 0) {
+                datos.historial(cita, "Diagnóstico " + i);
+            }
+            em.persist(new Monitoria("cita", "CREATE", i % 2 == 0 ? pacientes.get(0).getUsuario() : null,
+                    "Se creó la cita ID " + cita.getId_cita()));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void elJsonEsIgualAlDeLaListaCompleta() throws IOException {
+        sembrar();
+
+        assertEquals(objectMapper.writeValueAsString(citaRepository.findAll()),
+                exportar(citaRepository::streamTodas));
+        em.clear();
+        assertEquals(objectMapper.writeValueAsString(historialRepository.findAll()),
+                exportar(historialRepository::streamTodos));
+        em.clear();
+        assertEquals(objectMapper.writeValueAsString(monitoriaRepository.findAll()),
+                exportar(monitoriaRepository::streamTodas));
+        em.clear();
+        assertEquals(objectMapper.writeValueAsString(usuarioRepository.findAll()),
+                exportar(usuarioRepository::streamTodos));
+    }
+
+    @Test
+    void sinFilasEscribeUnArregloVacio() throws IOException {
+        assertEquals("[]", exportar(monitoriaRepository::streamTodas));
+        assertFalse(monitoriaRepository.existsBy());
+
+        em.persist(new Monitoria("cita", "CREATE", null, "Se creó la cita ID 1"));
+        em.flush();
+        assertTrue(monitoriaRepository.existsBy());
+    }
+}
@@ -0,0 +1,138 @@
+package com.healpoint.service;
+
+import com.healpoint.dto.CitaOcupada;
+import com.healpoint.dto.FranjaHoraria;
+import com.healpoint.repository.CitaRepository;
+import com.healpoint.repository.DisponibilidadRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class IndiceAgendaServiceTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 1, 10);
+
+    private CitaRepository citaRepository;
+    private DisponibilidadRepository disponibilidadRepository;
+    private DisponibilidadService disponibilidadService;
+    private IndiceAgendaService indice;
+
+    @BeforeEach
+    void setUp() {
+        citaRepository = Mockito.mock(CitaRepository.class);
+        disponibilidadRepository = Mockito.mock(DisponibilidadRepository.class);
+        disponibilidadService = Mockito.mock(DisponibilidadService.class);
+        indice = new IndiceAgendaService(citaRepository, disponibilidadRepository, disponibilidadService);
+
+        when(citaRepository.findCitasOcupadas(1, FECHA))
+                .thenReturn(List.of(new CitaOcupada(LocalTime.of(9, 0), 30)));
+        when(disponibilidadRepository.findFranjas(1, FECHA))
+                .thenReturn(List.of(
+                        new FranjaHoraria(LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                        new FranjaHoraria(LocalTime.of(14, 0), LocalTime.of(18, 0))
+                ));
+    }
+
+    @Test
+    void estaOcupado_ConsideraLaDuracionDeLasCitas() {
+        // Cita existente de 9:00 a 9:30
+        assertTrue(indice.estaOcupado(1, FECHA, LocalTime.of(9, 0), 30));
+        assertTrue(indice.estaOcupado(1, FECHA, LocalTime.of(9, 15), 30));
+        assertTrue(indice.estaOcupado(1, FECHA, LocalTime.of(8, 45), 30));
+        assertFalse(indice.estaOcupado(1, FECHA, LocalTime.of(9, 30), 30));
+        assertFalse(indice.estaOcupado(1, FECHA, LocalTime.of(8, 30), 30));
+    }
+
+    @Test
+    void medicoDisponible_RespetaLosLimitesDeLasFranjas() {
+        assertTrue(indice.medicoDisponible(1, FECHA, LocalTime.of(8, 0)));
+        assertTrue(indice.medicoDisponible(1, FECHA, LocalTime.of(12, 0)));
+        assertFalse(indice.medicoDisponible(1, FECHA, LocalTime.of(12, 1)));
+        assertTrue(indice.medicoDisponible(1, FECHA, LocalTime.of(16, 0)));
+        assertFalse(indice.medicoDisponible(1, FECHA, LocalTime.of(13, 0)));
+    }
+
+    @Test
+    void elDiaSeCargaUnaSolaVez() {
+        indice.estaOcupado(1, FECHA, LocalTime.of(9, 0), 30);
+        indice.medicoDisponible(1, FECHA, LocalTime.of(10, 0));
+        indice.estaOcupado(1, FECHA, LocalTime.of(11, 0), 30);
+
+        verify(citaRepository, times(1)).findCitasOcupadas(1, FECHA);
+        verify(disponibilidadRepository, times(1)).findFranjas(1, FECHA);
+    }
+
+    @Test
+    void registrarCita_MarcaLosMinutosSinVolverACargar() {
+        assertFalse(indice.estaOcupado(1, FECHA, LocalTime.of(10, 30), 30));
+
+        indice.registrarCita(1, FECHA, LocalTime.of(10, 30), 45);
+
+        assertTrue(indice.estaOcupado(1, FECHA, LocalTime.of(11, 0), 15));
+        assertFalse(indice.estaOcupado(1, FECHA, LocalTime.of(11, 15), 15));
+        verify(citaRepository, times(1)).findCitasOcupadas(1, FECHA);
+    }
+
+    @Test
+    void invalidar_ObligaARecargarElDia() {
+        indice.estaOcupado(1, FECHA, LocalTime.of(9, 0), 30);
+
+        when(citaRepository.findCitasOcupadas(1, FECHA)).thenReturn(List.of());
+        indice.invalidar(1, FECHA);
+
+        assertFalse(indice.estaOcupado(1, FECHA, LocalTime.of(9, 0), 30));
+        verify(citaRepository, times(2)).findCitasOcupadas(1, FECHA);
+    }
+
+    @Test
+    void horaConSegundos_DisponibilidadSeConsultaEnLaBaseDeDatos() {
+        LocalTime hora = LocalTime.of(10, 0, 30);
+        when(disponibilidadService.medicoDisponible(1, FECHA, hora)).thenReturn(true);
+
+        assertTrue(indice.medicoDisponible(1, FECHA, hora));
+        verify(disponibilidadRepository, never()).findFranjas(any(), any());
+    }
+
+    @Test
+    void horaConSegundos_OcupacionSeRedondeaHaciaAfuera() {
+        // 9:29:30 por 1 minuto ocupa los minutos 9:29 y 9:30, y el primero se cruza con la cita de 9:00
+        assertTrue(indice.estaOcupado(1, FECHA, LocalTime.of(9, 29, 30), 1));
+        assertFalse(indice.estaOcupado(1, FECHA, LocalTime.of(9, 30, 30), 1));
+    }
+
+    @Test
+    void elIndiceNoCreceSinLimiteConDiasFuturos() {
+        Clock reloj = Clock.fixed(FECHA.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        indice = new IndiceAgendaService(citaRepository, disponibilidadRepository, disponibilidadService, 100, reloj);
+
+        indice.estaOcupado(1, FECHA.minusDays(1), LocalTime.of(9, 0), 30);
+        for (int i = 0; i < 500; i++) {
+            indice.estaOcupado(1, FECHA.plusDays(i), LocalTime.of(9, 0), 30);
+        }
+        // Entre dos purgas como máximo el doble; el resto se consulta sin guardarse
+        assertEquals(200, indice.getDias());
+
+        indice.purgar();
+        assertEquals(90, indice.getDias());
+
+        // Se conservan los días más cercanos a hoy y se descartan el pasado y los lejanos
+        indice.estaOcupado(1, FECHA, LocalTime.of(10, 0), 30);
+        indice.estaOcupado(1, FECHA.plusDays(89), LocalTime.of(10, 0), 30);
+        indice.estaOcupado(1, FECHA.minusDays(1), LocalTime.of(10, 0), 30);
+        indice.estaOcupado(1, FECHA.plusDays(150), LocalTime.of(10, 0), 30);
+        verify(citaRepository, times(1)).findCitasOcupadas(1, FECHA);
+        verify(citaRepository, times(1)).findCitasOcupadas(1, FECHA.plusDays(89));
+        verify(citaRepository, times(2)).findCitasOcupadas(1, FECHA.minusDays(1));
+        verify(citaRepository, times(2)).findCitasOcupadas(1, FECHA.plusDays(150));
+    }
+}
@@ -0,0 +1,69 @@
+package com.healpoint.service;
+
+import com.healpoint.service.Intervalos.Intervalo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntervalosTest {
+
+    private static Intervalo i(int inicio, int fin) {
+        return new Intervalo(inicio, fin);
+    }
+
+    @Test
+    void unir_JuntaLosQueSeCruzanOSeTocan() {
+        assertEquals(List.of(i(0, 30), i(40, 60)),
+                Intervalos.unir(List.of(i(0, 10), i(5, 20), i(20, 30), i(40, 50), i(45, 60))));
+        assertEquals(List.of(i(0, 100)), Intervalos.unir(List.of(i(0, 100), i(10, 20))));
+        assertEquals(List.of(), Intervalos.unir(List.of(i(10, 10))));
+    }
+
+    @Test
+    void restar_QuitaLasCitasDeLasFranjas() {
+        List<Intervalo> franjas = List.of(i(480, 720), i(840, 1080));
+        List<Intervalo> citas = List.of(i(450, 500), i(540, 570), i(700, 860), i(1080, 1110));
+
+        assertEquals(List.of(i(500, 540), i(570, 700), i(860, 1080)), Intervalos.restar(franjas, citas));
+    }
+
+    @Test
+    void restar_CitaQueCubreVariasFranjas() {
+        assertEquals(List.of(i(0, 10), i(90, 100)),
+                Intervalos.restar(List.of(i(0, 20), i(30, 40), i(50, 100)), List.of(i(10, 90))));
+    }
+
+    @Test
+    void restar_CoincideConLaRestaMinutoAMinuto() {
+        Random random = new Random(7);
+        for (int caso = 0; caso < 500; caso++) {
+            List<Intervalo> base = aleatorios(random, 4);
+            List<Intervalo> ocupados = aleatorios(random, 8);
+
+            boolean[] esperado = new boolean[1440];
+            base.forEach(b -> { for (int m = b.inicio(); m < b.fin(); m++) esperado[m] = true; });
+            ocupados.forEach(o -> { for (int m = o.inicio(); m < o.fin(); m++) esperado[m] = false; });
+
+            boolean[] obtenido = new boolean[1440];
+            List<Intervalo> libres = Intervalos.restar(Intervalos.unir(base), Intervalos.unir(ocupados));
+            libres.forEach(l -> { for (int m = l.inicio(); m < l.fin(); m++) obtenido[m] = true; });
+
+            assertArrayEquals(esperado, obtenido, "caso " + caso);
+            assertEquals(Intervalos.unir(libres), libres);
+        }
+    }
+
+    private static List<Intervalo> aleatorios(Random random, int cantidad) {
+        List<Intervalo> lista = new ArrayList<>();
+        for (int k = 0; k < cantidad; k++) {
+            int inicio = random.nextInt(1400);
+            lista.add(i(inicio, Math.min(1440, inicio + 1 + random.nextInt(40 * (k % 3 + 1)))));
+        }
+        lista.sort((a, b) -> Integer.compare(a.inicio(), b.inicio()));
+        return lista;
+    }
+}
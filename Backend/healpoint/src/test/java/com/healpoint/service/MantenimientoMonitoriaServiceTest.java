@@ -0,0 +1,134 @@
+package com.healpoint.service;
+
+import com.healpoint.service.MantenimientoMonitoriaService.AccionRetencion;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Creación y retención de las particiones mensuales de monitoría sobre un PostgreSQL
+ * real con las migraciones aplicadas. Se usan meses lejanos para no chocar con las
+ * particiones que la migración crea alrededor de la fecha actual.
+ *
+ * Requiere Docker; si no está disponible la prueba se omite.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.properties.hibernate.hbm2ddl.schema_filter_provider="
+                + "com.healpoint.repository.MigracionesPostgresTest$SinTablasDeBenchmark"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class MantenimientoMonitoriaServiceTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final LocalDate HOY = LocalDate.of(2041, 6, 15);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MantenimientoMonitoriaService servicio(int retencionMeses, AccionRetencion accion) {
+        return new MantenimientoMonitoriaService(jdbcTemplate, 3, retencionMeses, accion);
+    }
+
+    private void insertar(LocalDateTime fecha) {
+        jdbcTemplate.update("INSERT INTO monitoria (tabla_afectada, accion, fecha, descripcion) VALUES ('cita', 'CREATE', ?, 'prueba')",
+                Timestamp.valueOf(fecha));
+    }
+
+    // Tabla física en la que quedó guardado el registro con esa fecha
+    private String particionDe(LocalDateTime fecha) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM monitoria WHERE fecha = ?",
+                String.class, Timestamp.valueOf(fecha));
+    }
+
+    private boolean existeTabla(String nombre) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, nombre);
+    }
+
+    @Test
+    void creaElMesActualYLosSiguientes() {
+        servicio(0, AccionRetencion.DESACOPLAR).mantener(HOY);
+
+        assertEquals(List.of(YearMonth.of(2041, 6), YearMonth.of(2041, 7), YearMonth.of(2041, 8), YearMonth.of(2041, 9)),
+                List.copyOf(servicio(0, AccionRetencion.DESACOPLAR).particiones()
+                        .subMap(YearMonth.of(2041, 1), YearMonth.of(2042, 1)).keySet()));
+
+        LocalDateTime fecha = LocalDateTime.of(2041, 8, 31, 23, 59);
+        insertar(fecha);
+        assertEquals("monitoria_2041_08", particionDe(fecha));
+    }
+
+    @Test
+    void lasFilasQueLlegaronAlDefaultSeMuevenAlCrearLaParticion() {
+        LocalDateTime fecha = LocalDateTime.of(2045, 3, 10, 8, 30);
+        insertar(fecha);
+        assertEquals("monitoria_default", particionDe(fecha));
+
+        servicio(0, AccionRetencion.DESACOPLAR).crearParticion(YearMonth.of(2045, 3));
+
+        assertEquals("monitoria_2045_03", particionDe(fecha));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM monitoria_default", Integer.class));
+    }
+
+    @Test
+    void crearUnaParticionExistenteNoHaceNada() {
+        MantenimientoMonitoriaService servicio = servicio(0, AccionRetencion.DESACOPLAR);
+        servicio.crearParticion(YearMonth.of(2046, 1));
+        insertar(LocalDateTime.of(2046, 1, 5, 10, 0));
+
+        servicio.crearParticion(YearMonth.of(2046, 1));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM monitoria_2046_01", Integer.class));
+    }
+
+    @Test
+    void laRetencionDesacoplaLosMesesViejosSinBorrarlos() {
+        MantenimientoMonitoriaService servicio = servicio(12, AccionRetencion.DESACOPLAR);
+        servicio.crearParticion(YearMonth.of(2040, 5));
+        servicio.crearParticion(YearMonth.of(2040, 6));
+        insertar(LocalDateTime.of(2040, 5, 20, 9, 0));
+        insertar(LocalDateTime.of(2040, 6, 1, 0, 0));
+
+        // Con 12 meses de retención en junio de 2041 se conserva desde julio de 2040
+        assertEquals(List.of("monitoria_2040_05", "monitoria_2040_06"),
+                servicio.mantener(HOY).stream().filter(n -> n.startsWith("monitoria_2040")).toList());
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM monitoria WHERE fecha < '2040-07-01'", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM monitoria_2040_05", Integer.class));
+        assertFalse(servicio.particiones().containsKey(YearMonth.of(2040, 6)));
+    }
+
+    @Test
+    void laRetencionPuedeBorrarLosMesesViejos() {
+        MantenimientoMonitoriaService servicio = servicio(12, AccionRetencion.ELIMINAR);
+        servicio.crearParticion(YearMonth.of(2040, 1));
+        servicio.crearParticion(YearMonth.of(2040, 7));
+        insertar(LocalDateTime.of(2040, 1, 2, 12, 0));
+
+        servicio.mantener(HOY);
+
+        assertFalse(existeTabla("monitoria_2040_01"));
+        // Julio de 2040 está dentro de los 12 meses
+        assertTrue(servicio.particiones().containsKey(YearMonth.of(2040, 7)));
+    }
+}
@@ -0,0 +1,237 @@
+package com.healpoint.service;
+
+import com.healpoint.dto.CitaOcupada;
+import com.healpoint.dto.FranjaHoraria;
+import com.healpoint.dto.ResultadoCitaLoteDTO;
+import com.healpoint.dto.ResultadoLoteDTO;
+import com.healpoint.entity.*;
+import com.healpoint.repository.CitaRepository;
+import com.healpoint.repository.DisponibilidadRepository;
+import com.healpoint.repository.MedicoRepository;
+import com.healpoint.repository.PacienteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ReservaLoteServiceTest {
+
+    private static final LocalDate FECHA = LocalDate.now().plusDays(3);
+
+    private CitaRepository citaRepository;
+    private JdbcTemplate jdbcTemplate;
+    private MonitoriaService monitoriaService;
+    private PacienteRepository pacienteRepository;
+    private MedicoRepository medicoRepository;
+    private CacheReferenciaService cacheReferencia;
+    private Secuencias secuencias;
+    private IndiceAgendaService indice;
+    private ReservaLoteService servicio;
+
+    @BeforeEach
+    void setUp() {
+        citaRepository = Mockito.mock(CitaRepository.class);
+        DisponibilidadRepository disponibilidadRepository = Mockito.mock(DisponibilidadRepository.class);
+        pacienteRepository = Mockito.mock(PacienteRepository.class);
+        medicoRepository = Mockito.mock(MedicoRepository.class);
+        cacheReferencia = Mockito.mock(CacheReferenciaService.class);
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        monitoriaService = Mockito.mock(MonitoriaService.class);
+
+        indice = new IndiceAgendaService(citaRepository, disponibilidadRepository,
+                Mockito.mock(DisponibilidadService.class));
+        CoordinadorReservas coordinador = new CoordinadorReservas(
+                null, null, indice, new SimpleMeterRegistry(), 16, false);
+
+        // Médico 1 atiende de 8:00 a 12:00 y ya tiene una cita de 9:00 a 9:30
+        when(citaRepository.findCitasOcupadas(1, FECHA))
+                .thenReturn(List.of(new CitaOcupada(LocalTime.of(9, 0), 30)));
+        when(disponibilidadRepository.findFranjas(1, FECHA))
+                .thenReturn(List.of(new FranjaHoraria(LocalTime.of(8, 0), LocalTime.of(12, 0))));
+
+        when(pacienteRepository.findIdsExistentes(anyCollection())).thenReturn(List.of(1));
+        when(medicoRepository.findIdsExistentes(anyCollection())).thenReturn(List.of(1));
+        Estado activa = new Estado("ACTIVA", null);
+        activa.setIdEstado(2);
+        when(cacheReferencia.estado(2)).thenReturn(Optional.of(activa));
+
+        secuencias = Mockito.mock(Secuencias.class);
+        AtomicLong secuencia = new AtomicLong();
+        when(secuencias.bloque("cita_id_cita_seq")).thenReturn(new Secuencias.Bloque(
+                () -> secuencia.addAndGet(Secuencias.TAMANO_BLOQUE), Secuencias.TAMANO_BLOQUE));
+
+        servicio = new ReservaLoteService(pacienteRepository, medicoRepository, cacheReferencia, indice,
+                coordinador, monitoriaService, jdbcTemplate, secuencias,
+                Mockito.mock(PlatformTransactionManager.class));
+    }
+
+    private static Cita cita(int idPaciente, LocalTime hora) {
+        Paciente p = new Paciente();
+        p.setIdPaciente(idPaciente);
+        Medico m = new Medico();
+        m.setId_medico(1);
+        Estado e = new Estado();
+        e.setIdEstado(2);
+
+        Cita c = new Cita();
+        c.setPaciente(p);
+        c.setMedico(m);
+        c.setEstado(e);
+        c.setFecha(FECHA);
+        c.setHora(hora);
+        return c;
+    }
+
+    private static List<Cita> loteMixto() {
+        List<Cita> lote = new ArrayList<>();
+        lote.add(cita(1, LocalTime.of(8, 0)));    // 0: se crea
+        lote.add(cita(99, LocalTime.of(8, 0)));   // 1: paciente inexistente
+        lote.add(cita(1, LocalTime.of(10, 0)));   // 2: se crea
+        lote.add(cita(1, LocalTime.of(10, 15)));  // 3: se cruza con la 2 del mismo lote
+        lote.add(cita(1, LocalTime.of(9, 15)));   // 4: se cruza con la cita existente
+        lote.add(cita(1, LocalTime.of(13, 0)));   // 5: fuera de la disponibilidad
+        lote.add(cita(1, null));                  // 6: datos incompletos
+        return lote;
+    }
+
+    private static DataIntegrityViolationException solapamiento() {
+        return new DataIntegrityViolationException("cita_sin_solapamiento",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConnectionCallback<List<Long>> insercion() {
+        return any(ConnectionCallback.class);
+    }
+
+    @Test
+    void creaLasValidasYReportaCadaRechazo() {
+        when(jdbcTemplate.execute(insercion())).thenReturn(List.of(100L, 101L));
+
+        ResultadoLoteDTO resultado = servicio.crear(loteMixto(), 5);
+
+        assertEquals(2, resultado.creadas());
+        assertEquals(5, resultado.rechazadas());
+        assertEquals(List.of(201, 400, 201, 409, 409, 409, 400),
+                resultado.resultados().stream().map(ResultadoCitaLoteDTO::estado).toList());
+        assertEquals(100, resultado.resultados().get(0).idCita());
+        assertEquals(101, resultado.resultados().get(2).idCita());
+        assertEquals("Paciente con ID 99 no encontrado.", resultado.resultados().get(1).mensaje());
+        assertEquals("El médico no está disponible en ese horario.", resultado.resultados().get(5).mensaje());
+
+        // Un solo lote JDBC y una sola entrada de auditoría para todo el lote
+        verify(jdbcTemplate, times(1)).execute(insercion());
+        verify(monitoriaService, times(1)).registrarAccion(eq("cita"), eq("CREATE_LOTE"), eq(5), contains("[100, 101]"));
+
+        // Las citas creadas quedan marcadas en el índice sin recargar el día
+        assertTrue(indice.estaOcupado(1, FECHA, LocalTime.of(8, 0), 30));
+        verify(citaRepository, times(1)).findCitasOcupadas(1, FECHA);
+    }
+
+    @Test
+    void siLaBaseDeDatosRechazaElLoteSeReintentaCitaPorCita() {
+        when(jdbcTemplate.execute(insercion()))
+                .thenThrow(solapamiento())
+                .thenReturn(List.of(200L))
+                .thenThrow(solapamiento());
+
+        ResultadoLoteDTO resultado = servicio.crear(loteMixto(), 5);
+
+        assertEquals(1, resultado.creadas());
+        assertEquals(201, resultado.resultados().get(0).estado());
+        assertEquals(200, resultado.resultados().get(0).idCita());
+        assertEquals(409, resultado.resultados().get(2).estado());
+        verify(jdbcTemplate, times(3)).execute(insercion());
+
+        // El día se descartó del índice y se vuelve a cargar en la siguiente consulta
+        indice.estaOcupado(1, FECHA, LocalTime.of(8, 0), 30);
+        verify(citaRepository, times(2)).findCitasOcupadas(1, FECHA);
+    }
+
+    @Test
+    void conBloqueoDistribuidoLosReintentosUsanSavepointsDeLaMismaTransaccion() throws Exception {
+        // Transacción del advisory lock: la única que se abre en todo el lote
+        PlatformTransactionManager transacciones = Mockito.mock(PlatformTransactionManager.class);
+        when(transacciones.getTransaction(any())).thenAnswer(inv -> {
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(inv -> {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            return null;
+        }).when(transacciones).commit(any());
+        servicio = new ReservaLoteService(pacienteRepository, medicoRepository, cacheReferencia, indice,
+                new CoordinadorReservas(new TransactionTemplate(transacciones), jdbcTemplate, indice,
+                        new SimpleMeterRegistry(), 16, true),
+                monitoriaService, jdbcTemplate, secuencias, transacciones);
+
+        // El lote choca con la base de datos; en el reintento la primera cita entra y la segunda choca
+        Connection con = Mockito.mock(Connection.class);
+        Savepoint savepoint = Mockito.mock(Savepoint.class);
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+        when(con.setSavepoint()).thenReturn(savepoint);
+        when(con.prepareStatement(anyString())).thenReturn(ps);
+        SQLException cruce = new SQLException("conflicting key value violates exclusion constraint", "23P01");
+        when(ps.executeBatch()).thenThrow(cruce).thenReturn(new int[] {1}).thenThrow(cruce);
+        when(jdbcTemplate.execute(insercion())).thenAnswer(inv -> {
+            try {
+                return inv.<ConnectionCallback<List<Long>>>getArgument(0).doInConnection(con);
+            } catch (SQLException e) {
+                throw solapamiento();
+            }
+        });
+
+        ResultadoLoteDTO resultado = servicio.crear(loteMixto(), 5);
+
+        assertEquals(1, resultado.creadas());
+        assertEquals(201, resultado.resultados().get(0).estado());
+        assertEquals(409, resultado.resultados().get(2).estado());
+        verify(transacciones, times(1)).getTransaction(any());
+        verify(transacciones).commit(any());
+        verify(con, times(3)).setSavepoint();
+        verify(con, times(2)).rollback(savepoint);
+        verify(con).releaseSavepoint(savepoint);
+        verify(con, never()).rollback();
+    }
+
+    @Test
+    void otrosErroresDeIntegridadSePropaganYLimpianElIndice() {
+        when(jdbcTemplate.execute(insercion()))
+                .thenThrow(new DataIntegrityViolationException("fk", new SQLException("fk", "23503")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> servicio.crear(loteMixto(), 5));
+
+        verifyNoInteractions(monitoriaService);
+        assertFalse(indice.estaOcupado(1, FECHA, LocalTime.of(8, 0), 30));
+    }
+
+    @Test
+    void unLoteSinCitasValidasNoEscribeNada() {
+        ResultadoLoteDTO resultado = servicio.crear(List.of(cita(99, LocalTime.of(8, 0))), 5);
+
+        assertEquals(0, resultado.creadas());
+        verifyNoInteractions(jdbcTemplate, monitoriaService);
+    }
+}
@@ -0,0 +1,225 @@
+package com.healpoint.service;
+
+import com.healpoint.dto.ResumenAuditoriaDTO;
+import com.healpoint.entity.Monitoria;
+import com.healpoint.repository.MonitoriaResumenHoraRepository;
+import com.healpoint.repository.MonitoriaResumenHoraRepositoryCustom.Agrupacion;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class ResumenAuditoriaServiceTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2030, 3, 5, 10, 20);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MonitoriaResumenHoraRepository resumenRepository;
+
+    private ResumenAuditoriaService resumen;
+
+    @BeforeEach
+    void setUp() {
+        Clock reloj = Clock.fixed(AHORA.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        resumen = new ResumenAuditoriaService(jdbcTemplate, transactionTemplate, entityManagerFactory, reloj);
+    }
+
+    private long cantidad(LocalDateTime hora, String tabla, String accion) {
+        List<Long> cantidades = jdbcTemplate.queryForList(
+                "SELECT cantidad FROM monitoria_resumen_hora WHERE hora = ? AND tabla_afectada = ? AND accion = ?",
+                Long.class, hora, tabla, accion);
+        return cantidades.isEmpty() ? 0 : cantidades.get(0);
+    }
+
+    private void registrarCruda(String tabla, String accion, LocalDateTime fecha) {
+        Monitoria monitoria = new Monitoria(tabla, accion, null, "Prueba");
+        monitoria.setFecha(fecha);
+        em.persist(monitoria);
+    }
+
+    @Test
+    void cuentaAccionesConcurrentesSinPerderNinguna() throws Exception {
+        String[] acciones = {"CREATE", "UPDATE", "DELETE"};
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tareas.add(hilos.submit(() -> {
+                for (int i = 0; i < 6_000; i++) {
+                    resumen.registrar("cita", acciones[i % 3], AHORA.minusMinutes(i % 2 == 0 ? 0 : 30));
+                }
+            }));
+        }
+        // Se vacía mientras los hilos siguen contando
+        while (!tareas.stream().allMatch(Future::isDone)) {
+            resumen.vaciar();
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        hilos.shutdown();
+        resumen.vaciar();
+
+        long total = jdbcTemplate.queryForObject("SELECT SUM(cantidad) FROM monitoria_resumen_hora", Long.class);
+        assertEquals(8 * 6_000, total);
+        // i par: 10:00; i impar: 9:00 (10:20 - 30 minutos = 9:50)
+        assertEquals(8 * 1_000, cantidad(LocalDateTime.of(2030, 3, 5, 10, 0), "cita", "CREATE"));
+        assertEquals(8 * 1_000, cantidad(LocalDateTime.of(2030, 3, 5, 9, 0), "cita", "CREATE"));
+    }
+
+    @Test
+    void noSePierdenAccionesDeHorasCerradasContadasMientrasSeVacia() throws Exception {
+        // Una hora ya cerrada: su contador se quita del mapa en cada vaciado
+        LocalDateTime antigua = AHORA.minusHours(5);
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            tareas.add(hilos.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    resumen.registrar("cita", "CREATE", antigua);
+                }
+            }));
+        }
+        while (!tareas.stream().allMatch(Future::isDone)) {
+            resumen.vaciar();
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        hilos.shutdown();
+        resumen.vaciar();
+
+        assertEquals(4 * 20_000, cantidad(antigua.truncatedTo(ChronoUnit.HOURS), "cita", "CREATE"));
+    }
+
+    @Test
+    void cadaVaciadoSumaALoQueYaHabia() {
+        LocalDateTime hora = LocalDateTime.of(2030, 3, 5, 10, 0);
+        resumen.registrar("usuario", "UPDATE", AHORA);
+        resumen.registrar("usuario", "UPDATE", AHORA.minusMinutes(5));
+        resumen.vaciar();
+        assertEquals(2, cantidad(hora, "usuario", "UPDATE"));
+
+        resumen.vaciar();
+        assertEquals(2, cantidad(hora, "usuario", "UPDATE"));
+
+        for (int i = 0; i < 3; i++) {
+            resumen.registrar("usuario", "UPDATE", AHORA);
+        }
+        resumen.vaciar();
+        assertEquals(5, cantidad(hora, "usuario", "UPDATE"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void siFallaLaEscrituraLasCantidadesSeEscribenEnElSiguienteIntento() {
+        JdbcTemplate falla = Mockito.mock(JdbcTemplate.class);
+        List<Integer> escritas = new ArrayList<>();
+        when(falla.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"))
+                .thenAnswer(inv -> {
+                    escritas.add(((Collection<?>) inv.getArgument(1)).size());
+                    return new int[0][];
+                });
+        ResumenAuditoriaService servicio = new ResumenAuditoriaService(
+                falla, transactionTemplate, entityManagerFactory, Clock.systemDefaultZone());
+
+        servicio.registrar("cita", "CREATE", LocalDateTime.now());
+        servicio.registrar("cita", "DELETE", LocalDateTime.now());
+        servicio.vaciar();
+        assertTrue(escritas.isEmpty());
+
+        servicio.vaciar();
+        assertEquals(List.of(2), escritas);
+    }
+
+    @Test
+    void recalcularReemplazaElResumenDeLasHorasCerradas() {
+        LocalDateTime ayer = LocalDateTime.of(2030, 3, 4, 15, 0);
+        registrarCruda("cita", "CREATE", ayer.plusMinutes(1));
+        registrarCruda("cita", "CREATE", ayer.plusMinutes(59));
+        registrarCruda("cita", "DELETE", ayer.plusHours(3));
+        // La hora actual sigue contándose en memoria: no se recalcula
+        registrarCruda("cita", "CREATE", AHORA);
+        em.flush();
+
+        jdbcTemplate.update("INSERT INTO monitoria_resumen_hora (hora, tabla_afectada, accion, cantidad) VALUES (?, 'cita', 'CREATE', 99)", ayer);
+        jdbcTemplate.update("INSERT INTO monitoria_resumen_hora (hora, tabla_afectada, accion, cantidad) VALUES (?, 'cita', 'UPDATE', 7)", ayer);
+
+        resumen.recalcular(ayer.minusDays(2), AHORA.plusDays(1));
+
+        assertEquals(2, cantidad(ayer, "cita", "CREATE"));
+        assertEquals(0, cantidad(ayer, "cita", "UPDATE"));
+        assertEquals(1, cantidad(ayer.plusHours(3), "cita", "DELETE"));
+        assertEquals(0, cantidad(LocalDateTime.of(2030, 3, 5, 10, 0), "cita", "CREATE"));
+    }
+
+    @Test
+    void elResumenSeConsultaPorHoraDiaOTotal() {
+        resumen.registrar("cita", "CREATE", LocalDateTime.of(2030, 3, 4, 8, 10));
+        resumen.registrar("cita", "CREATE", LocalDateTime.of(2030, 3, 4, 8, 50));
+        resumen.registrar("cita", "CREATE", LocalDateTime.of(2030, 3, 4, 17, 0));
+        resumen.registrar("cita", "UPDATE", LocalDateTime.of(2030, 3, 5, 9, 0));
+        resumen.registrar("usuario", "CREATE", LocalDateTime.of(2030, 3, 5, 9, 30));
+        resumen.registrar("cita", "CREATE", LocalDateTime.of(2030, 3, 6, 9, 0));
+        resumen.vaciar();
+
+        LocalDateTime desde = LocalDateTime.of(2030, 3, 4, 0, 0);
+        LocalDateTime hasta = LocalDateTime.of(2030, 3, 6, 0, 0);
+
+        assertEquals(List.of(
+                        new ResumenAuditoriaDTO(LocalDateTime.of(2030, 3, 4, 8, 0), "cita", "CREATE", 2L),
+                        new ResumenAuditoriaDTO(LocalDateTime.of(2030, 3, 4, 17, 0), "cita", "CREATE", 1L),
+                        new ResumenAuditoriaDTO(LocalDateTime.of(2030, 3, 5, 9, 0), "cita", "UPDATE", 1L),
+                        new ResumenAuditoriaDTO(LocalDateTime.of(2030, 3, 5, 9, 0), "usuario", "CREATE", 1L)),
+                resumenRepository.resumir(desde, hasta, null, null, Agrupacion.HORA));
+
+        assertEquals(List.of(
+                        new ResumenAuditoriaDTO(LocalDateTime.of(2030, 3, 4, 0, 0), "cita", "CREATE", 3L),
+                        new ResumenAuditoriaDTO(LocalDateTime.of(2030, 3, 5, 0, 0), "cita", "UPDATE", 1L)),
+                resumenRepository.resumir(desde, hasta, "cita", null, Agrupacion.DIA));
+
+        assertEquals(List.of(
+                        new ResumenAuditoriaDTO("cita", "CREATE", 3L),
+                        new ResumenAuditoriaDTO("usuario", "CREATE", 1L)),
+                resumenRepository.resumir(desde, hasta, null, "CREATE", Agrupacion.TOTAL));
+    }
+}
@@ -0,0 +1,71 @@
+package com.healpoint.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenSesionServiceTest {
+
+    private static final byte[] SECRETO = "clave-de-prueba-con-32-caracteres!".getBytes(StandardCharsets.UTF_8);
+    private static final Instant LOGIN = Instant.parse("2030-03-04T08:00:00Z");
+
+    private static TokenSesionService servicio(byte[] secreto, Instant ahora) {
+        return new TokenSesionService(secreto, Duration.ofHours(12), Clock.fixed(ahora, ZoneOffset.UTC));
+    }
+
+    @Test
+    void elTokenEmitidoSeVerificaConElUsuarioYElRol() {
+        String token = servicio(SECRETO, LOGIN).emitir(15, 3);
+
+        SesionUsuario sesion = servicio(SECRETO, LOGIN.plusSeconds(60)).verificar(token).orElseThrow();
+
+        assertEquals(15, sesion.idUsuario());
+        assertEquals(3, sesion.idRol());
+        assertEquals(LOGIN.plus(Duration.ofHours(12)), sesion.expira());
+    }
+
+    @Test
+    void elTokenVencidoSeRechaza() {
+        String token = servicio(SECRETO, LOGIN).emitir(15, 3);
+
+        assertTrue(servicio(SECRETO, LOGIN.plus(Duration.ofHours(12)).minusSeconds(1)).verificar(token).isPresent());
+        assertTrue(servicio(SECRETO, LOGIN.plus(Duration.ofHours(12))).verificar(token).isEmpty());
+    }
+
+    @Test
+    void elTokenAlteradoOFirmadoConOtraClaveSeRechaza() {
+        TokenSesionService tokens = servicio(SECRETO, LOGIN);
+        String token = tokens.emitir(15, 3);
+        String firma = token.substring(token.indexOf('.'));
+
+        // Mismo token cambiando el usuario por el 1, con la firma original
+        String otroUsuario = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("1:3:" + LOGIN.plus(Duration.ofHours(12)).getEpochSecond()).getBytes(StandardCharsets.US_ASCII));
+        assertTrue(tokens.verificar(otroUsuario + firma).isEmpty());
+
+        byte[] otraClave = "otra-clave-de-prueba-de-32-bytes!!".getBytes(StandardCharsets.UTF_8);
+        assertTrue(tokens.verificar(servicio(otraClave, LOGIN).emitir(15, 3)).isEmpty());
+    }
+
+    @Test
+    void losTokensMalFormadosSeRechazanSinExcepciones() {
+        TokenSesionService tokens = servicio(SECRETO, LOGIN);
+
+        for (String token : new String[]{null, "", ".", "abc", "abc.", ".abc", "a.b.c", "%%%.%%%", "YWJj.YWJj"}) {
+            assertTrue(tokens.verificar(token).isEmpty(), "Aceptó " + token);
+        }
+    }
+
+    @Test
+    void elSecretoDebeTenerAlMenos32Bytes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> servicio("corta".getBytes(StandardCharsets.UTF_8), LOGIN));
+    }
+}
@@ -1,43 +1,67 @@
 package com.healpoint.service;
 
-import com.healpoint.entity.Disponibilidad;
+import com.healpoint.entity.*;
 import com.healpoint.repository.DisponibilidadRepository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.*;
 
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(DisponibilidadService.class)
 public class DisponibilidadServiceTest {
 
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
     private DisponibilidadRepository disponibilidadRepository;
+
+    @Autowired
     private DisponibilidadService disponibilidadService;
 
+    private Medico medico;
+
     @BeforeEach
     void setUp() {
-        disponibilidadRepository = Mockito.mock(DisponibilidadRepository.class);
-        disponibilidadService = new DisponibilidadService(disponibilidadRepository);
+        Estado activo = em.persist(new Estado("ACTIVA", null));
+        Rol rol = em.persist(new Rol("Medico", null, activo));
+        Usuario usuario = em.persist(new Usuario("Carlos", "Gomez", "medico@healpoint.com", "Calle 3",
+                "3011111111", LocalDate.of(1985, 3, 10), "med123", rol, activo));
+
+        medico = new Medico();
+        medico.setEspecialidad("Medicina General");
+        medico.setEstado(activo);
+        medico.setUsuario(usuario);
+        medico = em.persist(medico);
+    }
+
+    private void crearDisponibilidad(LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        Disponibilidad d = new Disponibilidad();
+        d.setMedico(medico);
+        d.setFecha(fecha);
+        d.setHora_inicio(inicio);
+        d.setHora_fin(fin);
+        disponibilidadRepository.save(d);
     }
 
     @Test
     void medicoDisponible_CuandoHoraDentroDelRango() {
 
-        Disponibilidad d = new Disponibilidad();
-        d.setFecha(LocalDate.of(2025, 1, 10));
-        d.setHora_inicio(LocalTime.of(8, 0));
-        d.setHora_fin(LocalTime.of(12, 0));
-
-        when(disponibilidadRepository.findByMedico(1))
-                .thenReturn(List.of(d));
+        crearDisponibilidad(LocalDate.of(2025, 1, 10), LocalTime.of(8, 0), LocalTime.of(12, 0));
 
         boolean disponible = disponibilidadService.medicoDisponible(
-                1,
+                medico.getId_medico(),
                 LocalDate.of(2025, 1, 10),
                 LocalTime.of(9, 0)
         );
@@ -48,16 +72,10 @@ public class DisponibilidadServiceTest {
     @Test
     void medicoNoDisponible_CuandoHoraFueraDelRango() {
 
-        Disponibilidad d = new Disponibilidad();
-        d.setFecha(LocalDate.of(2025, 1, 10));
-        d.setHora_inicio(LocalTime.of(8, 0));
-        d.setHora_fin(LocalTime.of(12, 0));
-
-        when(disponibilidadRepository.findByMedico(1))
-                .thenReturn(List.of(d));
+        crearDisponibilidad(LocalDate.of(2025, 1, 10), LocalTime.of(8, 0), LocalTime.of(12, 0));
 
         boolean disponible = disponibilidadService.medicoDisponible(
-                1,
+                medico.getId_medico(),
                 LocalDate.of(2025, 1, 10),
                 LocalTime.of(13, 0)
         );
@@ -68,11 +86,8 @@ public class DisponibilidadServiceTest {
     @Test
     void medicoNoDisponible_SiNoHayDisponibilidades() {
 
-        when(disponibilidadRepository.findByMedico(1))
-                .thenReturn(List.of());
-
         boolean disponible = disponibilidadService.medicoDisponible(
-                1,
+                medico.getId_medico(),
                 LocalDate.of(2025, 1, 10),
                 LocalTime.of(9, 0)
         );
@@ -83,21 +98,11 @@ public class DisponibilidadServiceTest {
     @Test
     void medicoDisponible_VariosRangos() {
 
-        Disponibilidad manana = new Disponibilidad();
-        manana.setFecha(LocalDate.of(2025, 1, 10));
-        manana.setHora_inicio(LocalTime.of(8, 0));
-        manana.setHora_fin(LocalTime.of(12, 0));
-
-        Disponibilidad tarde = new Disponibilidad();
-        tarde.setFecha(LocalDate.of(2025, 1, 10));
-        tarde.setHora_inicio(LocalTime.of(14, 0));
-        tarde.setHora_fin(LocalTime.of(18, 0));
-
-        when(disponibilidadRepository.findByMedico(1))
-                .thenReturn(List.of(manana, tarde));
+        crearDisponibilidad(LocalDate.of(2025, 1, 10), LocalTime.of(8, 0), LocalTime.of(12, 0));
+        crearDisponibilidad(LocalDate.of(2025, 1, 10), LocalTime.of(14, 0), LocalTime.of(18, 0));
 
         boolean disponible = disponibilidadService.medicoDisponible(
-                1,
+                medico.getId_medico(),
                 LocalDate.of(2025, 1, 10),
                 LocalTime.of(16, 0)
         );
@@ -108,20 +113,25 @@ public class DisponibilidadServiceTest {
     @Test
     void medicoNoDisponible_CuandoFechaNoCoincide() {
 
-        Disponibilidad d = new Disponibilidad();
-        d.setFecha(LocalDate.of(2025, 1, 11)); // fecha distinta
-        d.setHora_inicio(LocalTime.of(8, 0));
-        d.setHora_fin(LocalTime.of(12, 0));
-
-        when(disponibilidadRepository.findByMedico(1))
-                .thenReturn(List.of(d));
+        crearDisponibilidad(LocalDate.of(2025, 1, 11), LocalTime.of(8, 0), LocalTime.of(12, 0)); // fecha distinta
 
         boolean disponible = disponibilidadService.medicoDisponible(
-                1,
+                medico.getId_medico(),
                 LocalDate.of(2025, 1, 10),
                 LocalTime.of(9, 0)
         );
 
         assertFalse(disponible);
     }
+
+    @Test
+    void medicoDisponible_EnLosLimitesDelRango() {
+
+        crearDisponibilidad(LocalDate.of(2025, 1, 10), LocalTime.of(8, 0), LocalTime.of(12, 0));
+
+        assertTrue(disponibilidadService.medicoDisponible(
+                medico.getId_medico(), LocalDate.of(2025, 1, 10), LocalTime.of(8, 0)));
+        assertTrue(disponibilidadService.medicoDisponible(
+                medico.getId_medico(), LocalDate.of(2025, 1, 10), LocalTime.of(12, 0)));
+    }
 }
@@ -2,10 +2,26 @@ package com.healpoint.validator;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+import java.util.regex.Pattern;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class EmailValidatorTest {
 
+    // Validación anterior, con la que el recorrido debe coincidir
+    private static boolean esCorreoValidoRegex(String correo) {
+        if (correo == null || correo.trim().isEmpty()) {
+            return false;
+        }
+        return Pattern.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$", correo);
+    }
+
+    // Letras de ambos conjuntos, los separadores, espacios, saltos de línea y caracteres
+    // fuera de ASCII o justo en los bordes de los rangos permitidos
+    private static final char[] ALFABETO =
+            "aZz09+_.-@@@ \t\n\r!#$%&'*/=?^`{|}~()[]:;,<>\"\\/@AM@ñéÁ\u0080\u00ff\u2028".toCharArray();
+
     @Test
     void testCorreoValido() {
         assertTrue(EmailValidator.esCorreoValido("usuario@example.com"));
@@ -40,4 +56,41 @@ class EmailValidatorTest {
     void testCorreoConCaracteresInvalidos() {
         assertFalse(EmailValidator.esCorreoValido("user!@mail.com"));
     }
+
+    @Test
+    void coincideConLaExpresionRegularEnTextosAleatorios() {
+        Random random = new Random(20300304L);
+        for (int n = 0; n < 200_000; n++) {
+            StringBuilder correo = new StringBuilder();
+            int largo = random.nextInt(12);
+            for (int i = 0; i < largo; i++) {
+                correo.append(ALFABETO[random.nextInt(ALFABETO.length)]);
+            }
+            String texto = correo.toString();
+            assertEquals(esCorreoValidoRegex(texto), EmailValidator.esCorreoValido(texto), () -> "Correo: [" + texto + "]");
+        }
+    }
+
+    @Test
+    void coincideConLaExpresionRegularEnCorreosCasiValidos() {
+        // Correos válidos con un carácter cambiado, quitado o agregado en cualquier posición
+        Random random = new Random(20300305L);
+        String[] bases = {"usuario@example.com", "a@b", "ana.perez+citas@clinica-norte.com.co", "x_y-z@1.2"};
+        for (int n = 0; n < 100_000; n++) {
+            StringBuilder correo = new StringBuilder(bases[random.nextInt(bases.length)]);
+            int posicion = random.nextInt(correo.length() + 1);
+            char c = random.nextInt(4) == 0 ? (char) random.nextInt(0x3000) : ALFABETO[random.nextInt(ALFABETO.length)];
+            switch (random.nextInt(3)) {
+                case 0 -> correo.insert(posicion, c);
+                case 1 -> {
+                    if (posicion < correo.length()) correo.deleteCharAt(posicion);
+                }
+                default -> {
+                    if (posicion < correo.length()) correo.setCharAt(posicion, c);
+                }
+            }
+            String texto = correo.toString();
+            assertEquals(esCorreoValidoRegex(texto), EmailValidator.esCorreoValido(texto), () -> "Correo: [" + texto + "]");
+        }
+    }
 }
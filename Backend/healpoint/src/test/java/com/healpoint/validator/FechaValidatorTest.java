@@ -2,7 +2,11 @@ package com.healpoint.validator;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,4 +33,23 @@ class FechaValidatorTest {
     void testFechaNulaEsInvalida() {
         assertFalse(FechaValidator.esFechaValida(null));
     }
+
+    @Test
+    void conRelojFijoCoincideConLocalDateNow() {
+        // Zonas con y sin cambio de horario, a ambos lados de UTC
+        ZoneId[] zonas = {ZoneId.of("America/Bogota"), ZoneId.of("UTC"), ZoneId.of("America/New_York"),
+                ZoneId.of("Europe/Madrid"), ZoneId.of("Pacific/Chatham"), ZoneId.of("Asia/Kolkata")};
+        Random random = new Random(20300304L);
+        for (int n = 0; n < 50_000; n++) {
+            // Instantes entre 1970 y 2100, con precisión de milisegundos
+            Instant instante = Instant.ofEpochMilli((long) (random.nextDouble() * 4_102_444_800_000L));
+            Clock reloj = Clock.fixed(instante, zonas[random.nextInt(zonas.length)]);
+            LocalDate hoy = LocalDate.now(reloj);
+            LocalDate fecha = hoy.plusDays(random.nextInt(5) - 2);
+
+            boolean esperado = !fecha.isBefore(hoy);
+            assertEquals(esperado, new FechaValidator(reloj).esValida(fecha), () -> fecha + " con " + reloj);
+        }
+        assertFalse(new FechaValidator(Clock.systemDefaultZone()).esValida(null));
+    }
 }
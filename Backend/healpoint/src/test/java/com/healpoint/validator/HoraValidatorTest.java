@@ -2,13 +2,67 @@ package com.healpoint.validator;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class HoraValidatorTest {
 
+    // Zonas con y sin cambio de horario, a ambos lados de UTC
+    private static final ZoneId[] ZONAS = {ZoneId.of("America/Bogota"), ZoneId.of("UTC"),
+            ZoneId.of("America/New_York"), ZoneId.of("Europe/Madrid"), ZoneId.of("Pacific/Chatham")};
+
+    // Reloj que solo avanza cuando la prueba lo pide
+    private static class RelojManual extends Clock {
+        private final ZoneId zona;
+        private Instant ahora;
+
+        RelojManual(Instant ahora, ZoneId zona) {
+            this.ahora = ahora;
+            this.zona = zona;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zona;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new RelojManual(ahora, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+
+    // Implementación anterior de esHoraDelPasado, con el reloj dado
+    private static boolean esHoraDelPasadoAnterior(LocalDate fecha, LocalTime hora, Clock reloj) {
+        if (fecha.equals(LocalDate.now(reloj))) {
+            return hora.isBefore(LocalTime.now(reloj));
+        }
+        return false;
+    }
+
+    // Hoy o un día cercano, y una hora cercana a la actual o cualquiera
+    private static void comparar(HoraValidator validador, Clock reloj, Random random) {
+        LocalDate fecha = LocalDate.now(reloj).plusDays(random.nextInt(3) - 1);
+        LocalTime hora = random.nextBoolean()
+                ? LocalTime.now(reloj).plusNanos((random.nextInt(2_000_001) - 1_000_000) * 1_000L)
+                : LocalTime.ofNanoOfDay((long) (random.nextDouble() * 86_400_000_000_000L));
+
+        boolean esperado = esHoraDelPasadoAnterior(fecha, hora, reloj);
+        assertEquals(esperado, validador.esDelPasado(fecha, hora), () -> fecha + " " + hora + " con " + reloj.instant());
+    }
+
     @Test
     void testHoraDentroDeRango() {
         LocalTime hora = LocalTime.of(10, 30);
@@ -67,4 +121,31 @@ class HoraValidatorTest {
 
         assertFalse(HoraValidator.esHoraDelPasado(futura, cualquiera));
     }
+
+    @Test
+    void conRelojFijoCoincideConLocalTimeNow() {
+        Random random = new Random(20300304L);
+        for (int n = 0; n < 50_000; n++) {
+            // Instantes entre 1970 y 2100, con precisión de milisegundos
+            Instant instante = Instant.ofEpochMilli((long) (random.nextDouble() * 4_102_444_800_000L));
+            Clock reloj = Clock.fixed(instante, ZONAS[random.nextInt(ZONAS.length)]);
+            comparar(new HoraValidator(reloj), reloj, random);
+        }
+    }
+
+    @Test
+    void unMismoValidadorSigueAlRelojEnMedianocheYCambiosDeHorario() {
+        Random random = new Random(20300305L);
+        for (ZoneId zona : ZONAS) {
+            // Un año con pasos irregulares, cruzando medianoches y cambios de horario,
+            // con algunos retrocesos del reloj
+            RelojManual reloj = new RelojManual(Instant.parse("2030-01-01T00:00:00Z"), zona);
+            HoraValidator validador = new HoraValidator(reloj);
+            while (reloj.ahora.isBefore(Instant.parse("2031-01-01T00:00:00Z"))) {
+                long paso = random.nextInt(10) == 0 ? -random.nextInt(7_200_000) : random.nextInt(14_400_000);
+                reloj.ahora = reloj.ahora.plus(Duration.ofMillis(paso));
+                comparar(validador, reloj, random);
+            }
+        }
+    }
 }
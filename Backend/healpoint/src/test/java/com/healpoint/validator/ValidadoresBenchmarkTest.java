@@ -0,0 +1,112 @@
+package com.healpoint.validator;
+
+import com.healpoint.Microbenchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Microbenchmarks de los validadores que se ejecutan en cada creación o edición de
+ * usuarios, citas y disponibilidades. Los resultados quedan en
+ * target/benchmarks/ValidadoresBenchmarkTest.json.
+ *
+ * EmailValidator se compara con la validación anterior por expresión regular, y se
+ * comprueba que los validadores no asignen memoria en cada llamada.
+ *
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=ValidadoresBenchmarkTest
+ */
+@Tag("benchmark")
+public class ValidadoresBenchmarkTest {
+
+    private static final String[] CORREOS_VALIDOS = {
+            "ana.perez@healpoint.com", "carlos_gomez+citas@clinica-norte.com.co",
+            "m@h.co", "paciente12345@correo.example.org"};
+
+    private static final String[] CORREOS_INVALIDOS = {
+            "ana.perez.healpoint.com", "carlos gomez@healpoint.com", "medico@", "  "};
+
+    private static final LocalTime[] HORAS = {
+            LocalTime.of(5, 59), LocalTime.of(6, 0), LocalTime.of(12, 30), LocalTime.of(20, 0), LocalTime.of(21, 15)};
+
+    private static final LocalDate[] FECHAS = {
+            LocalDate.now().minusDays(1), LocalDate.now(), LocalDate.now().plusDays(30)};
+
+    // Validación anterior de EmailValidator, como referencia
+    private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$";
+
+    private static Microbenchmark benchmark;
+
+    private final FechaValidator fechaValidator = new FechaValidator(Clock.systemDefaultZone());
+    private final HoraValidator horaValidator = new HoraValidator(Clock.systemDefaultZone());
+
+    // Recorre las entradas para que el JIT no pueda plegar una constante
+    private int i;
+
+    @BeforeAll
+    static void iniciar() {
+        benchmark = new Microbenchmark(ValidadoresBenchmarkTest.class.getSimpleName());
+    }
+
+    @AfterAll
+    static void escribir() {
+        benchmark.escribir();
+    }
+
+    @Test
+    void correo() {
+        Microbenchmark.Medicion regex = benchmark.medir("esCorreoValido_regex",
+                () -> Pattern.matches(EMAIL_REGEX, CORREOS_VALIDOS[i++ & 3]));
+        Microbenchmark.Medicion valido = benchmark.medir("esCorreoValido_valido",
+                () -> EmailValidator.esCorreoValido(CORREOS_VALIDOS[i++ & 3]));
+        Microbenchmark.Medicion invalido = benchmark.medir("esCorreoValido_invalido",
+                () -> EmailValidator.esCorreoValido(CORREOS_INVALIDOS[i++ & 3]));
+
+        assertTrue(valido.nanosPorOperacion() < regex.nanosPorOperacion() / 2,
+                "El recorrido no es más rápido que la expresión regular: " + valido + " vs " + regex);
+        assertSinAsignaciones(valido);
+        assertSinAsignaciones(invalido);
+    }
+
+    @Test
+    void hora() {
+        assertSinAsignaciones(benchmark.medir("esHoraEnRango",
+                () -> HoraValidator.esHoraEnRango(HORAS[i++ % HORAS.length])));
+        benchmark.medir("esHoraDelPasado_now",
+                () -> esHoraDelPasadoAnterior(FECHAS[i++ % FECHAS.length], HORAS[i % HORAS.length]));
+        assertSinAsignaciones(benchmark.medir("esHoraDelPasado",
+                () -> HoraValidator.esHoraDelPasado(FECHAS[i++ % FECHAS.length], HORAS[i % HORAS.length])));
+        assertSinAsignaciones(benchmark.medir("esDelPasado_reloj",
+                () -> horaValidator.esDelPasado(FECHAS[i++ % FECHAS.length], HORAS[i % HORAS.length])));
+    }
+
+    @Test
+    void fecha() {
+        benchmark.medir("esFechaValida_now",
+                () -> !FECHAS[i++ % FECHAS.length].isBefore(LocalDate.now()));
+        assertSinAsignaciones(benchmark.medir("esFechaValida",
+                () -> FechaValidator.esFechaValida(FECHAS[i++ % FECHAS.length])));
+        assertSinAsignaciones(benchmark.medir("esValida_reloj",
+                () -> fechaValidator.esValida(FECHAS[i++ % FECHAS.length])));
+    }
+
+    // Implementación anterior de HoraValidator.esHoraDelPasado, como referencia
+    private static boolean esHoraDelPasadoAnterior(LocalDate fecha, LocalTime hora) {
+        if (fecha.equals(LocalDate.now())) {
+            return hora.isBefore(LocalTime.now());
+        }
+        return false;
+    }
+
+    private static void assertSinAsignaciones(Microbenchmark.Medicion medicion) {
+        assertTrue(medicion.bytesPorOperacion() < 1, "El validador asigna memoria: " + medicion);
+    }
+}
@@ -7,4 +7,26 @@ const api = axios.create({
   }
 });
 
+// Token de sesión que devuelve el login (ver Login.jsx). El login nunca lo envía:
+// un token vencido de una sesión anterior no debe impedir iniciar sesión de nuevo
+api.interceptors.request.use((config) => {
+  const token = localStorage.getItem("tokenSesion");
+  if (token && config.url !== "usuario/login") {
+    config.headers.Authorization = `Bearer ${token}`;
+  }
+  return config;
+});
+
+// Un 401 significa que el token ya no sirve: se borra para que las siguientes
+// peticiones no lo vuelvan a enviar
+api.interceptors.response.use(
+  (response) => response,
+  (error) => {
+    if (error.response?.status === 401) {
+      localStorage.removeItem("tokenSesion");
+    }
+    return Promise.reject(error);
+  }
+);
+
 export default api;
\ No newline at end of file
@@ -380,6 +380,7 @@ export default function AgendaGlobal() {
   // Utilidades
   const handleLogout = useCallback(() => {
     localStorage.removeItem("usuario");
+    localStorage.removeItem("tokenSesion");
     localStorage.removeItem("adminLogueado");
     navigate("/login");
   }, [navigate]);
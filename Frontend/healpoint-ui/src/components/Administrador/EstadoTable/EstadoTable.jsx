@@ -76,6 +76,7 @@ export default function EstadoTable() {
     }).then((result) => {
       if (result.isConfirmed) {
         localStorage.removeItem("usuario");
+        localStorage.removeItem("tokenSesion");
         localStorage.removeItem("adminLogueado");
         navigate("/login");
       }
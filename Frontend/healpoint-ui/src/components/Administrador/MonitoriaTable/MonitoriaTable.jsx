@@ -123,6 +123,7 @@ export default function MonitoriaTable() {
     }).then((result) => {
       if (result.isConfirmed) {
         localStorage.removeItem("usuario");
+        localStorage.removeItem("tokenSesion");
         localStorage.removeItem("adminLogueado");
         navigate("/login");
       }
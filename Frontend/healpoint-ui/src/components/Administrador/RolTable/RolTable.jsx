@@ -107,6 +107,7 @@ export default function RolTable() {
     }).then((result) => {
       if (result.isConfirmed) {
         localStorage.removeItem("usuario");
+        localStorage.removeItem("tokenSesion");
         localStorage.removeItem("adminLogueado");
         navigate("/login");
       }
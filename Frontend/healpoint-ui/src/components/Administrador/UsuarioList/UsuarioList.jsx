@@ -43,8 +43,7 @@ export default function UsuarioList() {
     idRol: "",
     idEstado: "2", // ACTIVA por defecto
     contrasena: "",
-    confirmarContrasena: "",
-    contrasenaOriginal: ""
+    confirmarContrasena: ""
   });
 
   const [formErrors, setFormErrors] = useState({});
@@ -125,6 +124,7 @@ export default function UsuarioList() {
   // ========================================
   const handleLogout = useCallback(() => {
     localStorage.removeItem("usuario");
+    localStorage.removeItem("tokenSesion");
     localStorage.removeItem("adminLogueado");
     navigate("/login");
   }, [navigate]);
@@ -254,8 +254,7 @@ export default function UsuarioList() {
       idRol: "",
       idEstado: "2", // ACTIVA por defecto
       contrasena: "",
-      confirmarContrasena: "",
-      contrasenaOriginal: ""
+      confirmarContrasena: ""
     });
     setFormErrors({});
     setShowModal(true);
@@ -274,8 +273,7 @@ export default function UsuarioList() {
       idRol: usuario.rol?.idRol || "",
       idEstado: usuario.estado?.idEstado || "2",
       contrasena: "",
-      confirmarContrasena: "",
-      contrasenaOriginal: usuario.contrasena || ""
+      confirmarContrasena: ""
     });
     setFormErrors({});
     setShowModal(true);
@@ -294,8 +292,7 @@ export default function UsuarioList() {
       idRol: "",
       idEstado: "2",
       contrasena: "",
-      confirmarContrasena: "",
-      contrasenaOriginal: ""
+      confirmarContrasena: ""
     });
     setFormErrors({});
   };
@@ -341,12 +338,10 @@ export default function UsuarioList() {
       } else {
         payload.idUsuario = selectedUsuario.idUsuario;
         
-        // Si el usuario ingresó una nueva contraseña, usarla
-        // Si no, enviar la contraseña original para que el backend la mantenga
+        // Solo se envía la contraseña si se ingresó una nueva; sin ella el backend
+        // conserva la actual
         if (formData.contrasena && formData.contrasena.trim() !== "") {
           payload.contrasena = formData.contrasena;
-        } else {
-          payload.contrasena = formData.contrasenaOriginal;
         }
         
         await usuarioService.actualizarUsuario(payload, idUsuarioEditor);
@@ -424,7 +419,6 @@ export default function UsuarioList() {
         direccion: usuario.direccion,
         telefono: usuario.telefono,
         fechaNacimiento: usuario.fechaNacimiento,
-        contrasena: usuario.contrasena,
         rol: {
           idRol: usuario.rol?.idRol
         },
@@ -45,6 +45,7 @@ export default function DashboardAdmin() {
 
   const handleLogout = useCallback(() => {
     localStorage.removeItem("usuario");
+    localStorage.removeItem("tokenSesion");
     localStorage.removeItem("adminLogueado");
     navigate("/login");
   }, [navigate]);
@@ -40,6 +40,7 @@ export default function DashboardMedico() {
 
   const handleLogout = useCallback(() => {
     localStorage.removeItem("usuario");
+    localStorage.removeItem("tokenSesion");
     localStorage.removeItem("medicoLogueado");
     navigate("/");
   }, [navigate]);
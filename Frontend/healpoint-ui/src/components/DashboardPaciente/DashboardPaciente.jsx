@@ -89,6 +89,7 @@ export default function DashboardPaciente() {
   // ================================
   const handleLogout = useCallback(() => {
     localStorage.removeItem("usuario");
+    localStorage.removeItem("tokenSesion");
     localStorage.removeItem("pacienteLogueado");
     navigate("/login");
   }, [navigate]);
@@ -114,12 +114,19 @@ function Login() {
 
     setIsLoading(true);
 
+    // El token de una sesión anterior ya no sirve
+    localStorage.removeItem("tokenSesion");
+
     try {
       const res = await usuarioService.login(form.correo, form.contrasena);
       const usuario = res.data;
 
       // Guardar en localStorage
       localStorage.setItem("usuario", JSON.stringify(usuario));
+      const token = res.headers["x-token-sesion"];
+      if (token) {
+        localStorage.setItem("tokenSesion", token);
+      }
 
       const rol = usuario.rol?.nombreRol?.toUpperCase();
 
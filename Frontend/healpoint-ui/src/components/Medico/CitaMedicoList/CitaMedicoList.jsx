@@ -461,6 +461,7 @@ export default function CitaMedicoList() {
   // ========================================
   const handleLogout = useCallback(() => {
     localStorage.removeItem("usuario");
+    localStorage.removeItem("tokenSesion");
     localStorage.removeItem("medicoLogueado");
     navigate("/login");
   }, [navigate]);
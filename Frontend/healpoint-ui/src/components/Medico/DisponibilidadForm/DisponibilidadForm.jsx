@@ -168,6 +168,7 @@ export default function DisponibilidadForm() {
 
   const handleLogout = useCallback(() => {
     localStorage.removeItem("usuario");
+    localStorage.removeItem("tokenSesion");
     localStorage.removeItem("medicoLogueado");
     navigate("/");
   }, [navigate]);
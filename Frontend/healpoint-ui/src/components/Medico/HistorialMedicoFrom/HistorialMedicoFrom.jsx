@@ -102,6 +102,7 @@ export default function HistorialMedicoForm() {
 
   const handleLogout = useCallback(() => {
     localStorage.removeItem("usuario");
+    localStorage.removeItem("tokenSesion");
     localStorage.removeItem("medicoLogueado");
     navigate("/");
   }, [navigate]);
@@ -392,6 +392,7 @@ export default function CitaForm() {
 
   const handleLogout = () => {
     localStorage.removeItem("usuario");
+    localStorage.removeItem("tokenSesion");
     localStorage.removeItem("pacienteLogueado");
     navigate("/login");
   };
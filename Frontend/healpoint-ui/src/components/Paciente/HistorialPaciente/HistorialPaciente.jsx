@@ -107,6 +107,7 @@ export default function HistorialPaciente() {
 
   const handleLogout = useCallback(() => {
     localStorage.removeItem("usuario");
+    localStorage.removeItem("tokenSesion");
     localStorage.removeItem("pacienteLogueado");
     navigate("/");
   }, [navigate]);